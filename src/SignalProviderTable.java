@@ -1,13 +1,15 @@
 import java.awt.Dimension;
 import java.util.logging.Logger;
 
-import javax.swing.SwingWorker;
+import javax.swing.SwingUtilities;
 
 import data.DataManager;
 import ui.MainFrame;
 import ui.SplashScreen;
 import utils.ApplicationConstants;
 import utils.MqlAnalyserConf;
+import utils.ProgressReporter;
+import utils.TaskScheduler;
 
 public class SignalProviderTable {
     private static final Logger LOGGER = Logger.getLogger(SignalProviderTable.class.getName());
@@ -26,28 +28,21 @@ public class SignalProviderTable {
         SplashScreen splash = new SplashScreen();
         splash.setVisible(true);
         
-        // Starte Laden in einem separaten Thread
-        SwingWorker<SignalProviderTable, Void> worker = new SwingWorker<SignalProviderTable, Void>() {
-            @Override
-            protected SignalProviderTable doInBackground() throws Exception {
-                return new SignalProviderTable(ApplicationConstants.ROOT_PATH, splash);
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    SignalProviderTable app = get();
-                    app.start();
-                    // Splash-Screen schließen
+        // Starte Laden über den TaskScheduler, gestartet wird im EDT
+        String appRootPath = rootPath;
+        TaskScheduler.getInstance().submit("Anwendung laden", TaskScheduler.Priority.INTERACTIVE,
+                token -> new SignalProviderTable(appRootPath, splash))
+            .onCompletionInEdt((app, error) -> {
+                if (error != null) {
+                    LOGGER.severe("Fehler beim Starten der Anwendung: " + error.getMessage());
+                    error.printStackTrace();
                     splash.dispose();
-                } catch (Exception e) {
-                    LOGGER.severe("Fehler beim Starten der Anwendung: " + e.getMessage());
-                    e.printStackTrace();
+                    return;
                 }
-            }
-        };
-        
-        worker.execute();
+                app.start();
+                // Splash-Screen schließen
+                splash.dispose();
+            });
     }
     
     public SignalProviderTable(String rootPathStr, SplashScreen splash) {
@@ -57,26 +52,31 @@ public class SignalProviderTable {
         this.config = new MqlAnalyserConf(rootPathStr);
         this.dataManager = new DataManager();
         
-        // Callbacks für Fortschritt und Status setzen
-        dataManager.setProgressCallback(progress -> {
-            splash.setProgress(progress);
-        });
-        
-        dataManager.setStatusCallback(status -> {
-            splash.setStatus(status);
-        });
+        // Callbacks für Fortschritt und Status setzen; der Splash-Screen
+        // tastet den Stand im EDT ab, statt pro Datei aktualisiert zu werden
+        ProgressReporter progress = new ProgressReporter();
+        dataManager.setProgressCallback(progress::setProgress);
+        dataManager.setStatusCallback(progress::setStatus);
+        SwingUtilities.invokeLater(() -> progress.startSampling((percent, status, newLogLines) -> {
+            splash.setProgress(percent);
+            if (status != null) {
+                splash.setStatus(status);
+            }
+        }));
         
         LOGGER.info("Starting application...");
         String downloadPath = config.getDownloadPath();
         LOGGER.info("Loading data from: " + downloadPath);
         
-        splash.setStatus("Initialisiere...");
+        progress.setStatus("Initialisiere...");
         
         try {
             dataManager.loadData(downloadPath);
         } catch (Exception e) {
             LOGGER.severe("Error loading data: " + e.getMessage());
             throw new RuntimeException("Failed to initialize application", e);
+        } finally {
+            progress.stopSampling();
         }
         
         this.mainFrame = new MainFrame(dataManager, rootPathStr, config);
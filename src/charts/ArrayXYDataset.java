@@ -0,0 +1,393 @@
+package charts;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.jfree.data.DomainInfo;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYDataset;
+
+/**
+ * Unveränderliches XYDataset für Zeitreihen-Charts.
+ *
+ * Jede Serie hält ihre Zeitpunkte (Millisekunden seit 1970) und Werte in zwei
+ * aufsteigend sortierten primitiven Arrays. Punkte werden über einen
+ * {@link SeriesBuilder} gesammelt und einmalig sortiert; je Punkt entstehen
+ * weder Date- noch Millisecond-Objekte, und es werden keine Change-Events
+ * ausgelöst. Minimum und Maximum werden beim Aufbau bestimmt, so dass die
+ * Achsen ihren Bereich nicht durch Iteration über alle Punkte ermitteln.
+ *
+ * Zum Ändern eines Charts wird ein neues Dataset gebaut und per
+ * {@code XYPlot.setDataset} gesetzt; bestehende Serien werden dabei nicht kopiert.
+ */
+public class ArrayXYDataset extends AbstractXYDataset implements DomainInfo, RangeInfo {
+    private static final long serialVersionUID = 1L;
+
+    private static final ArrayXYDataset EMPTY = new ArrayXYDataset(Collections.emptyList());
+
+    private final List<Series> series;
+
+    /**
+     * Eine unveränderliche Serie mit aufsteigenden Zeitpunkten
+     */
+    public static final class Series implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Comparable<?> key;
+        final long[] x;
+        final double[] y;
+        private final double minY;
+        private final double maxY;
+
+        Series(Comparable<?> key, long[] x, double[] y) {
+            this.key = key;
+            this.x = x;
+            this.y = y;
+            double min = Double.NaN;
+            double max = Double.NaN;
+            for (double value : y) {
+                if (!Double.isNaN(value)) {
+                    min = Double.isNaN(min) ? value : Math.min(min, value);
+                    max = Double.isNaN(max) ? value : Math.max(max, value);
+                }
+            }
+            this.minY = min;
+            this.maxY = max;
+        }
+
+        public Comparable<?> getKey() {
+            return key;
+        }
+
+        public int size() {
+            return x.length;
+        }
+
+        public boolean isEmpty() {
+            return x.length == 0;
+        }
+
+        /**
+         * @return Zeitpunkt des Punktes in Millisekunden
+         */
+        public long getX(int item) {
+            return x[item];
+        }
+
+        public double getY(int item) {
+            return y[item];
+        }
+
+        /**
+         * @return Kleinster Wert oder NaN, wenn die Serie keine Werte hat
+         */
+        public double getMinY() {
+            return minY;
+        }
+
+        /**
+         * @return Größter Wert oder NaN, wenn die Serie keine Werte hat
+         */
+        public double getMaxY() {
+            return maxY;
+        }
+
+        /**
+         * @return Index des ersten Punktes mit Zeitpunkt >= millis, size() wenn keiner existiert
+         */
+        public int indexOf(long millis) {
+            int low = 0;
+            int high = x.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (x[mid] < millis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return Die gleiche Serie unter einem anderen Namen, die Arrays werden geteilt
+         */
+        public Series withKey(Comparable<?> newKey) {
+            return new Series(newKey, x, y);
+        }
+    }
+
+    /**
+     * Sammelt die Punkte einer Serie in wachsenden primitiven Arrays.
+     *
+     * Punkte dürfen in beliebiger Reihenfolge kommen, sortiert wird einmal in
+     * {@link #build()}. Bei gleichem Zeitpunkt gilt wie bei
+     * {@code TimeSeries.addOrUpdate} der zuletzt hinzugefügte Wert.
+     */
+    public static final class SeriesBuilder {
+        private final Comparable<?> key;
+        private long[] x;
+        private double[] y;
+        private int size;
+        private boolean sorted = true;
+        private boolean unique = true;
+
+        public SeriesBuilder(Comparable<?> key) {
+            this(key, 16);
+        }
+
+        public SeriesBuilder(Comparable<?> key, int expectedSize) {
+            this.key = key;
+            this.x = new long[Math.max(1, expectedSize)];
+            this.y = new double[x.length];
+        }
+
+        public SeriesBuilder add(long millis, double value) {
+            if (size == x.length) {
+                x = Arrays.copyOf(x, size * 2);
+                y = Arrays.copyOf(y, size * 2);
+            }
+            if (size > 0) {
+                long previous = x[size - 1];
+                if (millis < previous) {
+                    sorted = false;
+                } else if (millis == previous) {
+                    unique = false;
+                }
+            }
+            x[size] = millis;
+            y[size] = value;
+            size++;
+            return this;
+        }
+
+        public SeriesBuilder add(LocalDateTime time, double value) {
+            return add(toMillis(time), value);
+        }
+
+        public SeriesBuilder add(Date date, double value) {
+            return add(date.getTime(), value);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Sortiert die gesammelten Punkte und fasst gleiche Zeitpunkte zusammen
+         */
+        public Series build() {
+            long[] xs = Arrays.copyOf(x, size);
+            double[] ys = Arrays.copyOf(y, size);
+            if (!sorted) {
+                int[] order = stableOrder(xs);
+                long[] sortedX = new long[size];
+                double[] sortedY = new double[size];
+                for (int i = 0; i < size; i++) {
+                    sortedX[i] = xs[order[i]];
+                    sortedY[i] = ys[order[i]];
+                }
+                xs = sortedX;
+                ys = sortedY;
+                unique = false;
+            }
+            if (!unique) {
+                int n = 0;
+                for (int i = 0; i < xs.length; i++) {
+                    if (n > 0 && xs[n - 1] == xs[i]) {
+                        ys[n - 1] = ys[i];
+                    } else {
+                        xs[n] = xs[i];
+                        ys[n] = ys[i];
+                        n++;
+                    }
+                }
+                if (n < xs.length) {
+                    xs = Arrays.copyOf(xs, n);
+                    ys = Arrays.copyOf(ys, n);
+                }
+            }
+            return new Series(key, xs, ys);
+        }
+
+        /**
+         * Stabile Sortierreihenfolge der Indizes nach Zeitpunkt (Mergesort)
+         */
+        private static int[] stableOrder(long[] keys) {
+            int n = keys.length;
+            int[] order = new int[n];
+            int[] buffer = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            for (int width = 1; width < n; width *= 2) {
+                for (int low = 0; low < n; low += 2 * width) {
+                    int mid = Math.min(low + width, n);
+                    int high = Math.min(low + 2 * width, n);
+                    int left = low;
+                    int right = mid;
+                    for (int k = low; k < high; k++) {
+                        if (left < mid && (right >= high || keys[order[left]] <= keys[order[right]])) {
+                            buffer[k] = order[left++];
+                        } else {
+                            buffer[k] = order[right++];
+                        }
+                    }
+                }
+                int[] swap = order;
+                order = buffer;
+                buffer = swap;
+            }
+            return order;
+        }
+    }
+
+    private ArrayXYDataset(List<Series> series) {
+        this.series = series;
+    }
+
+    /**
+     * @return Ein Dataset ohne Serien
+     */
+    public static ArrayXYDataset empty() {
+        return EMPTY;
+    }
+
+    public static ArrayXYDataset of(Series... series) {
+        return of(Arrays.asList(series));
+    }
+
+    public static ArrayXYDataset of(List<Series> series) {
+        return new ArrayXYDataset(Collections.unmodifiableList(new ArrayList<>(series)));
+    }
+
+    /**
+     * @return Ein neues Dataset mit allen bisherigen Serien und der zusätzlichen Serie
+     */
+    public ArrayXYDataset withSeries(Series added) {
+        List<Series> list = new ArrayList<>(series.size() + 1);
+        list.addAll(series);
+        list.add(added);
+        return new ArrayXYDataset(Collections.unmodifiableList(list));
+    }
+
+    /**
+     * @return Die Serien in Anzeigereihenfolge
+     */
+    public List<Series> getSeriesList() {
+        return series;
+    }
+
+    public Series getSeries(int index) {
+        return series.get(index);
+    }
+
+    /**
+     * Umrechnung in Millisekunden wie bei {@code Date.from(time.atZone(systemDefault))}
+     */
+    public static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return series.size();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Comparable getSeriesKey(int index) {
+        return series.get(index).getKey();
+    }
+
+    @Override
+    public int getItemCount(int index) {
+        return series.get(index).x.length;
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    @Override
+    public Number getX(int index, int item) {
+        return series.get(index).x[item];
+    }
+
+    @Override
+    public double getXValue(int index, int item) {
+        return series.get(index).x[item];
+    }
+
+    @Override
+    public Number getY(int index, int item) {
+        return series.get(index).y[item];
+    }
+
+    @Override
+    public double getYValue(int index, int item) {
+        return series.get(index).y[item];
+    }
+
+    @Override
+    public double getDomainLowerBound(boolean includeInterval) {
+        Range range = getDomainBounds(includeInterval);
+        return range != null ? range.getLowerBound() : Double.NaN;
+    }
+
+    @Override
+    public double getDomainUpperBound(boolean includeInterval) {
+        Range range = getDomainBounds(includeInterval);
+        return range != null ? range.getUpperBound() : Double.NaN;
+    }
+
+    @Override
+    public Range getDomainBounds(boolean includeInterval) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Series s : series) {
+            if (!s.isEmpty()) {
+                min = Math.min(min, s.x[0]);
+                max = Math.max(max, s.x[s.x.length - 1]);
+            }
+        }
+        return min <= max ? new Range(min, max) : null;
+    }
+
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        Range range = getRangeBounds(includeInterval);
+        return range != null ? range.getLowerBound() : Double.NaN;
+    }
+
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        Range range = getRangeBounds(includeInterval);
+        return range != null ? range.getUpperBound() : Double.NaN;
+    }
+
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Series s : series) {
+            if (!Double.isNaN(s.minY)) {
+                min = Math.min(min, s.minY);
+                max = Math.max(max, s.maxY);
+            }
+        }
+        return min <= max ? new Range(min, max) : null;
+    }
+}
@@ -7,14 +7,14 @@ import java.awt.FlowLayout;
 import java.awt.Font;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.TreeSet;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -31,9 +31,6 @@ import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.axis.NumberTickUnit;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.time.Millisecond;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
 import data.Trade;
 
@@ -45,12 +42,9 @@ public class CurrencyPairTradesChart extends JPanel {
     private final JFreeChart lotsChart;
     private final ChartPanel tradesChartPanel;
     private final ChartPanel lotsChartPanel;
-    private final TimeSeriesCollection tradesDataset;
-    private final TimeSeriesCollection lotsDataset;
     private final Map<String, JCheckBox> currencyPairCheckboxes;
-    private final Map<String, TimeSeries> tradesSeries;
-    private final Map<String, TimeSeries> lotsSeries;
-    private final List<Trade> allTrades;
+    // Index der Serie je Währungspaar, in beiden Charts gleich
+    private final Map<String, Integer> seriesIndex;
     
     // Verbesserte Farben für besseren Kontrast
     private static final Color[] CHART_COLORS = {
@@ -66,18 +60,38 @@ public class CurrencyPairTradesChart extends JPanel {
         new Color(0, 102, 51)      // Dunkelgrün
     };
     
+    /**
+     * Stufenverläufe der offenen Trades und Lots je Währungspaar, siehe
+     * {@link CurrencyPairTradesChart#buildStepSeries(List)}
+     */
+    public static final class StepSeries {
+        // Die Währungspaare alphabetisch, Position = Serienindex
+        private final List<String> symbols;
+        private final ArrayXYDataset.Series[] trades;
+        private final ArrayXYDataset.Series[] lots;
+        
+        private StepSeries(List<String> symbols, ArrayXYDataset.Series[] trades, ArrayXYDataset.Series[] lots) {
+            this.symbols = symbols;
+            this.trades = trades;
+            this.lots = lots;
+        }
+    }
+    
     /**
      * Konstruktor für die CurrencyPairTradesChart-Komponente
      * 
      * @param trades Liste aller Trades
      */
     public CurrencyPairTradesChart(List<Trade> trades) {
-        this.allTrades = new ArrayList<>(trades);
-        this.tradesDataset = new TimeSeriesCollection();
-        this.lotsDataset = new TimeSeriesCollection();
-        this.currencyPairCheckboxes = new HashMap<>();
-        this.tradesSeries = new HashMap<>();
-        this.lotsSeries = new HashMap<>();
+        this(buildStepSeries(trades));
+    }
+    
+    /**
+     * @param stepSeries Mit {@link #buildStepSeries(List)} berechnete Verläufe
+     */
+    public CurrencyPairTradesChart(StepSeries stepSeries) {
+        this.currencyPairCheckboxes = new LinkedHashMap<>();
+        this.seriesIndex = new HashMap<>();
         
         setLayout(new BorderLayout(0, 20)); // Größerer vertikaler Abstand zwischen den Charts
         
@@ -96,9 +110,11 @@ public class CurrencyPairTradesChart extends JPanel {
         // Setze Minimumgrößen, um sicherzustellen, dass die Charts nicht zu klein werden
         tradesChartPanel.setMinimumSize(new Dimension(500, 250));
         lotsChartPanel.setMinimumSize(new Dimension(500, 250)); // Von 500 auf 250 reduziert
+        DownsampledXYDataset.attach(tradesChartPanel);
+        DownsampledXYDataset.attach(lotsChartPanel);
         
         // Panel für die Checkboxen erstellen
-        JPanel checkboxPanel = createCheckboxPanel();
+        JPanel checkboxPanel = createCheckboxPanel(stepSeries.symbols);
         
         // Layout für die Charts: BoxLayout in Y-Richtung verwenden, 
         // damit beide Charts ihre bevorzugte Größe behalten
@@ -116,7 +132,7 @@ public class CurrencyPairTradesChart extends JPanel {
         add(chartsPanel, BorderLayout.CENTER);
         
         // Daten hinzufügen
-        populateCharts();
+        populateCharts(stepSeries);
     }
 
     
@@ -132,7 +148,7 @@ public class CurrencyPairTradesChart extends JPanel {
             title,
             "Zeit",
             yAxisLabel,
-            new TimeSeriesCollection(),
+            ArrayXYDataset.empty(),
             true,  // Legende anzeigen
             true,  // Tooltips anzeigen
             false  // URLs nicht anzeigen
@@ -186,18 +202,13 @@ public class CurrencyPairTradesChart extends JPanel {
     /**
      * Erstellt das Panel mit den Checkboxen für die Währungspaare
      * 
+     * @param symbols Alle gehandelten Währungspaare, alphabetisch
      * @return Das erstellte JPanel mit den Checkboxen
      */
-    private JPanel createCheckboxPanel() {
+    private JPanel createCheckboxPanel(List<String> symbols) {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(new TitledBorder("Währungspaare"));
         
-        // Alle verwendeten Währungspaare ermitteln
-        Map<String, Boolean> uniqueSymbols = new HashMap<>();
-        for (Trade trade : allTrades) {
-            uniqueSymbols.put(trade.getSymbol(), true);
-        }
-        
         // Panel für alle Checkboxen
         JPanel checkboxPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
         checkboxPanel.setPreferredSize(new Dimension(800, 100)); // Größeres Panel für mehr Platz
@@ -209,10 +220,11 @@ public class CurrencyPairTradesChart extends JPanel {
             boolean newState = !toggleAllCheckbox.isSelected();
             for (JCheckBox cb : currencyPairCheckboxes.values()) {
                 cb.setSelected(newState);
-                // Entsprechende Serien aktualisieren
+                // Entsprechende Serien aktualisieren, neu gezeichnet wird einmal am Ende
                 String symbol = cb.getText();
-                updateVisibility(symbol, newState);
+                updateVisibility(symbol, newState, false);
             }
+            refreshCharts();
             toggleAllCheckbox.setSelected(!newState);
             toggleAllCheckbox.setText(newState ? "Alles ausschalten" : "Alles einschalten");
         });
@@ -223,11 +235,11 @@ public class CurrencyPairTradesChart extends JPanel {
         panel.add(topPanel, BorderLayout.NORTH);
         
         // Checkboxen für jedes Währungspaar erstellen
-        for (String symbol : uniqueSymbols.keySet()) {
+        for (String symbol : symbols) {
             JCheckBox checkbox = new JCheckBox(symbol);
             checkbox.setFont(new Font("SansSerif", Font.PLAIN, 12)); // Größere Schrift
             checkbox.setSelected(true);  // Standardmäßig alle ausgewählt
-            checkbox.addActionListener(e -> updateVisibility(symbol, checkbox.isSelected()));
+            checkbox.addActionListener(e -> updateVisibility(symbol, checkbox.isSelected(), true));
             currencyPairCheckboxes.put(symbol, checkbox);
             checkboxPanel.add(checkbox);
         }
@@ -244,106 +256,165 @@ public class CurrencyPairTradesChart extends JPanel {
     }
     
     /**
-     * Aktualisiert die Sichtbarkeit der Serien für ein bestimmtes Währungspaar
+     * Blendet die Serien eines Währungspaars über den Renderer ein oder aus.
+     * Die Datasets bleiben unverändert.
      * 
      * @param symbol Das Währungspaar
      * @param visible True, wenn die Serien sichtbar sein sollen
+     * @param notify True, um die Charts sofort neu zu zeichnen
      */
-    private void updateVisibility(String symbol, boolean visible) {
-        TimeSeries tradeSeries = tradesSeries.get(symbol);
-        TimeSeries lotSeries = lotsSeries.get(symbol);
-        
-        if (tradeSeries != null) {
-            if (visible && !tradesDataset.getSeries().contains(tradeSeries)) {
-                tradesDataset.addSeries(tradeSeries);
-            } else if (!visible && tradesDataset.getSeries().contains(tradeSeries)) {
-                tradesDataset.removeSeries(tradeSeries);
-            }
+    private void updateVisibility(String symbol, boolean visible, boolean notify) {
+        Integer index = seriesIndex.get(symbol);
+        if (index == null) {
+            return;
         }
-        
-        if (lotSeries != null) {
-            if (visible && !lotsDataset.getSeries().contains(lotSeries)) {
-                lotsDataset.addSeries(lotSeries);
-            } else if (!visible && lotsDataset.getSeries().contains(lotSeries)) {
-                lotsDataset.removeSeries(lotSeries);
-            }
+        tradesChart.getXYPlot().getRenderer().setSeriesVisible(index, visible, notify);
+        lotsChart.getXYPlot().getRenderer().setSeriesVisible(index, visible, notify);
+    }
+    
+    /**
+     * Passt die Y-Achsen an die sichtbaren Serien an und zeichnet beide Charts neu
+     */
+    private void refreshCharts() {
+        tradesChart.getXYPlot().configureRangeAxes();
+        lotsChart.getXYPlot().configureRangeAxes();
+        tradesChart.fireChartChanged();
+        lotsChart.fireChartChanged();
+    }
+    
+    /**
+     * @return Alle gehandelten Währungspaare, alphabetisch
+     */
+    private static List<String> sortedSymbols(List<Trade> trades) {
+        TreeSet<String> symbols = new TreeSet<>();
+        for (Trade trade : trades) {
+            symbols.add(trade.getSymbol());
         }
+        return new ArrayList<>(symbols);
     }
     
     /**
-     * Befüllt die Charts mit den Daten aus den übergebenen Trades
+     * Berechnet die Stufenverläufe der offenen Trades und Lots aller
+     * Währungspaare in einem Durchlauf über die nach Zeit sortierten
+     * Eröffnungen und Schließungen. Die Währungspaare werden dafür
+     * durchnummeriert; je Zeitpunkt erhält jedes betroffene Paar einen Punkt.
+     * Erzeugt keine Swing-Komponenten und darf im Hintergrund laufen.
+     * 
+     * @param trades Liste aller Trades
+     * @return Die Verläufe aller Währungspaare
      */
-    private void populateCharts() {
-        // Trades nach Währungspaar gruppieren
-        Map<String, List<Trade>> tradesBySymbol = new HashMap<>();
-        for (Trade trade : allTrades) {
-            tradesBySymbol.computeIfAbsent(trade.getSymbol(), k -> new ArrayList<>()).add(trade);
+    public static StepSeries buildStepSeries(List<Trade> trades) {
+        List<String> symbols = sortedSymbols(trades);
+        int symbolCount = symbols.size();
+        ArrayXYDataset.Series[] tradeSeries = new ArrayXYDataset.Series[symbolCount];
+        ArrayXYDataset.Series[] lotSeries = new ArrayXYDataset.Series[symbolCount];
+        Map<String, Integer> codes = new HashMap<>();
+        for (int c = 0; c < symbolCount; c++) {
+            codes.put(symbols.get(c), c);
         }
         
-        // Für jedes Währungspaar eine Serie erstellen
-        int colorIndex = 0;
-        for (Map.Entry<String, List<Trade>> entry : tradesBySymbol.entrySet()) {
-            String symbol = entry.getKey();
-            List<Trade> symbolTrades = entry.getValue();
-            
-            // TimeSeries für Trades und Lots erstellen
-            TimeSeries tradeSeries = new TimeSeries(symbol + " (Trades)");
-            TimeSeries lotSeries = new TimeSeries(symbol + " (Lots)");
-            
-            // Map für alle Zeitpunkte mit Änderungen (Eröffnung oder Schließung eines Trades)
-            TreeMap<LocalDateTime, Integer> tradeChanges = new TreeMap<>();
-            TreeMap<LocalDateTime, Double> lotChanges = new TreeMap<>();
+        // Eröffnungen und Schließungen je nach Zeit sortiert
+        Trade[] byOpen = trades.toArray(new Trade[0]);
+        Arrays.sort(byOpen, Comparator.comparing(Trade::getOpenTime));
+        Trade[] byClose = trades.stream().filter(t -> t.getCloseTime() != null).toArray(Trade[]::new);
+        Arrays.sort(byClose, Comparator.comparing(Trade::getCloseTime));
+        
+        long[] openMillis = new long[byOpen.length];
+        int[] openCodes = new int[byOpen.length];
+        for (int k = 0; k < byOpen.length; k++) {
+            openMillis[k] = ArrayXYDataset.toMillis(byOpen[k].getOpenTime());
+            openCodes[k] = codes.get(byOpen[k].getSymbol());
+        }
+        long[] closeMillis = new long[byClose.length];
+        int[] closeCodes = new int[byClose.length];
+        for (int k = 0; k < byClose.length; k++) {
+            closeMillis[k] = ArrayXYDataset.toMillis(byClose[k].getCloseTime());
+            closeCodes[k] = codes.get(byClose[k].getSymbol());
+        }
+        
+        ArrayXYDataset.SeriesBuilder[] tradeBuilders = new ArrayXYDataset.SeriesBuilder[symbolCount];
+        ArrayXYDataset.SeriesBuilder[] lotBuilders = new ArrayXYDataset.SeriesBuilder[symbolCount];
+        for (int c = 0; c < symbolCount; c++) {
+            tradeBuilders[c] = new ArrayXYDataset.SeriesBuilder(symbols.get(c) + " (Trades)");
+            lotBuilders[c] = new ArrayXYDataset.SeriesBuilder(symbols.get(c) + " (Lots)");
+        }
+        
+        int[] openTrades = new int[symbolCount];
+        double[] openLots = new double[symbolCount];
+        // Nummer des Zeitpunkts, an dem ein Paar zuletzt geändert wurde
+        int[] touchedAt = new int[symbolCount];
+        int[] touched = new int[symbolCount];
+        int step = 0;
+        int o = 0;
+        int c = 0;
+        while (o < byOpen.length || c < byClose.length) {
+            long time = Math.min(o < byOpen.length ? openMillis[o] : Long.MAX_VALUE,
+                    c < byClose.length ? closeMillis[c] : Long.MAX_VALUE);
+            step++;
+            int touchedCount = 0;
             
-            // Alle Trade-Änderungen erfassen
-            for (Trade trade : symbolTrades) {
-                // Bei Eröffnung: +1 Trade und +Lots
-                tradeChanges.merge(trade.getOpenTime(), 1, Integer::sum);
-                lotChanges.merge(trade.getOpenTime(), trade.getLots(), Double::sum);
-                
-                // Bei Schließung: -1 Trade und -Lots
-                tradeChanges.merge(trade.getCloseTime(), -1, Integer::sum);
-                lotChanges.merge(trade.getCloseTime(), -trade.getLots(), Double::sum);
+            // Alle Änderungen dieses Zeitpunkts anwenden
+            while (o < byOpen.length && openMillis[o] == time) {
+                int code = openCodes[o];
+                openTrades[code]++;
+                openLots[code] += byOpen[o].getLots();
+                if (touchedAt[code] != step) {
+                    touchedAt[code] = step;
+                    touched[touchedCount++] = code;
+                }
+                o++;
             }
-            
-            // Trades-Serie mit kumulierten Werten füllen
-            int openTrades = 0;
-            for (Map.Entry<LocalDateTime, Integer> change : tradeChanges.entrySet()) {
-                openTrades += change.getValue();
-                
-                Date date = Date.from(change.getKey()
-                    .atZone(ZoneId.systemDefault())
-                    .toInstant());
-                tradeSeries.addOrUpdate(new Millisecond(date), openTrades);
+            while (c < byClose.length && closeMillis[c] == time) {
+                int code = closeCodes[c];
+                openTrades[code]--;
+                openLots[code] -= byClose[c].getLots();
+                if (touchedAt[code] != step) {
+                    touchedAt[code] = step;
+                    touched[touchedCount++] = code;
+                }
+                c++;
             }
             
-            // Lots-Serie mit kumulierten Werten füllen
-            double openLots = 0.0;
-            for (Map.Entry<LocalDateTime, Double> change : lotChanges.entrySet()) {
-                openLots += change.getValue();
-                
-                Date date = Date.from(change.getKey()
-                    .atZone(ZoneId.systemDefault())
-                    .toInstant());
-                lotSeries.addOrUpdate(new Millisecond(date), openLots);
+            for (int k = 0; k < touchedCount; k++) {
+                int code = touched[k];
+                tradeBuilders[code].add(time, openTrades[code]);
+                // Rundungsfehler der Lot-Summen nicht in Tooltips und Achsen tragen
+                lotBuilders[code].add(time, Math.round(openLots[code] * 1e6) / 1e6);
             }
-            
-            // Serien speichern und zu Datasets hinzufügen
-            tradesSeries.put(symbol, tradeSeries);
-            lotsSeries.put(symbol, lotSeries);
-            
-            tradesDataset.addSeries(tradeSeries);
-            lotsDataset.addSeries(lotSeries);
-            
-            // Nächste Farbe für das nächste Symbol
-            colorIndex = (colorIndex + 1) % CHART_COLORS.length;
+        }
+        
+        for (int k = 0; k < symbolCount; k++) {
+            tradeSeries[k] = tradeBuilders[k].build();
+            lotSeries[k] = lotBuilders[k].build();
+        }
+        return new StepSeries(symbols, tradeSeries, lotSeries);
+    }
+    
+    /**
+     * Befüllt die Charts mit den Daten aus den übergebenen Trades. Die Serien
+     * aller Währungspaare werden einmal berechnet; Checkboxen schalten danach
+     * nur noch die Sichtbarkeit im Renderer um.
+     */
+    private void populateCharts(StepSeries stepSeries) {
+        List<String> symbols = stepSeries.symbols;
+        
+        // Neue Checkboxen sind ausgewählt, alle Serien sichtbar
+        seriesIndex.clear();
+        for (int i = 0; i < symbols.size(); i++) {
+            seriesIndex.put(symbols.get(i), i);
+            tradesChart.getXYPlot().getRenderer().setSeriesVisible(i, true, false);
+            lotsChart.getXYPlot().getRenderer().setSeriesVisible(i, true, false);
         }
         
         // Datasets zu Charts hinzufügen
+        ArrayXYDataset tradesDataset = ArrayXYDataset.of(stepSeries.trades);
+        ArrayXYDataset lotsDataset = ArrayXYDataset.of(stepSeries.lots);
+        
         XYPlot tradesPlot = tradesChart.getXYPlot();
-        tradesPlot.setDataset(tradesDataset);
+        tradesPlot.setDataset(new DownsampledXYDataset(tradesDataset));
         
         XYPlot lotsPlot = lotsChart.getXYPlot();
-        lotsPlot.setDataset(lotsDataset);
+        lotsPlot.setDataset(new DownsampledXYDataset(lotsDataset));
         
         // Farben für Serien zuweisen
         assignColors(tradesPlot);
@@ -359,11 +430,8 @@ public class CurrencyPairTradesChart extends JPanel {
         
         // Bestimme den Maximalwert für bessere Skalierung
         double maxTradeValue = 0;
-        for (int i = 0; i < tradesDataset.getSeriesCount(); i++) {
-            for (int j = 0; j < tradesDataset.getItemCount(i); j++) {
-                double value = tradesDataset.getYValue(i, j);
-                if (value > maxTradeValue) maxTradeValue = value;
-            }
+        for (ArrayXYDataset.Series series : tradesDataset.getSeriesList()) {
+            if (series.getMaxY() > maxTradeValue) maxTradeValue = series.getMaxY();
         }
         
         // Setze einen sinnvollen Tick-Abstand (etwa 4-5 Tick-Markierungen)
@@ -378,11 +446,8 @@ public class CurrencyPairTradesChart extends JPanel {
         
         // Bestimme den Maximalwert für bessere Skalierung
         double maxLotValue = 0;
-        for (int i = 0; i < lotsDataset.getSeriesCount(); i++) {
-            for (int j = 0; j < lotsDataset.getItemCount(i); j++) {
-                double value = lotsDataset.getYValue(i, j);
-                if (value > maxLotValue) maxLotValue = value;
-            }
+        for (ArrayXYDataset.Series series : lotsDataset.getSeriesList()) {
+            if (series.getMaxY() > maxLotValue) maxLotValue = series.getMaxY();
         }
         
         // Setze einen sinnvollen Tick-Abstand (etwa 4-5 Tick-Markierungen)
@@ -437,23 +502,21 @@ public class CurrencyPairTradesChart extends JPanel {
      */
     public void updateData(List<Trade> trades) {
         // Datasets leeren
-        tradesDataset.removeAllSeries();
-        lotsDataset.removeAllSeries();
-        tradesSeries.clear();
-        lotsSeries.clear();
+        tradesChart.getXYPlot().setDataset(ArrayXYDataset.empty());
+        lotsChart.getXYPlot().setDataset(ArrayXYDataset.empty());
+        seriesIndex.clear();
         currencyPairCheckboxes.clear(); // Checkboxen-Map leeren
         
         // Checkboxen entfernen
         removeAll();
         
         // Alles neu aufbauen
-        this.allTrades.clear();
-        this.allTrades.addAll(trades);
+        StepSeries stepSeries = buildStepSeries(trades);
         
         setLayout(new BorderLayout(0, 20)); // Mehr vertikaler Abstand zwischen den Charts
         
         // Panel für die Checkboxen erstellen
-        JPanel checkboxPanel = createCheckboxPanel();
+        JPanel checkboxPanel = createCheckboxPanel(stepSeries.symbols);
         
         // Layout für die Charts mit BoxLayout
         JPanel chartsPanel = new JPanel();
@@ -470,7 +533,7 @@ public class CurrencyPairTradesChart extends JPanel {
         add(chartsPanel, BorderLayout.CENTER);
         
         // Daten hinzufügen
-        populateCharts();
+        populateCharts(stepSeries);
         
         revalidate();
         repaint();
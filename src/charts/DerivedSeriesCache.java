@@ -0,0 +1,388 @@
+package charts;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Logger;
+
+import data.ProviderStats;
+import data.Trade;
+
+/**
+ * Zwischenspeicher für aus den Trades abgeleitete Verläufe eines Providers
+ * (Equity, Drawdown, offene Trades und Lots, Wochen- und Monatswerte).
+ *
+ * Schlüssel ist Provider, Art des Verlaufs und Datenstand
+ * ({@link ProviderStats#getDataVersion()}). Öffnen mehrere Dialoge, Charts
+ * oder Reports denselben Provider, wird jeder Verlauf nur einmal berechnet;
+ * laufen zwei Anfragen gleichzeitig, wartet die zweite auf das Ergebnis der
+ * ersten. Ein neuer Datenstand verdrängt die Verläufe des alten.
+ *
+ * Der Speicher ist über die Anzahl der Punkte begrenzt, bei Überschreitung
+ * werden die am längsten nicht benutzten Verläufe verworfen. Die gelieferten
+ * Serien sind unveränderlich und dürfen von allen Aufrufern geteilt werden;
+ * einen anderen Namen erhalten sie über {@link ArrayXYDataset.Series#withKey}.
+ */
+public class DerivedSeriesCache {
+    private static final Logger LOGGER = Logger.getLogger(DerivedSeriesCache.class.getName());
+
+    /** Speicherobergrenze für alle Verläufe zusammen */
+    private static final long MAX_BYTES = 32L * 1024 * 1024;
+
+    /** Geschätzter Speicher je Punkt (Zeitpunkt und Wert) und je Serie */
+    private static final int BYTES_PER_POINT = Long.BYTES + Double.BYTES;
+    private static final int BYTES_PER_SERIES = 128;
+
+    /**
+     * Art des abgeleiteten Verlaufs
+     */
+    public enum Kind {
+        /** Kontostand nach jedem geschlossenen Trade */
+        EQUITY("Equity"),
+        /** Kontostand am Ende jedes Tages mit geschlossenen Trades, Punkt um 00:00 */
+        EQUITY_DAILY("Equity"),
+        /** Rückgang in Prozent gegenüber dem bisherigen Höchststand, je geschlossenem Trade */
+        DRAWDOWN("Drawdown"),
+        /** Drawdown am Ende jedes Tages, Punkt um 00:00 */
+        DRAWDOWN_DAILY("Drawdown"),
+        /** Anzahl gleichzeitig offener Trades als Stufenverlauf */
+        OPEN_TRADES("Trades"),
+        /** Summe der offenen Lots als Stufenverlauf */
+        OPEN_LOTS("Lots"),
+        /** Summe der gehandelten Lots je Kalenderwoche (Schließzeit), Punkt am Montag 00:00 */
+        WEEKLY_LOTS("Wöchentliche Lots"),
+        /** Monatsperformance in Prozent aus {@link ProviderStats#getMonthlyProfitPercentages()}, Punkt am Monatsersten 00:00 */
+        MONTHLY_PROFIT("Performance %"),
+        /** Anzahl der je Kalendermonat eröffneten Trades, Punkt am Monatsersten 00:00 */
+        MONTHLY_TRADE_COUNT("Trades");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @return Name der gelieferten Serie
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final class Key {
+        private final String provider;
+        private final Kind kind;
+        private final long version;
+
+        Key(String provider, Kind kind, long version) {
+            this.provider = provider;
+            this.kind = kind;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return kind == other.kind && version == other.version && Objects.equals(provider, other.provider);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(provider, kind, version);
+        }
+    }
+
+    private static DerivedSeriesCache instance;
+
+    // Zugriffsreihenfolge, der älteste Eintrag wird zuerst verworfen
+    private final LinkedHashMap<Key, ArrayXYDataset.Series> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // Zuletzt gespeicherter Datenstand je Provider
+    private final Map<String, Long> versions = new HashMap<>();
+    private final Map<Key, FutureTask<ArrayXYDataset.Series>> pending = new ConcurrentHashMap<>();
+    private final long maxBytes;
+    private long usedBytes;
+
+    DerivedSeriesCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static synchronized DerivedSeriesCache getInstance() {
+        if (instance == null) {
+            instance = new DerivedSeriesCache(MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Liefert einen Verlauf aus dem Zwischenspeicher oder berechnet ihn.
+     * Kann aus beliebigen Threads aufgerufen werden.
+     *
+     * @param stats Daten des Providers
+     * @param kind Art des Verlaufs
+     * @return Unveränderliche Serie mit dem Namen {@link Kind#getLabel()}, leer wenn es keine Trades gibt
+     */
+    public ArrayXYDataset.Series get(ProviderStats stats, Kind kind) {
+        Key key = new Key(stats.getSignalProvider(), kind, stats.getDataVersion());
+        synchronized (entries) {
+            ArrayXYDataset.Series cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        FutureTask<ArrayXYDataset.Series> task = new FutureTask<>(() -> compute(stats, kind));
+        FutureTask<ArrayXYDataset.Series> running = pending.putIfAbsent(key, task);
+        if (running == null) {
+            running = task;
+            try {
+                task.run();
+                if (!task.isCancelled()) {
+                    store(key, task.get());
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                // Wird unten beim Abholen des Ergebnisses gemeldet
+            } finally {
+                pending.remove(key, task);
+            }
+        }
+
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Berechnung von " + kind + " unterbrochen", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Berechnung von " + kind + " fehlgeschlagen", cause);
+        }
+    }
+
+    /**
+     * Verwirft alle zwischengespeicherten Verläufe
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            versions.clear();
+            usedBytes = 0;
+        }
+    }
+
+    private void store(Key key, ArrayXYDataset.Series series) {
+        synchronized (entries) {
+            Long current = versions.get(key.provider);
+            if (current != null && current > key.version) {
+                return; // Inzwischen gibt es einen neueren Datenstand
+            }
+            if (current != null && current < key.version) {
+                for (Kind kind : Kind.values()) {
+                    remove(new Key(key.provider, kind, current));
+                }
+            }
+            versions.put(key.provider, key.version);
+
+            ArrayXYDataset.Series previous = entries.put(key, series);
+            if (previous != null) {
+                usedBytes -= sizeOf(previous);
+            }
+            usedBytes += sizeOf(series);
+
+            Iterator<Map.Entry<Key, ArrayXYDataset.Series>> it = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<Key, ArrayXYDataset.Series> eldest = it.next();
+                usedBytes -= sizeOf(eldest.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    private void remove(Key key) {
+        ArrayXYDataset.Series removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= sizeOf(removed);
+        }
+    }
+
+    private static long sizeOf(ArrayXYDataset.Series series) {
+        return BYTES_PER_SERIES + (long) series.size() * BYTES_PER_POINT;
+    }
+
+    private ArrayXYDataset.Series compute(ProviderStats stats, Kind kind) {
+        long start = System.nanoTime();
+        ArrayXYDataset.Series series;
+        switch (kind) {
+            case EQUITY:         series = equity(stats); break;
+            case EQUITY_DAILY:   series = daily(get(stats, Kind.EQUITY)); break;
+            case DRAWDOWN:       series = drawdown(stats); break;
+            case DRAWDOWN_DAILY: series = daily(get(stats, Kind.DRAWDOWN)); break;
+            case OPEN_TRADES:    series = openPositions(stats, false); break;
+            case OPEN_LOTS:      series = openPositions(stats, true); break;
+            case WEEKLY_LOTS:    series = weeklyLots(stats); break;
+            case MONTHLY_PROFIT: series = monthlyProfit(stats); break;
+            case MONTHLY_TRADE_COUNT: series = monthlyTradeCount(stats); break;
+            default: throw new IllegalArgumentException("Unbekannte Verlaufsart: " + kind);
+        }
+        LOGGER.fine(kind + " für " + stats.getSignalProvider() + " berechnet: " + series.size()
+                + " Punkte in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return series;
+    }
+
+    /**
+     * Geschlossene Trades in der Reihenfolge ihrer Schließzeit
+     */
+    private static List<Trade> closedTradesByCloseTime(ProviderStats stats) {
+        List<Trade> trades = new ArrayList<>(stats.getTrades().size());
+        for (Trade trade : stats.getTrades()) {
+            if (trade.getCloseTime() != null) {
+                trades.add(trade);
+            }
+        }
+        trades.sort(Comparator.comparing(Trade::getCloseTime));
+        return trades;
+    }
+
+    private static ArrayXYDataset.Series equity(ProviderStats stats) {
+        List<Trade> trades = closedTradesByCloseTime(stats);
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(Kind.EQUITY.getLabel(), trades.size());
+        LocalDateTime now = LocalDateTime.now();
+        double equity = stats.getInitialBalance();
+        for (Trade trade : trades) {
+            if (!trade.getCloseTime().isAfter(now)) {
+                equity += trade.getTotalProfit();
+                series.add(trade.getCloseTime(), equity);
+            }
+        }
+        return series.build();
+    }
+
+    private static ArrayXYDataset.Series drawdown(ProviderStats stats) {
+        List<Trade> trades = closedTradesByCloseTime(stats);
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(Kind.DRAWDOWN.getLabel(), trades.size());
+        double balance = stats.getInitialBalance();
+        double peak = balance;
+        for (Trade trade : trades) {
+            balance += trade.getTotalProfit();
+            peak = Math.max(peak, balance);
+            if (peak > 0) {
+                series.add(trade.getCloseTime(), (peak - balance) / peak * 100.0);
+            }
+        }
+        return series.build();
+    }
+
+    /**
+     * Ein Punkt je Tag um 00:00 mit dem letzten Wert des Tages
+     */
+    private static ArrayXYDataset.Series daily(ArrayXYDataset.Series source) {
+        ZoneId zone = ZoneId.systemDefault();
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(source.getKey(), source.size());
+        long dayStart = 0;
+        long dayEnd = Long.MIN_VALUE;
+        for (int i = 0; i < source.size(); i++) {
+            long millis = source.getX(i);
+            if (millis >= dayEnd || millis < dayStart) {
+                LocalDate day = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+                dayStart = day.atStartOfDay(zone).toInstant().toEpochMilli();
+                dayEnd = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            }
+            series.add(dayStart, source.getY(i));
+        }
+        return series.build();
+    }
+
+    /**
+     * Stufenverlauf der offenen Positionen: je Eröffnung und Schließung ein
+     * Punkt, gleichzeitige Änderungen werden zusammengefasst
+     */
+    private static ArrayXYDataset.Series openPositions(ProviderStats stats, boolean lots) {
+        TreeMap<LocalDateTime, Double> changes = new TreeMap<>();
+        for (Trade trade : stats.getTrades()) {
+            double amount = lots ? trade.getLots() : 1.0;
+            changes.merge(trade.getOpenTime(), amount, Double::sum);
+            if (trade.getCloseTime() != null) {
+                changes.merge(trade.getCloseTime(), -amount, Double::sum);
+            }
+        }
+
+        String label = lots ? Kind.OPEN_LOTS.getLabel() : Kind.OPEN_TRADES.getLabel();
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(label, changes.size());
+        double open = 0.0;
+        for (Map.Entry<LocalDateTime, Double> entry : changes.entrySet()) {
+            open += entry.getValue();
+            // Rundungsfehler der Lot-Summen nicht in Tooltips und Achsen tragen
+            series.add(entry.getKey(), Math.round(open * 1e6) / 1e6);
+        }
+        return series.build();
+    }
+
+    private static ArrayXYDataset.Series weeklyLots(ProviderStats stats) {
+        TreeMap<LocalDate, Double> weeks = new TreeMap<>();
+        for (Trade trade : stats.getTrades()) {
+            if (trade.getCloseTime() != null) {
+                LocalDate weekStart = trade.getCloseTime().toLocalDate()
+                        .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                weeks.merge(weekStart, trade.getLots(), Double::sum);
+            }
+        }
+
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(Kind.WEEKLY_LOTS.getLabel(), weeks.size());
+        for (Map.Entry<LocalDate, Double> entry : weeks.entrySet()) {
+            series.add(entry.getKey().atStartOfDay(), entry.getValue());
+        }
+        return series.build();
+    }
+
+    private static ArrayXYDataset.Series monthlyProfit(ProviderStats stats) {
+        // Die Map ist bereits nach Monaten sortiert
+        Map<YearMonth, Double> months = stats.getMonthlyProfitPercentages();
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(Kind.MONTHLY_PROFIT.getLabel(), months.size());
+        for (Map.Entry<YearMonth, Double> entry : months.entrySet()) {
+            series.add(entry.getKey().atDay(1).atStartOfDay(), entry.getValue());
+        }
+        return series.build();
+    }
+
+    private static ArrayXYDataset.Series monthlyTradeCount(ProviderStats stats) {
+        TreeMap<YearMonth, Integer> months = new TreeMap<>();
+        for (Trade trade : stats.getTrades()) {
+            months.merge(YearMonth.from(trade.getOpenTime()), 1, Integer::sum);
+        }
+
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(Kind.MONTHLY_TRADE_COUNT.getLabel(), months.size());
+        for (Map.Entry<YearMonth, Integer> entry : months.entrySet()) {
+            series.add(entry.getKey().atDay(1).atStartOfDay(), entry.getValue());
+        }
+        return series.build();
+    }
+
+    /**
+     * @param millis Zeitpunkt eines Punkts der Monatsverläufe
+     * @return Der zugehörige Monat
+     */
+    public static YearMonth monthOf(long millis) {
+        return YearMonth.from(Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()));
+    }
+}
@@ -0,0 +1,290 @@
+package charts;
+
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.DomainInfo;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYDataset;
+import org.jfree.data.xy.XYDataset;
+
+/**
+ * Ausgedünnte Ansicht eines {@link ArrayXYDataset} für die Darstellung.
+ *
+ * Der sichtbare Zeitbereich wird in so viele Abschnitte geteilt, wie der Plot
+ * Pixel breit ist. Je Abschnitt bleiben erster, kleinster, größter und letzter
+ * Punkt erhalten (Min/Max-Verfahren), so dass Spitzen wie der maximale
+ * Drawdown exakt an ihrem Zeitpunkt erhalten bleiben und die Linie optisch
+ * unverändert ist. Je Serie entstehen höchstens vier Punkte pro Pixel.
+ *
+ * Mit {@link #attach(ChartPanel)} wird bei Zoom, Verschieben und
+ * Größenänderung neu ausgedünnt; beim Hineinzoomen also feiner. Die
+ * Achsengrenzen meldet die Ansicht aus den vollständigen Daten, damit
+ * "Auto Range" immer den ganzen Verlauf zeigt.
+ */
+public class DownsampledXYDataset extends AbstractXYDataset implements DomainInfo, RangeInfo {
+    private static final long serialVersionUID = 1L;
+
+    /** Punkte je Abschnitt: erster, Minimum, Maximum, letzter */
+    static final int POINTS_PER_BUCKET = 4;
+
+    /** Abschnitte, solange die Breite des Plots noch nicht bekannt ist */
+    private static final int DEFAULT_BUCKETS = 1000;
+
+    private final ArrayXYDataset source;
+    private ArrayXYDataset view;
+    private double sampledLower = Double.NaN;
+    private double sampledUpper = Double.NaN;
+    private int sampledBuckets;
+
+    public DownsampledXYDataset(ArrayXYDataset source) {
+        this.source = source;
+        this.view = downsample(source, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, DEFAULT_BUCKETS);
+    }
+
+    /**
+     * @return Die vollständigen Daten
+     */
+    public ArrayXYDataset getSource() {
+        return source;
+    }
+
+    /**
+     * Dünnt für den angegebenen Zeitbereich neu aus. Bleiben Bereich und
+     * Auflösung gleich, passiert nichts.
+     *
+     * @param lower Untere Grenze der Zeitachse in Millisekunden
+     * @param upper Obere Grenze der Zeitachse in Millisekunden
+     * @param buckets Anzahl der Abschnitte, üblicherweise die Breite in Pixeln
+     * @return true, wenn sich die Ansicht geändert hat
+     */
+    public boolean resample(double lower, double upper, int buckets) {
+        buckets = Math.max(1, buckets);
+        if (lower == sampledLower && upper == sampledUpper && buckets == sampledBuckets) {
+            return false;
+        }
+        sampledLower = lower;
+        sampledUpper = upper;
+        sampledBuckets = buckets;
+        view = downsample(source, lower, upper, buckets);
+        fireDatasetChanged();
+        return true;
+    }
+
+    /**
+     * Dünnt alle Serien eines Datasets für einen Zeitbereich aus
+     */
+    public static ArrayXYDataset downsample(ArrayXYDataset dataset, double lower, double upper, int buckets) {
+        List<ArrayXYDataset.Series> result = new ArrayList<>(dataset.getSeriesCount());
+        for (ArrayXYDataset.Series series : dataset.getSeriesList()) {
+            result.add(downsample(series, lower, upper, buckets));
+        }
+        return ArrayXYDataset.of(result);
+    }
+
+    /**
+     * Dünnt eine Serie nach dem Min/Max-Verfahren aus. Außerhalb des Bereichs
+     * bleibt je Seite der nächste Punkt erhalten, damit die Linie bis an den
+     * Rand gezeichnet wird.
+     */
+    public static ArrayXYDataset.Series downsample(ArrayXYDataset.Series series, double lower, double upper, int buckets) {
+        int n = series.size();
+        if (n == 0) {
+            return series;
+        }
+        long[] xs = series.x;
+        double[] ys = series.y;
+
+        long from = Double.isInfinite(lower) ? xs[0] : (long) Math.floor(lower);
+        long to = Double.isInfinite(upper) ? xs[n - 1] : (long) Math.ceil(upper);
+        int start = Math.max(0, series.indexOf(from) - 1);
+        int end = Math.min(n, series.indexOf(to + 1) + 1);
+        if (start == 0 && end == n && n <= (long) buckets * POINTS_PER_BUCKET) {
+            return series;
+        }
+        if (end - start <= (long) buckets * POINTS_PER_BUCKET) {
+            return new ArrayXYDataset.Series(series.getKey(),
+                    Arrays.copyOfRange(xs, start, end), Arrays.copyOfRange(ys, start, end));
+        }
+
+        long[] outX = new long[buckets * POINTS_PER_BUCKET + 2];
+        double[] outY = new double[outX.length];
+        int out = 0;
+        int[] picks = new int[POINTS_PER_BUCKET];
+
+        // Randpunkte vor und nach dem Bereich unverändert übernehmen
+        int first = start;
+        int last = end;
+        if (xs[first] < from) {
+            outX[out] = xs[first];
+            outY[out++] = ys[first];
+            first++;
+        }
+        boolean trailing = last > first && xs[last - 1] > to;
+        if (trailing) {
+            last--;
+        }
+
+        double span = Math.max(1.0, (double) to - from);
+        int i = first;
+        while (i < last) {
+            int bucket = (int) Math.min(buckets - 1, (long) ((xs[i] - from) / span * buckets));
+            long bucketEnd = from + (long) Math.ceil((bucket + 1) * span / buckets);
+            int minIndex = i;
+            int maxIndex = i;
+            int j = i;
+            while (j < last && (xs[j] < bucketEnd || bucket == buckets - 1)) {
+                if (ys[j] < ys[minIndex]) {
+                    minIndex = j;
+                }
+                if (ys[j] > ys[maxIndex]) {
+                    maxIndex = j;
+                }
+                j++;
+            }
+            if (j == i) {
+                // Rundung der Abschnittsgrenze, Punkt gehört zum nächsten Abschnitt
+                j = i + 1;
+            }
+
+            // Erster, Minimum, Maximum, letzter Punkt in Zeitreihenfolge, ohne Doppelte
+            picks[0] = i;
+            picks[1] = Math.min(minIndex, maxIndex);
+            picks[2] = Math.max(minIndex, maxIndex);
+            picks[3] = j - 1;
+            int previous = -1;
+            for (int pick : picks) {
+                if (pick != previous) {
+                    outX[out] = xs[pick];
+                    outY[out++] = ys[pick];
+                    previous = pick;
+                }
+            }
+            i = j;
+        }
+
+        if (trailing) {
+            outX[out] = xs[end - 1];
+            outY[out++] = ys[end - 1];
+        }
+        return new ArrayXYDataset.Series(series.getKey(), Arrays.copyOf(outX, out), Arrays.copyOf(outY, out));
+    }
+
+    /**
+     * Dünnt alle Datasets des Plots im ChartPanel bei Zoom, Verschieben,
+     * Größenänderung und beim Setzen eines neuen Datasets passend aus.
+     * Muss nur einmal je ChartPanel aufgerufen werden.
+     */
+    public static void attach(ChartPanel panel) {
+        XYPlot plot = panel.getChart().getXYPlot();
+        Runnable resampleAll = () -> resampleAll(panel, plot);
+        plot.getDomainAxis().addChangeListener(event -> resampleAll.run());
+        plot.addChangeListener(event -> resampleAll.run());
+        panel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                resampleAll.run();
+            }
+        });
+        resampleAll.run();
+    }
+
+    private static void resampleAll(ChartPanel panel, XYPlot plot) {
+        ValueAxis axis = plot.getDomainAxis();
+        int buckets = plotWidth(panel);
+        for (int i = 0; i < plot.getDatasetCount(); i++) {
+            XYDataset dataset = plot.getDataset(i);
+            if (dataset instanceof DownsampledXYDataset) {
+                ((DownsampledXYDataset) dataset).resample(axis.getLowerBound(), axis.getUpperBound(), buckets);
+            }
+        }
+    }
+
+    private static int plotWidth(ChartPanel panel) {
+        Rectangle2D dataArea = panel.getScreenDataArea();
+        if (dataArea != null && dataArea.getWidth() > 0) {
+            return (int) Math.ceil(dataArea.getWidth());
+        }
+        return panel.getWidth() > 0 ? panel.getWidth() : DEFAULT_BUCKETS;
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return view.getSeriesCount();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Comparable getSeriesKey(int series) {
+        return view.getSeriesKey(series);
+    }
+
+    @Override
+    public int getItemCount(int series) {
+        return view.getItemCount(series);
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    @Override
+    public Number getX(int series, int item) {
+        return view.getX(series, item);
+    }
+
+    @Override
+    public double getXValue(int series, int item) {
+        return view.getXValue(series, item);
+    }
+
+    @Override
+    public Number getY(int series, int item) {
+        return view.getY(series, item);
+    }
+
+    @Override
+    public double getYValue(int series, int item) {
+        return view.getYValue(series, item);
+    }
+
+    @Override
+    public double getDomainLowerBound(boolean includeInterval) {
+        return source.getDomainLowerBound(includeInterval);
+    }
+
+    @Override
+    public double getDomainUpperBound(boolean includeInterval) {
+        return source.getDomainUpperBound(includeInterval);
+    }
+
+    @Override
+    public Range getDomainBounds(boolean includeInterval) {
+        return source.getDomainBounds(includeInterval);
+    }
+
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        return source.getRangeLowerBound(includeInterval);
+    }
+
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        return source.getRangeUpperBound(includeInterval);
+    }
+
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        return source.getRangeBounds(includeInterval);
+    }
+}
@@ -6,10 +6,8 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -23,30 +21,25 @@ import org.jfree.chart.axis.DateAxis;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.time.Day;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
 import data.Trade;
 
 public class DrawdownChart extends JPanel {
     private final JFreeChart chart;
-    private final TimeSeriesCollection dataset;
     private double currentBalance;
     private double peak;
     
     public DrawdownChart(List<Trade> trades, double initialBalance) {
         setLayout(new BorderLayout());
-        dataset = new TimeSeriesCollection();
         this.currentBalance = initialBalance;
         this.peak = initialBalance;
         
-        TimeSeries realizedSeries = new TimeSeries("Realized Drawdown");
-        TimeSeries openRiskSeries = new TimeSeries("Potential Risk");
-        
         List<Trade> sortedTrades = new ArrayList<>(trades);
         sortedTrades.sort(Comparator.comparing(Trade::getCloseTime));
         
+        ArrayXYDataset.SeriesBuilder realizedSeries = new ArrayXYDataset.SeriesBuilder("Realized Drawdown", sortedTrades.size());
+        ArrayXYDataset.SeriesBuilder openRiskSeries = new ArrayXYDataset.SeriesBuilder("Potential Risk", sortedTrades.size());
+        
         TreeMap<LocalDateTime, Double> openLotsAtTime = new TreeMap<>();
         
         for (Trade trade : sortedTrades) {
@@ -81,22 +74,20 @@ public class DrawdownChart extends JPanel {
             double potentialLoss = estimatePotentialLoss(currentOpenLots, avgLossPerLot, currentBalance);
             double potentialDrawdown = calculateDrawdownPercentage(currentBalance - potentialLoss, peak);
             
-            Date tradeDate = Date.from(currentTime
-                .atZone(ZoneId.systemDefault())
-                .toInstant());
+            // Ein Punkt je Tag, der letzte Trade des Tages bestimmt den Wert
+            LocalDateTime tradeDay = currentTime.toLocalDate().atStartOfDay();
             
-            realizedSeries.addOrUpdate(new Day(tradeDate), drawdown);
-            openRiskSeries.addOrUpdate(new Day(tradeDate), Math.max(drawdown, potentialDrawdown));
+            realizedSeries.add(tradeDay, drawdown);
+            openRiskSeries.add(tradeDay, Math.max(drawdown, potentialDrawdown));
         }
         
-        dataset.addSeries(realizedSeries);
-        dataset.addSeries(openRiskSeries);
+        ArrayXYDataset dataset = ArrayXYDataset.of(realizedSeries.build(), openRiskSeries.build());
         
         chart = ChartFactory.createTimeSeriesChart(
             "Risk Exposure Over Time",  
             "Time",               
             "Risk %",        
-            dataset,            
+            new DownsampledXYDataset(dataset),            
             true,              
             true,              
             false             
@@ -108,6 +99,7 @@ public class DrawdownChart extends JPanel {
         chartPanel.setPreferredSize(new Dimension(950, 300));
         chartPanel.setMouseWheelEnabled(true);
         chartPanel.setMouseZoomable(true);
+        DownsampledXYDataset.attach(chartPanel);
         add(chartPanel, BorderLayout.CENTER);
     }
     
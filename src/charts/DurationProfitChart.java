@@ -14,6 +14,7 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYItemRenderer;
+import org.jfree.data.xy.XYDataset;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
@@ -22,24 +23,13 @@ import data.Trade;
 public class DurationProfitChart extends JPanel {
     
     public DurationProfitChart(List<Trade> trades) {
-        XYSeries winnerSeries = new XYSeries("Winners");
-        XYSeries loserSeries = new XYSeries("Losers");
-        
-        for (Trade trade : trades) {
-            double durationInHours = convertToHours(trade);
-            double profit = trade.getProfit();
-            
-            if (profit >= 0) {
-                winnerSeries.add(durationInHours, profit);
-            } else {
-                loserSeries.add(durationInHours, profit);
-            }
-        }
-        
-        XYSeriesCollection dataset = new XYSeriesCollection();
-        dataset.addSeries(winnerSeries);
-        dataset.addSeries(loserSeries);
-        
+        this(createDataset(trades));
+    }
+    
+    /**
+     * @param dataset Mit {@link #createDataset(List)} berechnete Daten
+     */
+    public DurationProfitChart(XYDataset dataset) {
         JFreeChart chart = ChartFactory.createScatterPlot(
             "Duration (Profit)",
             "Duration (hours)",
@@ -78,7 +68,31 @@ public class DurationProfitChart extends JPanel {
         add(chartPanel);
     }
     
-    private double convertToHours(Trade trade) {
+    /**
+     * Berechnet Gewinner und Verlierer nach Haltedauer, ohne Swing-Komponenten zu erzeugen
+     */
+    public static XYSeriesCollection createDataset(List<Trade> trades) {
+        XYSeries winnerSeries = new XYSeries("Winners");
+        XYSeries loserSeries = new XYSeries("Losers");
+        
+        for (Trade trade : trades) {
+            double durationInHours = convertToHours(trade);
+            double profit = trade.getProfit();
+            
+            if (profit >= 0) {
+                winnerSeries.add(durationInHours, profit);
+            } else {
+                loserSeries.add(durationInHours, profit);
+            }
+        }
+        
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        dataset.addSeries(winnerSeries);
+        dataset.addSeries(loserSeries);
+        return dataset;
+    }
+    
+    private static double convertToHours(Trade trade) {
         long minutes = Duration.between(trade.getOpenTime(), trade.getCloseTime()).toMinutes();
         return minutes / 60.0; // Konvertiere zu Stunden
     }
@@ -29,9 +29,7 @@ import data.Trade;
 
 public class EfficiencyChart extends JPanel {
     
-    private final List<Trade> trades;
-    private TreeMap<LocalDate, List<Trade>> weeklyTrades;
-    private DefaultCategoryDataset dataset;
+    private final DefaultCategoryDataset dataset;
     
     // Tooltip Text
     private static final String TOOLTIP_TEXT = 
@@ -53,12 +51,15 @@ public class EfficiencyChart extends JPanel {
         "</div></html>";
     
     public EfficiencyChart(List<Trade> trades) {
-        this.trades = trades;
+        this(createDataset(trades));
+    }
+    
+    /**
+     * @param dataset Mit {@link #createDataset(List)} berechnete Daten
+     */
+    public EfficiencyChart(DefaultCategoryDataset dataset) {
         setLayout(new java.awt.BorderLayout());
-        
-        // Interne Berechnung
-        this.weeklyTrades = groupTradesByWeek();
-        this.dataset = createDataset();
+        this.dataset = dataset;
         
         // Chart erstellen
         JFreeChart chart = createChart();
@@ -150,8 +151,12 @@ public class EfficiencyChart extends JPanel {
         return chart;
     }
     
-    private DefaultCategoryDataset createDataset() {
+    /**
+     * Berechnet den Effizienzwert je Woche, ohne Swing-Komponenten zu erzeugen
+     */
+    public static DefaultCategoryDataset createDataset(List<Trade> trades) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        TreeMap<LocalDate, List<Trade>> weeklyTrades = groupTradesByWeek(trades);
         
         // Effizienzwert für jede Woche berechnen
         for (LocalDate weekStart : weeklyTrades.keySet()) {
@@ -187,7 +192,7 @@ public class EfficiencyChart extends JPanel {
     /**
      * Erstellt ein übersichtliches Label für eine Woche
      */
-    private String createWeekLabel(LocalDate weekStart, LocalDate weekEnd) {
+    private static String createWeekLabel(LocalDate weekStart, LocalDate weekEnd) {
         // Format: "KW[WeekOfYear] (MM/YY)"
         int weekNumber = weekStart.get(java.time.temporal.WeekFields.ISO.weekOfYear());
         String monthYear = weekStart.format(DateTimeFormatter.ofPattern("MM/yy"));
@@ -199,7 +204,7 @@ public class EfficiencyChart extends JPanel {
      * Gruppiert die Trades nach Kalenderwochen
      * Jede Woche beginnt am Montag und endet am Sonntag
      */
-    private TreeMap<LocalDate, List<Trade>> groupTradesByWeek() {
+    private static TreeMap<LocalDate, List<Trade>> groupTradesByWeek(List<Trade> trades) {
         TreeMap<LocalDate, List<Trade>> weeklyTrades = new TreeMap<>();
         
         for (Trade trade : trades) {
@@ -7,12 +7,12 @@ import java.awt.Font;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import javax.swing.JPanel;
@@ -30,12 +30,8 @@ import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.chart.ui.Layer;
 import org.jfree.chart.ui.RectangleAnchor;
 import org.jfree.chart.ui.TextAnchor;
-import org.jfree.data.time.Millisecond;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
 import data.ProviderStats;
-import data.Trade;
 import utils.HtmlDatabase;
 
 /**
@@ -44,14 +40,26 @@ import utils.HtmlDatabase;
  */
 public class EquityDrawdownChart extends JPanel {
     private final JFreeChart chart;
-    private final TimeSeriesCollection dataset;
-    private final ProviderStats stats;
-    private final double maxDrawdownGraphic;
-    private final HtmlDatabase htmlDatabase;
+    private DownsampledXYDataset dataset = new DownsampledXYDataset(ArrayXYDataset.empty());
     
-    // Liste der Zeitpunkte mit Extrempunkten für spezielle Markierung
-    private final List<Date> extremePoints = new ArrayList<>();
-    private final double extremeThreshold = 5.0; // Schwellenwert für Extrempunkte (5% oder höher)
+    // Zeitpunkte (Millisekunden) der Extrempunkte für spezielle Markierung
+    private final TreeSet<Long> extremePoints;
+    private static final double EXTREME_THRESHOLD = 5.0; // Schwellenwert für Extrempunkte (5% oder höher)
+    
+    /**
+     * Im Hintergrund berechneter Drawdown-Verlauf, siehe {@link EquityDrawdownChart#loadData}
+     */
+    public static final class DrawdownData {
+        private final ArrayXYDataset.Series series;
+        private final double maxDrawdown;
+        private final TreeSet<Long> extremePoints;
+        
+        private DrawdownData(ArrayXYDataset.Series series, double maxDrawdown, TreeSet<Long> extremePoints) {
+            this.series = series;
+            this.maxDrawdown = maxDrawdown;
+            this.extremePoints = extremePoints;
+        }
+    }
     
     /**
      * Konstruktor für die EquityDrawdownChart-Komponente mit HtmlDatabase
@@ -61,27 +69,24 @@ public class EquityDrawdownChart extends JPanel {
      * @param htmlDatabase Die HtmlDatabase-Instanz für den Zugriff auf Drawdown-Daten
      */
     public EquityDrawdownChart(ProviderStats stats, double maxDrawdownGraphic, HtmlDatabase htmlDatabase) {
-        this.stats = stats;
-        this.maxDrawdownGraphic = maxDrawdownGraphic;
-        this.htmlDatabase = htmlDatabase;
+        this(loadData(stats, maxDrawdownGraphic, htmlDatabase));
+    }
+    
+    /**
+     * @param data Mit {@link #loadData} berechneter Drawdown-Verlauf
+     */
+    public EquityDrawdownChart(DrawdownData data) {
+        this.extremePoints = data.extremePoints;
         
         setLayout(new BorderLayout());
         setBorder(new EmptyBorder(0, 0, 0, 0));
         
-        // Debug-Ausgaben für die übergebenen Parameter
-        System.out.println("EquityDrawdownChart erstellt für Provider: " + (stats != null ? stats.getSignalProvider() : "null"));
-        System.out.println("MaxDrawdownGraphic Wert: " + maxDrawdownGraphic);
-        System.out.println("HtmlDatabase ist " + (htmlDatabase != null ? "verfügbar" : "null"));
-        
-        // Dataset erstellen
-        dataset = new TimeSeriesCollection();
-        
         // Chart erstellen
         chart = createChart();
         
         // Chart anpassen und mit Daten füllen
         customizeChart();
-        populateChart();
+        populateChart(data);
         
         // ChartPanel erstellen und konfigurieren
         ChartPanel chartPanel = new ChartPanel(chart);
@@ -90,6 +95,7 @@ public class EquityDrawdownChart extends JPanel {
         chartPanel.setMouseWheelEnabled(true);
         chartPanel.setBorder(null);
         chartPanel.setSize(new Dimension(950, 300));
+        DownsampledXYDataset.attach(chartPanel);
         
         add(chartPanel, BorderLayout.CENTER);
         
@@ -131,14 +137,7 @@ public class EquityDrawdownChart extends JPanel {
         XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer() {
             @Override
             public java.awt.Shape getItemShape(int series, int item) {
-                // Hole den Zeitpunkt für diesen Datenpunkt
-                Date itemDate = new Date(dataset.getSeries(series).getTimePeriod(item).getFirstMillisecond());
-                
-                // Prüfe, ob dieser Zeitpunkt ein Extrempunkt ist
-                boolean isExtreme = extremePoints.stream()
-                    .anyMatch(extremeDate -> Math.abs(extremeDate.getTime() - itemDate.getTime()) < 60000); // 1 Minute Toleranz
-                
-                if (isExtreme) {
+                if (isExtremePoint(series, item)) {
                     // Kleinerer roter Kreis für Extrempunkte (6x6 statt 12x12)
                     return new java.awt.geom.Ellipse2D.Double(-3, -3, 6, 6);
                 } else {
@@ -149,14 +148,7 @@ public class EquityDrawdownChart extends JPanel {
             
             @Override
             public java.awt.Paint getItemPaint(int series, int item) {
-                // Hole den Zeitpunkt für diesen Datenpunkt
-                Date itemDate = new Date(dataset.getSeries(series).getTimePeriod(item).getFirstMillisecond());
-                
-                // Prüfe, ob dieser Zeitpunkt ein Extrempunkt ist
-                boolean isExtreme = extremePoints.stream()
-                    .anyMatch(extremeDate -> Math.abs(extremeDate.getTime() - itemDate.getTime()) < 60000); // 1 Minute Toleranz
-                
-                if (isExtreme) {
+                if (isExtremePoint(series, item)) {
                     return new Color(255, 0, 0, 200); // Leuchtend rot für Extrempunkte
                 } else {
                     return new Color(220, 20, 60); // Normale Linienfarbe
@@ -165,12 +157,8 @@ public class EquityDrawdownChart extends JPanel {
             
             @Override
             public boolean getItemShapeVisible(int series, int item) {
-                // Hole den Zeitpunkt für diesen Datenpunkt
-                Date itemDate = new Date(dataset.getSeries(series).getTimePeriod(item).getFirstMillisecond());
-                
                 // Zeige Shapes nur für Extrempunkte
-                return extremePoints.stream()
-                    .anyMatch(extremeDate -> Math.abs(extremeDate.getTime() - itemDate.getTime()) < 60000); // 1 Minute Toleranz
+                return isExtremePoint(series, item);
             }
         };
         
@@ -198,6 +186,13 @@ public class EquityDrawdownChart extends JPanel {
         chart.getTitle().setFont(new Font("SansSerif", Font.BOLD, 14));
     }
     
+    /**
+     * Prüft, ob der Datenpunkt auf einem gespeicherten Extrempunkt liegt
+     */
+    private boolean isExtremePoint(int series, int item) {
+        return extremePoints.contains((long) dataset.getXValue(series, item));
+    }
+    
     /**
      * Dynamische Erstellung von horizontalen Linien und Farbmarkierungen 
      * basierend auf dem tatsächlichen Drawdown-Bereich
@@ -322,10 +317,20 @@ public class EquityDrawdownChart extends JPanel {
     }
     
     /**
-     * Berechnet die Drawdown-Daten und füllt das Chart
+     * Lädt bzw. berechnet den Drawdown-Verlauf, ohne Swing-Komponenten zu erzeugen
+     * 
+     * @param stats ProviderStats-Objekt mit allen Trades
+     * @param maxDrawdownGraphic Wert des maximalen Drawdowns aus der HTML-Datenbank
+     * @param htmlDatabase Die HtmlDatabase-Instanz für den Zugriff auf Drawdown-Daten
      */
-    private void populateChart() {
-        TimeSeries drawdownSeries = new TimeSeries("Drawdown");
+    public static DrawdownData loadData(ProviderStats stats, double maxDrawdownGraphic, HtmlDatabase htmlDatabase) {
+        // Debug-Ausgaben für die übergebenen Parameter
+        System.out.println("EquityDrawdownChart erstellt für Provider: " + (stats != null ? stats.getSignalProvider() : "null"));
+        System.out.println("MaxDrawdownGraphic Wert: " + maxDrawdownGraphic);
+        System.out.println("HtmlDatabase ist " + (htmlDatabase != null ? "verfügbar" : "null"));
+        
+        ArrayXYDataset.SeriesBuilder drawdownSeries = new ArrayXYDataset.SeriesBuilder("Drawdown");
+        TreeSet<Long> extremePoints = new TreeSet<>();
         
         boolean dataFound = false;
         double actualMaxDrawdown = 0.0;
@@ -343,7 +348,7 @@ public class EquityDrawdownChart extends JPanel {
             
             if (drawdownData != null && !drawdownData.isEmpty()) {
                 System.out.println("Drawdown-Daten gefunden! Länge: " + drawdownData.length() + " Zeichen");
-                actualMaxDrawdown = processDrawdownData(drawdownData, drawdownSeries);
+                actualMaxDrawdown = processDrawdownData(drawdownData, drawdownSeries, extremePoints);
                 dataFound = true;
             } else {
                 System.err.println("Keine Drawdown-Daten in der HTML-Datenbank gefunden für: " + txtFileName);
@@ -351,25 +356,39 @@ public class EquityDrawdownChart extends JPanel {
         }
         
         // Fallback: Berechne aus Trades
+        ArrayXYDataset.Series series;
         if (!dataFound || drawdownSeries.isEmpty()) {
             System.out.println("Berechne Drawdown-Daten aus den Trades...");
-            actualMaxDrawdown = calculateDrawdownFromTrades(drawdownSeries);
+            series = calculateDrawdownFromTrades(stats);
+            actualMaxDrawdown = series.isEmpty() ? 0.0 : series.getMaxY();
+        } else {
+            series = drawdownSeries.build();
         }
         
         // Dummy-Daten falls immer noch leer
-        if (drawdownSeries.isEmpty()) {
+        if (series.isEmpty()) {
             System.out.println("Keine Daten gefunden. Füge Dummy-Daten hinzu...");
             addDummyData(drawdownSeries);
+            series = drawdownSeries.build();
             actualMaxDrawdown = 5.0; // Konservativer Dummy-Wert
         } else {
-            System.out.println("Chart enthält " + drawdownSeries.getItemCount() + " Datenpunkte");
+            System.out.println("Chart enthält " + series.size() + " Datenpunkte");
             System.out.println("Tatsächlicher maximaler Drawdown: " + actualMaxDrawdown + "%");
         }
         
-        dataset.addSeries(drawdownSeries);
+        return new DrawdownData(series, actualMaxDrawdown, extremePoints);
+    }
+    
+    /**
+     * Füllt das Chart mit den berechneten Drawdown-Daten
+     */
+    private void populateChart(DrawdownData data) {
+        double actualMaxDrawdown = data.maxDrawdown;
+        dataset = new DownsampledXYDataset(ArrayXYDataset.of(data.series));
         
         // Y-Achsen-Skalierung dynamisch basierend auf den tatsächlichen Daten setzen
         XYPlot plot = (XYPlot) chart.getPlot();
+        plot.setDataset(dataset);
         NumberAxis rangeAxis = (NumberAxis) plot.getRangeAxis();
         
         // Berechne optimale obere Grenze
@@ -403,13 +422,17 @@ public class EquityDrawdownChart extends JPanel {
         
         // Debug-Zusammenfassung der Extrempunkte
         System.out.println("=== EXTREMPUNKTE ZUSAMMENFASSUNG ===");
-        System.out.println("Schwellenwert: " + extremeThreshold + "%");
+        System.out.println("Schwellenwert: " + EXTREME_THRESHOLD + "%");
         System.out.println("Gefundene Extrempunkte: " + extremePoints.size());
         if (!extremePoints.isEmpty()) {
             System.out.println("Extrempunkte werden mit großen roten Kreisen markiert!");
             // Zeige die ersten paar Extrempunkte als Beispiel
-            for (int i = 0; i < Math.min(5, extremePoints.size()); i++) {
-                System.out.println("Extrempunkt " + (i+1) + ": " + extremePoints.get(i));
+            int shown = 0;
+            for (Long extremeMillis : extremePoints) {
+                if (shown == 5) {
+                    break;
+                }
+                System.out.println("Extrempunkt " + (++shown) + ": " + new Date(extremeMillis));
             }
             if (extremePoints.size() > 5) {
                 System.out.println("... und " + (extremePoints.size() - 5) + " weitere");
@@ -425,13 +448,15 @@ public class EquityDrawdownChart extends JPanel {
      * Pro Datum werden alle Werte aufgenommen: der maximale Wert wird 5x mit 10-Minuten-Versatz eingefügt,
      * die restlichen Werte werden flexibel über den Tag verteilt für optimale Sichtbarkeit
      */
-    private double processDrawdownData(String drawdownData, TimeSeries drawdownSeries) {
+    private static double processDrawdownData(String drawdownData, ArrayXYDataset.SeriesBuilder drawdownSeries,
+            TreeSet<Long> extremePoints) {
         String[] lines = drawdownData.split("\n");
         
         System.out.println("Verarbeite " + lines.length + " Zeilen mit Drawdown-Daten");
         
-        // Map um für jedes Datum alle Drawdown-Werte zu sammeln
-        Map<LocalDate, List<Double>> drawdownPerDate = new HashMap<>();
+        // Map um für jedes Datum alle Drawdown-Werte zu sammeln, nach Datum sortiert,
+        // damit die Punkte bereits in Zeitreihenfolge in die Serie kommen
+        Map<LocalDate, List<Double>> drawdownPerDate = new TreeMap<>();
         double overallMaxDrawdown = 0.0;
         int processedLines = 0;
         
@@ -481,7 +506,7 @@ public class EquityDrawdownChart extends JPanel {
                 .sorted((a, b) -> Double.compare(b, a)) // Absteigend sortieren
                 .collect(Collectors.toList());
             
-            int pointsAdded = addFlexibleDailyPoints(drawdownSeries, date, uniqueValues);
+            int pointsAdded = addFlexibleDailyPoints(drawdownSeries, date, uniqueValues, extremePoints);
             totalAddedPoints += pointsAdded;
             
             // Debug: Zeige Details für Tage mit hohem Drawdown
@@ -493,7 +518,7 @@ public class EquityDrawdownChart extends JPanel {
             }
         }
         
-        System.out.println("TimeSeries befüllt mit " + totalAddedPoints + " Datenpunkten");
+        System.out.println("Serie befüllt mit " + totalAddedPoints + " Datenpunkten");
         System.out.println("Durchschnittlich " + (totalAddedPoints / (double)drawdownPerDate.size()) + " Punkte pro Tag");
         
         return overallMaxDrawdown;
@@ -504,7 +529,8 @@ public class EquityDrawdownChart extends JPanel {
      * Das Maximum wird 5x mit 10-Minuten-Versatz eingefügt für bessere Sichtbarkeit
      * Extrempunkte über dem Schwellenwert werden für spezielle Markierung gespeichert
      */
-    private int addFlexibleDailyPoints(TimeSeries drawdownSeries, LocalDate date, List<Double> sortedValues) {
+    private static int addFlexibleDailyPoints(ArrayXYDataset.SeriesBuilder drawdownSeries, LocalDate date,
+            List<Double> sortedValues, TreeSet<Long> extremePoints) {
         if (sortedValues.isEmpty()) {
             return 0;
         }
@@ -515,13 +541,13 @@ public class EquityDrawdownChart extends JPanel {
         // Phase 1: Maximum 5x mit 10-Minuten-Versatz einfügen (00:00, 00:10, 00:20, 00:30, 00:40)
         for (int i = 0; i < 5; i++) {
             LocalDateTime maxTime = date.atTime(0, i * 10); // 0:00, 0:10, 0:20, 0:30, 0:40
-            Date javaDate = Date.from(maxTime.atZone(ZoneId.systemDefault()).toInstant());
-            drawdownSeries.addOrUpdate(new Millisecond(javaDate), maxValue);
+            long millis = ArrayXYDataset.toMillis(maxTime);
+            drawdownSeries.add(millis, maxValue);
             pointsAdded++;
             
             // Prüfe, ob dies ein Extrempunkt ist und speichere ihn
-            if (maxValue >= extremeThreshold) {
-                extremePoints.add(javaDate);
+            if (maxValue >= EXTREME_THRESHOLD) {
+                extremePoints.add(millis);
             }
         }
         
@@ -550,14 +576,14 @@ public class EquityDrawdownChart extends JPanel {
                     int minutes = totalMinutesFromMidnight % 60;
                     
                     LocalDateTime valueTime = date.atTime(hours, minutes);
-                    Date javaDate = Date.from(valueTime.atZone(ZoneId.systemDefault()).toInstant());
+                    long millis = ArrayXYDataset.toMillis(valueTime);
                     
-                    drawdownSeries.addOrUpdate(new Millisecond(javaDate), value);
+                    drawdownSeries.add(millis, value);
                     pointsAdded++;
                     
                     // Prüfe, ob dies ein Extrempunkt ist und speichere ihn
-                    if (value >= extremeThreshold) {
-                        extremePoints.add(javaDate);
+                    if (value >= EXTREME_THRESHOLD) {
+                        extremePoints.add(millis);
                     }
                 }
             }
@@ -565,12 +591,12 @@ public class EquityDrawdownChart extends JPanel {
         
         // Debug für Tage mit vielen Datenpunkten oder Extrempunkten
         long extremePointsToday = sortedValues.stream()
-            .mapToLong(v -> v >= extremeThreshold ? 1 : 0)
+            .mapToLong(v -> v >= EXTREME_THRESHOLD ? 1 : 0)
             .sum();
         
         if (extremePointsToday > 0) {
             System.out.println("EXTREMPUNKTE für " + date + ": " + extremePointsToday + 
-                             " Werte über " + extremeThreshold + "%, Max: " + maxValue + "%");
+                             " Werte über " + EXTREME_THRESHOLD + "%, Max: " + maxValue + "%");
         }
         
         if (sortedValues.size() > 50) {
@@ -582,57 +608,31 @@ public class EquityDrawdownChart extends JPanel {
     }
     
     /**
-     * Berechnet Drawdown-Daten aus den Trades und gibt den maximalen Drawdown zurück
+     * Liefert den aus den Trades berechneten Drawdown-Verlauf, geteilt mit
+     * anderen Charts und Dialogen desselben Providers
      */
-    private double calculateDrawdownFromTrades(TimeSeries drawdownSeries) {
+    private static ArrayXYDataset.Series calculateDrawdownFromTrades(ProviderStats stats) {
         if (stats.getTrades().isEmpty()) {
             System.out.println("Keine Trades zum Berechnen des Drawdowns vorhanden");
-            return 0.0;
+            return new ArrayXYDataset.SeriesBuilder("Drawdown").build();
         }
         
-        List<Trade> sortedTrades = new ArrayList<>(stats.getTrades());
-        sortedTrades.sort((t1, t2) -> t1.getCloseTime().compareTo(t2.getCloseTime()));
-        
-        double currentBalance = stats.getInitialBalance();
-        double peak = currentBalance;
-        double maxDrawdown = 0.0;
-        
-        System.out.println("Berechne Drawdown aus " + sortedTrades.size() + " Trades, Startguthaben: " + currentBalance);
-        
-        for (Trade trade : sortedTrades) {
-            currentBalance += trade.getTotalProfit();
-            
-            if (currentBalance > peak) {
-                peak = currentBalance;
-            }
-            
-            if (peak > 0) {
-                double drawdownPercent = ((peak - currentBalance) / peak) * 100.0;
-                maxDrawdown = Math.max(maxDrawdown, drawdownPercent);
-                
-                Date date = Date.from(trade.getCloseTime()
-                    .atZone(ZoneId.systemDefault())
-                    .toInstant());
-                
-                drawdownSeries.addOrUpdate(new Millisecond(date), drawdownPercent);
-            }
-        }
+        ArrayXYDataset.Series series = DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.DRAWDOWN);
         
-        System.out.println("Drawdown-Berechnung abgeschlossen. Datenpunkte: " + drawdownSeries.getItemCount());
-        System.out.println("Maximaler berechneter Drawdown: " + maxDrawdown + "%");
+        System.out.println("Drawdown-Berechnung abgeschlossen. Datenpunkte: " + series.size());
+        System.out.println("Maximaler berechneter Drawdown: " + (series.isEmpty() ? 0.0 : series.getMaxY()) + "%");
         
-        return maxDrawdown;
+        return series;
     }
     
     /**
      * Fügt Dummy-Daten hinzu (nur für Debug-Zwecke)
      */
-    private void addDummyData(TimeSeries drawdownSeries) {
+    private static void addDummyData(ArrayXYDataset.SeriesBuilder drawdownSeries) {
         LocalDate now = LocalDate.now();
         for (int i = 0; i < 10; i++) {
             LocalDateTime dateTime = now.minusDays(i * 30).atTime(0, 0);
-            Date date = Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
-            drawdownSeries.addOrUpdate(new Millisecond(date), i * 0.5); // Konservative Dummy-Werte: 0%, 0.5%, 1%, etc.
+            drawdownSeries.add(dateTime, i * 0.5); // Konservative Dummy-Werte: 0%, 0.5%, 1%, etc.
         }
     }
     
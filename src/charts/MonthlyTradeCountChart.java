@@ -30,12 +30,19 @@ import org.jfree.chart.renderer.category.StandardBarPainter;
 import org.jfree.chart.ui.TextAnchor;
 import org.jfree.data.category.DefaultCategoryDataset;
 
+import data.ProviderStats;
 import data.Trade;
 
 public class MonthlyTradeCountChart extends JPanel {
     
     public MonthlyTradeCountChart(List<Trade> trades) {
-        DefaultCategoryDataset dataset = createDataset(trades);
+        this(createDataset(trades));
+    }
+    
+    /**
+     * @param dataset Mit {@link #createDataset(List)} berechnete Daten
+     */
+    public MonthlyTradeCountChart(DefaultCategoryDataset dataset) {
         JFreeChart chart = createChart(dataset);
         
         ChartPanel chartPanel = new ChartPanel(chart);
@@ -45,7 +52,27 @@ public class MonthlyTradeCountChart extends JPanel {
         add(chartPanel);
     }
     
-    private DefaultCategoryDataset createDataset(List<Trade> trades) {
+    /**
+     * Liefert die Trades je Monat aus dem {@link DerivedSeriesCache}, ohne
+     * Swing-Komponenten zu erzeugen
+     */
+    public static DefaultCategoryDataset createDataset(ProviderStats stats) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        ArrayXYDataset.Series counts = DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.MONTHLY_TRADE_COUNT);
+        
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
+        for (int i = 0; i < counts.size(); i++) {
+            String month = DerivedSeriesCache.monthOf(counts.getX(i)).format(formatter);
+            dataset.addValue((int) counts.getY(i), "Trades", month);
+        }
+        
+        return dataset;
+    }
+    
+    /**
+     * Zählt die Trades je Monat, ohne Swing-Komponenten zu erzeugen
+     */
+    public static DefaultCategoryDataset createDataset(List<Trade> trades) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         
         // Gruppiere Trades nach Monat (YearMonth)
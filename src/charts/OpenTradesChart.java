@@ -6,8 +6,6 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -21,18 +19,16 @@ import org.jfree.chart.axis.DateAxis;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.time.Millisecond;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
+import data.ProviderStats;
 import data.Trade;
 
 public class OpenTradesChart extends JPanel {
     private final JFreeChart chart;
-    private final TimeSeriesCollection dataset;
+    private ArrayXYDataset dataset;
     
     public OpenTradesChart() {
-        dataset = new TimeSeriesCollection();
+        dataset = ArrayXYDataset.empty();
         
         chart = ChartFactory.createTimeSeriesChart(
             null,  // Kein Titel, wird sp�ter gesetzt
@@ -71,61 +67,73 @@ public class OpenTradesChart extends JPanel {
         // Layout 
         ChartPanel chartPanel = new ChartPanel(chart);
         chartPanel.setPreferredSize(new Dimension(800, 400));
+        DownsampledXYDataset.attach(chartPanel);
         
         setLayout(new BorderLayout());
         add(chartPanel, BorderLayout.CENTER);
     }
     
+    /**
+     * Fügt den Verlauf der offenen Trades eines Providers aus dem gemeinsamen Cache hinzu
+     */
+    public void addProvider(String providerName, ProviderStats stats) {
+        ArrayXYDataset.Series series = DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.OPEN_TRADES);
+        setDataset(dataset.withSeries(series.withKey(providerName)));
+        chart.setTitle("Verlauf der gleichzeitig geöffneten Trades");
+    }
+    
+    /**
+     * Fügt den Verlauf der offenen Lots eines Providers aus dem gemeinsamen Cache hinzu
+     */
+    public void addLotsProvider(String providerName, ProviderStats stats) {
+        ArrayXYDataset.Series series = DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.OPEN_LOTS);
+        setDataset(dataset.withSeries(series.withKey(providerName)));
+        chart.setTitle("Summe der offenen Lots");
+    }
+    
     public void addProvider(String providerName, List<Trade> trades) {
-        TimeSeries series = new TimeSeries(providerName);
-        
         TreeMap<LocalDateTime, Integer> changes = new TreeMap<>();
         for (Trade trade : trades) {
             changes.merge(trade.getOpenTime(), 1, Integer::sum);
             changes.merge(trade.getCloseTime(), -1, Integer::sum);
         }
         
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(providerName, changes.size());
         int currentOpen = 0;
         for (Map.Entry<LocalDateTime, Integer> entry : changes.entrySet()) {
             currentOpen += entry.getValue();
-            series.addOrUpdate(
-                new Millisecond(
-                    Date.from(entry.getKey().atZone(ZoneId.systemDefault()).toInstant())
-                ),
-                currentOpen
-            );
+            series.add(entry.getKey(), currentOpen);
         }
         
-        dataset.addSeries(series);
+        setDataset(dataset.withSeries(series.build()));
         chart.setTitle("Verlauf der gleichzeitig ge�ffneten Trades");
     }
     
     public void addLotsProvider(String providerName, List<Trade> trades) {
-        TimeSeries series = new TimeSeries(providerName);
-        
         TreeMap<LocalDateTime, Double> changes = new TreeMap<>();
         for (Trade trade : trades) {
             changes.merge(trade.getOpenTime(), trade.getLots(), Double::sum);
             changes.merge(trade.getCloseTime(), -trade.getLots(), Double::sum);
         }
         
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(providerName, changes.size());
         double currentLots = 0.0;
         for (Map.Entry<LocalDateTime, Double> entry : changes.entrySet()) {
             currentLots += entry.getValue();
-            series.addOrUpdate(
-                new Millisecond(
-                    Date.from(entry.getKey().atZone(ZoneId.systemDefault()).toInstant())
-                ),
-                currentLots
-            );
+            series.add(entry.getKey(), currentLots);
         }
         
-        dataset.addSeries(series);
+        setDataset(dataset.withSeries(series.build()));
         chart.setTitle("Summe der offenen Lots");
     }
     
     public void clear() {
-        dataset.removeAllSeries();
+        setDataset(ArrayXYDataset.empty());
+    }
+    
+    private void setDataset(ArrayXYDataset newDataset) {
+        dataset = newDataset;
+        chart.getXYPlot().setDataset(new DownsampledXYDataset(dataset));
     }
     
     public void setTitle(String title) {
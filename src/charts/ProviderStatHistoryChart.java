@@ -4,10 +4,10 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
-import java.time.ZoneId;
-import java.util.Date;
 import java.util.List;
 
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import org.jfree.chart.ChartFactory;
@@ -17,11 +17,9 @@ import org.jfree.chart.axis.DateAxis;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.time.Day;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
 import db.HistoryDatabaseManager.HistoryEntry;
+import db.SnapshotMetric;
 import services.ProviderHistoryService;
 
 /**
@@ -29,10 +27,11 @@ import services.ProviderHistoryService;
  */
 public class ProviderStatHistoryChart extends JPanel {
     private final JFreeChart chart;
-    private final TimeSeriesCollection dataset;
     private final ProviderHistoryService historyService;
     private String currentProvider;
     private String currentStatType;
+    private SnapshotMetric currentMetric;
+    private JComboBox<SnapshotMetric> metricSelector;
     private String chartTitle;
     private String yAxisLabel;
     
@@ -46,7 +45,6 @@ public class ProviderStatHistoryChart extends JPanel {
         setLayout(new BorderLayout());
         
         this.historyService = ProviderHistoryService.getInstance();
-        this.dataset = new TimeSeriesCollection();
         this.chartTitle = title;
         this.yAxisLabel = yLabel;
         
@@ -55,7 +53,7 @@ public class ProviderStatHistoryChart extends JPanel {
             chartTitle,
             "Datum",
             yAxisLabel,
-            dataset,
+            ArrayXYDataset.empty(),
             true,
             true,
             false
@@ -79,6 +77,23 @@ public class ProviderStatHistoryChart extends JPanel {
     public ProviderStatHistoryChart() {
         this("3MPDD-Verlauf", "3MPDD-Wert");
         this.currentStatType = ProviderHistoryService.STAT_TYPE_3MPDD;
+        this.currentMetric = SnapshotMetric.MPDD_3;
+        
+        // Auswahl der dargestellten Kennzahl aus den gespeicherten Snapshots
+        metricSelector = new JComboBox<>(SnapshotMetric.values());
+        metricSelector.setSelectedItem(SnapshotMetric.MPDD_3);
+        metricSelector.addActionListener(e -> {
+            SnapshotMetric metric = (SnapshotMetric) metricSelector.getSelectedItem();
+            if (metric != null && metric != currentMetric && currentProvider != null) {
+                loadProviderHistory(currentProvider, metric);
+            }
+        });
+        
+        JPanel selectorPanel = new JPanel();
+        selectorPanel.setBackground(Color.WHITE);
+        selectorPanel.add(new JLabel("Kennzahl:"));
+        selectorPanel.add(metricSelector);
+        add(selectorPanel, BorderLayout.NORTH);
     }
     
     /**
@@ -90,27 +105,68 @@ public class ProviderStatHistoryChart extends JPanel {
     public void loadProviderHistory(String providerName, String statType) {
         this.currentProvider = providerName;
         this.currentStatType = statType;
+        this.currentMetric = ProviderHistoryService.STAT_TYPE_3MPDD.equals(statType) ? SnapshotMetric.MPDD_3 : null;
         
-        // Dataset leeren
-        dataset.removeAllSeries();
-        
-        // Neue Serie für den Provider erstellen
-        TimeSeries series = new TimeSeries(providerName);
+        showHistory(providerName, historyService.getStatHistory(providerName, statType), chartTitle, yAxisLabel);
+    }
+    
+    /**
+     * Lädt und zeigt den Verlauf einer beliebigen Kennzahl aus den Snapshots.
+     * 3MPDD wird weiterhin aus der dichteren Statistik-Historie gelesen.
+     * 
+     * @param providerName Signal Provider Name
+     * @param metric Die anzuzeigende Kennzahl
+     */
+    public void loadProviderHistory(String providerName, SnapshotMetric metric) {
+        if (metric == SnapshotMetric.MPDD_3) {
+            loadProviderHistory(providerName, ProviderHistoryService.STAT_TYPE_3MPDD);
+            return;
+        }
+        this.currentProvider = providerName;
+        this.currentStatType = null;
+        this.currentMetric = metric;
         
-        // Historie abrufen
-        List<HistoryEntry> history = historyService.getStatHistory(providerName, statType);
+        showHistory(providerName, historyService.getSnapshotHistory(providerName, metric),
+                metric.getDisplayName() + "-Verlauf", metric.getDisplayName());
+    }
+    
+    /**
+     * Zeigt eine bereits geladene 3MPDD-Historie, z.B. im Hintergrund mit
+     * {@link ProviderHistoryService#getStatHistory} gelesen
+     * 
+     * @param providerName Signal Provider Name
+     * @param history Die 3MPDD-Historie des Providers
+     */
+    public void showProviderHistory(String providerName, List<HistoryEntry> history) {
+        this.currentProvider = providerName;
+        this.currentStatType = ProviderHistoryService.STAT_TYPE_3MPDD;
+        this.currentMetric = SnapshotMetric.MPDD_3;
         
-        // Serie befüllen
+        showHistory(providerName, history, chartTitle, yAxisLabel);
+    }
+    
+    private void showHistory(String providerName, List<HistoryEntry> history, String title, String valueLabel) {
+        // Gespeicherte und aus Trades rekonstruierte Werte getrennt darstellen, ein Punkt je Tag
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder(providerName, history.size());
+        ArrayXYDataset.SeriesBuilder synthetic = new ArrayXYDataset.SeriesBuilder(providerName + " (rekonstruiert)");
         for (HistoryEntry entry : history) {
-            Date date = Date.from(entry.getDate().atZone(ZoneId.systemDefault()).toInstant());
-            series.addOrUpdate(new Day(date), entry.getValue());
+            (entry.isSynthetic() ? synthetic : series).add(entry.getDate().toLocalDate().atStartOfDay(), entry.getValue());
         }
         
-        // Serie zum Dataset hinzufügen
-        dataset.addSeries(series);
+        // Dataset ersetzen
+        ArrayXYDataset dataset = ArrayXYDataset.of(series.build());
+        if (!synthetic.isEmpty()) {
+            dataset = dataset.withSeries(synthetic.build());
+        }
+        ((XYPlot) chart.getPlot()).setDataset(dataset);
+        
+        // Chart-Titel und Achse aktualisieren
+        chart.setTitle(title + " für " + providerName);
+        ((XYPlot) chart.getPlot()).getRangeAxis().setLabel(valueLabel);
         
-        // Chart-Titel aktualisieren
-        chart.setTitle(chartTitle + " für " + providerName);
+        if (metricSelector != null && currentMetric != null && metricSelector.getSelectedItem() != currentMetric) {
+            metricSelector.setSelectedItem(currentMetric);
+        }
     }
     
     /**
@@ -138,6 +194,10 @@ public class ProviderStatHistoryChart extends JPanel {
         renderer.setSeriesPaint(0, new Color(0, 0, 220));
         renderer.setSeriesShapesVisible(0, true);
         renderer.setSeriesStroke(0, new java.awt.BasicStroke(2.0f));
+        renderer.setSeriesPaint(1, Color.GRAY);
+        renderer.setSeriesShapesVisible(1, false);
+        renderer.setSeriesStroke(1, new java.awt.BasicStroke(1.5f, java.awt.BasicStroke.CAP_ROUND,
+                java.awt.BasicStroke.JOIN_ROUND, 1.0f, new float[] {6.0f, 4.0f}, 0.0f));
         plot.setRenderer(renderer);
         
         // Datums-Achse (X-Achse)
@@ -159,6 +219,8 @@ public class ProviderStatHistoryChart extends JPanel {
     public void refreshData() {
         if (currentProvider != null && currentStatType != null) {
             loadProviderHistory(currentProvider, currentStatType);
+        } else if (currentProvider != null && currentMetric != null) {
+            loadProviderHistory(currentProvider, currentMetric);
         }
     }
 }
\ No newline at end of file
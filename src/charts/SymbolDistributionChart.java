@@ -34,22 +34,15 @@ public class SymbolDistributionChart extends JPanel {
     };
     
     public SymbolDistributionChart(List<Trade> trades) {
+        this(createDataset(trades));
+    }
+    
+    /**
+     * @param dataset Mit {@link #createDataset(List)} berechnete Daten
+     */
+    public SymbolDistributionChart(DefaultPieDataset dataset) {
         setLayout(new BorderLayout());
-        dataset = new DefaultPieDataset();
-        
-        // Trades pro Symbol zhlen
-        Map<String, Long> symbolCounts = trades.stream()
-            .collect(Collectors.groupingBy(Trade::getSymbol, Collectors.counting()));
-        
-        // Gesamtanzahl der Trades berechnen
-        long totalTrades = symbolCounts.values().stream().mapToLong(Long::longValue).sum();
-        
-        // Daten zum Dataset hinzufgen
-        symbolCounts.forEach((symbol, count) -> {
-            double percentage = (count * 100.0) / totalTrades;
-            String label = String.format("%s (%d)", symbol, count);
-            dataset.setValue(label, count);
-        });
+        this.dataset = dataset;
         
         chart = ChartFactory.createPieChart(
             "Trade Distribution by Symbol",  // Titel
@@ -66,6 +59,28 @@ public class SymbolDistributionChart extends JPanel {
         add(chartPanel, BorderLayout.CENTER);
     }
     
+    /**
+     * Zhlt die Trades je Symbol, ohne Swing-Komponenten zu erzeugen
+     */
+    public static DefaultPieDataset createDataset(List<Trade> trades) {
+        DefaultPieDataset dataset = new DefaultPieDataset();
+        
+        // Trades pro Symbol zhlen
+        Map<String, Long> symbolCounts = trades.stream()
+            .collect(Collectors.groupingBy(Trade::getSymbol, Collectors.counting()));
+        
+        // Gesamtanzahl der Trades berechnen
+        long totalTrades = symbolCounts.values().stream().mapToLong(Long::longValue).sum();
+        
+        // Daten zum Dataset hinzufgen
+        symbolCounts.forEach((symbol, count) -> {
+            double percentage = (count * 100.0) / totalTrades;
+            String label = String.format("%s (%d)", symbol, count);
+            dataset.setValue(label, count);
+        });
+        return dataset;
+    }
+    
     private void customizeChart() {
         chart.setBackgroundPaint(Color.WHITE);
         
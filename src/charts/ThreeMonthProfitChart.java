@@ -3,6 +3,7 @@ package charts;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -12,39 +13,67 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.DateAxis;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.time.Month;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
 public class ThreeMonthProfitChart extends ChartPanel {
     
     public ThreeMonthProfitChart(Map<String, Double> monthlyProfits, double equityDrawdown) {
-        super(createChart(monthlyProfits, equityDrawdown));
+        this(createDataset(monthlyProfits, equityDrawdown));
+    }
+    
+    /**
+     * @param dataset Mit {@link #createDataset(Map, double)} berechnete Daten
+     */
+    public ThreeMonthProfitChart(ArrayXYDataset dataset) {
+        super(createChart(dataset));
         this.setMouseWheelEnabled(true);
         this.setDomainZoomable(true);
         this.setRangeZoomable(true);
     }
     
-    private static JFreeChart createChart(Map<String, Double> monthlyProfits, double equityDrawdown) {
-        TimeSeries series = new TimeSeries("3MPDD Verlauf");
+    /**
+     * Berechnet den 3MPDD je Monat aus der Monatsperformance, z.B.
+     * {@link DerivedSeriesCache.Kind#MONTHLY_PROFIT}, ohne Swing-Komponenten zu erzeugen
+     */
+    public static ArrayXYDataset createDataset(ArrayXYDataset.Series monthlyProfits, double equityDrawdown) {
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder("3MPDD Verlauf", monthlyProfits.size());
+        
+        // Nur ein Punkt pro Monat, Durchschnitt der drei vorherigen Monate
+        for (int i = 0; i < monthlyProfits.size(); i++) {
+            double mpdd = 0.0;
+            if (equityDrawdown != 0.0 && i >= 3) {
+                double avgProfit = (monthlyProfits.getY(i - 1) + monthlyProfits.getY(i - 2) + monthlyProfits.getY(i - 3)) / 3;
+                mpdd = avgProfit / equityDrawdown;
+            }
+            series.add(monthlyProfits.getX(i), mpdd);
+        }
         
+        return ArrayXYDataset.of(series.build());
+    }
+    
+    /**
+     * Berechnet den 3MPDD je Monat, ohne Swing-Komponenten zu erzeugen
+     */
+    public static ArrayXYDataset createDataset(Map<String, Double> monthlyProfits, double equityDrawdown) {
         // Sortiere die Monate chronologisch
         TreeMap<String, Double> sortedProfits = new TreeMap<>(monthlyProfits);
+        ArrayXYDataset.SeriesBuilder series = new ArrayXYDataset.SeriesBuilder("3MPDD Verlauf", sortedProfits.size());
         
         // Nur ein Punkt pro Monat
         for (Map.Entry<String, Double> entry : sortedProfits.entrySet()) {
             String currentMonth = entry.getKey();
             double mpdd = calculate3MPDD(sortedProfits, currentMonth, equityDrawdown);
             
-            // Konvertiere YYYY/MM in Month-Objekt für JFreeChart
+            // Konvertiere YYYY/MM in den Monatsanfang
             String[] parts = currentMonth.split("/");
             int year = Integer.parseInt(parts[0]);
             int month = Integer.parseInt(parts[1]);
-            series.add(new Month(month, year), mpdd);
+            series.add(LocalDate.of(year, month, 1).atStartOfDay(), mpdd);
         }
         
-        TimeSeriesCollection dataset = new TimeSeriesCollection(series);
-        
+        return ArrayXYDataset.of(series.build());
+    }
+    
+    private static JFreeChart createChart(ArrayXYDataset dataset) {
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
             "3MPDD Verlauf",
             "Datum",
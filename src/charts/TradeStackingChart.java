@@ -6,9 +6,7 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.text.SimpleDateFormat;
-import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 import javax.swing.JPanel;
@@ -24,41 +22,45 @@ import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.chart.ui.RectangleEdge;
-import org.jfree.data.time.Millisecond;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
+import data.ProviderStats;
 import data.Trade;
 
 
 
 public class TradeStackingChart extends JPanel {
  private final JFreeChart chart;
- private final TimeSeriesCollection tradeDataset;
- private final TimeSeriesCollection lotsDataset;
+ private final XYPlot plot;
 
- public TradeStackingChart(List<Trade> trades) {
-     tradeDataset = new TimeSeriesCollection();
-     lotsDataset = new TimeSeriesCollection();
+ public TradeStackingChart(ProviderStats stats) {
+     this(DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.OPEN_TRADES),
+          DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.OPEN_LOTS));
+ }
+
+ /**
+  * @param openTrades Verlauf der offenen Trades, z.B. aus dem {@link DerivedSeriesCache}
+  * @param openLots Verlauf der offenen Lots
+  */
+ public TradeStackingChart(ArrayXYDataset.Series openTrades, ArrayXYDataset.Series openLots) {
      
      chart = ChartFactory.createTimeSeriesChart(
          "History of Simultaneously Open Trades Over Time",
          "Time",
          "Number of open Trades",
-         tradeDataset,
+         ArrayXYDataset.empty(),
          true,
          true,
          false
      );
      
      // Plot-Grundeinstellungen
-     XYPlot plot = (XYPlot) chart.getPlot();
+     plot = (XYPlot) chart.getPlot();
      plot.setBackgroundPaint(Color.WHITE);
      plot.setDomainGridlinePaint(new Color(220, 220, 220));
      plot.setRangeGridlinePaint(new Color(220, 220, 220));
      
      // Lots Dataset hinzuf�gen
-     plot.setDataset(1, lotsDataset);
+     plot.setDataset(1, ArrayXYDataset.empty());
      
      // Renderer f�r Trades
      XYLineAndShapeRenderer renderer1 = new XYLineAndShapeRenderer();
@@ -125,12 +127,13 @@ public class TradeStackingChart extends JPanel {
      
      // Set fixed size with doubled height
      chartPanel.setPreferredSize(new Dimension(950, 600));
+     DownsampledXYDataset.attach(chartPanel);
      
      setLayout(new BorderLayout());
      add(chartPanel, BorderLayout.CENTER);
      
-     addTrades(trades);
-     addLots(trades);
+     plot.setDataset(0, new DownsampledXYDataset(ArrayXYDataset.of(openTrades)));
+     plot.setDataset(1, new DownsampledXYDataset(ArrayXYDataset.of(openLots)));
  }
  
 
@@ -166,59 +169,9 @@ public class TradeStackingChart extends JPanel {
         return maxLots;
     }
    
-    private void addTrades(List<Trade> trades) {
-        TimeSeries series = new TimeSeries("Trades");
-        
-        List<Trade> activeTrades = new ArrayList<>();
-        List<Trade> sortedTrades = new ArrayList<>(trades);
-        sortedTrades.sort((t1, t2) -> t1.getOpenTime().compareTo(t2.getOpenTime()));
-        
-        for (Trade trade : sortedTrades) {
-            activeTrades.removeIf(t -> t.getCloseTime().compareTo(trade.getOpenTime()) <= 0);
-            activeTrades.add(trade);
-            
-            series.addOrUpdate(
-                new Millisecond(
-                    Date.from(trade.getOpenTime()
-                        .atZone(ZoneId.systemDefault())
-                        .toInstant())),
-                activeTrades.size()
-            );
-        }
-        
-        tradeDataset.addSeries(series);
-    }
-   
-    private void addLots(List<Trade> trades) {
-        TimeSeries series = new TimeSeries("Lots");
-        
-        List<Trade> activeTrades = new ArrayList<>();
-        List<Trade> sortedTrades = new ArrayList<>(trades);
-        sortedTrades.sort((t1, t2) -> t1.getOpenTime().compareTo(t2.getOpenTime()));
-        
-        for (Trade trade : sortedTrades) {
-            activeTrades.removeIf(t -> t.getCloseTime().compareTo(trade.getOpenTime()) <= 0);
-            activeTrades.add(trade);
-            
-            double totalLots = activeTrades.stream()
-                                       .mapToDouble(Trade::getLots)
-                                       .sum();
-            
-            series.addOrUpdate(
-                new Millisecond(
-                    Date.from(trade.getOpenTime()
-                        .atZone(ZoneId.systemDefault())
-                        .toInstant())),
-                totalLots
-            );
-        }
-        
-        lotsDataset.addSeries(series);
-    }
-   
     public void clear() {
-        tradeDataset.removeAllSeries();
-        lotsDataset.removeAllSeries();
+        plot.setDataset(0, ArrayXYDataset.empty());
+        plot.setDataset(1, ArrayXYDataset.empty());
     }
    
     public JFreeChart getChart() {
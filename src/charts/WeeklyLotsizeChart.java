@@ -2,14 +2,10 @@ package charts;
 
 import java.awt.Color;
 import java.awt.Dimension;
-import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAdjusters;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.TreeMap;
 
 import javax.swing.JPanel;
 import javax.swing.ToolTipManager;
@@ -25,13 +21,11 @@ import org.jfree.chart.renderer.category.BarRenderer;
 import org.jfree.chart.ui.RectangleInsets;
 import org.jfree.data.category.DefaultCategoryDataset;
 
-import data.Trade;
+import data.ProviderStats;
 
 public class WeeklyLotsizeChart extends JPanel {
     
-    private final List<Trade> trades;
-    private TreeMap<LocalDate, List<Trade>> weeklyTrades;
-    private DefaultCategoryDataset dataset;
+    private final DefaultCategoryDataset dataset;
     
     // Tooltip Text
     private static final String TOOLTIP_TEXT = 
@@ -55,13 +49,16 @@ public class WeeklyLotsizeChart extends JPanel {
         "nicht in Phasen, wo bereits viele Lots getradet werden.</p>" +
         "</div></html>";
     
-    public WeeklyLotsizeChart(List<Trade> trades) {
-        this.trades = trades;
+    public WeeklyLotsizeChart(ProviderStats stats) {
+        this(createDataset(stats));
+    }
+    
+    /**
+     * @param dataset Mit {@link #createDataset(ProviderStats)} berechnete Daten
+     */
+    public WeeklyLotsizeChart(DefaultCategoryDataset dataset) {
         setLayout(new java.awt.BorderLayout());
-        
-        // Interne Berechnung
-        this.weeklyTrades = groupTradesByWeek();
-        this.dataset = createDataset();
+        this.dataset = dataset;
         
         // Chart erstellen
         JFreeChart chart = createChart();
@@ -147,19 +144,19 @@ public class WeeklyLotsizeChart extends JPanel {
         return chart;
     }
     
-    private DefaultCategoryDataset createDataset() {
+    /**
+     * Berechnet die Lot-Summen je Woche, ohne Swing-Komponenten zu erzeugen
+     */
+    public static DefaultCategoryDataset createDataset(ProviderStats stats) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         
-        // Lotsize für jede Woche berechnen
-        for (LocalDate weekStart : weeklyTrades.keySet()) {
-            List<Trade> weekTrades = weeklyTrades.get(weekStart);
-            
-            // Summe der Lots in dieser Woche
-            double totalLotsize = 0.0;
-            
-            for (Trade trade : weekTrades) {
-                totalLotsize += trade.getLots();
-            }
+        // Wochensummen aus dem gemeinsamen Cache, je Woche ein Punkt am Montag
+        ArrayXYDataset.Series weeklyLots = DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.WEEKLY_LOTS);
+        
+        // Lotsize für jede Woche
+        for (int i = 0; i < weeklyLots.size(); i++) {
+            LocalDate weekStart = Instant.ofEpochMilli(weeklyLots.getX(i)).atZone(ZoneId.systemDefault()).toLocalDate();
+            double totalLotsize = weeklyLots.getY(i);
             
             // Wochen-Label erstellen: Format KW-JJ (z.B. "KW01-23" für erste Woche 2023)
             LocalDate weekEnd = weekStart.plusDays(6);
@@ -175,33 +172,11 @@ public class WeeklyLotsizeChart extends JPanel {
     /**
      * Erstellt ein übersichtliches Label für eine Woche
      */
-    private String createWeekLabel(LocalDate weekStart, LocalDate weekEnd) {
+    private static String createWeekLabel(LocalDate weekStart, LocalDate weekEnd) {
         // Format: "KW[WeekOfYear] (MM/YY)"
         int weekNumber = weekStart.get(java.time.temporal.WeekFields.ISO.weekOfYear());
         String monthYear = weekStart.format(DateTimeFormatter.ofPattern("MM/yy"));
         
         return String.format("KW%02d-%s", weekNumber, monthYear);
     }
-    
-    /**
-     * Gruppiert die Trades nach Kalenderwochen
-     * Jede Woche beginnt am Montag und endet am Sonntag
-     */
-    private TreeMap<LocalDate, List<Trade>> groupTradesByWeek() {
-        TreeMap<LocalDate, List<Trade>> weeklyTrades = new TreeMap<>();
-        
-        for (Trade trade : trades) {
-            // Benutze CloseTime für die Zuordnung
-            LocalDateTime closeTime = trade.getCloseTime();
-            LocalDate tradeDate = closeTime.toLocalDate();
-            
-            // Finde den Montag der aktuellen Woche
-            LocalDate weekStart = tradeDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-            
-            // Füge den Trade zur entsprechenden Woche hinzu
-            weeklyTrades.computeIfAbsent(weekStart, k -> new ArrayList<>()).add(trade);
-        }
-        
-        return weeklyTrades;
-    }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import java.util.logging.Logger;
 
 import javax.swing.JTable;
 
+import data.DataManager;
 import data.FavoritesManager;
 import data.ProviderStats;
 import models.HighlightTableModel;
@@ -19,7 +20,7 @@ public class FavoritesFilterManager {
     
     private final JTable table;
     private final HighlightTableModel model;
-    private final Map<String, ProviderStats> allStats;
+    private final DataManager dataManager;
     private final String rootPath;
     private final FavoritesManager favoritesManager;
     
@@ -34,13 +35,13 @@ public class FavoritesFilterManager {
      * 
      * @param table Die JTable, die gefiltert werden soll
      * @param model Das Tabellenmodell
-     * @param allStats Alle Provider-Statistiken
+     * @param dataManager DataManager, dessen aktueller Snapshot gefiltert wird
      * @param rootPath Der Root-Pfad
      */
-    public FavoritesFilterManager(JTable table, HighlightTableModel model, Map<String, ProviderStats> allStats, String rootPath) {
+    public FavoritesFilterManager(JTable table, HighlightTableModel model, DataManager dataManager, String rootPath) {
         this.table = table;
         this.model = model;
-        this.allStats = allStats;
+        this.dataManager = dataManager;
         this.rootPath = rootPath;
         
         // Verwenden der Singleton-Instanz vom FavoritesManager
@@ -54,7 +55,7 @@ public class FavoritesFilterManager {
      * Lädt den Provider-ID-Cache für alle vorhandenen Provider
      */
     private void loadProviderIdCache() {
-        for (String providerName : allStats.keySet()) {
+        for (String providerName : dataManager.getStats().keySet()) {
             // Provider-ID aus dem Namen extrahieren und cachen
             String providerId = extractProviderId(providerName);
             providerIdCache.put(providerName, providerId);
@@ -114,7 +115,7 @@ public class FavoritesFilterManager {
         
         // Wenn Kategorie 0, zeige alle Provider (keine Filterung)
         if (category == 0) {
-            model.populateData(allStats);
+            model.populateData(dataManager.getStats());
             return;
         }
         
@@ -130,7 +131,7 @@ public class FavoritesFilterManager {
         // Filtere die Provider nach Kategorie
         Map<String, ProviderStats> filteredStats = new HashMap<>();
         
-        for (Map.Entry<String, ProviderStats> entry : allStats.entrySet()) {
+        for (Map.Entry<String, ProviderStats> entry : dataManager.getStats().entrySet()) {
             String providerName = entry.getKey();
             String providerId = extractProviderId(providerName);
             
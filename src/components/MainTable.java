@@ -1,10 +1,13 @@
 package components;
 
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 
@@ -16,6 +19,7 @@ import javax.swing.Timer;
 import javax.swing.table.TableRowSorter;
 
 import data.DataManager;
+import data.FavoritesChangeEvent;
 import data.FavoritesManager;
 import data.ProviderStats;
 import models.FilterCriteria;
@@ -85,7 +89,7 @@ public class MainTable extends JTable {
         // Manager initialisieren - Reihenfolge ist wichtig wegen Dependencies
         this.filterManager = new TableFilterManager(this, model, dataManager);
         this.columnManager = new TableColumnManager(this);
-        this.favoritesManager = new FavoritesFilterManager(this, model, dataManager.getStats(), rootPath);
+        this.favoritesManager = new FavoritesFilterManager(this, model, dataManager, rootPath);
         
         this.tooltipManager = new TableTooltipManager(this, model, dataManager, htmlDatabase);
         this.providerManager = new TableProviderManager(this, model, dataManager, rootPath, renderer, filterManager);
@@ -210,14 +214,45 @@ public class MainTable extends JTable {
      */
     private void setupFavoritesListener() {
         FavoritesManager favoritesManager = FavoritesManager.getInstance(rootPath);
-        favoritesManager.addFavoritesChangeListener(() -> {
+        favoritesManager.addFavoritesChangeListener((FavoritesChangeEvent event) -> {
             SwingUtilities.invokeLater(() -> {
-                refreshManager.refreshTableRendering();
-                LOGGER.info("Tabelle nach Favoriten-Änderung aktualisiert");
+                if (event.isFullReload()) {
+                    refreshManager.refreshTableRendering();
+                    LOGGER.info("Tabelle nach Favoriten-Änderung aktualisiert");
+                } else {
+                    repaintProviderRows(event.getChangedProviderIds());
+                }
             });
         });
     }
     
+    /**
+     * Zeichnet nur die sichtbaren Zeilen der angegebenen Provider neu.
+     * Nicht sichtbare Zeilen werden beim Scrollen ohnehin mit aktuellem Status gerendert.
+     * @param providerIds Die geänderten Provider-IDs
+     */
+    public void repaintProviderRows(Set<String> providerIds) {
+        if (providerIds.isEmpty() || getRowCount() == 0) {
+            return;
+        }
+        
+        Rectangle visible = getVisibleRect();
+        int firstRow = Math.max(0, rowAtPoint(visible.getLocation()));
+        int lastRow = rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        if (lastRow < 0) {
+            lastRow = getRowCount() - 1;
+        }
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            Object providerName = model.getValueAt(convertRowIndexToModel(row), 1);
+            if (providerName != null
+                    && providerIds.contains(providerManager.extractProviderId(providerName.toString()))) {
+                Rectangle rowRect = getCellRect(row, 0, true);
+                repaint(0, rowRect.y, getWidth(), rowRect.height);
+            }
+        }
+    }
+    
     /**
      * Richtet den Window-Listener für Cleanup ein
      */
@@ -272,10 +307,13 @@ public class MainTable extends JTable {
     public void manageFavoriteCategory(String providerId, int currentCategory) {
         providerManager.manageFavoriteCategory(providerId, currentCategory);
         
-        // Nach Kategorie-Änderung die Tabelle aktualisieren
-        Timer timer = new Timer(500, e -> refreshManager.forceCompleteReinitialize());
-        timer.setRepeats(false);
-        timer.start();
+        // Die betroffene Zeile wird über den Favoriten-Listener neu gezeichnet.
+        // Nur bei aktivem Kategorie-Filter kann sich die Zeilenmenge ändern.
+        if (favoritesManager.getCurrentCategory() > 0) {
+            Timer timer = new Timer(500, e -> refreshManager.forceCompleteReinitialize());
+            timer.setRepeats(false);
+            timer.start();
+        }
     }
     
     // Button-Factory
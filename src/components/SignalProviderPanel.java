@@ -80,7 +80,7 @@ public class SignalProviderPanel extends JPanel {
         
         // Root-Pfad aus ApplicationConstants holen
         this.rootPath = utils.ApplicationConstants.ROOT_PATH;
-        this.favoritesManager = new FavoritesManager(rootPath);
+        this.favoritesManager = FavoritesManager.getInstance(rootPath);
         
         initializeUI();
     }
@@ -217,7 +217,6 @@ public class SignalProviderPanel extends JPanel {
                     if (selectedCategory == 0) {
                         // Wenn "Kein Favorit" ausgewählt wurde, den Favoriten entfernen
                         favoritesManager.setFavoriteCategory(providerId, 0);
-                        favoritesManager.reloadFavorites(); // << Diese Zeile ist neu!
                         updateFavoriteUI(false);
                     } else {
                         // Sonst die Kategorie setzen
@@ -5,19 +5,24 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import javax.swing.SwingUtilities;
-import javax.swing.SwingWorker;
 
 import data.DataManager;
 import data.ProviderStats;
 import models.FilterCriteria;
 import models.HighlightTableModel;
 import ui.LoadingDialog;
+import utils.ProgressReporter;
+import utils.TaskScheduler;
 
 public class TableFilterManager {
+    // Schlüssel, unter dem sich Filterläufe gegenseitig ablösen
+    private static final String FILTER_TASK_KEY = "table-filter";
+    
     private final MainTable mainTable;
     private final HighlightTableModel tableModel;
     private final DataManager dataManager;
@@ -55,10 +60,12 @@ public class TableFilterManager {
     }
 
     /**
-     * Diese neue Methode führt die Filterung mit einer Fortschrittsanzeige durch
+     * Diese neue Methode führt die Filterung mit einer Fortschrittsanzeige durch.
+     * Eine neue Filterung löst eine noch laufende ab.
      */
     public void refreshFilteredDataWithProgress() {
         if (currentFilter == null) {
+            TaskScheduler.getInstance().cancel(FILTER_TASK_KEY);
             tableModel.populateData(dataManager.getStats());
             mainTable.updateStatus();
             mainTable.repaint(); // Wichtig: Tabelle neu zeichnen
@@ -71,77 +78,66 @@ public class TableFilterManager {
         	    "Filtere Daten..."
         	);
         
-        // Starte die Filterung in einem Hintergrund-Thread
-        SwingWorker<Map<String, ProviderStats>, Integer> worker = 
-            new SwingWorker<Map<String, ProviderStats>, Integer>() {
-                
-            @Override
-            protected Map<String, ProviderStats> doInBackground() throws Exception {
+        FilterCriteria filter = currentFilter;
+        ProgressReporter progress = new ProgressReporter();
+        progress.startSampling((percent, status, newLogLines) -> {
+            progressDialog.setProgress(percent);
+            if (status != null) {
+                progressDialog.setStatus(status);
+            }
+        });
+        
+        // Starte die Filterung über den zentralen Scheduler
+        TaskScheduler.TaskHandle<Map<String, ProviderStats>> handle = TaskScheduler.getInstance().submitExclusive(
+            FILTER_TASK_KEY, "Filter anwenden", TaskScheduler.Priority.INTERACTIVE,
+            token -> {
                 Map<String, ProviderStats> stats = dataManager.getStats();
                 List<Map.Entry<String, ProviderStats>> entries = new ArrayList<>(stats.entrySet());
                 Map<String, ProviderStats> result = new java.util.HashMap<>();
                 
                 int total = entries.size();
                 for (int i = 0; i < total; i++) {
+                    token.throwIfCancelled();
                     Map.Entry<String, ProviderStats> entry = entries.get(i);
                     
-                    // Für den Fortschritt
-                    int progress = (i * 100) / total;
-                    publish(progress);
-                    
-                    // Hole die tatsächlichen Werte durch temporäres Befüllen der Tabelle
-                    tableModel.setRowCount(0);
-                    tableModel.populateData(Map.of(entry.getKey(), entry.getValue()));
-                    
-                    // Extrahiere die Werte aus der ersten (und einzigen) Zeile
-                    Object[] rowData = new Object[tableModel.getColumnCount()];
-                    for (int j = 0; j < tableModel.getColumnCount(); j++) {
-                        rowData[j] = tableModel.getValueAt(0, j);
-                    }
+                    // Zeilenwerte berechnen, ohne das angezeigte TableModel zu verändern
+                    Object[] rowData = tableModel.createRowDataForProvider(entry.getKey(), entry.getValue());
                     
                     // Prüfe ob die Werte dem Filter entsprechen
-                    boolean matches = currentFilter.matches(entry.getValue(), rowData);
+                    boolean matches = filter.matches(entry.getValue(), rowData);
                     if (matches) {
                         result.put(entry.getKey(), entry.getValue());
                     }
                     
-                    final int currentIndex = i; // Neue finale Variable für den Lambda-Ausdruck
-                    SwingUtilities.invokeLater(() -> {
-                        progressDialog.setStatus("Verarbeite Provider: " + entry.getKey() + 
-                                               " (" + (currentIndex+1) + "/" + total + ")");
-                    });
+                    // Nur melden; der Dialog tastet den Stand in festem Takt ab
+                    progress.setProgress(i, total);
+                    progress.setStatus("Verarbeite Provider: " + entry.getKey() + 
+                                       " (" + (i+1) + "/" + total + ")");
                 }
                 
                 return result;
+            });
+        
+        handle.onCompletionInEdt((filteredStats, error) -> {
+            progress.stopSampling();
+            if (error instanceof CancellationException) {
+                // Durch eine neuere Filterung abgelöst
+                progressDialog.dispose();
+                return;
             }
-            
-            @Override
-            protected void process(List<Integer> chunks) {
-                // Update progress bar with the latest value
-                if (!chunks.isEmpty()) {
-                    int latestProgress = chunks.get(chunks.size() - 1);
-                    progressDialog.setProgress(latestProgress);
-                }
+            if (error != null) {
+                error.printStackTrace();
+                progressDialog.dispose();
+                return;
             }
-            
-            @Override
-            protected void done() {
-                try {
-                    Map<String, ProviderStats> filteredStats = get();
-                    // Zeige die gefilterten Daten an
-                    tableModel.populateData(filteredStats);
-                    mainTable.updateStatus();
-                    mainTable.repaint(); // Wichtig: Tabelle neu zeichnen
-                    progressDialog.complete();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    progressDialog.dispose();
-                }
-            }
-        };
+            // Zeige die gefilterten Daten an
+            tableModel.populateData(filteredStats);
+            mainTable.updateStatus();
+            mainTable.repaint(); // Wichtig: Tabelle neu zeichnen
+            progressDialog.complete();
+        });
         
-        // Starte den Worker und zeige den Dialog
-        worker.execute();
+        // Zeige den Dialog
         progressDialog.setVisible(true);
     }
 
@@ -179,11 +179,8 @@ public class TableProviderManager {
      * Behandelt erfolgreiches Löschen von Providern
      */
     private void handleSuccessfulDeletion(List<String> providersToRemove, List<String> deletedProvidersList) {
-        // Entferne die Provider aus dem DataManager-Cache
-        Map<String, ProviderStats> stats = dataManager.getStats();
-        for (String provider : providersToRemove) {
-            stats.remove(provider);
-        }
+        // Entferne die Provider aus dem DataManager (neuer Snapshot)
+        dataManager.removeProviders(providersToRemove);
         
         // Cache im Renderer leeren
         if (renderer != null) {
@@ -2,6 +2,7 @@ package components;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -17,6 +18,7 @@ import renderers.NumberFormatRenderer;
 import renderers.RiskScoreRenderer;
 import services.ProviderHistoryService;
 import utils.HtmlDatabase;
+import utils.TaskScheduler;
 
 /**
  * Klasse für das Refresh-Management der MainTable.
@@ -24,6 +26,7 @@ import utils.HtmlDatabase;
  */
 public class TableRefreshManager {
     private static final Logger LOGGER = Logger.getLogger(TableRefreshManager.class.getName());
+    private static final String SNAPSHOT_TASK_KEY = "metric-snapshot";
     
     private final MainTable mainTable;
     private final HighlightTableModel model;
@@ -81,7 +84,10 @@ public class TableRefreshManager {
                     oldSearchText = renderer.getSearchText();
                 }
                 
-                // Komplett neue Renderer erstellen
+                // Komplett neue Renderer erstellen, den alten vom FavoritesManager abmelden
+                if (renderer != null) {
+                    renderer.detachFromFavorites();
+                }
                 this.renderer = new HighlightRenderer();
                 this.renderer.setSearchText(oldSearchText);
                 this.riskRenderer = new RiskScoreRenderer(this.renderer);
@@ -133,7 +139,10 @@ public class TableRefreshManager {
                 // Alle Provider neu laden
                 model.populateData(dataManager.getStats());
                 
-                // Neue Renderer kreieren
+                // Neue Renderer kreieren, den alten vom FavoritesManager abmelden
+                if (renderer != null) {
+                    renderer.detachFromFavorites();
+                }
                 this.renderer = new HighlightRenderer();
                 this.riskRenderer = new RiskScoreRenderer(this.renderer);
                 
@@ -188,18 +197,43 @@ public class TableRefreshManager {
         // Tabelle neu zeichnen nach Aktualisierung
         mainTable.repaint();
         
-        // 3MPDD-Werte aus den .txt-Dateien lesen und in der History speichern
-        for (Map.Entry<String, ProviderStats> entry : dataManager.getStats().entrySet()) {
-            String providerName = entry.getKey();
-            
+        // 3MPDD-Werte aus den .txt-Dateien lesen und gesammelt in der History speichern
+        Map<String, Double> mpddValues = new HashMap<>();
+        for (String providerName : dataManager.getStats().keySet()) {
             // 3MPDD-Wert direkt aus der .txt-Datei lesen
-            double mpdd3 = htmlDatabase.getMPDD(providerName, 3);
-            
-            // Speichere den Wert in der Datenbank
-            historyService.store3MpddValue(providerName, mpdd3);
+            mpddValues.put(providerName, htmlDatabase.getMPDD(providerName, 3));
+        }
+        historyService.store3MpddValues(mpddValues);
+        
+        // Neue Provider bekommen einen aus den Trades rekonstruierten 3MPDD-Verlauf
+        historyService.backfill3MpddHistoryAsync(dataManager.getStats());
+        
+        // Wöchentlich alle Kennzahlen der Tabelle als Snapshot sichern
+        if (historyService.isWeeklySnapshotDue()) {
+            storeMetricSnapshotsInBackground();
         }
     }
     
+    /**
+     * Berechnet die Tabellenzeilen aller Provider im Hintergrund und speichert
+     * ihre Kennzahlen gesammelt als Snapshot des heutigen Tages
+     */
+    private void storeMetricSnapshotsInBackground() {
+        Map<String, ProviderStats> stats = new HashMap<>(dataManager.getStats());
+        TaskScheduler.getInstance().submitExclusive(SNAPSHOT_TASK_KEY, "Wöchentlicher Kennzahlen-Snapshot",
+            TaskScheduler.Priority.BACKGROUND, token -> {
+                Map<String, double[]> snapshots = new HashMap<>();
+                for (Map.Entry<String, ProviderStats> entry : stats.entrySet()) {
+                    token.throwIfCancelled();
+                    Object[] rowData = model.createRowDataForProvider(entry.getKey(), entry.getValue());
+                    snapshots.put(entry.getKey(), model.createSnapshotValues(rowData));
+                }
+                int stored = historyService.storeMetricSnapshots(snapshots);
+                LOGGER.info("Kennzahlen-Snapshot für " + stored + " Provider gespeichert");
+                return stored;
+            });
+    }
+    
     /**
      * Richtet die Spalten-Renderer ein
      */
@@ -7,10 +7,12 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
+import java.awt.image.BufferedImage;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -55,8 +57,7 @@ public class TradeChartPanel extends JPanel {
     public void updateTrades(List<Trade> trades, LocalDateTime startTime) {
         this.trades = trades;
         this.startTime = startTime;
-        chartPanel.trades = trades;
-        chartPanel.startTime = startTime;
+        chartPanel.setData(trades, startTime);
         
         int preferredHeight = Math.max(300, trades.size() * ROW_HEIGHT + 2 * PADDING);
         chartPanel.setPreferredSize(new Dimension(0, preferredHeight));
@@ -65,11 +66,36 @@ public class TradeChartPanel extends JPanel {
         repaint();
     }
 
+    /**
+     * Zeichnet je Trade eine Zeile mit einem Balken von Eröffnung bis Schließung.
+     *
+     * Die Balkenpositionen werden bei Daten- oder Breitenänderung einmal
+     * berechnet. Die sichtbaren Zeilen werden in ein Offscreen-Bild gezeichnet,
+     * das nur bei Änderung von Daten, Größe oder sichtbarem Ausschnitt neu
+     * entsteht; die Hervorhebung unter der Maus wird darüber gelegt. Da jede
+     * Zeile genau einen Trade enthält, ergibt sich der Trade unter der Maus
+     * direkt aus der y-Koordinate.
+     */
     private class ChartPanel extends JPanel {
+        private final Font labelFont = new Font("Arial", Font.PLAIN, 11);
+        private final Font axisFont = new Font("Arial", Font.PLAIN, 10);
+        private final Color gridColor = new Color(240, 240, 240);
+        private final Color hoverColor = new Color(240, 240, 255, 128);
+
         private List<Trade> trades;
         private LocalDateTime startTime;
-        private Trade hoveredTrade;
-        private Point mousePosition;
+        private int hoveredRow = -1;
+
+        // Layout für die aktuelle Breite, -1 = neu berechnen
+        private int layoutWidth = -1;
+        private int timeRangeHours;
+        private int[] barX1;
+        private int[] barX2;
+
+        // Offscreen-Bild des zuletzt gezeichneten Ausschnitts
+        private BufferedImage buffer;
+        private Rectangle bufferRect;
+        private double bufferScale;
 
         public ChartPanel() {
             setBackground(Color.WHITE);
@@ -77,9 +103,7 @@ public class TradeChartPanel extends JPanel {
             addMouseMotionListener(new MouseMotionAdapter() {
                 @Override
                 public void mouseMoved(MouseEvent e) {
-                    mousePosition = e.getPoint();
-                    hoveredTrade = findTradeAtPosition(e.getPoint());
-                    repaint();
+                    setHoveredRow(rowAt(e.getPoint()));
                 }
             });
             
@@ -93,22 +117,53 @@ public class TradeChartPanel extends JPanel {
                         repaint();
                     }
                 }
+
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    setHoveredRow(-1);
+                }
             });
             
             ToolTipManager.sharedInstance().registerComponent(this);
         }
 
+        /**
+         * Übernimmt neue Daten und verwirft Layout und Offscreen-Bild
+         */
+        void setData(List<Trade> trades, LocalDateTime startTime) {
+            this.trades = trades;
+            this.startTime = startTime;
+            hoveredRow = -1;
+            layoutWidth = -1;
+            buffer = null;
+        }
+
+        /**
+         * @return Zeile an der Position oder -1
+         */
+        private int rowAt(Point p) {
+            if (trades == null || p.y < PADDING) return -1;
+            int row = (p.y - PADDING) / ROW_HEIGHT;
+            return row < trades.size() ? row : -1;
+        }
+
         private Trade findTradeAtPosition(Point p) {
-            if (trades == null || trades.isEmpty()) return null;
+            int row = rowAt(p);
+            return row >= 0 ? trades.get(row) : null;
+        }
 
-            int y = PADDING;
-            for (Trade trade : trades) {
-                if (p.y >= y && p.y < y + ROW_HEIGHT) {
-                    return trade;
-                }
-                y += ROW_HEIGHT;
+        private void setHoveredRow(int row) {
+            if (row == hoveredRow) return;
+            // Nur die alte und die neue Zeile neu zeichnen, der Rest kommt aus dem Offscreen-Bild
+            repaintRow(hoveredRow);
+            hoveredRow = row;
+            repaintRow(hoveredRow);
+        }
+
+        private void repaintRow(int row) {
+            if (row >= 0) {
+                repaint(0, PADDING + row * ROW_HEIGHT, getWidth(), ROW_HEIGHT);
             }
-            return null;
         }
 
         @Override
@@ -132,123 +187,136 @@ public class TradeChartPanel extends JPanel {
             if (trades == null || trades.isEmpty() || startTime == null) return;
 
             Graphics2D g2 = (Graphics2D) g;
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            Rectangle visible = getVisibleRect();
+            if (visible.isEmpty()) return;
 
             int width = getWidth() - 2 * PADDING;
-            int height = getHeight() - 2 * PADDING;
-
-            drawGrid(g2, width, height);
+            ensureLayout(width);
 
-            int y = PADDING;
-            for (Trade trade : trades) {
-                drawTrade(g2, trade, width, y);
-                y += ROW_HEIGHT;
+            double scale = g2.getTransform().getScaleX();
+            if (buffer == null || !visible.equals(bufferRect) || scale != bufferScale) {
+                renderBuffer(visible, width, scale);
             }
+            g2.drawImage(buffer, visible.x, visible.y, visible.width, visible.height, null);
 
-            drawTimeAxis(g2, width, height);
-            
-            if (hoveredTrade != null) {
-                int hoverY = PADDING + trades.indexOf(hoveredTrade) * ROW_HEIGHT;
-                g2.setColor(new Color(240, 240, 255, 128));
-                g2.fillRect(0, hoverY, getWidth(), ROW_HEIGHT);
+            if (hoveredRow >= 0) {
+                g2.setColor(hoverColor);
+                g2.fillRect(0, PADDING + hoveredRow * ROW_HEIGHT, getWidth(), ROW_HEIGHT);
             }
         }
 
-        private void drawGrid(Graphics2D g2, int width, int height) {
-            g2.setColor(new Color(240, 240, 240));
-            
+        /**
+         * Berechnet Zeitraum und Balkenpositionen für die angegebene Breite
+         */
+        private void ensureLayout(int width) {
+            if (width == layoutWidth) return;
+
             LocalDateTime earliest = startTime;
-            LocalDateTime latest = earliest.plusHours(1); // Standardwert, falls keine Trades vorhanden sind
+            LocalDateTime latest = earliest.plusHours(1); // Standardwert, falls nur ein Trade vorhanden ist
             
             // Finden des spätesten Close-Time unter den Trades
-            if (trades != null && !trades.isEmpty()) {
-                for (Trade trade : trades) {
-                    if (trade.getCloseTime().isAfter(latest)) {
-                        latest = trade.getCloseTime();
-                    }
+            for (Trade trade : trades) {
+                if (trade.getCloseTime().isAfter(latest)) {
+                    latest = trade.getCloseTime();
                 }
             }
 
-            int timeRange = (int) java.time.Duration.between(earliest, latest).toHours();
-            
+            timeRangeHours = (int) java.time.Duration.between(earliest, latest).toHours();
             // Vermeidung von Division durch Null
-            if (timeRange <= 0) timeRange = 1;
+            if (timeRangeHours <= 0) timeRangeHours = 1;
+
+            // Berechne Gesamtminuten für den Zeitraum
+            int totalMinutes = (int) java.time.Duration.between(earliest, latest).toMinutes();
+            if (totalMinutes <= 0) totalMinutes = 60; // Verwende 1 Stunde als Standard
+
+            barX1 = new int[trades.size()];
+            barX2 = new int[trades.size()];
+            for (int i = 0; i < trades.size(); i++) {
+                Trade trade = trades.get(i);
+                long startDiff = java.time.Duration.between(earliest, trade.getOpenTime()).toMinutes();
+                long duration = java.time.Duration.between(trade.getOpenTime(), trade.getCloseTime()).toMinutes();
+
+                int x1 = PADDING + (int)(startDiff * width / totalMinutes);
+                int x2 = PADDING + (int)((startDiff + duration) * width / totalMinutes);
+
+                // Minimum-Breite für sehr kurze Trades
+                if (x2 - x1 < 2) x2 = x1 + 2;
+
+                barX1[i] = x1;
+                barX2[i] = x2;
+            }
+
+            layoutWidth = width;
+            buffer = null;
+        }
+
+        /**
+         * Zeichnet Gitter, die sichtbaren Trades und die Zeitachse in das Offscreen-Bild
+         */
+        private void renderBuffer(Rectangle visible, int width, double scale) {
+            int imageWidth = (int) Math.ceil(visible.width * scale);
+            int imageHeight = (int) Math.ceil(visible.height * scale);
+            if (buffer == null || buffer.getWidth() != imageWidth || buffer.getHeight() != imageHeight) {
+                buffer = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+            }
+            bufferRect = new Rectangle(visible);
+            bufferScale = scale;
+
+            Graphics2D g2 = buffer.createGraphics();
+            try {
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2.scale(scale, scale);
+                g2.setColor(getBackground());
+                g2.fillRect(0, 0, visible.width, visible.height);
+                g2.translate(-visible.x, -visible.y);
+
+                int height = getHeight() - 2 * PADDING;
+                int firstRow = Math.max(0, (visible.y - PADDING) / ROW_HEIGHT);
+                int lastRow = Math.min(trades.size() - 1, (visible.y + visible.height - PADDING) / ROW_HEIGHT);
+
+                drawGrid(g2, width, height, firstRow, lastRow);
+                for (int i = firstRow; i <= lastRow; i++) {
+                    drawTrade(g2, i, PADDING + i * ROW_HEIGHT);
+                }
+                drawTimeAxis(g2, width, height);
+            } finally {
+                g2.dispose();
+            }
+        }
+
+        private void drawGrid(Graphics2D g2, int width, int height, int firstRow, int lastRow) {
+            g2.setColor(gridColor);
             
-            int markInterval = Math.max(1, timeRange / 10);
+            int markInterval = Math.max(1, timeRangeHours / 10);
 
-            for (int i = 0; i <= timeRange; i += markInterval) {
-                int x = PADDING + (int)(i * width / timeRange);
+            for (int i = 0; i <= timeRangeHours; i += markInterval) {
+                int x = PADDING + (int)(i * width / timeRangeHours);
                 g2.drawLine(x, PADDING, x, height + PADDING);
             }
 
-            for (int i = 0; i <= trades.size(); i++) {
+            for (int i = firstRow; i <= lastRow + 1; i++) {
                 int y = PADDING + i * ROW_HEIGHT;
                 g2.drawLine(PADDING, y, width + PADDING, y);
             }
         }
 
         private void drawTimeAxis(Graphics2D g2, int width, int height) {
-            if (startTime == null) return;
-            
             g2.setColor(Color.BLACK);
-            g2.setFont(new Font("Arial", Font.PLAIN, 10));
-            
-            LocalDateTime earliest = startTime;
-            LocalDateTime latest = earliest.plusHours(1); // Standardwert, falls keine Trades vorhanden sind
-            
-            // Finden des spätesten Close-Time unter den Trades
-            if (trades != null && !trades.isEmpty()) {
-                for (Trade trade : trades) {
-                    if (trade.getCloseTime().isAfter(latest)) {
-                        latest = trade.getCloseTime();
-                    }
-                }
-            }
-
-            int timeRange = (int) java.time.Duration.between(earliest, latest).toHours();
-            
-            // Vermeidung von Division durch Null
-            if (timeRange <= 0) timeRange = 1;
+            g2.setFont(axisFont);
             
-            int markInterval = Math.max(1, timeRange / 10);
+            int markInterval = Math.max(1, timeRangeHours / 10);
 
-            for (int i = 0; i <= timeRange; i += markInterval) {
-                LocalDateTime markTime = earliest.plusHours(i);
-                int x = PADDING + (int)(i * width / timeRange);
+            for (int i = 0; i <= timeRangeHours; i += markInterval) {
+                LocalDateTime markTime = startTime.plusHours(i);
+                int x = PADDING + (int)(i * width / timeRangeHours);
                 g2.drawString(markTime.format(timeFormatter), x - 25, height + PADDING + 15);
             }
         }
 
-        private void drawTrade(Graphics2D g2, Trade trade, int width, int y) {
-            if (startTime == null) return;
-            
-            // Berechne früheste und späteste Zeit
-            LocalDateTime earliest = startTime;
-            LocalDateTime latest = earliest.plusHours(1); // Standardwert, falls nur ein Trade vorhanden ist
-            
-            // Finden des spätesten Close-Time unter den Trades
-            if (trades != null && !trades.isEmpty()) {
-                for (Trade t : trades) {
-                    if (t.getCloseTime().isAfter(latest)) {
-                        latest = t.getCloseTime();
-                    }
-                }
-            }
-            
-            // Berechne Gesamtminuten für den Zeitraum
-            int totalMinutes = (int) java.time.Duration.between(earliest, latest).toMinutes();
-            
-            // Vermeidung von Division durch Null
-            if (totalMinutes <= 0) totalMinutes = 60; // Verwende 1 Stunde als Standard
-            
-            long startDiff = java.time.Duration.between(earliest, trade.getOpenTime()).toMinutes();
-            long duration = java.time.Duration.between(trade.getOpenTime(), trade.getCloseTime()).toMinutes();
-            
-            int x1 = PADDING + (int)(startDiff * width / totalMinutes);
-            int x2 = PADDING + (int)((startDiff + duration) * width / totalMinutes);
-            
-            // Minimum-Breite für sehr kurze Trades
-            if (x2 - x1 < 2) x2 = x1 + 2;
+        private void drawTrade(Graphics2D g2, int index, int y) {
+            Trade trade = trades.get(index);
+            int x1 = barX1[index];
+            int x2 = barX2[index];
             
             int barHeight = (int)(ROW_HEIGHT * 0.6);
             barHeight *= (1 + Math.min(1.0, trade.getLots()));
@@ -259,7 +327,7 @@ public class TradeChartPanel extends JPanel {
             g2.fillRect(x1, yCenter - barHeight/2, Math.max(x2 - x1, 2), barHeight);
             
             g2.setColor(Color.BLACK);
-            g2.setFont(new Font("Arial", Font.PLAIN, 11));
+            g2.setFont(labelFont);
             String tradeInfo = String.format("%s (%s)", trade.getSymbol(), trade.getSignalProvider());
             g2.drawString(tradeInfo, 5, yCenter + 5);
         }
@@ -10,19 +10,27 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import utils.TaskScheduler;
+
 public class DataManager {
    private static final Logger LOGGER = Logger.getLogger(DataManager.class.getName());
    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.dd HH:mm:ss");
    private static final String BASE_URL = "https://www.mql5.com/en/signals/";
    
-   private final Map<String, ProviderStats> signalProviderStats;
+   // Aktuell veröffentlichter Datenstand, wird beim Neuladen atomar ersetzt
+   private final AtomicReference<DataSnapshot> currentSnapshot = new AtomicReference<>(DataSnapshot.EMPTY);
+   private final AtomicLong snapshotVersion = new AtomicLong();
    
    // Fortschritts-Callback
    private Consumer<Integer> progressCallback;
@@ -35,8 +43,6 @@ public class DataManager {
    private boolean debugMode = true;
    
    public DataManager() {
-       this.signalProviderStats = new HashMap<>();
-       
        // Debug-Ausgabe zur Instanziierung
        if (debugMode) {
            LOGGER.info("DataManager wurde instanziiert");
@@ -86,8 +92,15 @@ public class DataManager {
        return BASE_URL + providerId;
    }
    
+   /**
+    * Lädt alle CSV-Dateien des Verzeichnisses in einen neuen Snapshot und
+    * veröffentlicht ihn erst nach vollständigem Aufbau. Bis dahin sehen Leser
+    * weiterhin den bisherigen Stand.
+    * @param path Download-Verzeichnis mit den CSV-Dateien
+    */
    public void loadData(String path) {
        LOGGER.info("Loading data from: " + path);
+       Map<String, ProviderStats> signalProviderStats = new HashMap<>();
        File downloadDirectory = new File(path);
        if (downloadDirectory.exists() && downloadDirectory.isDirectory()) {
            File[] files = downloadDirectory.listFiles((dir, name) -> name.toLowerCase().endsWith(".csv"));
@@ -107,7 +120,7 @@ public class DataManager {
                        statusCallback.accept("Lade Datei: " + file.getName() + " (" + (i+1) + "/" + files.length + ")");
                    }
                    
-                   processFile(file);
+                   processFile(file, signalProviderStats);
                    
                    // Fortschritt aktualisieren
                    if (progressCallback != null) {
@@ -117,7 +130,13 @@ public class DataManager {
                }
            }
        }
-       LOGGER.info("Loaded " + signalProviderStats.size() + " providers");
+       // Geladene Daten einfrieren und als neuen Snapshot veröffentlichen
+       for (ProviderStats stats : signalProviderStats.values()) {
+           stats.freeze();
+       }
+       DataSnapshot snapshot = new DataSnapshot(snapshotVersion.incrementAndGet(), signalProviderStats, path);
+       currentSnapshot.set(snapshot);
+       LOGGER.info("Loaded " + signalProviderStats.size() + " providers (Snapshot-Version " + snapshot.getVersion() + ")");
        
        // Status melden
        if (statusCallback != null) {
@@ -130,7 +149,33 @@ public class DataManager {
        }
    }
 
-   private void processFile(File file) {
+   /**
+    * Lädt die Daten im Hintergrund neu, ohne den aufrufenden Thread zu blockieren.
+    * Ein erneuter Aufruf löst einen noch wartenden Ladevorgang ab; dessen Future
+    * endet dann mit einer CancellationException.
+    * @param path Download-Verzeichnis mit den CSV-Dateien
+    * @return Future mit dem neu veröffentlichten Snapshot
+    */
+   public CompletableFuture<DataSnapshot> loadDataAsync(String path) {
+       return TaskScheduler.getInstance().submitExclusive(
+               "data-load", "Daten laden", TaskScheduler.Priority.BACKGROUND, token -> {
+                   loadData(path);
+                   return getSnapshot();
+               }).getFuture();
+   }
+   
+   /**
+    * Entfernt Provider, indem ein neuer Snapshot ohne sie veröffentlicht wird
+    * @param providerNames Dateinamen der zu entfernenden Provider
+    */
+   public void removeProviders(Collection<String> providerNames) {
+       DataSnapshot snapshot = currentSnapshot.updateAndGet(
+               current -> current.without(snapshotVersion.incrementAndGet(), providerNames));
+       LOGGER.info(providerNames.size() + " Provider entfernt, " + snapshot.size()
+               + " verbleiben (Snapshot-Version " + snapshot.getVersion() + ")");
+   }
+
+   private void processFile(File file, Map<String, ProviderStats> signalProviderStats) {
        LOGGER.info("Starting to process file: " + file.getName());
        List<String> skippedLines = new ArrayList<>();
        
@@ -552,7 +597,24 @@ public class DataManager {
        }
    }
    
+   /**
+    * @return Nicht veränderbare Provider-Daten des aktuellen Snapshots
+    */
    public Map<String, ProviderStats> getStats() {
-       return signalProviderStats;
+       return currentSnapshot.get().getStats();
+   }
+   
+   /**
+    * @return Der aktuell veröffentlichte, unveränderliche Datenstand
+    */
+   public DataSnapshot getSnapshot() {
+       return currentSnapshot.get();
+   }
+   
+   /**
+    * @return Versionsnummer des aktuellen Datenstands
+    */
+   public long getDataVersion() {
+       return currentSnapshot.get().getVersion();
    }
 }
\ No newline at end of file
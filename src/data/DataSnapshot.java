@@ -0,0 +1,79 @@
+package data;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unveränderlicher, versionierter Stand aller geladenen Provider-Daten.
+ * Ein Snapshot wird vollständig aufgebaut und erst dann vom DataManager
+ * veröffentlicht. Leser erhalten dadurch ohne Sperren eine konsistente Sicht,
+ * auch während im Hintergrund bereits neu geladen wird.
+ */
+public final class DataSnapshot {
+    static final DataSnapshot EMPTY = new DataSnapshot(0, Collections.emptyMap(), null);
+
+    private final long version;
+    private final Map<String, ProviderStats> stats;
+    private final String sourcePath;
+    private final LocalDateTime createdAt;
+
+    DataSnapshot(long version, Map<String, ProviderStats> stats, String sourcePath) {
+        this.version = version;
+        this.stats = Collections.unmodifiableMap(new HashMap<>(stats));
+        this.sourcePath = sourcePath;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * @return Fortlaufende Versionsnummer, wird bei jeder Veröffentlichung erhöht
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Nicht veränderbare Map Dateiname -> ProviderStats
+     */
+    public Map<String, ProviderStats> getStats() {
+        return stats;
+    }
+
+    public ProviderStats getProviderStats(String providerName) {
+        return stats.get(providerName);
+    }
+
+    public int size() {
+        return stats.size();
+    }
+
+    /**
+     * @return Verzeichnis, aus dem die Daten geladen wurden (null beim leeren Snapshot)
+     */
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Erzeugt einen neuen Snapshot ohne die angegebenen Provider
+     * @param version Versionsnummer des neuen Snapshots
+     * @param providerNames Zu entfernende Provider
+     * @return Der neue Snapshot
+     */
+    DataSnapshot without(long version, Collection<String> providerNames) {
+        Map<String, ProviderStats> remaining = new HashMap<>(stats);
+        remaining.keySet().removeAll(providerNames);
+        return new DataSnapshot(version, remaining, sourcePath);
+    }
+
+    @Override
+    public String toString() {
+        return "DataSnapshot[Version " + version + ", " + stats.size() + " Provider]";
+    }
+}
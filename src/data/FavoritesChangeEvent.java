@@ -0,0 +1,127 @@
+package data;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ereignis für Änderungen an Favoriten und Bad Providern.
+ * Enthält pro betroffenem Provider die alte und neue Kategorie sowie den alten
+ * und neuen Bad-Provider-Status. Bei Batch-Operationen werden alle Änderungen
+ * in einem einzigen Ereignis zusammengefasst.
+ */
+public class FavoritesChangeEvent {
+
+    /**
+     * Änderung eines einzelnen Providers
+     */
+    public static class ProviderChange {
+        private final String providerId;
+        private final int oldCategory;
+        private final int newCategory;
+        private final boolean oldBad;
+        private final boolean newBad;
+
+        public ProviderChange(String providerId, int oldCategory, int newCategory, boolean oldBad, boolean newBad) {
+            this.providerId = providerId;
+            this.oldCategory = oldCategory;
+            this.newCategory = newCategory;
+            this.oldBad = oldBad;
+            this.newBad = newBad;
+        }
+
+        public String getProviderId() {
+            return providerId;
+        }
+
+        /**
+         * @return Kategorie vor der Änderung (0 = kein Favorit)
+         */
+        public int getOldCategory() {
+            return oldCategory;
+        }
+
+        /**
+         * @return Kategorie nach der Änderung (0 = kein Favorit)
+         */
+        public int getNewCategory() {
+            return newCategory;
+        }
+
+        public boolean wasBad() {
+            return oldBad;
+        }
+
+        public boolean isBad() {
+            return newBad;
+        }
+
+        public boolean isCategoryChanged() {
+            return oldCategory != newCategory;
+        }
+
+        public boolean isBadChanged() {
+            return oldBad != newBad;
+        }
+
+        /**
+         * @return true, wenn sich effektiv etwas geändert hat
+         */
+        public boolean hasChanges() {
+            return isCategoryChanged() || isBadChanged();
+        }
+
+        @Override
+        public String toString() {
+            return providerId + " [Kategorie " + oldCategory + "->" + newCategory
+                    + ", Bad " + oldBad + "->" + newBad + "]";
+        }
+    }
+
+    private final Map<String, ProviderChange> changes;
+    private final boolean fullReload;
+
+    /**
+     * @param changes Änderungen pro Provider-ID
+     * @param fullReload true, wenn der gesamte Bestand neu geladen wurde und
+     *                   Empfänger alle zwischengespeicherten Werte verwerfen sollten
+     */
+    public FavoritesChangeEvent(Map<String, ProviderChange> changes, boolean fullReload) {
+        this.changes = Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+        this.fullReload = fullReload;
+    }
+
+    /**
+     * @return IDs aller geänderten Provider
+     */
+    public Set<String> getChangedProviderIds() {
+        return changes.keySet();
+    }
+
+    public Collection<ProviderChange> getChanges() {
+        return changes.values();
+    }
+
+    /**
+     * @param providerId Provider-ID
+     * @return Die Änderung für diesen Provider oder null
+     */
+    public ProviderChange getChange(String providerId) {
+        return changes.get(providerId);
+    }
+
+    public boolean isFullReload() {
+        return fullReload;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty() && !fullReload;
+    }
+
+    @Override
+    public String toString() {
+        return "FavoritesChangeEvent[" + changes.size() + " Änderungen" + (fullReload ? ", vollständig neu geladen" : "") + "]";
+    }
+}
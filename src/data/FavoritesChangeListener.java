@@ -0,0 +1,13 @@
+package data;
+
+/**
+ * Listener für Favoriten- und Bad-Provider-Änderungen mit Angabe der betroffenen Provider
+ */
+public interface FavoritesChangeListener {
+
+    /**
+     * Wird nach jeder Änderung bzw. nach Abschluss eines Batches aufgerufen
+     * @param event Die geänderten Provider mit altem und neuem Zustand
+     */
+    void favoritesChanged(FavoritesChangeEvent event);
+}
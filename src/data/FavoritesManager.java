@@ -2,15 +2,15 @@ package data;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,33 +25,44 @@ public class FavoritesManager {
     private final Path favoritesFile;
     private final Path badProvidersFile;
     
+    // Write-Behind-Persistenz: Änderungen werden gebündelt im Hintergrund geschrieben
+    private final FavoritesPersistence persistence = FavoritesPersistence.getInstance();
+    
     // Liste der Listener für Favoriten-Änderungen
-    private final List<Runnable> favoritesChangeListeners = new ArrayList<>();
+    private final List<FavoritesChangeListener> favoritesChangeListeners = new ArrayList<>();
+    // Zuordnung der einfachen Runnable-Listener zu ihren Adaptern (für das Entfernen)
+    private final Map<Runnable, FavoritesChangeListener> runnableListeners = new HashMap<>();
+    
+    // Gesammelte Änderungen, die beim nächsten Benachrichtigen gemeldet werden
+    private final Map<String, FavoritesChangeEvent.ProviderChange> pendingChanges = new LinkedHashMap<>();
+    private int batchDepth = 0;
+    // Der Bestand wurde im laufenden Batch neu geladen, das nächste Ereignis ist vollständig
+    private boolean fullReloadPending = false;
+    private boolean favoritesDirty = false;
+    private boolean badProvidersDirty = false;
     
     // Singleton-Instanz
     private static FavoritesManager instance;
     private static boolean outputDebugMessages = true; // Debug-Ausgaben aktivieren
     
     /**
-     * Gibt die Singleton-Instanz des FavoritesManager zurück
+     * Gibt die Singleton-Instanz des FavoritesManager zurück. Ihr Speicherinhalt
+     * ist maßgeblich, die Dateien werden nur beim Erstellen gelesen.
      * @param rootPath Pfad zum Root-Verzeichnis
      * @return FavoritesManager-Instanz
      */
     public static synchronized FavoritesManager getInstance(String rootPath) {
         if (instance == null) {
             instance = new FavoritesManager(rootPath);
-        } else {
-            // Hier neu: Wir laden die Daten bei jedem Aufruf, um sicherzustellen, dass die Daten aktuell sind
-            instance.reloadFavorites();
         }
         return instance;
     }
     
     /**
      * Fügt einen Listener für Favoriten-Änderungen hinzu
-     * @param listener Der auszuführende Runnable, wenn sich Favoriten ändern
+     * @param listener Listener, der die geänderten Provider-IDs mit altem und neuem Zustand erhält
      */
-    public void addFavoritesChangeListener(Runnable listener) {
+    public void addFavoritesChangeListener(FavoritesChangeListener listener) {
         if (listener != null && !favoritesChangeListeners.contains(listener)) {
             favoritesChangeListeners.add(listener);
             if (outputDebugMessages) {
@@ -60,11 +71,23 @@ public class FavoritesManager {
         }
     }
     
+    /**
+     * Fügt einen einfachen Listener hinzu, der ohne Details über die Änderung informiert wird
+     * @param listener Der auszuführende Runnable, wenn sich Favoriten ändern
+     */
+    public void addFavoritesChangeListener(Runnable listener) {
+        if (listener != null && !runnableListeners.containsKey(listener)) {
+            FavoritesChangeListener adapter = event -> listener.run();
+            runnableListeners.put(listener, adapter);
+            addFavoritesChangeListener(adapter);
+        }
+    }
+    
     /**
      * Entfernt einen Listener für Favoriten-Änderungen
      * @param listener Der zu entfernende Listener
      */
-    public void removeFavoritesChangeListener(Runnable listener) {
+    public void removeFavoritesChangeListener(FavoritesChangeListener listener) {
         if (listener != null) {
             favoritesChangeListeners.remove(listener);
             if (outputDebugMessages) {
@@ -73,6 +96,16 @@ public class FavoritesManager {
         }
     }
     
+    /**
+     * Entfernt einen einfachen Runnable-Listener
+     * @param listener Der zu entfernende Listener
+     */
+    public void removeFavoritesChangeListener(Runnable listener) {
+        if (listener != null) {
+            removeFavoritesChangeListener(runnableListeners.remove(listener));
+        }
+    }
+    
     public FavoritesManager(String rootPath) {
         // Validiere den Pfad und korrigiere ihn, falls nötig
         rootPath = ApplicationConstants.validateRootPath(rootPath, "FavoritesManager.constructor");
@@ -102,6 +135,7 @@ public class FavoritesManager {
         
         this.favoritesFile = Paths.get(rootPath, "config", "favorites.txt");
         this.badProvidersFile = Paths.get(rootPath, "config", "badproviders.txt");
+        persistence.registerBackup(favoritesFile, Paths.get(rootPath, "config", "favorites_old.txt"));
         
         if (outputDebugMessages) {
             System.out.println("Favoriten werden gespeichert in: " + favoritesFile.toAbsolutePath());
@@ -113,10 +147,17 @@ public class FavoritesManager {
         loadBadProviders();
     }
     
-    // NEU: Reload-Methode
+    /**
+     * Lädt Favoriten und Bad Provider neu und meldet das als vollständiges Neuladen
+     */
     public void reloadFavorites() {
-        loadFavorites();
-        loadBadProviders();
+        runBatch(() -> {
+            Map<String, Integer> oldFavorites = new HashMap<>(favorites);
+            Set<String> oldBadProviders = new HashSet<>(badProviders);
+            loadFavorites();
+            loadBadProviders();
+            recordReload(oldFavorites, oldBadProviders);
+        });
         if (outputDebugMessages) {
             System.out.println("Favoriten wurden neu geladen. Anzahl: " + favorites.size());
         }
@@ -168,12 +209,71 @@ public class FavoritesManager {
             System.out.println("Synchronisiere Favoriten mit Datei...");
         }
         
-        loadFavorites();
-        // Nach dem Laden die Listener benachrichtigen
-        notifyFavoritesChanged();
+        // Das Ereignis wird am Ende des Batches gesendet
+        runBatch(() -> {
+            Map<String, Integer> oldFavorites = new HashMap<>(favorites);
+            loadFavorites();
+            recordReload(oldFavorites, badProviders);
+        });
+    }
+    
+    /**
+     * Merkt nach dem Neuladen die geänderten Provider und ein vollständiges Neuladen vor
+     * @param oldFavorites Favoriten vor dem Laden
+     * @param oldBadProviders Bad Provider vor dem Laden
+     */
+    private void recordReload(Map<String, Integer> oldFavorites, Set<String> oldBadProviders) {
+        Set<String> providerIds = new HashSet<>(oldFavorites.keySet());
+        providerIds.addAll(favorites.keySet());
+        providerIds.addAll(oldBadProviders);
+        providerIds.addAll(badProviders);
+        for (String providerId : providerIds) {
+            recordChange(providerId, oldFavorites.getOrDefault(providerId, 0),
+                    favorites.getOrDefault(providerId, 0),
+                    oldBadProviders.contains(providerId), badProviders.contains(providerId));
+        }
+        fullReloadPending = true;
+    }
+    
+    /**
+     * Startet eine Batch-Operation. Änderungen bis zum passenden {@link #endBatch()}
+     * werden zusammengefasst gespeichert und in einem einzigen Ereignis gemeldet.
+     * Batches dürfen verschachtelt werden.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+    
+    /**
+     * Beendet eine Batch-Operation und meldet die gesammelten Änderungen
+     */
+    public void endBatch() {
+        if (batchDepth == 0) {
+            LOGGER.warning("endBatch() ohne passendes beginBatch() aufgerufen");
+            return;
+        }
+        batchDepth--;
+        if (batchDepth == 0) {
+            saveIfDirty();
+            notifyFavoritesChanged();
+        }
+    }
+    
+    /**
+     * Führt mehrere Änderungen als Batch aus
+     * @param operation Die Änderungen, z.B. mehrere setFavoriteCategory-Aufrufe
+     */
+    public void runBatch(Runnable operation) {
+        beginBatch();
+        try {
+            operation.run();
+        } finally {
+            endBatch();
+        }
     }
     
     public void toggleFavorite(String providerId, int category) {
+        int oldCategory = getFavoriteCategory(providerId);
         if (favorites.containsKey(providerId) && favorites.get(providerId) == category) {
             // Wenn der Provider bereits in dieser Kategorie ist, entferne ihn
             favorites.remove(providerId);
@@ -187,10 +287,13 @@ public class FavoritesManager {
                 System.out.println("Favorit hinzugefügt: " + providerId + " in Kategorie " + category);
             }
         }
-        saveFavorites();
+        favoritesDirty = true;
+        
+        boolean bad = isBadProvider(providerId);
+        recordChange(providerId, oldCategory, getFavoriteCategory(providerId), bad, bad);
         
         // Informiere andere Instanzen, dass sich die Favoriten geändert haben
-        notifyFavoritesChanged();
+        commitChange();
     }
     
     public void setFavoriteCategory(String providerId, int category) {
@@ -200,6 +303,7 @@ public class FavoritesManager {
             return;
         }
         
+        int oldCategory = getFavoriteCategory(providerId);
         if (category == 0 && favorites.containsKey(providerId)) {
             // Kategorie 0 bedeutet "kein Favorit", daher entfernen
             favorites.remove(providerId);
@@ -213,24 +317,86 @@ public class FavoritesManager {
                 System.out.println("Kategorie für Provider " + providerId + " auf " + category + " gesetzt");
             }
         }
-        saveFavorites();
+        
+        if (oldCategory != category) {
+            favoritesDirty = true;
+            boolean bad = isBadProvider(providerId);
+            recordChange(providerId, oldCategory, category, bad, bad);
+        }
         
         // Informiere andere Instanzen, dass sich die Favoriten geändert haben
-        notifyFavoritesChanged();
+        commitChange();
+    }
+    
+    /**
+     * Merkt die Änderung eines Providers für das nächste Ereignis vor.
+     * Mehrere Änderungen desselben Providers werden zusammengeführt.
+     */
+    private void recordChange(String providerId, int oldCategory, int newCategory, boolean oldBad, boolean newBad) {
+        FavoritesChangeEvent.ProviderChange previous = pendingChanges.get(providerId);
+        if (previous != null) {
+            // Ausgangszustand der ersten Änderung beibehalten
+            oldCategory = previous.getOldCategory();
+            oldBad = previous.wasBad();
+        }
+        
+        FavoritesChangeEvent.ProviderChange change =
+                new FavoritesChangeEvent.ProviderChange(providerId, oldCategory, newCategory, oldBad, newBad);
+        if (change.hasChanges()) {
+            pendingChanges.put(providerId, change);
+        } else {
+            pendingChanges.remove(providerId);
+        }
     }
     
     /**
-     * Informiert alle Komponenten, dass sich die Favoriten geändert haben
+     * Speichert und benachrichtigt sofort, sofern keine Batch-Operation läuft
+     */
+    private void commitChange() {
+        if (batchDepth == 0) {
+            saveIfDirty();
+            notifyFavoritesChanged();
+        }
+    }
+    
+    private void saveIfDirty() {
+        if (favoritesDirty) {
+            favoritesDirty = false;
+            saveFavorites();
+        }
+        if (badProvidersDirty) {
+            badProvidersDirty = false;
+            saveBadProviders();
+        }
+    }
+    
+    /**
+     * Informiert alle Komponenten über die gesammelten Änderungen
      */
     protected void notifyFavoritesChanged() {
+        if (pendingChanges.isEmpty() && !fullReloadPending) {
+            return;
+        }
+        
+        FavoritesChangeEvent event = new FavoritesChangeEvent(pendingChanges, fullReloadPending);
+        pendingChanges.clear();
+        fullReloadPending = false;
+        fireFavoritesChanged(event);
+    }
+    
+    /**
+     * Sendet ein Ereignis an alle registrierten Listener
+     * @param event Das zu meldende Ereignis
+     */
+    protected void fireFavoritesChanged(FavoritesChangeEvent event) {
         if (outputDebugMessages) {
-            System.out.println("Benachrichtige " + favoritesChangeListeners.size() + " Listener über Favoriten-Änderung");
+            System.out.println("Benachrichtige " + favoritesChangeListeners.size() + " Listener über Favoriten-Änderung: " + event);
         }
         
-        // Alle registrierten Listener benachrichtigen
-        for (Runnable listener : favoritesChangeListeners) {
+        // Kopie, da Listener sich während der Benachrichtigung an- oder abmelden können
+        for (FavoritesChangeListener listener : new ArrayList<>(favoritesChangeListeners)) {
             try {
-                listener.run();
+                listener.favoritesChanged(event);
             } catch (Exception e) {
                 LOGGER.warning("Fehler beim Benachrichtigen eines Favoriten-Listeners: " + e.getMessage());
                 e.printStackTrace();
@@ -239,6 +405,7 @@ public class FavoritesManager {
     }
     
     public void toggleBadProvider(String providerId) {
+        boolean oldBad = badProviders.contains(providerId);
         if (badProviders.contains(providerId)) {
             badProviders.remove(providerId);
             if (outputDebugMessages) {
@@ -250,13 +417,26 @@ public class FavoritesManager {
                 System.out.println("Bad Provider hinzugefügt: " + providerId);
             }
         }
-        saveBadProviders();
+        badProvidersDirty = true;
+        
+        int category = getFavoriteCategory(providerId);
+        recordChange(providerId, category, category, oldBad, !oldBad);
         
         // Auch bei Bad Provider-Änderungen die Listener benachrichtigen
-        notifyFavoritesChanged();
+        commitChange();
     }
     
     private void loadFavorites() {
+        // Noch nicht geschriebene Änderungen sind aktueller als die Datei
+        List<String> pendingLines = persistence.getPendingContent(favoritesFile);
+        if (pendingLines != null) {
+            favorites.clear();
+            for (String line : pendingLines) {
+                parseFavoriteLine(line.trim(), favorites);
+            }
+            return;
+        }
+        
         // Wenn die Favoritendatei nicht existiert, versuchen wir die Backup-Datei zu laden
         if (!favoritesFile.toFile().exists()) {
             File parentDir = favoritesFile.getParent().toFile();
@@ -289,44 +469,18 @@ public class FavoritesManager {
             return;
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(favoritesFile.toFile()))) {
+        try (BufferedReader reader = Files.newBufferedReader(favoritesFile, StandardCharsets.UTF_8)) {
             favorites.clear(); // Cache leeren
             
             String line;
             while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty()) {
-                    // Format überprüfen: ID:Kategorie
-                    if (line.contains(":")) {
-                        String[] parts = line.split(":");
-                        if (parts.length >= 2) {
-                            String providerId = parts[0].trim();
-                            try {
-                                int category = Integer.parseInt(parts[1].trim());
-                                if (category > 0 && category <= 10) {
-                                    favorites.put(providerId, category);
-                                    if (outputDebugMessages) {
-                                        System.out.println("Favorit geladen: " + providerId + " mit Kategorie " + category);
-                                    }
-                                }
-                            } catch (NumberFormatException e) {
-                                LOGGER.warning("Ungültiges Kategorieformat für Provider " + parts[0] + ": " + parts[1]);
-                            }
-                        }
-                    } else {
-                        // Altes Format ohne Kategorie - setze auf Kategorie 1
-                        favorites.put(line, 1);
-                        if (outputDebugMessages) {
-                            System.out.println("Favorit im alten Format geladen: " + line + " mit Standard-Kategorie 1");
-                        }
-                    }
-                }
+                parseFavoriteLine(line.trim(), favorites);
             }
             if (outputDebugMessages) {
                 System.out.println("Anzahl geladener Favoriten: " + favorites.size());
             }
             
-            // Erstelle gleich beim Laden ein Backup
+            // Backup beim Laden erstellen (höchstens einmal pro Backup-Intervall)
             if (favorites.size() > 0) {
                 createBackup();
             }
@@ -343,37 +497,63 @@ public class FavoritesManager {
     }
     
     /**
-     * Erstellt ein Backup der aktuellen Favoriten-Datei
+     * Parst eine Zeile der Favoriten-Datei im Format ID:Kategorie (oder altes Format nur ID)
+     * @param line Getrimmte Zeile
+     * @param target Map, in die der Favorit eingetragen wird
      */
-    private void createBackup() {
-        if (!favoritesFile.toFile().exists()) {
-            return; // Keine Datei, kein Backup
+    private void parseFavoriteLine(String line, Map<String, Integer> target) {
+        if (line.isEmpty()) {
+            return;
         }
         
-        try {
-            File parentDir = favoritesFile.getParent().toFile();
-            File backupFile = new File(parentDir, "favorites_old.txt");
-            
-            // Falls ein altes Backup existiert, löschen wir es
-            if (backupFile.exists()) {
-                backupFile.delete();
-            }
-            
-            // Kopiere die aktuelle Datei als Backup
-            java.nio.file.Files.copy(favoritesFile.toFile().toPath(), backupFile.toPath());
-            
-            if (outputDebugMessages) {
-                System.out.println("Backup der Favoriten-Datei erstellt: " + backupFile.getAbsolutePath());
+        // Format überprüfen: ID:Kategorie
+        if (line.contains(":")) {
+            String[] parts = line.split(":");
+            if (parts.length >= 2) {
+                String providerId = parts[0].trim();
+                try {
+                    int category = Integer.parseInt(parts[1].trim());
+                    if (category > 0 && category <= 10) {
+                        target.put(providerId, category);
+                        if (outputDebugMessages) {
+                            System.out.println("Favorit geladen: " + providerId + " mit Kategorie " + category);
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    LOGGER.warning("Ungültiges Kategorieformat für Provider " + parts[0] + ": " + parts[1]);
+                }
             }
-        } catch (IOException e) {
-            LOGGER.warning("Fehler beim Erstellen des Backups: " + e.getMessage());
+        } else {
+            // Altes Format ohne Kategorie - setze auf Kategorie 1
+            target.put(line, 1);
             if (outputDebugMessages) {
-                System.out.println("Fehler beim Erstellen des Backups: " + e.getMessage());
+                System.out.println("Favorit im alten Format geladen: " + line + " mit Standard-Kategorie 1");
             }
         }
     }
     
+    /**
+     * Erstellt ein Backup der aktuellen Favoriten-Datei, sofern das letzte
+     * Backup älter als das Rotationsintervall ist
+     */
+    private void createBackup() {
+        persistence.rotateBackupIfDue(favoritesFile);
+    }
+    
     private void loadBadProviders() {
+        // Noch nicht geschriebene Änderungen sind aktueller als die Datei
+        List<String> pendingLines = persistence.getPendingContent(badProvidersFile);
+        if (pendingLines != null) {
+            badProviders.clear();
+            for (String line : pendingLines) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    badProviders.add(line);
+                }
+            }
+            return;
+        }
+        
         if (!badProvidersFile.toFile().exists()) {
             if (outputDebugMessages) {
                 System.out.println("badproviders.txt existiert nicht: " + badProvidersFile);
@@ -381,7 +561,7 @@ public class FavoritesManager {
             return;
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(badProvidersFile.toFile()))) {
+        try (BufferedReader reader = Files.newBufferedReader(badProvidersFile, StandardCharsets.UTF_8)) {
             badProviders.clear(); // Cache leeren
             
             String line;
@@ -406,62 +586,20 @@ public class FavoritesManager {
         }
     }
     
+    /**
+     * Merkt den aktuellen Favoriten-Stand zum Speichern vor. Geschrieben wird
+     * gebündelt und atomar im Hintergrund, das Backup rotiert zeitgesteuert.
+     */
     private void saveFavorites() {
-        try {
-            // Stellen Sie sicher, dass das Verzeichnis existiert
-            File parentDir = favoritesFile.getParent().toFile();
-            if (!parentDir.exists()) {
-                boolean created = parentDir.mkdirs();
-                if (!created) {
-                    LOGGER.warning("Konnte Verzeichnis nicht erstellen: " + parentDir.getAbsolutePath());
-                    if (outputDebugMessages) {
-                        System.out.println("Fehler: Verzeichnis konnte nicht erstellt werden: " + parentDir.getAbsolutePath());
-                    }
-                    return; // Nicht weitermachen, wenn das Verzeichnis nicht erstellt werden kann
-                } else if (outputDebugMessages) {
-                    System.out.println("Verzeichnis erfolgreich erstellt: " + parentDir.getAbsolutePath());
-                }
-            }
-            
-            // Prüfen, ob die Favoriten-Datei existiert
-            File favFile = favoritesFile.toFile();
-            if (favFile.exists()) {
-                // Sicherungskopie erstellen (Backup)
-                File oldFavFile = new File(parentDir, "favorites_old.txt");
-                
-                // Falls ein altes Backup existiert, löschen wir es
-                if (oldFavFile.exists()) {
-                    oldFavFile.delete();
-                }
-                
-                // Aktuelle Favoriten-Datei in Backup-Datei kopieren
-                java.nio.file.Files.copy(favFile.toPath(), oldFavFile.toPath());
-                
-                if (outputDebugMessages) {
-                    System.out.println("Sicherungskopie der Favoriten erstellt: " + oldFavFile.getAbsolutePath());
-                }
-            }
-            
-            // Speichern der aktuellen Favoriten
-            try (PrintWriter writer = new PrintWriter(new FileWriter(favoritesFile.toFile()))) {
-                for (Map.Entry<String, Integer> entry : favorites.entrySet()) {
-                    // Speichern im neuen Format: ID:Kategorie
-                    writer.println(entry.getKey() + ":" + entry.getValue());
-                }
-                if (outputDebugMessages) {
-                    System.out.println("Favoriten erfolgreich gespeichert. Anzahl: " + favorites.size());
-                    System.out.println("Speicherort: " + favoritesFile.toAbsolutePath());
-                }
-            }
-        } catch (IOException e) {
-            LOGGER.warning("Error saving favorites: " + e.getMessage());
-            if (outputDebugMessages) {
-                System.out.println("Fehler beim Speichern der Favoriten: " + e.getMessage());
-            }
-            e.printStackTrace();
-            
-            // Versuche aus der Backup-Datei wiederherzustellen, falls ein Fehler auftritt
-            tryRestoreFromBackup();
+        List<String> lines = new ArrayList<>(favorites.size());
+        for (Map.Entry<String, Integer> entry : favorites.entrySet()) {
+            // Speichern im neuen Format: ID:Kategorie
+            lines.add(entry.getKey() + ":" + entry.getValue());
+        }
+        persistence.scheduleWrite(favoritesFile, lines);
+        
+        if (outputDebugMessages) {
+            System.out.println("Favoriten zum Speichern vorgemerkt. Anzahl: " + favorites.size());
         }
     }
     
@@ -476,7 +614,7 @@ public class FavoritesManager {
             try {
                 // Erst laden wir die Backup-Daten
                 Map<String, Integer> backupFavorites = new HashMap<>();
-                try (BufferedReader reader = new BufferedReader(new FileReader(oldFavFile))) {
+                try (BufferedReader reader = Files.newBufferedReader(oldFavFile.toPath(), StandardCharsets.UTF_8)) {
                     String line;
                     while ((line = reader.readLine()) != null) {
                         line = line.trim();
@@ -523,40 +661,20 @@ public class FavoritesManager {
     }
     
     private void saveBadProviders() {
-        try {
-            // Stellen Sie sicher, dass das Verzeichnis existiert
-            File parentDir = badProvidersFile.getParent().toFile();
-            if (!parentDir.exists()) {
-                boolean created = parentDir.mkdirs();
-                if (!created) {
-                    LOGGER.warning("Konnte Verzeichnis nicht erstellen: " + parentDir.getAbsolutePath());
-                    if (outputDebugMessages) {
-                        System.out.println("Fehler: Verzeichnis konnte nicht erstellt werden: " + parentDir.getAbsolutePath());
-                    }
-                    return; // Nicht weitermachen, wenn das Verzeichnis nicht erstellt werden kann
-                } else if (outputDebugMessages) {
-                    System.out.println("Verzeichnis erfolgreich erstellt: " + parentDir.getAbsolutePath());
-                }
-            }
-            
-            try (PrintWriter writer = new PrintWriter(new FileWriter(badProvidersFile.toFile()))) {
-                for (String providerId : badProviders) {
-                    writer.println(providerId);
-                }
-                if (outputDebugMessages) {
-                    System.out.println("Bad Provider erfolgreich gespeichert. Anzahl: " + badProviders.size());
-                    System.out.println("Speicherort: " + badProvidersFile.toAbsolutePath());
-                }
-            }
-        } catch (IOException e) {
-            LOGGER.warning("Error saving bad providers: " + e.getMessage());
-            if (outputDebugMessages) {
-                System.out.println("Fehler beim Speichern der Bad Provider: " + e.getMessage());
-            }
-            e.printStackTrace();
+        persistence.scheduleWrite(badProvidersFile, new ArrayList<>(badProviders));
+        
+        if (outputDebugMessages) {
+            System.out.println("Bad Provider zum Speichern vorgemerkt. Anzahl: " + badProviders.size());
         }
     }
     
+    /**
+     * Schreibt alle noch ausstehenden Favoriten- und Bad-Provider-Änderungen sofort
+     */
+    public void flushPendingWrites() {
+        persistence.flush();
+    }
+    
     /**
      * Gibt alle Favoriten einer bestimmten Kategorie zurück
      * @param category Kategorie der Favoriten (1-10)
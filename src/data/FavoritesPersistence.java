@@ -0,0 +1,200 @@
+package data;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Write-Behind-Persistenz für die Favoriten- und Bad-Provider-Dateien.
+ *
+ * Der Speicherinhalt des FavoritesManager ist maßgeblich; Schreibaufträge werden
+ * pro Datei zusammengefasst und nach einer kurzen Wartezeit auf einem
+ * Hintergrund-Thread geschrieben (Temp-Datei + ATOMIC_MOVE). Backups werden
+ * höchstens einmal pro Intervall rotiert statt bei jedem Klick.
+ */
+final class FavoritesPersistence {
+    private static final Logger LOGGER = Logger.getLogger(FavoritesPersistence.class.getName());
+
+    // Wartezeit, in der weitere Änderungen zu einem Schreibvorgang zusammengefasst werden
+    private static final long WRITE_DELAY_MS = 500;
+    // Mindestabstand zwischen zwei Backup-Rotationen einer Datei
+    private static final long BACKUP_INTERVAL_MS = 10 * 60 * 1000L;
+
+    private static final FavoritesPersistence INSTANCE = new FavoritesPersistence();
+
+    private final ScheduledExecutorService executor;
+    private final Object commitLock = new Object();
+
+    // Ausstehende Dateiinhalte (Datei -> Zeilen), geschützt durch this
+    private final Map<Path, List<String>> pendingWrites = new LinkedHashMap<>();
+    // Zugeordnete Backup-Dateien und Zeitpunkt der letzten Rotation, geschützt durch this
+    private final Map<Path, Path> backupFiles = new HashMap<>();
+    private final Map<Path, Long> lastBackupTimes = new HashMap<>();
+    private ScheduledFuture<?> scheduledCommit;
+
+    private FavoritesPersistence() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Favorites-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Beim Beenden der Anwendung ausstehende Änderungen noch schreiben
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "Favorites-Flush"));
+    }
+
+    static FavoritesPersistence getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Ordnet einer Datei eine Backup-Datei zu, die vor dem Überschreiben rotiert wird
+     * @param file Die zu sichernde Datei
+     * @param backupFile Die Backup-Datei (z.B. favorites_old.txt)
+     */
+    synchronized void registerBackup(Path file, Path backupFile) {
+        backupFiles.put(file, backupFile);
+    }
+
+    /**
+     * Merkt den neuen Inhalt einer Datei vor. Ein bereits ausstehender Inhalt
+     * wird ersetzt, geschrieben wird nach Ablauf der Wartezeit im Hintergrund.
+     * @param file Zieldatei
+     * @param lines Neuer vollständiger Dateiinhalt
+     */
+    synchronized void scheduleWrite(Path file, List<String> lines) {
+        pendingWrites.put(file, new ArrayList<>(lines));
+        if (scheduledCommit == null) {
+            scheduledCommit = executor.schedule(this::commitPending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Liefert den noch nicht geschriebenen Inhalt einer Datei
+     * @param file Die Datei
+     * @return Kopie des ausstehenden Inhalts oder null, wenn nichts aussteht
+     */
+    synchronized List<String> getPendingContent(Path file) {
+        List<String> pending = pendingWrites.get(file);
+        return pending != null ? new ArrayList<>(pending) : null;
+    }
+
+    /**
+     * Schreibt alle ausstehenden Änderungen sofort im aufrufenden Thread
+     */
+    void flush() {
+        commitPending();
+    }
+
+    /**
+     * Rotiert das Backup einer Datei, falls das letzte Backup älter als das Intervall ist
+     * @param file Die zu sichernde Datei
+     */
+    void rotateBackupIfDue(Path file) {
+        Path backupFile;
+        synchronized (this) {
+            backupFile = backupFiles.get(file);
+            Long lastBackup = lastBackupTimes.get(file);
+            if (backupFile == null || (lastBackup != null
+                    && System.currentTimeMillis() - lastBackup < BACKUP_INTERVAL_MS)) {
+                return;
+            }
+            lastBackupTimes.put(file, System.currentTimeMillis());
+        }
+
+        synchronized (commitLock) {
+            if (!Files.exists(file)) {
+                return; // Keine Datei, kein Backup
+            }
+            try {
+                Path tempFile = Files.createTempFile(backupFile.toAbsolutePath().getParent(),
+                        backupFile.getFileName().toString(), ".tmp");
+                try {
+                    Files.copy(file, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                    moveAtomically(tempFile, backupFile);
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+                LOGGER.fine("Backup rotiert: " + backupFile);
+            } catch (IOException e) {
+                LOGGER.warning("Fehler beim Erstellen des Backups " + backupFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void commitPending() {
+        // Der Commit-Lock stellt sicher, dass ältere Stände nie nach neueren auf der Platte landen
+        synchronized (commitLock) {
+            Map<Path, List<String>> snapshot;
+            synchronized (this) {
+                snapshot = new LinkedHashMap<>(pendingWrites);
+                if (scheduledCommit != null) {
+                    scheduledCommit.cancel(false);
+                    scheduledCommit = null;
+                }
+            }
+
+            // Die Inhalte bleiben vorgemerkt, bis sie auf der Platte liegen, damit
+            // ein Neuladen während des Schreibens nie den alten Dateistand liest
+            for (Map.Entry<Path, List<String>> entry : snapshot.entrySet()) {
+                Path file = entry.getKey();
+                try {
+                    rotateBackupIfDue(file);
+                    writeAtomically(file, entry.getValue());
+                    written(file, entry.getValue());
+                } catch (IOException e) {
+                    LOGGER.warning("Fehler beim Speichern von " + file + ": " + e.getMessage());
+                    retryLater();
+                }
+            }
+        }
+    }
+
+    private synchronized void written(Path file, List<String> lines) {
+        // Ein inzwischen vorgemerkter neuerer Stand bleibt ausstehend
+        if (pendingWrites.get(file) == lines) {
+            pendingWrites.remove(file);
+        }
+    }
+
+    private synchronized void retryLater() {
+        // Der Inhalt ist noch vorgemerkt, es fehlt nur ein neuer Schreibversuch
+        if (scheduledCommit == null) {
+            scheduledCommit = executor.schedule(this::commitPending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void writeAtomically(Path file, List<String> lines) throws IOException {
+        Path parentDir = file.toAbsolutePath().getParent();
+        Files.createDirectories(parentDir);
+
+        Path tempFile = Files.createTempFile(parentDir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            moveAtomically(tempFile, file);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -4,29 +4,64 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import utils.TradeUtils;
 
 public class ProviderStats {
-    private final List<Trade> trades;
-    private final List<Double> profits;
-    private final Map<YearMonth, Double> monthlyProfitPercentages;
+    // Vergibt Datenstände eindeutig über alle Instanzen, siehe getDataVersion()
+    private static final AtomicLong DATA_VERSIONS = new AtomicLong();
+
+    // Nach dem Laden eingefroren (siehe freeze()), danach nur noch lesbar
+    private List<Trade> trades;
+    private List<Double> profits;
+    // Wird bei Änderungen komplett ersetzt (Copy-on-Write), damit Leser nie eine halb befüllte Map sehen
+    private volatile Map<YearMonth, Double> monthlyProfitPercentages;
     private double initialBalance;
     private boolean hasStopLoss = false;
     private boolean hasTakeProfit = false;
     private String signalProvider;
     private String signalProviderURL;
-    private int riskCategory = 0; // Neu: Risiko-Kategorie (0-10)
+    private volatile int riskCategory = 0; // Neu: Risiko-Kategorie (0-10)
+    private boolean frozen = false;
+    private volatile long dataVersion = DATA_VERSIONS.incrementAndGet();
     
     public ProviderStats() {
         this.trades = new ArrayList<>();
         this.profits = new ArrayList<>();
-        this.monthlyProfitPercentages = new TreeMap<>();
+        this.monthlyProfitPercentages = Collections.unmodifiableMap(new TreeMap<>());
         this.initialBalance = 0.0;
     }
+    
+    /**
+     * Friert die Trade-Daten ein. Wird vom DataManager vor dem Veröffentlichen
+     * eines Snapshots aufgerufen; danach lösen Änderungen an Trades, Profits
+     * oder der Anfangsbalance eine Exception aus.
+     */
+    void freeze() {
+        if (!frozen) {
+            trades = Collections.unmodifiableList(trades);
+            profits = Collections.unmodifiableList(profits);
+            frozen = true;
+        }
+    }
+    
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Kennung des aktuellen Datenstands. Ändert sich bei jeder Änderung von
+     * Trades, Anfangsbalance oder Monatsprofiten und ist über alle Instanzen
+     * eindeutig; abgeleitete Daten können darüber zwischengespeichert werden.
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
 
     public void setSignalProviderInfo(String provider, String url) {
         this.signalProvider = provider;
@@ -60,7 +95,11 @@ public class ProviderStats {
     }
 
     public void setInitialBalance(double balance) {
+        if (frozen) {
+            throw new IllegalStateException("ProviderStats ist eingefroren: " + signalProvider);
+        }
         this.initialBalance = balance;
+        dataVersion = DATA_VERSIONS.incrementAndGet();
     }
     
     public double getInitialBalance() {
@@ -81,10 +120,11 @@ public class ProviderStats {
         
         if (stopLoss != 0.0) hasStopLoss = true;
         if (takeProfit != 0.0) hasTakeProfit = true;
+        dataVersion = DATA_VERSIONS.incrementAndGet();
     }
     
     public void setMonthlyProfits(Map<String, Double> monthProfits) {
-        monthlyProfitPercentages.clear();
+        Map<YearMonth, Double> monthlyProfitPercentages = new TreeMap<>();
         for (Map.Entry<String, Double> entry : monthProfits.entrySet()) {
             String[] parts = entry.getKey().split("/");
             if (parts.length == 2) {
@@ -97,6 +137,8 @@ public class ProviderStats {
                 }
             }
         }
+        this.monthlyProfitPercentages = Collections.unmodifiableMap(monthlyProfitPercentages);
+        dataVersion = DATA_VERSIONS.incrementAndGet();
     }
     
     public Map<YearMonth, Double> getMonthlyProfitPercentages() {
@@ -0,0 +1,326 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Kleiner Pool lesender Datenbankverbindungen.
+ *
+ * Jede Verbindung hält ihre vorbereiteten Statements selbst, so dass wiederholte
+ * Abfragen nicht neu übersetzt werden. Eine ausgeliehene Verbindung gehört bis
+ * zur Rückgabe exklusiv dem ausleihenden Thread. Verbindungen werden erst bei
+ * Bedarf geöffnet. Auslastung und Wartezeiten werden mitgezählt.
+ */
+public class ConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String jdbcUrl;
+    private final int maxSize;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+    private final BlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peakInUse = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong waitedBorrows = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * Momentaufnahme der Pool-Kennzahlen
+     */
+    public static class Stats {
+        private final int maxSize;
+        private final int openConnections;
+        private final int inUse;
+        private final int peakInUse;
+        private final long borrows;
+        private final long waitedBorrows;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long timeouts;
+
+        private Stats(ConnectionPool pool) {
+            this.maxSize = pool.maxSize;
+            this.openConnections = pool.openConnections.get();
+            this.inUse = pool.inUse.get();
+            this.peakInUse = pool.peakInUse.get();
+            this.borrows = pool.borrows.get();
+            this.waitedBorrows = pool.waitedBorrows.get();
+            this.totalWaitNanos = pool.totalWaitNanos.get();
+            this.maxWaitNanos = pool.maxWaitNanos.get();
+            this.timeouts = pool.timeouts.get();
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getOpenConnections() {
+            return openConnections;
+        }
+
+        public int getInUse() {
+            return inUse;
+        }
+
+        public int getPeakInUse() {
+            return peakInUse;
+        }
+
+        public long getBorrows() {
+            return borrows;
+        }
+
+        /**
+         * @return Anzahl der Ausleihen, die auf eine freie Verbindung warten mussten
+         */
+        public long getWaitedBorrows() {
+            return waitedBorrows;
+        }
+
+        /**
+         * @return Durchschnittliche Wartezeit je Ausleihe in Millisekunden
+         */
+        public double getAverageWaitMillis() {
+            return borrows > 0 ? totalWaitNanos / 1_000_000.0 / borrows : 0;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d in Benutzung (Spitze %d, %d geöffnet), %d Ausleihen, " +
+                    "%d mit Wartezeit (Ø %.2f ms, max. %.1f ms), %d Zeitüberschreitungen",
+                    inUse, maxSize, peakInUse, openConnections, borrows,
+                    waitedBorrows, getAverageWaitMillis(), getMaxWaitMillis(), timeouts);
+        }
+    }
+
+    /**
+     * Eine ausgeliehene Verbindung. Muss mit {@link #close()} zurückgegeben werden,
+     * am besten per try-with-resources.
+     */
+    public class Lease implements AutoCloseable {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        public Connection getConnection() {
+            return pooled.connection;
+        }
+
+        /**
+         * Liefert ein für diese Verbindung einmal vorbereitetes Statement.
+         * Parameter müssen bei jeder Verwendung vollständig neu gesetzt werden.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement stmt = pooled.statements.get(sql);
+            if (stmt == null || stmt.isClosed()) {
+                stmt = pooled.connection.prepareStatement(sql);
+                pooled.statements.put(sql, stmt);
+            }
+            return stmt;
+        }
+
+        public Statement createStatement() throws SQLException {
+            return pooled.connection.createStatement();
+        }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                release(pooled);
+            }
+        }
+    }
+
+    private static class PooledConnection {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        boolean isUsable() {
+            try {
+                return !connection.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void close() {
+            for (PreparedStatement stmt : statements.values()) {
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    LOGGER.fine("Fehler beim Schließen eines Statements: " + e.getMessage());
+                }
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.fine("Fehler beim Schließen einer Pool-Verbindung: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param jdbcUrl URL der Datenbank
+     * @param maxSize Maximale Anzahl gleichzeitig geöffneter Verbindungen
+     * @param timeoutMillis Maximale Wartezeit auf eine freie Verbindung
+     */
+    public ConnectionPool(String jdbcUrl, int maxSize, long timeoutMillis) {
+        this.jdbcUrl = jdbcUrl;
+        this.maxSize = Math.max(1, maxSize);
+        this.timeoutMillis = timeoutMillis;
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /**
+     * Leiht eine Verbindung aus und wartet dabei höchstens die eingestellte Zeit
+     * @throws SQLException wenn keine Verbindung frei wurde oder sich keine öffnen ließ
+     */
+    public Lease borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Verbindungspool ist geschlossen");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire();
+        if (!acquired) {
+            waitedBorrows.incrementAndGet();
+            try {
+                acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Warten auf eine Datenbankverbindung unterbrochen");
+            }
+        }
+        long waited = System.nanoTime() - start;
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Keine Datenbankverbindung innerhalb von " + timeoutMillis + " ms frei");
+        }
+
+        borrows.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        try {
+            PooledConnection pooled = idle.poll();
+            while (pooled != null && !pooled.isUsable()) {
+                discard(pooled);
+                pooled = idle.poll();
+            }
+            if (pooled == null) {
+                pooled = open();
+            }
+            peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+            return new Lease(pooled);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Sperrt den Pool für Wartungsarbeiten, die keine weiteren Verbindungen vertragen:
+     * wartet, bis alle Verbindungen zurückgegeben sind, und schließt die freien.
+     * Neue Ausleihen warten bis {@link #resume()}.
+     * @param timeoutMillis Maximale Wartezeit auf die Rückgabe
+     * @return true, wenn der Pool gesperrt ist; sonst bleibt er unverändert offen
+     */
+    public boolean suspend(long timeoutMillis) {
+        try {
+            if (!permits.tryAcquire(maxSize, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled);
+        }
+        return true;
+    }
+
+    /**
+     * Gibt einen mit {@link #suspend(long)} gesperrten Pool wieder frei
+     */
+    public void resume() {
+        permits.release(maxSize);
+    }
+
+    /**
+     * @return Aktuelle Auslastung und Wartezeiten
+     */
+    public Stats getStats() {
+        return new Stats(this);
+    }
+
+    /**
+     * Schließt alle freien Verbindungen; ausgeliehene werden bei der Rückgabe geschlossen
+     */
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled);
+        }
+        LOGGER.info("Verbindungspool geschlossen: " + getStats());
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+        connection.setReadOnly(true);
+        openConnections.incrementAndGet();
+        return new PooledConnection(connection);
+    }
+
+    private void discard(PooledConnection pooled) {
+        pooled.close();
+        openConnections.decrementAndGet();
+    }
+
+    private void release(PooledConnection pooled) {
+        inUse.decrementAndGet();
+        if (closed || !pooled.isUsable()) {
+            discard(pooled);
+        } else {
+            idle.offer(pooled);
+        }
+        permits.release();
+    }
+}
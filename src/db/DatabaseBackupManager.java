@@ -0,0 +1,394 @@
+package db;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Erstellt Sicherungskopien der History-Datenbank auf einem eigenen Thread
+ * über eine eigene Verbindung, so dass Oberfläche und Datenbankzugriffe
+ * währenddessen nicht warten müssen.
+ *
+ * Nach jedem Backup werden alte Sicherungen rotiert: behalten werden jeweils
+ * das neueste Backup der letzten {@code keepDaily} Tage und der letzten
+ * {@code keepWeekly} Kalenderwochen.
+ */
+public class DatabaseBackupManager {
+    private static final Logger LOGGER = Logger.getLogger(DatabaseBackupManager.class.getName());
+
+    private static final String FILE_PREFIX = "backup_";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final String LOG_BACKUP =
+            "INSERT INTO db_change_log (change_date, change_type, table_name, description) VALUES (?, ?, ?, ?)";
+
+    public static final int DEFAULT_KEEP_DAILY = 7;
+    public static final int DEFAULT_KEEP_WEEKLY = 4;
+
+    /**
+     * Format bzw. Kompression der Sicherung
+     */
+    public enum Compression {
+        /** Binärkopie der Datenbankdatei als ZIP (BACKUP TO), schnellste Wiederherstellung */
+        ZIP("zip"),
+        /** SQL-Skript, GZIP-komprimiert (SCRIPT TO ... COMPRESSION GZIP), am kleinsten */
+        GZIP("sql.gz"),
+        /** SQL-Skript, LZF-komprimiert, schneller als GZIP */
+        LZF("sql.lzf"),
+        /** Unkomprimiertes SQL-Skript */
+        NONE("sql");
+
+        private final String extension;
+
+        Compression(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @return Die Kompression zum Namen oder ZIP, wenn der Name unbekannt ist
+         */
+        public static Compression fromName(String name) {
+            for (Compression compression : values()) {
+                if (compression.name().equalsIgnoreCase(name)) {
+                    return compression;
+                }
+            }
+            return ZIP;
+        }
+    }
+
+    /**
+     * Ergebnis eines Backup-Laufs
+     */
+    public static class BackupResult {
+        private final File file;
+        private final long sizeBytes;
+        private final long durationMillis;
+        private final int deletedBackups;
+        private final String error;
+
+        private BackupResult(File file, long sizeBytes, long durationMillis, int deletedBackups, String error) {
+            this.file = file;
+            this.sizeBytes = sizeBytes;
+            this.durationMillis = durationMillis;
+            this.deletedBackups = deletedBackups;
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return Anzahl der bei der Rotation gelöschten alten Backups
+         */
+        public int getDeletedBackups() {
+            return deletedBackups;
+        }
+
+        /**
+         * @return Fehlermeldung oder null bei Erfolg
+         */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            if (!isSuccess()) {
+                return "Backup fehlgeschlagen: " + error;
+            }
+            return String.format("%s (%.1f MB, %d ms, %d alte Backups gelöscht)",
+                    file.getName(), sizeBytes / (1024.0 * 1024.0), durationMillis, deletedBackups);
+        }
+    }
+
+    private final String jdbcUrl;
+    private final File backupDir;
+    private volatile Compression compression = Compression.ZIP;
+    private volatile int keepDaily = DEFAULT_KEEP_DAILY;
+    private volatile int keepWeekly = DEFAULT_KEEP_WEEKLY;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "DB-Backup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    // Noch nicht gestartetes Backup; weitere Anforderungen schließen sich ihm an
+    private CompletableFuture<BackupResult> queuedBackup;
+    private volatile BackupResult lastResult;
+    private volatile long lastSuccessAt;
+    // Wird während eines Backups gehalten; Wartungsarbeiten halten neue Backups damit an
+    private final ReentrantLock backupLock = new ReentrantLock();
+
+    /**
+     * @param jdbcUrl URL der zu sichernden Datenbank, es wird eine eigene Verbindung geöffnet
+     * @param backupDir Zielordner der Sicherungen
+     */
+    public DatabaseBackupManager(String jdbcUrl, File backupDir) {
+        this.jdbcUrl = jdbcUrl;
+        this.backupDir = backupDir;
+    }
+
+    /**
+     * Setzt Kompression und Aufbewahrung
+     * @param compression Format der Sicherung
+     * @param keepDaily Anzahl Tage, für die jeweils das neueste Backup behalten wird
+     * @param keepWeekly Anzahl Wochen, für die jeweils das neueste Backup behalten wird.
+     *        Sind beide Werte 0, wird nichts gelöscht.
+     */
+    public void configure(Compression compression, int keepDaily, int keepWeekly) {
+        this.compression = compression;
+        this.keepDaily = Math.max(0, keepDaily);
+        this.keepWeekly = Math.max(0, keepWeekly);
+    }
+
+    /**
+     * Stellt ein Backup in die Warteschlange und kehrt sofort zurück. Wartet bereits
+     * ein Backup auf den Start, wird dessen Ergebnis geteilt.
+     * @return Future mit dem Ergebnis, schlägt nie mit einer Exception fehl
+     */
+    public synchronized CompletableFuture<BackupResult> createBackupAsync() {
+        if (queuedBackup != null) {
+            return queuedBackup;
+        }
+        CompletableFuture<BackupResult> future = new CompletableFuture<>();
+        queuedBackup = future;
+        try {
+            executor.execute(() -> {
+                synchronized (this) {
+                    queuedBackup = null;
+                }
+                future.complete(runBackup());
+            });
+        } catch (RuntimeException e) {
+            queuedBackup = null;
+            future.complete(new BackupResult(null, 0, 0, 0, "Backup-Thread beendet"));
+        }
+        return future;
+    }
+
+    /**
+     * Erstellt ein Backup und wartet auf das Ergebnis
+     */
+    public BackupResult createBackup() {
+        return createBackupAsync().join();
+    }
+
+    /**
+     * @return Ergebnis des letzten Backups oder null
+     */
+    public BackupResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * @param maxAgeMillis Maximales Alter in Millisekunden
+     * @return true, wenn innerhalb der angegebenen Zeit ein Backup erfolgreich war
+     */
+    public boolean hasRecentBackup(long maxAgeMillis) {
+        return lastSuccessAt > 0 && System.currentTimeMillis() - lastSuccessAt <= maxAgeMillis;
+    }
+
+    /**
+     * Wartet auf ein laufendes Backup und hält weitere an, bis {@link #resume()}
+     * aufgerufen wird. Angeforderte Backups bleiben in der Warteschlange.
+     * @param timeoutMillis Maximale Wartezeit auf ein laufendes Backup
+     * @return true, wenn kein Backup mehr läuft
+     */
+    public boolean suspend(long timeoutMillis) {
+        try {
+            return backupLock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Lässt mit {@link #suspend(long)} angehaltene Backups weiterlaufen.
+     * Muss vom selben Thread wie suspend aufgerufen werden.
+     */
+    public void resume() {
+        backupLock.unlock();
+    }
+
+    /**
+     * Wartet auf laufende und wartende Backups und beendet den Backup-Thread
+     * @param timeoutSeconds Maximale Wartezeit
+     */
+    public void shutdown(long timeoutSeconds) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                LOGGER.warning("Backup nach " + timeoutSeconds + " s noch nicht beendet");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BackupResult runBackup() {
+        backupLock.lock();
+        try {
+            return runBackupLocked();
+        } finally {
+            backupLock.unlock();
+        }
+    }
+
+    private BackupResult runBackupLocked() {
+        long start = System.currentTimeMillis();
+        Compression format = compression;
+        File backupFile = null;
+        BackupResult result;
+
+        try {
+            if (!backupDir.exists()) {
+                backupDir.mkdirs();
+            }
+            backupFile = newBackupFile(format);
+
+            try (Connection backupConnection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+                try (Statement stmt = backupConnection.createStatement()) {
+                    stmt.execute(backupCommand(backupFile, format));
+                }
+
+                long duration = System.currentTimeMillis() - start;
+                long size = backupFile.length();
+                int deleted = applyRetention(backupFile);
+                result = new BackupResult(backupFile, size, duration, deleted, null);
+
+                // Protokolleintrag über die eigene Verbindung, die Hauptverbindung bleibt frei
+                try (PreparedStatement log = backupConnection.prepareStatement(LOG_BACKUP)) {
+                    log.setObject(1, LocalDateTime.now());
+                    log.setString(2, "BACKUP");
+                    log.setString(3, "ALL");
+                    log.setString(4, "Datenbank-Backup erstellt: " + backupFile + " (" + size + " Bytes, " + duration + " ms)");
+                    log.executeUpdate();
+                }
+            }
+
+            lastSuccessAt = System.currentTimeMillis();
+            LOGGER.info("Datenbank-Backup erfolgreich erstellt: " + result);
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.severe("Fehler beim Erstellen des Datenbank-Backups: " + e.getMessage());
+            e.printStackTrace();
+            if (backupFile != null && backupFile.exists() && !backupFile.delete()) {
+                LOGGER.warning("Unvollständiges Backup konnte nicht gelöscht werden: " + backupFile);
+            }
+            result = new BackupResult(backupFile, 0, System.currentTimeMillis() - start, 0, e.getMessage());
+        }
+
+        lastResult = result;
+        return result;
+    }
+
+    private File newBackupFile(Compression format) {
+        String timestamp = LocalDateTime.now().format(FILE_TIMESTAMP);
+        File file = new File(backupDir, FILE_PREFIX + timestamp + "." + format.getExtension());
+        for (int i = 1; file.exists(); i++) {
+            file = new File(backupDir, FILE_PREFIX + timestamp + "_" + i + "." + format.getExtension());
+        }
+        return file;
+    }
+
+    private static String backupCommand(File backupFile, Compression format) {
+        String path = backupFile.getAbsolutePath().replace("'", "''");
+        switch (format) {
+            case ZIP:  return "BACKUP TO '" + path + "'";
+            case NONE: return "SCRIPT TO '" + path + "'";
+            default:   return "SCRIPT TO '" + path + "' COMPRESSION " + format.name();
+        }
+    }
+
+    /**
+     * Löscht alte Backups nach dem Tages-/Wochen-Schema. Das gerade erstellte
+     * Backup wird immer behalten.
+     * @return Anzahl gelöschter Dateien
+     */
+    private int applyRetention(File newestBackup) {
+        int daily = keepDaily;
+        int weekly = keepWeekly;
+        if (daily == 0 && weekly == 0) {
+            return 0;
+        }
+
+        File[] files = backupDir.listFiles((dir, name) -> name.startsWith(FILE_PREFIX));
+        if (files == null) {
+            return 0;
+        }
+        // Neueste zuerst, damit pro Tag/Woche jeweils das neueste Backup gewinnt
+        List<File> backups = new ArrayList<>(Arrays.asList(files));
+        backups.sort((a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+
+        WeekFields weekFields = WeekFields.ISO;
+        Set<LocalDate> keptDays = new HashSet<>();
+        Set<Integer> keptWeeks = new HashSet<>();
+        int deleted = 0;
+
+        for (File backup : backups) {
+            LocalDate day = Instant.ofEpochMilli(backup.lastModified()).atZone(ZoneId.systemDefault()).toLocalDate();
+            int week = day.get(weekFields.weekBasedYear()) * 100 + day.get(weekFields.weekOfWeekBasedYear());
+
+            boolean keep = backup.equals(newestBackup);
+            if (!keptDays.contains(day) && keptDays.size() < daily) {
+                keptDays.add(day);
+                keep = true;
+            }
+            if (!keptWeeks.contains(week) && keptWeeks.size() < weekly) {
+                keptWeeks.add(week);
+                keep = true;
+            }
+
+            if (!keep) {
+                if (backup.delete()) {
+                    deleted++;
+                } else {
+                    LOGGER.warning("Altes Backup konnte nicht gelöscht werden: " + backup);
+                }
+            }
+        }
+
+        if (deleted > 0) {
+            LOGGER.info(deleted + " alte Datenbank-Backups gelöscht");
+        }
+        return deleted;
+    }
+}
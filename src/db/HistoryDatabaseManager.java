@@ -7,23 +7,95 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 
+import db.HistoryWriteQueue.PendingWrite;
+import db.StatRollup.Resolution;
 import utils.ApplicationConstants;
+import utils.MqlAnalyserConf;
+import utils.TaskScheduler;
 
 /**
  * Verwaltet die H2-Datenbankverbindung und Operationen für die Speicherung
- * von historischen Werten für Signal Provider
+ * von historischen Werten für Signal Provider.
+ * 
+ * Geschrieben wird nur über die Hauptverbindung unter der Sperre des Managers,
+ * gelesen über einen kleinen Pool eigener Verbindungen, so dass Charts, der
+ * Datenbank-Viewer und der Tabellenaufbau parallel abfragen können.
  */
 public class HistoryDatabaseManager {
     private static final Logger LOGGER = Logger.getLogger(HistoryDatabaseManager.class.getName());
     private static HistoryDatabaseManager instance;
     private Connection connection;
     private String rootPath;
+    private String jdbcUrl;
+    private DatabaseBackupManager backupManager;
+    // Lesende Verbindungen; die Hauptverbindung gehört allein dem Schreiber
+    private ConnectionPool readPool;
+    
+    // Im Speicher gehaltene Daten, beim Start in einem Durchgang geladen und bei
+    // jedem Schreiben mitgeführt. Annahme: nur diese Anwendung schreibt in die Datenbank.
+    private final Map<String, Integer> providerIdCache = new ConcurrentHashMap<>();
+    // In der laufenden Transaktion angelegte Provider, bei einem Rollback aus dem Cache zu entfernen
+    private final List<String> providersAddedInTransaction = new ArrayList<>();
+    private final Map<String, Map<String, Double>> latestValueCache = new ConcurrentHashMap<>();
+    private final Map<String, String> notesCache = new ConcurrentHashMap<>();
+    private final Map<String, Integer> riskCategoryCache = new ConcurrentHashMap<>();
+    
+    // Stand aus db_metadata, wird nur zusammen mit der Tabelle geändert
+    private volatile long providerRowCount;
+    private volatile long statRowCount;
+    private long statChecksum;
+    private long lastCheckedCount;
+    
+    // Ein Backup, das jünger ist, macht das Backup beim Schließen überflüssig
+    private static final long RECENT_BACKUP_MILLIS = 60 * 1000;
+    private static final long BACKUP_SHUTDOWN_TIMEOUT_SECONDS = 120;
+    
+    // Maximale Wartezeit beim Komprimieren auf laufende Backups, Prüfungen und Abfragen
+    private static final long COMPACT_QUIESCE_TIMEOUT_MS = 60 * 1000;
+    
+    // Gründliche Prüfungen öffnen eine eigene Verbindung; das Komprimieren schließt sie aus
+    private final ReentrantReadWriteLock exclusiveAccess = new ReentrantReadWriteLock();
+    
+    // Größe des Lese-Pools und maximale Wartezeit auf eine freie Verbindung
+    private static final int READ_POOL_SIZE = 4;
+    private static final long READ_POOL_TIMEOUT_MS = 10000;
+    
+    // Aufbewahrung der Rohwerte und Wochenwerte in Tagen, siehe applyRetention
+    private int rawRetentionDays = 365;
+    private int weeklyRetentionDays = 3 * 365;
+    
+    // Verzögert geschriebene Änderungen, siehe HistoryWriteQueue
+    private final HistoryWriteQueue writeQueue = new HistoryWriteQueue();
+    // Maximale Wartezeit lesender Abfragen auf das Schreiben vorgemerkter Änderungen
+    private static final long READ_FLUSH_TIMEOUT_MS = 5000;
+    
+    // Einmal vorbereitete Statements, Schlüssel ist das SQL
+    private final Map<String, PreparedStatement> statementCache = new HashMap<>();
     
     // SQL-Statements für Datenbankoperationen
     private static final String CREATE_PROVIDERS_TABLE = 
@@ -38,6 +110,7 @@ public class HistoryDatabaseManager {
     	    "stat_type VARCHAR(50) NOT NULL, " +
     	    "recorded_date TIMESTAMP NOT NULL, " +
     	    "\"value\" DOUBLE NOT NULL, " +
+    	    "synthetic BOOLEAN DEFAULT FALSE NOT NULL, " +
     	    "FOREIGN KEY (provider_id) REFERENCES signal_providers(provider_id), " +
     	    "UNIQUE (provider_id, stat_type, recorded_date))";
     
@@ -68,12 +141,36 @@ public class HistoryDatabaseManager {
             "table_name VARCHAR(50) NOT NULL, " +
             "description VARCHAR(1000))";
     
+    // Index für "letzter Wert je Provider und Typ" sowie für die Historie eines Providers
+    private static final String CREATE_STAT_VALUES_LATEST_INDEX = 
+            "CREATE INDEX IF NOT EXISTS idx_stat_values_latest " +
+            "ON stat_values (provider_id, stat_type, recorded_date DESC)";
+    
+    // Mitgeführte Zeilenzahlen und Prüfsummen für Integritätsprüfungen ohne COUNT(*)
+    private static final String CREATE_METADATA_TABLE = 
+            "CREATE TABLE IF NOT EXISTS db_metadata (" +
+            "table_name VARCHAR(50) PRIMARY KEY, " +
+            "row_count BIGINT NOT NULL, " +
+            "checksum BIGINT NOT NULL, " +
+            "last_updated TIMESTAMP)";
+    
+    private static final String GET_METADATA = 
+            "SELECT table_name, row_count, checksum FROM db_metadata";
+    
+    private static final String INSERT_METADATA = 
+            "INSERT INTO db_metadata (table_name, row_count, checksum, last_updated) VALUES (?, ?, ?, ?)";
+    
+    private static final String SET_METADATA = 
+            "UPDATE db_metadata SET row_count = ?, checksum = ?, last_updated = ? WHERE table_name = ?";
+    
+    // Schlüssel in db_metadata
+    private static final String META_PROVIDERS = "signal_providers";
+    private static final String META_STAT_VALUES = "stat_values";
+    private static final String META_INTEGRITY_CHECK = "integrity_check";
+    
     private static final String INSERT_PROVIDER = 
             "INSERT INTO signal_providers (provider_name) VALUES (?)";
     
-    private static final String GET_PROVIDER_ID = 
-            "SELECT provider_id FROM signal_providers WHERE provider_name = ?";
-    
     private static final String INSERT_STAT_VALUE = 
     	    "INSERT INTO stat_values (provider_id, stat_type, recorded_date, \"value\") VALUES (?, ?, ?, ?)";
     
@@ -83,13 +180,148 @@ public class HistoryDatabaseManager {
     	    "ORDER BY recorded_date DESC LIMIT 1";
     
     private static final String GET_STAT_HISTORY = 
-    	    "SELECT recorded_date, \"value\" FROM stat_values " +
-    	    "WHERE provider_id = ? AND stat_type = ? " +
+    	    "SELECT recorded_date, \"value\", synthetic FROM stat_values " +
+    	    "WHERE provider_id = ? AND stat_type = ? AND recorded_date >= ? AND recorded_date <= ? " +
     	    "ORDER BY recorded_date DESC";
     
+    // Aus Tradedaten rekonstruierte Werte, als synthetisch markiert
+    private static final String INSERT_SYNTHETIC_STAT_VALUE = 
+            "INSERT INTO stat_values (provider_id, stat_type, recorded_date, \"value\", synthetic) VALUES (?, ?, ?, ?, TRUE)";
+    
+    // Anzahl und ältestes Datum der Werte eines Typs je Provider
+    private static final String GET_STAT_VALUE_RANGES = 
+            "SELECT p.provider_name, s.provider_id, COUNT(*), MIN(s.recorded_date) FROM stat_values s " +
+            "JOIN signal_providers p ON p.provider_id = s.provider_id " +
+            "WHERE s.stat_type = ? GROUP BY p.provider_name, s.provider_id";
+    
+    private static final String GET_EARLIEST_ROLLUPS = 
+            "SELECT provider_id, MIN(period_start) FROM stat_rollups WHERE stat_type = ? GROUP BY provider_id";
+    
+    // Verdichtete Wochen- und Monatswerte älterer Statistikwerte
+    private static final String CREATE_ROLLUPS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS stat_rollups (" +
+            "provider_id INT NOT NULL, " +
+            "stat_type VARCHAR(50) NOT NULL, " +
+            "resolution CHAR(1) NOT NULL, " +
+            "period_start DATE NOT NULL, " +
+            "min_value DOUBLE NOT NULL, " +
+            "max_value DOUBLE NOT NULL, " +
+            "last_value DOUBLE NOT NULL, " +
+            "last_date TIMESTAMP NOT NULL, " +
+            "sample_count INT NOT NULL, " +
+            // Letzter Wert des Zeitraums aus Tradedaten rekonstruiert
+            "synthetic BOOLEAN DEFAULT FALSE NOT NULL, " +
+            "PRIMARY KEY (provider_id, stat_type, resolution, period_start), " +
+            "FOREIGN KEY (provider_id) REFERENCES signal_providers(provider_id))";
+    
+    private static final String GET_ROLLUPS = 
+            "SELECT period_start, last_date, min_value, max_value, last_value, sample_count, synthetic FROM stat_rollups " +
+            "WHERE provider_id = ? AND stat_type = ? AND resolution = ? AND last_date >= ? AND period_start <= ? " +
+            "ORDER BY period_start";
+    
+    // Rohwerte vor dem Stichtag, ohne den jeweils letzten Wert je Provider und Typ
+    private static final String EXPIRED_STAT_VALUES_CONDITION = 
+            "recorded_date < ? AND recorded_date < (SELECT MAX(t.recorded_date) FROM stat_values t " +
+            "WHERE t.provider_id = stat_values.provider_id AND t.stat_type = stat_values.stat_type)";
+    
+    private static final String GET_EXPIRED_STAT_VALUES = 
+            "SELECT provider_id, stat_type, recorded_date, \"value\", synthetic FROM stat_values WHERE " +
+            EXPIRED_STAT_VALUES_CONDITION + " ORDER BY provider_id, stat_type, recorded_date";
+    
+    private static final String DELETE_EXPIRED_STAT_VALUES = 
+            "DELETE FROM stat_values WHERE " + EXPIRED_STAT_VALUES_CONDITION;
+    
+    private static final String UPDATE_ROLLUP = 
+            "UPDATE stat_rollups SET min_value = LEAST(min_value, ?), max_value = GREATEST(max_value, ?), " +
+            "last_value = CASE WHEN last_date <= ? THEN ? ELSE last_value END, " +
+            "synthetic = CASE WHEN last_date <= ? THEN ? ELSE synthetic END, last_date = GREATEST(last_date, ?), " +
+            "sample_count = sample_count + ? " +
+            "WHERE provider_id = ? AND stat_type = ? AND resolution = ? AND period_start = ?";
+    
+    private static final String INSERT_ROLLUP = 
+            "INSERT INTO stat_rollups (provider_id, stat_type, resolution, period_start, " +
+            "min_value, max_value, last_value, last_date, sample_count, synthetic) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String DELETE_EXPIRED_WEEKLY_ROLLUPS = 
+            "DELETE FROM stat_rollups WHERE resolution = 'W' AND period_start < ?";
+    
+    // Grenzen für offene Zeiträume in Historienabfragen
+    private static final LocalDateTime HISTORY_MIN_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59);
+    
+    // Letzter Wert je Provider und Statistiktyp in einer einzigen Abfrage
+    private static final String GET_ALL_LATEST_STAT_VALUES = 
+            "SELECT p.provider_name, s.stat_type, s.\"value\" FROM stat_values s " +
+            "JOIN signal_providers p ON p.provider_id = s.provider_id " +
+            "JOIN (SELECT provider_id, stat_type, MAX(recorded_date) AS max_date " +
+            "      FROM stat_values GROUP BY provider_id, stat_type) m " +
+            "ON m.provider_id = s.provider_id AND m.stat_type = s.stat_type AND m.max_date = s.recorded_date";
+    
+    private static final String GET_ALL_PROVIDER_IDS = 
+            "SELECT provider_name, provider_id FROM signal_providers";
+    
+    // Zeilen, die beim Streamen der Historie pro Roundtrip geholt werden
+    private static final int HISTORY_FETCH_SIZE = 500;
+    
+    // Mindestabweichung, ab der ein Wert als geändert gilt
+    private static final double VALUE_CHANGE_THRESHOLD = 0.001;
+    
+    private static final String GET_ALL_PROVIDER_NOTES = 
+            "SELECT p.provider_name, n.notes, n.risk_category FROM provider_notes n " +
+            "JOIN signal_providers p ON p.provider_id = n.provider_id";
+    
+    // Aktualisiert nur die genannten Spalten, legt die Zeile bei Bedarf an
+    private static final String MERGE_NOTES = 
+            "MERGE INTO provider_notes (provider_id, notes, last_updated) KEY (provider_id) VALUES (?, ?, ?)";
+    
+    private static final String MERGE_RISK_CATEGORY = 
+            "MERGE INTO provider_notes (provider_id, risk_category, last_updated) KEY (provider_id) VALUES (?, ?, ?)";
+    
+    private static final String GET_ALL_PROVIDER_NAMES = 
+            "SELECT provider_name FROM signal_providers ORDER BY provider_name";
+    
     private static final String LOG_DB_CHANGE =
             "INSERT INTO db_change_log (change_date, change_type, table_name, description) VALUES (?, ?, ?, ?)";
     
+    // Kennzahlen-Snapshots: eine Zeile je Provider und Tag, die Kennzahlspalten
+    // ergeben sich aus SnapshotMetric
+    private static final String SNAPSHOT_COLUMNS = snapshotColumnList();
+    
+    private static final String MERGE_SNAPSHOT = 
+            "MERGE INTO stat_snapshots (provider_id, snapshot_date, " + SNAPSHOT_COLUMNS + ") KEY (provider_id, snapshot_date) " +
+            "VALUES (?, ?" + ", ?".repeat(SnapshotMetric.values().length) + ")";
+    
+    private static final String GET_PROVIDER_SNAPSHOTS = 
+            "SELECT snapshot_date, " + SNAPSHOT_COLUMNS + " FROM stat_snapshots WHERE provider_id = ? ORDER BY snapshot_date";
+    
+    private static final String GET_SNAPSHOTS_FOR_DATE = 
+            "SELECT p.provider_name, " + SNAPSHOT_COLUMNS + " FROM stat_snapshots s " +
+            "JOIN signal_providers p ON p.provider_id = s.provider_id WHERE s.snapshot_date = ?";
+    
+    private static String snapshotColumnList() {
+        StringBuilder columns = new StringBuilder();
+        for (SnapshotMetric metric : SnapshotMetric.values()) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append(metric.getColumnName());
+        }
+        return columns.toString();
+    }
+    
+    private static String createSnapshotsTableSql() {
+        StringBuilder sql = new StringBuilder(
+                "CREATE TABLE IF NOT EXISTS stat_snapshots (" +
+                "provider_id INT NOT NULL, " +
+                "snapshot_date DATE NOT NULL, ");
+        for (SnapshotMetric metric : SnapshotMetric.values()) {
+            sql.append(metric.getColumnName()).append(" DOUBLE, ");
+        }
+        sql.append("PRIMARY KEY (provider_id, snapshot_date), " +
+                "FOREIGN KEY (provider_id) REFERENCES signal_providers(provider_id))");
+        return sql.toString();
+    }
+    
     /**
      * Privater Konstruktor für Singleton-Pattern
      */
@@ -130,9 +362,18 @@ public class HistoryDatabaseManager {
                 dbDir.mkdirs();
             }
             
-            connection = DriverManager.getConnection(
-                "jdbc:h2:file:" + dbPath + ";DB_CLOSE_DELAY=-1;AUTO_SERVER=TRUE;DATABASE_TO_UPPER=false", 
-                "sa", "");
+            jdbcUrl = "jdbc:h2:file:" + dbPath + ";DB_CLOSE_DELAY=-1;AUTO_SERVER=TRUE;DATABASE_TO_UPPER=false";
+            connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+            readPool = new ConnectionPool(jdbcUrl, READ_POOL_SIZE, READ_POOL_TIMEOUT_MS);
+            
+            // Backups laufen auf eigenem Thread mit eigener Verbindung
+            MqlAnalyserConf config = new MqlAnalyserConf(rootPath);
+            backupManager = new DatabaseBackupManager(jdbcUrl, 
+                    new File(rootPath + File.separator + "database" + File.separator + "backups"));
+            backupManager.configure(DatabaseBackupManager.Compression.fromName(config.getBackupCompression()),
+                    config.getBackupKeepDaily(), config.getBackupKeepWeekly());
+            rawRetentionDays = config.getHistoryRawRetentionDays();
+            weeklyRetentionDays = config.getHistoryWeeklyRetentionDays();
             
             // Erstelle alle Tabellen
             createDatabaseSchema();
@@ -140,6 +381,15 @@ public class HistoryDatabaseManager {
             // Aktualisiere Tabellenschema falls nötig
             updateDatabaseSchema();
             
+            // Provider-IDs, letzte Werte, Notizen und Risiko-Kategorien in den Speicher laden
+            loadCaches();
+            
+            // Zeilenzahlen und Prüfsummen laden, beim ersten Start einmalig berechnen
+            loadMetadata();
+            
+            // Schreib-Thread für verzögerte Änderungen starten
+            writeQueue.start(this::flushPendingWrites);
+            
             LOGGER.info("Provider History Datenbank erfolgreich initialisiert: " + dbPath);
         } catch (ClassNotFoundException | SQLException e) {
             LOGGER.severe("Fehler beim Initialisieren der Datenbank: " + e.getMessage());
@@ -158,6 +408,9 @@ public class HistoryDatabaseManager {
             // Tabelle für statistische Werte erstellen
             stmt.execute(CREATE_STAT_VALUES_TABLE);
             
+            // Index für die Abfrage der letzten Werte
+            stmt.execute(CREATE_STAT_VALUES_LATEST_INDEX);
+            
             // Tabelle für Provider-Notizen erstellen
             stmt.execute(CREATE_PROVIDER_NOTES_TABLE);
             
@@ -167,6 +420,15 @@ public class HistoryDatabaseManager {
             // Tabelle für Datenbankänderungen erstellen
             stmt.execute(CREATE_DB_CHANGE_LOG);
             
+            // Tabelle für Zeilenzahlen und Prüfsummen erstellen
+            stmt.execute(CREATE_METADATA_TABLE);
+            
+            // Tabelle für Kennzahlen-Snapshots erstellen (eine Spalte je Kennzahl)
+            stmt.execute(createSnapshotsTableSql());
+            
+            // Tabelle für verdichtete Wochen- und Monatswerte erstellen
+            stmt.execute(CREATE_ROLLUPS_TABLE);
+            
             // Eintrag zur Initialisierung in die Änderungslog-Tabelle
             logDbChange("INIT", "ALL", "Datenbank-Schema initialisiert oder überprüft");
             
@@ -181,8 +443,9 @@ public class HistoryDatabaseManager {
     private void updateDatabaseSchema() throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             // Prüfe, ob die risk_category Spalte bereits existiert
-            ResultSet rs = connection.getMetaData().getColumns(null, null, "PROVIDER_NOTES", "RISK_CATEGORY");
-            boolean riskColumnExists = rs.next();
+            // Wegen DATABASE_TO_UPPER=false sind die Namen klein geschrieben
+            boolean riskColumnExists = columnExists("provider_notes", "risk_category")
+                    || columnExists("PROVIDER_NOTES", "RISK_CATEGORY");
             
             if (!riskColumnExists) {
                 // Füge die risk_category Spalte hinzu
@@ -190,6 +453,33 @@ public class HistoryDatabaseManager {
                 logDbChange("ALTER", "provider_notes", "Spalte risk_category hinzugefügt");
                 LOGGER.info("Spalte risk_category zur Tabelle provider_notes hinzugefügt");
             }
+            
+            // Markierung für rekonstruierte Werte ergänzen
+            if (!columnExists("stat_values", "synthetic") && !columnExists("STAT_VALUES", "SYNTHETIC")) {
+                stmt.execute("ALTER TABLE stat_values ADD COLUMN synthetic BOOLEAN DEFAULT FALSE NOT NULL");
+                logDbChange("ALTER", "stat_values", "Spalte synthetic hinzugefügt");
+                LOGGER.info("Spalte synthetic zur Tabelle stat_values hinzugefügt");
+            }
+            if (!columnExists("stat_rollups", "synthetic") && !columnExists("STAT_ROLLUPS", "SYNTHETIC")) {
+                stmt.execute("ALTER TABLE stat_rollups ADD COLUMN synthetic BOOLEAN DEFAULT FALSE NOT NULL");
+                logDbChange("ALTER", "stat_rollups", "Spalte synthetic hinzugefügt");
+                LOGGER.info("Spalte synthetic zur Tabelle stat_rollups hinzugefügt");
+            }
+            
+            // Spalten für neu hinzugekommene Kennzahlen ergänzen
+            for (SnapshotMetric metric : SnapshotMetric.values()) {
+                if (!columnExists("stat_snapshots", metric.getColumnName())) {
+                    stmt.execute("ALTER TABLE stat_snapshots ADD COLUMN " + metric.getColumnName() + " DOUBLE");
+                    logDbChange("ALTER", "stat_snapshots", "Spalte " + metric.getColumnName() + " hinzugefügt");
+                    LOGGER.info("Spalte " + metric.getColumnName() + " zur Tabelle stat_snapshots hinzugefügt");
+                }
+            }
+        }
+    }
+    
+    private boolean columnExists(String tableName, String columnName) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(null, null, tableName, columnName)) {
+            return rs.next();
         }
     }
     
@@ -197,7 +487,7 @@ public class HistoryDatabaseManager {
      * Prüft, ob alle erforderlichen Tabellen existieren
      */
     private void checkTables() throws SQLException {
-        String[] tableNames = {"signal_providers", "stat_values", "provider_notes", "deleted_records_log", "db_change_log"};
+        String[] tableNames = {"signal_providers", "stat_values", "provider_notes", "deleted_records_log", "db_change_log", "db_metadata", "stat_snapshots", "stat_rollups"};
         boolean allTablesExist = true;
         
         for (String tableName : tableNames) {
@@ -213,380 +503,1663 @@ public class HistoryDatabaseManager {
     }
     
     /**
-     * Fügt einen Eintrag zum Datenbankänderungslog hinzu
+     * Fügt einen Eintrag zum Datenbankänderungslog hinzu. Der Eintrag wird
+     * vom Schreib-Thread zusammen mit den übrigen Änderungen geschrieben.
      */
     private void logDbChange(String changeType, String tableName, String description) {
-        try (PreparedStatement stmt = connection.prepareStatement(LOG_DB_CHANGE)) {
-            stmt.setObject(1, LocalDateTime.now());
-            stmt.setString(2, changeType);
-            stmt.setString(3, tableName);
-            stmt.setString(4, description);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            LOGGER.warning("Fehler beim Logging der Datenbankänderung: " + e.getMessage());
-        }
+        writeQueue.offer(PendingWrite.audit(changeType, tableName, description));
     }
     
     /**
-     * Speichert einen statistischen Wert für einen Provider mit Sicherheitsmechanismus
-     * Es werden nur neue Werte hinzugefügt, keine bestehenden überschrieben oder gelöscht
+     * Liefert ein einmal vorbereitetes Statement der Hauptverbindung für das SQL.
+     * Nur innerhalb synchronisierter Methoden verwenden, da die Statements geteilt werden.
+     * Lesende Abfragen laufen stattdessen über {@link ConnectionPool}.
      */
-    public boolean storeStatValue(String providerName, String statType, double value, boolean forceUpdate) {
-        if (connection == null) {
-            LOGGER.warning("Keine Datenbankverbindung verfügbar");
-            return false;
+    private PreparedStatement prepared(String sql) throws SQLException {
+        PreparedStatement stmt = statementCache.get(sql);
+        if (stmt == null || stmt.isClosed()) {
+            stmt = connection.prepareStatement(sql);
+            statementCache.put(sql, stmt);
         }
+        return stmt;
+    }
+    
+    /**
+     * Lädt Provider-IDs, die letzten Werte je Statistiktyp sowie Notizen und
+     * Risiko-Kategorien mit je einer Abfrage in den Speicher
+     */
+    private synchronized void loadCaches() throws SQLException {
+        providerIdCache.clear();
+        latestValueCache.clear();
+        notesCache.clear();
+        riskCategoryCache.clear();
         
-        try {
-            // Prüfen, ob der Wert sich geändert hat (nur wenn forceUpdate=false)
-            if (!forceUpdate) {
-                Double latestValue = getLatestStatValue(providerName, statType);
-                if (latestValue != null && Math.abs(latestValue - value) < 0.001) {
-                    // Wert hat sich nicht signifikant geändert, keine Speicherung notwendig
-                    LOGGER.fine(statType + "-Wert für " + providerName + " hat sich nicht geändert, keine Speicherung");
-                    return true;
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(GET_ALL_PROVIDER_IDS)) {
+                while (rs.next()) {
+                    providerIdCache.put(rs.getString(1), rs.getInt(2));
                 }
             }
-            
-            // Provider-ID holen oder erstellen
-            int providerId = getOrCreateProvider(providerName);
-            
-            // Aktuelles Datum/Zeit
-            LocalDateTime now = LocalDateTime.now();
-            
-            // Sicherheitsabfrage: Prüfen ob genau derselbe Eintrag bereits existiert
-            try (PreparedStatement checkStmt = connection.prepareStatement(
-                    "SELECT COUNT(*) FROM stat_values WHERE provider_id = ? AND stat_type = ? AND recorded_date = ? AND \"value\" = ?")) {
-                checkStmt.setInt(1, providerId);
-                checkStmt.setString(2, statType);
-                checkStmt.setObject(3, now);
-                checkStmt.setDouble(4, value);
-                
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next() && rs.getInt(1) > 0) {
-                    // Exakt derselbe Eintrag existiert bereits
-                    LOGGER.fine("Exakt derselbe Eintrag existiert bereits. Keine doppelte Speicherung.");
-                    return true;
+            try (ResultSet rs = stmt.executeQuery(GET_ALL_LATEST_STAT_VALUES)) {
+                while (rs.next()) {
+                    latestValueCache.computeIfAbsent(rs.getString(1), k -> new ConcurrentHashMap<>())
+                                    .put(rs.getString(2), rs.getDouble(3));
                 }
             }
-            
-            // Speichern als NEUER Eintrag (niemals bestehende ersetzen)
-            try (PreparedStatement insertStmt = connection.prepareStatement(
-                    INSERT_STAT_VALUE)) {
-                insertStmt.setInt(1, providerId);
-                insertStmt.setString(2, statType);
-                insertStmt.setObject(3, now);
-                insertStmt.setDouble(4, value);
-                insertStmt.executeUpdate();
-                
-                logDbChange("INSERT", "stat_values", 
-                        String.format("Neuer %s-Wert %.4f für Provider %s hinzugefügt", 
-                                statType, value, providerName));
+            try (ResultSet rs = stmt.executeQuery(GET_ALL_PROVIDER_NOTES)) {
+                while (rs.next()) {
+                    String notes = rs.getString(2);
+                    notesCache.put(rs.getString(1), notes != null ? notes : "");
+                    riskCategoryCache.put(rs.getString(1), rs.getInt(3));
+                }
             }
-            
-            LOGGER.info(String.format("%s-Wert %.4f für %s gespeichert (Datum: %s)", 
-                    statType, value, providerName, now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
-            return true;
-        } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Speichern des " + statType + "-Werts: " + e.getMessage());
-            e.printStackTrace();
-            return false;
         }
+        
+        LOGGER.info(String.format("Cache geladen: %d Provider, %d mit Werten, %d mit Notizen", 
+                providerIdCache.size(), latestValueCache.size(), notesCache.size()));
     }
-   
     
-    private int getOrCreateProvider(String providerName) throws SQLException {
-        if (providerName == null || providerName.trim().isEmpty()) {
-            throw new SQLException("Provider-Name darf nicht leer sein");
-        }
-
-        // Versuche zuerst, die ID zu bekommen
-        try (PreparedStatement stmt = connection.prepareStatement(GET_PROVIDER_ID)) {
-            stmt.setString(1, providerName);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
+    /**
+     * Lädt Zeilenzahlen und Prüfsummen aus db_metadata. Fehlen die Einträge
+     * (erster Start mit dieser Version), werden sie einmalig durch Zählen ermittelt.
+     */
+    private synchronized void loadMetadata() throws SQLException {
+        Map<String, long[]> metadata = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(GET_METADATA)) {
+            while (rs.next()) {
+                metadata.put(rs.getString(1), new long[] {rs.getLong(2), rs.getLong(3)});
             }
         }
         
-        // Wenn nicht gefunden, füge neuen Provider hinzu
-        try (PreparedStatement stmt = connection.prepareStatement(
-                INSERT_PROVIDER, 
-                Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, providerName);
-            int affectedRows = stmt.executeUpdate();
+        if (!metadata.containsKey(META_PROVIDERS) || !metadata.containsKey(META_STAT_VALUES)) {
+            LOGGER.info("Metadaten fehlen, ermittle Zeilenzahlen und Prüfsumme einmalig");
+            IntegrityReport actual = computeActualState(connection, 0, 0, 0);
+            long lastChecked = metadata.containsKey(META_INTEGRITY_CHECK) 
+                    ? metadata.get(META_INTEGRITY_CHECK)[0] : actual.getActualCount();
             
-            if (affectedRows == 0) {
-                throw new SQLException("Provider konnte nicht erstellt werden, keine Zeilen betroffen");
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("DELETE FROM db_metadata");
             }
+            PreparedStatement insert = prepared(INSERT_METADATA);
+            insertMetadata(insert, META_PROVIDERS, actual.actualProviders, 0);
+            insertMetadata(insert, META_STAT_VALUES, actual.actualStatValues, actual.actualChecksum);
+            insertMetadata(insert, META_INTEGRITY_CHECK, lastChecked, 0);
             
-            // Log die Erstellung des neuen Providers
-            logDbChange("INSERT", "signal_providers", "Neuer Provider hinzugefügt: " + providerName);
-            
-            // Hole generierte ID
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                } else {
-                    throw new SQLException("Konnte keine ID für den neu eingefügten Provider erhalten");
-                }
+            metadata.put(META_PROVIDERS, new long[] {actual.actualProviders, 0});
+            metadata.put(META_STAT_VALUES, new long[] {actual.actualStatValues, actual.actualChecksum});
+            metadata.put(META_INTEGRITY_CHECK, new long[] {lastChecked, 0});
+            logDbChange("INIT", "db_metadata", "Zeilenzahlen und Prüfsumme initialisiert");
+        }
+        
+        providerRowCount = metadata.get(META_PROVIDERS)[0];
+        statRowCount = metadata.get(META_STAT_VALUES)[0];
+        statChecksum = metadata.get(META_STAT_VALUES)[1];
+        lastCheckedCount = metadata.containsKey(META_INTEGRITY_CHECK) ? metadata.get(META_INTEGRITY_CHECK)[0] : 0;
+    }
+    
+    private void insertMetadata(PreparedStatement stmt, String key, long rowCount, long checksum) throws SQLException {
+        stmt.setString(1, key);
+        stmt.setLong(2, rowCount);
+        stmt.setLong(3, checksum);
+        stmt.setObject(4, LocalDateTime.now());
+        stmt.executeUpdate();
+    }
+    
+    /**
+     * Schreibt eine Änderung der Zeilenzahl und Prüfsumme in db_metadata.
+     * Läuft in der Transaktion des Aufrufers; bei einem Rollback wird der
+     * Stand im Speicher neu geladen. Die Summe wird in Java gebildet, weil die
+     * Prüfsumme bewusst überlaufen darf, SQL-Arithmetik aber nicht.
+     */
+    private void adjustMetadata(String key, long deltaCount, long deltaChecksum) throws SQLException {
+        boolean providers = META_PROVIDERS.equals(key);
+        long newCount = (providers ? providerRowCount : statRowCount) + deltaCount;
+        long newChecksum = providers ? 0 : statChecksum + deltaChecksum;
+        
+        PreparedStatement stmt = prepared(SET_METADATA);
+        stmt.setLong(1, newCount);
+        stmt.setLong(2, newChecksum);
+        stmt.setObject(3, LocalDateTime.now());
+        stmt.setString(4, key);
+        stmt.executeUpdate();
+        
+        if (providers) {
+            providerRowCount = newCount;
+        } else {
+            statRowCount = newCount;
+            statChecksum = newChecksum;
+        }
+    }
+    
+    /**
+     * Prüfsummenbeitrag einer Zeile in stat_values. Die Summe aller Beiträge
+     * ist unabhängig von der Reihenfolge und wird bei jedem Einfügen mitgeführt.
+     * Das Datum geht sekundengenau ein, da die Datenbank Nanosekunden nicht speichert.
+     */
+    private static long rowChecksum(int providerId, String statType, LocalDateTime recordedDate, double value) {
+        long h = providerId;
+        h = h * 31 + statType.hashCode();
+        h = h * 31 + recordedDate.toEpochSecond(ZoneOffset.UTC);
+        h = h * 31 + Double.doubleToLongBits(value);
+        // Bits durchmischen (Finalizer aus MurmurHash3), damit sich Beiträge nicht gegenseitig aufheben
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb53a85ec8b35L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    /**
+     * Ermittelt die tatsächlichen Zeilenzahlen und die Prüfsumme durch vollständiges Lesen
+     * und stellt sie den erwarteten Werten gegenüber
+     */
+    private static IntegrityReport computeActualState(Connection conn, long expectedProviders,
+            long expectedStatValues, long expectedChecksum) throws SQLException {
+        long providers;
+        long statValues = 0;
+        long checksum = 0;
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM signal_providers")) {
+                providers = rs.next() ? rs.getLong(1) : 0;
             }
-        } catch (SQLException e) {
-            // Falls es einen Unique-Constraint-Fehler gibt (z.B. wenn der Provider in der Zwischenzeit
-            // von einem anderen Thread eingefügt wurde), versuche es noch einmal mit SELECT
-            if (e.getMessage().contains("Unique index or primary key violation") || 
-                e.getMessage().contains("Unique constraint violation") ||
-                e.getMessage().contains("Eindeutiger Index oder Primärschlüsselverletzung")) {
-                try (PreparedStatement stmt = connection.prepareStatement(GET_PROVIDER_ID)) {
-                    stmt.setString(1, providerName);
-                    ResultSet rs = stmt.executeQuery();
-                    if (rs.next()) {
-                        return rs.getInt(1);
-                    }
+            stmt.setFetchSize(HISTORY_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT provider_id, stat_type, recorded_date, \"value\" FROM stat_values")) {
+                while (rs.next()) {
+                    statValues++;
+                    checksum += rowChecksum(rs.getInt(1), rs.getString(2), 
+                            rs.getObject(3, LocalDateTime.class), rs.getDouble(4));
                 }
             }
-            throw e;
         }
+        return new IntegrityReport(expectedProviders, expectedStatValues, expectedChecksum,
+                providers, statValues, checksum);
     }
     
     /**
-     * Holt den letzten gespeicherten statistischen Wert für einen Provider
-     * 
-     * @param providerName Name des Signal Providers
-     * @param statType Art des statistischen Werts
-     * @return Der letzte gespeicherte Wert oder null, wenn keiner gefunden wurde
+     * Führt Arbeit in einer Transaktion aus. Läuft bereits eine, wird sie mitbenutzt.
+     * Bei einem Fehler wird zurückgerollt und der Stand im Speicher neu geladen.
      */
-    public Double getLatestStatValue(String providerName, String statType) {
-        if (connection == null) {
-            LOGGER.warning("Keine Datenbankverbindung verfügbar");
-            return null;
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        return inTransaction(work, true);
+    }
+    
+    /**
+     * Führt Arbeit in einer Transaktion aus. Läuft bereits eine, wird sie mitbenutzt.
+     * @param reloadCaches false, wenn der Aufrufer den Cache nach einem Rollback selbst
+     *                     neu lädt; verworfen werden dann nur Zeilenzahlen und die in der
+     *                     Transaktion vergebenen Provider-IDs
+     */
+    private <T> T inTransaction(SqlWork<T> work, boolean reloadCaches) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            return work.run();
         }
-        
+        connection.setAutoCommit(false);
+        providersAddedInTransaction.clear();
         try {
-            // Provider-ID holen
-            int providerId = -1;
-            try (PreparedStatement stmt = connection.prepareStatement(GET_PROVIDER_ID)) {
-                stmt.setString(1, providerName);
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    providerId = rs.getInt(1);
-                } else {
-                    // Provider nicht gefunden
-                    return null;
-                }
-            }
-            
-            // Letzten Wert holen
-            try (PreparedStatement stmt = connection.prepareStatement(GET_LATEST_STAT_VALUE)) {
-                stmt.setInt(1, providerId);
-                stmt.setString(2, statType);
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    return rs.getDouble(1);
-                } else {
-                    // Keine Werte für diesen Provider
-                    return null;
-                }
+            T result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            if (reloadCaches) {
+                reloadAfterRollback();
+            } else {
+                discardTransactionState();
             }
+            throw e;
+        } finally {
+            providersAddedInTransaction.clear();
+            connection.setAutoCommit(true);
+        }
+    }
+    
+    /**
+     * Verwirft nach einem Rollback die Zeilenzahlen und Provider-IDs der Transaktion,
+     * ohne den übrigen Cache neu zu laden
+     */
+    private void discardTransactionState() {
+        for (String providerName : providersAddedInTransaction) {
+            providerIdCache.remove(providerName);
+        }
+        try {
+            loadMetadata();
         } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Abrufen des letzten " + statType + "-Werts: " + e.getMessage());
-            e.printStackTrace();
-            return null;
+            LOGGER.severe("Fehler beim Neuladen der Metadaten nach Rollback: " + e.getMessage());
+        }
+    }
+    
+    private void reloadAfterRollback() {
+        try {
+            reloadCachesKeepingPendingWrites();
+            loadMetadata();
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Neuladen nach Rollback: " + e.getMessage());
         }
     }
     
     /**
-     * Holt die Historie der statistischen Werte für einen Provider
-     * 
-     * @param providerName Name des Signal Providers
-     * @param statType Art des statistischen Werts
-     * @return Liste der historischen Einträge
+     * Lädt den Cache neu und spiegelt danach die noch nicht geschriebenen Zugriffe
+     * (auch die gerade in Arbeit befindlichen) hinein.
+     * Die Sperre der Warteschlange verhindert, dass dazwischen neue Zugriffe verloren gehen.
      */
-    public List<HistoryEntry> getStatHistory(String providerName, String statType) {
-        List<HistoryEntry> history = new ArrayList<>();
-        
+    private void reloadCachesKeepingPendingWrites() throws SQLException {
+        synchronized (writeQueue) {
+            loadCaches();
+            for (PendingWrite write : writeQueue.snapshot()) {
+                applyToCache(write);
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+    
+    /**
+     * Lädt alle zwischengespeicherten Daten neu aus der Datenbank, z.B. nach
+     * Änderungen durch andere Prozesse
+     */
+    public synchronized void reloadCaches() {
         if (connection == null) {
-            LOGGER.warning("Keine Datenbankverbindung verfügbar");
-            return history;
+            return;
         }
-        
         try {
-            // Provider-ID holen
-            int providerId = -1;
-            try (PreparedStatement stmt = connection.prepareStatement(GET_PROVIDER_ID)) {
-                stmt.setString(1, providerName);
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    providerId = rs.getInt(1);
-                } else {
-                    // Provider nicht gefunden
-                    return history;
-                }
-            }
-            
-            // Historie holen
-            try (PreparedStatement stmt = connection.prepareStatement(GET_STAT_HISTORY)) {
-                stmt.setInt(1, providerId);
-                stmt.setString(2, statType);
-                ResultSet rs = stmt.executeQuery();
-                while (rs.next()) {
-                    LocalDateTime date = rs.getObject(1, LocalDateTime.class);
-                    double value = rs.getDouble(2);
-                    history.add(new HistoryEntry(date, value));
-                }
-            }
-            
-            return history;
+            flushPendingWrites();
+            reloadCachesKeepingPendingWrites();
+            loadMetadata();
         } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Abrufen der " + statType + "-Historie: " + e.getMessage());
+            LOGGER.severe("Fehler beim Neuladen des Caches: " + e.getMessage());
             e.printStackTrace();
-            return history;
         }
     }
     
     /**
-     * Backup-Methode, um eine Sicherungskopie der Datenbank zu erstellen
-     * @return true wenn das Backup erfolgreich erstellt wurde
+     * Speichert einen statistischen Wert für einen Provider mit Sicherheitsmechanismus
+     * Es werden nur neue Werte hinzugefügt, keine bestehenden überschrieben oder gelöscht.
+     * Der Wert wird sofort in den Cache übernommen und vom Schreib-Thread verzögert
+     * geschrieben; die Methode blockiert daher nicht.
      */
-    public boolean createBackup() {
+    public boolean storeStatValue(String providerName, String statType, double value, boolean forceUpdate) {
         if (connection == null) {
             LOGGER.warning("Keine Datenbankverbindung verfügbar");
             return false;
         }
+        if (providerName == null || providerName.trim().isEmpty()) {
+            LOGGER.warning("Ungültiger Provider-Name, Wert wird nicht gespeichert");
+            return false;
+        }
         
-        try {
-            // Generiere Zeitstempel für den Backup-Dateinamen
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String backupFileName = "backup_" + timestamp + ".zip";
-            String backupPath = rootPath + File.separator + "database" + File.separator + "backups";
-            
-            // Stelle sicher, dass der Backup-Ordner existiert
-            File backupDir = new File(backupPath);
-            if (!backupDir.exists()) {
-                backupDir.mkdirs();
-            }
-            
-            // Vollständiger Pfad zur Backup-Datei
-            String backupFile = backupPath + File.separator + backupFileName;
-            
-            // H2-Backup-Befehl ausführen
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("BACKUP TO '" + backupFile + "'");
-                
-                // Log die Backup-Erstellung
-                logDbChange("BACKUP", "ALL", "Datenbank-Backup erstellt: " + backupFile);
-                
-                LOGGER.info("Datenbank-Backup erfolgreich erstellt: " + backupFile);
+        // Prüfen, ob der Wert sich geändert hat (nur wenn forceUpdate=false)
+        if (!forceUpdate) {
+            Double latestValue = getLatestStatValue(providerName, statType);
+            if (latestValue != null && Math.abs(latestValue - value) < VALUE_CHANGE_THRESHOLD) {
+                // Wert hat sich nicht signifikant geändert, keine Speicherung notwendig
+                LOGGER.fine(statType + "-Wert für " + providerName + " hat sich nicht geändert, keine Speicherung");
                 return true;
             }
-        } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Erstellen des Datenbank-Backups: " + e.getMessage());
-            e.printStackTrace();
-            return false;
         }
+        
+        enqueue(PendingWrite.stat(providerName, statType, value));
+        LOGGER.fine(String.format("%s-Wert %.4f für %s zum Speichern vorgemerkt", statType, value, providerName));
+        return true;
     }
     
     /**
-     * Holt eine Liste aller Provider aus der Datenbank
+     * Speichert viele statistische Werte. Unveränderte Werte werden anhand der
+     * zwischengespeicherten letzten Werte verworfen, die übrigen sofort in den
+     * Cache übernommen und vom Schreib-Thread zusammen in einer Transaktion per
+     * JDBC-Batch eingefügt. Im Änderungslog entsteht nur ein Sammeleintrag.
+     * Wie bei {@link #storeStatValue} werden niemals bestehende Einträge verändert.
      * 
-     * @return Liste aller Providernamen
+     * @param values Die zu speichernden Werte; bei Duplikaten gilt der letzte
+     * @param forceUpdate Wenn true, werden auch unveränderte Werte gespeichert
+     * @return Anzahl der zum Speichern vorgemerkten Werte oder -1 ohne Datenbank
      */
-    public List<String> getAllProviders() {
-        List<String> providers = new ArrayList<>();
-        
+    public int storeStatValues(Collection<StatValue> values, boolean forceUpdate) {
         if (connection == null) {
             LOGGER.warning("Keine Datenbankverbindung verfügbar");
-            return providers;
+            return -1;
         }
         
-        try (Statement stmt = connection.createStatement()) {
-            String query = "SELECT provider_name FROM signal_providers ORDER BY provider_name";
-            ResultSet rs = stmt.executeQuery(query);
-            
-            while (rs.next()) {
-                providers.add(rs.getString(1));
+        // Duplikate zusammenfassen, der zuletzt übergebene Wert gewinnt
+        Map<String, StatValue> distinctValues = new LinkedHashMap<>();
+        for (StatValue statValue : values) {
+            if (statValue.getProviderName() == null || statValue.getProviderName().trim().isEmpty()) {
+                LOGGER.warning("Ungültiger Provider-Name, Wert wird übersprungen");
+                continue;
+            }
+            distinctValues.put(statValue.getProviderName() + "\u0000" + statValue.getStatType(), statValue);
+        }
+        
+        int changed = 0;
+        synchronized (writeQueue) {
+            for (StatValue statValue : distinctValues.values()) {
+                // Unveränderte Werte gegen die letzten bekannten Werte filtern
+                Double latestValue = getLatestStatValue(statValue.getProviderName(), statValue.getStatType());
+                if (forceUpdate || latestValue == null
+                        || Math.abs(latestValue - statValue.getValue()) >= VALUE_CHANGE_THRESHOLD) {
+                    enqueue(PendingWrite.stat(statValue.getProviderName(), statValue.getStatType(), statValue.getValue()));
+                    changed++;
+                }
             }
-            
-            return providers;
-        } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Abrufen aller Provider: " + e.getMessage());
-            e.printStackTrace();
-            return providers;
         }
+        
+        LOGGER.info(String.format("%d von %d Werten zum Speichern vorgemerkt", changed, distinctValues.size()));
+        return changed;
     }
     
     /**
-     * Zählt die Gesamtanzahl der Einträge in der Datenbank
+     * Übernimmt einen Schreibzugriff in den Cache und stellt ihn in die Warteschlange.
+     * Beides geschieht unter der Sperre der Warteschlange, damit ein gleichzeitiges
+     * Neuladen des Caches ihn nicht verliert.
      */
-    public int countAllEntries() {
-        if (connection == null) {
-            LOGGER.warning("Keine Datenbankverbindung verfügbar");
-            return 0;
+    private void enqueue(PendingWrite write) {
+        synchronized (writeQueue) {
+            applyToCache(write);
+            writeQueue.offer(write);
         }
-        
-        try (Statement stmt = connection.createStatement()) {
-            // Zähle Einträge in signal_providers
-            ResultSet rs1 = stmt.executeQuery("SELECT COUNT(*) FROM signal_providers");
-            int providerCount = rs1.next() ? rs1.getInt(1) : 0;
-            
-            // Zähle Einträge in stat_values
-            ResultSet rs2 = stmt.executeQuery("SELECT COUNT(*) FROM stat_values");
-            int statValueCount = rs2.next() ? rs2.getInt(1) : 0;
-            
-            return providerCount + statValueCount;
-        } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Zählen der Datenbankeinträge: " + e.getMessage());
-            e.printStackTrace();
-            return 0;
+    }
+    
+    /**
+     * Spiegelt einen noch nicht geschriebenen Zugriff im Cache, damit Leser ihre
+     * eigenen Änderungen sofort sehen
+     */
+    private void applyToCache(PendingWrite write) {
+        switch (write.kind) {
+            case STAT:
+                rememberLatestValue(write.providerName, write.statType, write.value);
+                break;
+            case NOTES:
+                notesCache.put(write.providerName, write.text != null ? write.text : "");
+                riskCategoryCache.putIfAbsent(write.providerName, 0);
+                break;
+            case RISK_CATEGORY:
+                riskCategoryCache.put(write.providerName, write.riskCategory);
+                notesCache.putIfAbsent(write.providerName, "");
+                break;
+            default:
+                break;
         }
     }
     
     /**
-     * Prüft, ob die Datenbank Datenverluste aufweist, indem die Anzahl der Einträge überprüft wird
+     * Schreibt alle wartenden Zugriffe der Schreib-Warteschlange in einer Transaktion.
+     * Wird vom Schreib-Thread sowie vor Wartungsarbeiten aufgerufen. Scheitert die
+     * gemeinsame Transaktion an den Daten eines Eintrags, wird jeder Zugriff einzeln
+     * geschrieben, damit ein fehlerhafter Eintrag die übrigen nicht aufhält. Ein Zugriff,
+     * der mehrfach an seinen Daten scheitert, wird verworfen; alles andere kommt zurück
+     * in die Warteschlange und wird später erneut versucht. Der Cache wird nach einem
+     * Fehler nur einmal am Ende neu geladen.
      */
-    public boolean checkDataIntegrity() {
+    private synchronized void flushPendingWrites() {
         if (connection == null) {
-            LOGGER.warning("Keine Datenbankverbindung verfügbar");
-            return false;
+            return;
+        }
+        List<PendingWrite> writes = writeQueue.drain();
+        if (writes.isEmpty()) {
+            return;
         }
         
-        try (Statement stmt = connection.createStatement()) {
-            // Rufe den zuletzt protokollierten Eintragsstand ab
-            ResultSet rs = stmt.executeQuery(
-                "SELECT description FROM db_change_log " +
-                "WHERE change_type = 'INTEGRITY_CHECK' " +
-                "ORDER BY change_date DESC LIMIT 1");
-            
-            int lastRecordedCount = 0;
-            if (rs.next()) {
-                String desc = rs.getString(1);
-                // Extrahiere die Anzahl aus dem Format "Integritätsprüfung: XYZ Einträge vorhanden"
-                if (desc.contains(":")) {
-                    String countStr = desc.split(":")[1].trim().split(" ")[0];
-                    lastRecordedCount = Integer.parseInt(countStr);
-                }
-            }
-            
-            // Aktuelle Anzahl der Einträge
-            int currentCount = countAllEntries();
+        boolean failed = false;
+        boolean transientFailure = false;
+        try {
+            Exception error = writeInTransaction(writes);
+            if (error != null) {
+                failed = true;
+                if (!isDataError(error)) {
+                    // Z.B. Verbindungsprobleme: Einzelversuche würden genauso scheitern
+                    transientFailure = true;
+                } else if (writes.size() == 1) {
+                    discardIfExhausted(writes.get(0), error);
+                } else {
+                    int failedWrites = 0;
+                    for (PendingWrite write : writes) {
+                        Exception writeError = writeInTransaction(Collections.singletonList(write));
+                        if (writeError == null) {
+                            continue;
+                        }
+                        failedWrites++;
+                        if (isDataError(writeError)) {
+                            discardIfExhausted(write, writeError);
+                        } else {
+                            transientFailure = true;
+                        }
+                    }
+                    LOGGER.warning(failedWrites + " von " + writes.size() + " vorgemerkten Änderungen konnten nicht geschrieben werden");
+                }
+            }
+        } finally {
+            int requeued = writeQueue.requeueUnwritten(transientFailure);
+            if (failed) {
+                // Einmal für alle Fehlversuche; spiegelt die zurückgestellten Zugriffe und
+                // lässt die verworfenen aus dem Cache verschwinden
+                reloadAfterRollback();
+            }
+            if (requeued > 0) {
+                LOGGER.severe(requeued + " vorgemerkte Änderungen werden später erneut geschrieben");
+            }
+        }
+    }
+    
+    /**
+     * Schreibt Zugriffe in einer eigenen Transaktion und meldet sie bei Erfolg als geschrieben.
+     * Nach einem Fehler lädt der Aufrufer den Cache neu.
+     * @return null bei Erfolg, sonst der Fehler
+     */
+    private Exception writeInTransaction(List<PendingWrite> writes) {
+        try {
+            inTransaction(() -> {
+                writeBatch(writes);
+                return null;
+            }, false);
+            writeQueue.written(writes);
+            return null;
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.severe("Fehler beim Schreiben von " + writes.size() + " vorgemerkten Änderungen: " + e.getMessage());
+            e.printStackTrace();
+            return e;
+        }
+    }
+    
+    /**
+     * Zählt einen Fehlversuch und verwirft den Zugriff, wenn er zu oft gescheitert ist
+     */
+    private void discardIfExhausted(PendingWrite write, Exception error) {
+        if (writeQueue.failed(write)) {
+            LOGGER.severe("Vorgemerkte Änderung nach " + HistoryWriteQueue.MAX_FAILED_ATTEMPTS
+                    + " Fehlversuchen verworfen: " + write + " (" + error.getMessage() + ")");
+        }
+    }
+    
+    /**
+     * Prüft, ob ein Fehler an den geschriebenen Daten selbst liegt (SQLState-Klassen 22
+     * "data exception" und 23 "integrity constraint violation", z.B. zu lange Namen)
+     * und ein erneuter Versuch mit denselben Daten daher wieder scheitern würde
+     */
+    private static boolean isDataError(Exception error) {
+        if (error instanceof RuntimeException) {
+            return true; // Fehler beim Aufbereiten dieses Eintrags
+        }
+        for (SQLException e = (SQLException) error; e != null; e = e.getNextException()) {
+            String state = e.getSQLState();
+            if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Schreibt wartende Zugriffe. Muss innerhalb einer Transaktion laufen.
+     */
+    private void writeBatch(List<PendingWrite> writes) throws SQLException {
+        List<PendingWrite> stats = new ArrayList<>();
+        List<PendingWrite> notes = new ArrayList<>();
+        List<PendingWrite> riskCategories = new ArrayList<>();
+        List<PendingWrite> audits = new ArrayList<>();
+        Set<String> providerNames = new LinkedHashSet<>();
+        for (PendingWrite write : writes) {
+            switch (write.kind) {
+                case STAT:          stats.add(write); break;
+                case NOTES:         notes.add(write); break;
+                case RISK_CATEGORY: riskCategories.add(write); break;
+                default:            audits.add(write); break;
+            }
+            if (write.providerName != null) {
+                providerNames.add(write.providerName);
+            }
+        }
+        
+        Map<String, Integer> providerIds = resolveProviderIds(providerNames, audits);
+        
+        if (!stats.isEmpty()) {
+            long checksum = 0;
+            PreparedStatement insertStmt = prepared(INSERT_STAT_VALUE);
+            for (PendingWrite stat : stats) {
+                int providerId = providerId(providerIds, stat.providerName);
+                insertStmt.setInt(1, providerId);
+                insertStmt.setString(2, stat.statType);
+                insertStmt.setObject(3, stat.time);
+                insertStmt.setDouble(4, stat.value);
+                insertStmt.addBatch();
+                checksum += rowChecksum(providerId, stat.statType, stat.time, stat.value);
+            }
+            insertStmt.executeBatch();
+            
+            // Zeilenzahl und Prüfsumme in derselben Transaktion fortschreiben
+            adjustMetadata(META_STAT_VALUES, stats.size(), checksum);
+            
+            if (stats.size() == 1) {
+                PendingWrite stat = stats.get(0);
+                audits.add(PendingWrite.audit("INSERT", "stat_values", 
+                        String.format("Neuer %s-Wert %.4f für Provider %s hinzugefügt", 
+                                stat.statType, stat.value, stat.providerName)));
+            } else {
+                audits.add(PendingWrite.audit("BULK_INSERT", "stat_values", 
+                        stats.size() + " neue Werte hinzugefügt"));
+            }
+        }
+        
+        if (!notes.isEmpty()) {
+            PreparedStatement stmt = prepared(MERGE_NOTES);
+            for (PendingWrite note : notes) {
+                stmt.setInt(1, providerId(providerIds, note.providerName));
+                stmt.setString(2, note.text);
+                stmt.setObject(3, note.time);
+                stmt.addBatch();
+                audits.add(PendingWrite.audit(note.existed ? "UPDATE" : "INSERT", "provider_notes", 
+                        "Notizen für Provider " + note.providerName + " " + (note.existed ? "aktualisiert" : "hinzugefügt")));
+            }
+            stmt.executeBatch();
+        }
+        
+        if (!riskCategories.isEmpty()) {
+            PreparedStatement stmt = prepared(MERGE_RISK_CATEGORY);
+            for (PendingWrite risk : riskCategories) {
+                stmt.setInt(1, providerId(providerIds, risk.providerName));
+                stmt.setInt(2, risk.riskCategory);
+                stmt.setObject(3, risk.time);
+                stmt.addBatch();
+                audits.add(PendingWrite.audit(risk.existed ? "UPDATE" : "INSERT", "provider_notes", 
+                        "Risiko-Kategorie " + risk.riskCategory + " für Provider " + risk.providerName + " gesetzt"));
+            }
+            stmt.executeBatch();
+        }
+        
+        if (!audits.isEmpty()) {
+            PreparedStatement stmt = prepared(LOG_DB_CHANGE);
+            for (PendingWrite audit : audits) {
+                stmt.setObject(1, audit.time);
+                stmt.setString(2, audit.changeType);
+                stmt.setString(3, audit.tableName);
+                stmt.setString(4, audit.text);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        
+        LOGGER.fine(String.format("%d vorgemerkte Änderungen geschrieben (%d Werte, %d Notizen, %d Risiko-Kategorien, %d Log-Einträge)", 
+                writes.size(), stats.size(), notes.size(), riskCategories.size(), audits.size()));
+    }
+    
+    private static int providerId(Map<String, Integer> providerIds, String providerName) throws SQLException {
+        Integer id = providerIds.get(providerName);
+        if (id == null) {
+            throw new SQLException("Keine Provider-ID für " + providerName);
+        }
+        return id;
+    }
+    
+    /**
+     * Schreibt alle vorgemerkten Änderungen sofort und wartet darauf
+     */
+    public void flush() {
+        flushPendingWrites();
+    }
+    
+    /**
+     * Wartet, bis der Schreib-Thread die vorgemerkten Änderungen geschrieben hat.
+     * Für Abfragen, deren Ergebnis sich nicht mit der Warteschlange zusammenführen
+     * lässt (Zählungen, Paging); die Sperre des Managers wird dabei nicht benötigt.
+     */
+    private void awaitPendingWrites() {
+        if (!writeQueue.awaitFlushed(READ_FLUSH_TIMEOUT_MS)) {
+            LOGGER.fine("Vorgemerkte Änderungen noch nicht geschrieben, Abfrage liest den geschriebenen Stand");
+        }
+    }
+    
+    /**
+     * Speichert die Kennzahlen vieler Provider für einen Tag in einer Transaktion.
+     * Pro Provider und Tag gibt es genau eine Zeile; ein erneutes Speichern am
+     * selben Tag überschreibt sie.
+     * 
+     * @param date Tag des Snapshots
+     * @param valuesByProvider Providername -> Werte, nach {@link SnapshotMetric#ordinal()} indiziert;
+     *        NaN wird als fehlender Wert gespeichert
+     * @return Anzahl gespeicherter Zeilen oder -1 bei einem Fehler
+     */
+    public synchronized int storeSnapshots(LocalDate date, Map<String, double[]> valuesByProvider) {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return -1;
+        }
+        if (valuesByProvider.isEmpty()) {
+            return 0;
+        }
+        
+        SnapshotMetric[] metrics = SnapshotMetric.values();
+        List<PendingWrite> audits = new ArrayList<>();
+        try {
+            inTransaction(() -> {
+                Map<String, Integer> providerIds = resolveProviderIds(valuesByProvider.keySet(), audits);
+                
+                PreparedStatement stmt = prepared(MERGE_SNAPSHOT);
+                for (Map.Entry<String, double[]> entry : valuesByProvider.entrySet()) {
+                    double[] values = entry.getValue();
+                    stmt.setInt(1, providerIds.get(entry.getKey()));
+                    stmt.setObject(2, date);
+                    for (int i = 0; i < metrics.length; i++) {
+                        double value = i < values.length ? values[i] : Double.NaN;
+                        if (Double.isNaN(value) || Double.isInfinite(value)) {
+                            stmt.setNull(3 + i, Types.DOUBLE);
+                        } else {
+                            stmt.setDouble(3 + i, value);
+                        }
+                    }
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                return null;
+            });
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Speichern der Kennzahlen-Snapshots: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        
+        for (PendingWrite audit : audits) {
+            writeQueue.offer(audit);
+        }
+        logDbChange("BULK_INSERT", "stat_snapshots", 
+                String.format("Snapshot vom %s für %d Provider gespeichert", date, valuesByProvider.size()));
+        LOGGER.info("Kennzahlen-Snapshot vom " + date + " für " + valuesByProvider.size() + " Provider gespeichert");
+        return valuesByProvider.size();
+    }
+    
+    /**
+     * Liest alle Snapshots eines Providers mit einer Abfrage
+     * 
+     * @param providerName Name des Signal Providers
+     * @return Tag -> Werte (nach {@link SnapshotMetric#ordinal()} indiziert, NaN = fehlt), aufsteigend sortiert
+     */
+    public SortedMap<LocalDate, double[]> getSnapshots(String providerName) {
+        SortedMap<LocalDate, double[]> snapshots = new TreeMap<>();
+        Integer providerId = providerIdCache.get(providerName);
+        if (connection == null || providerId == null) {
+            return snapshots;
+        }
+        
+        try (ConnectionPool.Lease lease = readPool.borrow()) {
+            PreparedStatement stmt = lease.prepare(GET_PROVIDER_SNAPSHOTS);
+            stmt.setInt(1, providerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    snapshots.put(rs.getObject(1, LocalDate.class), readSnapshotValues(rs, 2));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Lesen der Snapshots für " + providerName + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return snapshots;
+    }
+    
+    /**
+     * Liefert den Verlauf einer einzelnen Kennzahl eines Providers
+     * 
+     * @param providerName Name des Signal Providers
+     * @param metric Die Kennzahl
+     * @return Historieneinträge (Tag um Mitternacht), Tage ohne Wert fehlen
+     */
+    public List<HistoryEntry> getSnapshotHistory(String providerName, SnapshotMetric metric) {
+        List<HistoryEntry> history = new ArrayList<>();
+        for (Map.Entry<LocalDate, double[]> entry : getSnapshots(providerName).entrySet()) {
+            double value = entry.getValue()[metric.ordinal()];
+            if (!Double.isNaN(value)) {
+                history.add(new HistoryEntry(entry.getKey().atStartOfDay(), value));
+            }
+        }
+        return history;
+    }
+    
+    /**
+     * Liest die Snapshots aller Provider für einen Tag mit einer Abfrage
+     * 
+     * @param date Tag des Snapshots
+     * @return Providername -> Werte (nach {@link SnapshotMetric#ordinal()} indiziert, NaN = fehlt)
+     */
+    public Map<String, double[]> getSnapshotsForDate(LocalDate date) {
+        Map<String, double[]> snapshots = new HashMap<>();
+        if (connection == null) {
+            return snapshots;
+        }
+        
+        try (ConnectionPool.Lease lease = readPool.borrow()) {
+            PreparedStatement stmt = lease.prepare(GET_SNAPSHOTS_FOR_DATE);
+            stmt.setObject(1, date);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    snapshots.put(rs.getString(1), readSnapshotValues(rs, 2));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Lesen der Snapshots vom " + date + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return snapshots;
+    }
+    
+    private static double[] readSnapshotValues(ResultSet rs, int firstColumn) throws SQLException {
+        double[] values = new double[SnapshotMetric.values().length];
+        for (int i = 0; i < values.length; i++) {
+            double value = rs.getDouble(firstColumn + i);
+            values[i] = rs.wasNull() ? Double.NaN : value;
+        }
+        return values;
+    }
+    
+    /**
+     * @return Auslastung und Wartezeiten des Lese-Pools oder null ohne Datenbank
+     */
+    public ConnectionPool.Stats getConnectionPoolStats() {
+        return readPool != null ? readPool.getStats() : null;
+    }
+    
+    /**
+     * @return Anzahl der noch nicht geschriebenen Änderungen
+     */
+    public int getPendingWriteCount() {
+        return writeQueue.size();
+    }
+    
+    /**
+     * @return Anzahl der Änderungen, die nach wiederholten Fehlversuchen verworfen wurden
+     */
+    public int getDiscardedWriteCount() {
+        return writeQueue.getDiscarded().size();
+    }
+    
+    /**
+     * Ermittelt die IDs der Provider aus dem Cache und legt fehlende Provider
+     * per Batch an. Muss innerhalb einer Transaktion laufen.
+     * @param audits Liste, an die der Log-Eintrag für neue Provider angehängt wird
+     */
+    private Map<String, Integer> resolveProviderIds(Collection<String> providerNames, 
+            List<PendingWrite> audits) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : providerNames) {
+            Integer id = providerIdCache.get(name);
+            if (id != null) {
+                ids.put(name, id);
+            } else if (!missing.contains(name)) {
+                missing.add(name);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            PreparedStatement stmt = prepared(INSERT_PROVIDER);
+            for (String name : missing) {
+                stmt.setString(1, name);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            adjustMetadata(META_PROVIDERS, missing.size(), 0);
+            audits.add(missing.size() == 1
+                    ? PendingWrite.audit("INSERT", "signal_providers", "Neuer Provider hinzugefügt: " + missing.get(0))
+                    : PendingWrite.audit("BULK_INSERT", "signal_providers", missing.size() + " neue Provider hinzugefügt"));
+            
+            // Die neuen IDs mit einer Abfrage nachladen
+            Set<String> missingNames = new HashSet<>(missing);
+            try (Statement query = connection.createStatement();
+                 ResultSet rs = query.executeQuery(GET_ALL_PROVIDER_IDS)) {
+                while (rs.next()) {
+                    if (missingNames.contains(rs.getString(1))) {
+                        providerIdCache.put(rs.getString(1), rs.getInt(2));
+                        providersAddedInTransaction.add(rs.getString(1));
+                        ids.put(rs.getString(1), rs.getInt(2));
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Aktualisiert den zwischengespeicherten letzten Wert
+     */
+    private void rememberLatestValue(String providerName, String statType, double value) {
+        latestValueCache.computeIfAbsent(providerName, k -> new ConcurrentHashMap<>()).put(statType, value);
+    }
+    
+    /**
+     * Holt den letzten gespeicherten statistischen Wert für einen Provider aus dem Cache
+     * 
+     * @param providerName Name des Signal Providers
+     * @param statType Art des statistischen Werts
+     * @return Der letzte gespeicherte Wert oder null, wenn keiner gefunden wurde
+     */
+    public Double getLatestStatValue(String providerName, String statType) {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return null;
+        }
+        
+        Map<String, Double> providerValues = latestValueCache.get(providerName);
+        return providerValues != null ? providerValues.get(statType) : null;
+    }
+    
+    /**
+     * Liefert die letzten gespeicherten Werte aller Provider. Die Werte wurden beim
+     * Start mit einer einzigen gruppierten Abfrage geladen und seitdem mitgeführt.
+     * 
+     * @param statType Art des statistischen Werts
+     * @return Kopie der Map Providername -> letzter Wert
+     */
+    public Map<String, Double> getLatestStatValues(String statType) {
+        Map<String, Double> result = new HashMap<>();
+        for (Map.Entry<String, Map<String, Double>> entry : latestValueCache.entrySet()) {
+            Double value = entry.getValue().get(statType);
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Holt die vollständige Historie der statistischen Werte für einen Provider.
+     * Für Zeiträume, deren Rohwerte bereits verdichtet wurden, werden Wochen-
+     * bzw. Monatswerte (jeweils der letzte Wert) geliefert.
+     * 
+     * @param providerName Name des Signal Providers
+     * @param statType Art des statistischen Werts
+     * @return Liste der historischen Einträge, neueste zuerst
+     */
+    public List<HistoryEntry> getStatHistory(String providerName, String statType) {
+        return getStatHistory(providerName, statType, null, null, Resolution.RAW);
+    }
+    
+    /**
+     * Holt die Historie eines Zeitraums in einer zur Zeitspanne passenden Auflösung
+     * 
+     * @param providerName Name des Signal Providers
+     * @param statType Art des statistischen Werts
+     * @param from Frühestes Datum (inklusive) oder null
+     * @param to Spätestes Datum (inklusive) oder null
+     * @return Liste der historischen Einträge, neueste zuerst
+     * @see Resolution#forRange(LocalDateTime, LocalDateTime)
+     */
+    public List<HistoryEntry> getStatHistory(String providerName, String statType, 
+            LocalDateTime from, LocalDateTime to) {
+        return getStatHistory(providerName, statType, from, to, Resolution.forRange(from, to));
+    }
+    
+    /**
+     * Holt die Historie eines Zeitraums in der angegebenen Auflösung. Rohwerte
+     * und gespeicherte Verdichtungen werden zusammengeführt; wo die gewünschte
+     * Auflösung nicht mehr vorliegt, wird die nächstgröbere verwendet.
+     * 
+     * @param providerName Name des Signal Providers
+     * @param statType Art des statistischen Werts
+     * @param from Frühestes Datum (inklusive) oder null
+     * @param to Spätestes Datum (inklusive) oder null
+     * @param resolution Gewünschte Auflösung
+     * @return Liste der historischen Einträge, neueste zuerst
+     */
+    public List<HistoryEntry> getStatHistory(String providerName, String statType, 
+            LocalDateTime from, LocalDateTime to, Resolution resolution) {
+        List<HistoryEntry> history = new ArrayList<>();
+        
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return history;
+        }
+        
+        LocalDateTime start = from != null ? from : HISTORY_MIN_DATE;
+        LocalDateTime end = to != null ? to : HISTORY_MAX_DATE;
+        
+        // Noch nicht geschriebene Werte vor der Abfrage aus der Warteschlange holen;
+        // was inzwischen geschrieben wurde, liefert die Abfrage und wird unten aussortiert
+        List<HistoryEntry> pendingValues = pendingStatValues(providerName, statType, start, end);
+        
+        // Provider-ID aus dem Cache holen
+        Integer providerId = providerIdCache.get(providerName);
+        if (providerId == null) {
+            // Provider noch nicht in der Datenbank
+            return pendingValues;
+        }
+        
+        // Rohwerte und Verdichtungen über eine Verbindung aus dem Lese-Pool holen
+        try (ConnectionPool.Lease lease = readPool.borrow()) {
+            PreparedStatement stmt = lease.prepare(GET_STAT_HISTORY);
+            stmt.setInt(1, providerId);
+            stmt.setString(2, statType);
+            stmt.setObject(3, start);
+            stmt.setObject(4, end);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime date = rs.getObject(1, LocalDateTime.class);
+                    double value = rs.getDouble(2);
+                    history.add(new HistoryEntry(date, value, rs.getBoolean(3)));
+                }
+            }
+            mergePendingValues(history, pendingValues);
+            
+            List<StatRollup> monthly = readRollups(lease, providerId, statType, Resolution.MONTHLY, start, end);
+            switch (resolution) {
+                case MONTHLY:
+                    return StatRollup.stitch(StatRollup.toHistoryEntries(
+                            StatRollup.aggregate(history, monthly, Resolution.MONTHLY)));
+                case WEEKLY:
+                    List<StatRollup> weekly = readRollups(lease, providerId, statType, Resolution.WEEKLY, start, end);
+                    return StatRollup.stitch(
+                            StatRollup.toHistoryEntries(StatRollup.aggregate(history, weekly, Resolution.WEEKLY)),
+                            StatRollup.toHistoryEntries(monthly));
+                default:
+                    if (monthly.isEmpty()) {
+                        // Noch nichts verdichtet, die Rohwerte sind bereits sortiert
+                        return history;
+                    }
+                    return StatRollup.stitch(history,
+                            StatRollup.toHistoryEntries(readRollups(lease, providerId, statType, Resolution.WEEKLY, start, end)),
+                            StatRollup.toHistoryEntries(monthly));
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Abrufen der " + statType + "-Historie: " + e.getMessage());
+            e.printStackTrace();
+            return history;
+        }
+    }
+    
+    /**
+     * Liefert die noch nicht geschriebenen Werte eines Providers und Typs im Zeitraum, neueste zuerst
+     */
+    private List<HistoryEntry> pendingStatValues(String providerName, String statType,
+            LocalDateTime from, LocalDateTime to) {
+        List<HistoryEntry> values = new ArrayList<>();
+        for (PendingWrite write : writeQueue.snapshot()) {
+            if (write.kind == HistoryWriteQueue.Kind.STAT && write.providerName.equals(providerName)
+                    && write.statType.equals(statType) && !write.time.isBefore(from) && !write.time.isAfter(to)) {
+                values.add(new HistoryEntry(write.time, write.value));
+            }
+        }
+        values.sort((a, b) -> b.getDate().compareTo(a.getDate()));
+        return values;
+    }
+    
+    /**
+     * Fügt noch nicht geschriebene Werte in die absteigend sortierte Historie ein.
+     * Werte, die die Abfrage bereits enthält (gleicher Zeitpunkt), werden übersprungen.
+     */
+    private static void mergePendingValues(List<HistoryEntry> history, List<HistoryEntry> pendingValues) {
+        if (pendingValues.isEmpty()) {
+            return;
+        }
+        Set<LocalDateTime> stored = new HashSet<>();
+        for (HistoryEntry entry : history) {
+            stored.add(entry.getDate());
+        }
+        boolean added = false;
+        for (HistoryEntry entry : pendingValues) {
+            if (stored.add(entry.getDate())) {
+                history.add(entry);
+                added = true;
+            }
+        }
+        if (added) {
+            history.sort((a, b) -> b.getDate().compareTo(a.getDate()));
+        }
+    }
+    
+    private static List<StatRollup> readRollups(ConnectionPool.Lease lease, int providerId, String statType,
+            Resolution resolution, LocalDateTime from, LocalDateTime to) throws SQLException {
+        List<StatRollup> rollups = new ArrayList<>();
+        PreparedStatement stmt = lease.prepare(GET_ROLLUPS);
+        stmt.setInt(1, providerId);
+        stmt.setString(2, statType);
+        stmt.setString(3, resolution.getCode());
+        stmt.setObject(4, from);
+        stmt.setObject(5, to.toLocalDate());
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rollups.add(new StatRollup(rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDateTime.class),
+                        rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getInt(6), rs.getBoolean(7)));
+            }
+        }
+        return rollups;
+    }
+    
+    /**
+     * Speichert rekonstruierte Werte vieler Provider in einer Transaktion und
+     * markiert sie als synthetisch. Übernommen werden je Provider nur Werte, die
+     * älter sind als sein ältester bereits gespeicherter Wert dieses Typs;
+     * echte Werte haben damit immer Vorrang und ein erneuter Lauf fügt nichts doppelt ein.
+     * 
+     * @param statType Art des statistischen Werts
+     * @param pointsByProvider Providername -> rekonstruierte Werte
+     * @return Anzahl eingefügter Werte oder -1 bei einem Fehler
+     */
+    public synchronized int storeSyntheticStatValues(String statType, Map<String, List<HistoryEntry>> pointsByProvider) {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return -1;
+        }
+        if (pointsByProvider.isEmpty()) {
+            return 0;
+        }
+        
+        // Vorgemerkte echte Werte zuerst schreiben, sie bestimmen die Grenze je Provider
+        flushPendingWrites();
+        
+        List<PendingWrite> audits = new ArrayList<>();
+        Map<String, HistoryEntry> newestByProvider = new HashMap<>();
+        try {
+            int inserted = inTransaction(() -> {
+                Map<String, Integer> providerIds = resolveProviderIds(pointsByProvider.keySet(), audits);
+                
+                // Ältesten vorhandenen Wert je Provider mit einer Abfrage ermitteln
+                Map<Integer, LocalDateTime> earliest = new HashMap<>();
+                PreparedStatement ranges = prepared(GET_STAT_VALUE_RANGES);
+                ranges.setString(1, statType);
+                try (ResultSet rs = ranges.executeQuery()) {
+                    while (rs.next()) {
+                        earliest.put(rs.getInt(2), rs.getObject(4, LocalDateTime.class));
+                    }
+                }
+                // Bereits verdichtete Zeiträume zählen ebenfalls als vorhanden
+                PreparedStatement rollups = prepared(GET_EARLIEST_ROLLUPS);
+                rollups.setString(1, statType);
+                try (ResultSet rs = rollups.executeQuery()) {
+                    while (rs.next()) {
+                        LocalDateTime periodStart = rs.getObject(2, LocalDate.class).atStartOfDay();
+                        earliest.merge(rs.getInt(1), periodStart, (a, b) -> a.isBefore(b) ? a : b);
+                    }
+                }
+                
+                PreparedStatement insert = prepared(INSERT_SYNTHETIC_STAT_VALUE);
+                int count = 0;
+                long checksum = 0;
+                for (Map.Entry<String, List<HistoryEntry>> entry : pointsByProvider.entrySet()) {
+                    int providerId = providerIds.get(entry.getKey());
+                    LocalDateTime limit = earliest.get(providerId);
+                    Set<LocalDateTime> seen = new HashSet<>();
+                    for (HistoryEntry point : entry.getValue()) {
+                        // Sekundengenau, wie es die Prüfsumme erwartet
+                        LocalDateTime date = point.getDate().truncatedTo(ChronoUnit.SECONDS);
+                        if ((limit != null && !date.isBefore(limit)) || !seen.add(date)
+                                || Double.isNaN(point.getValue()) || Double.isInfinite(point.getValue())) {
+                            continue;
+                        }
+                        insert.setInt(1, providerId);
+                        insert.setString(2, statType);
+                        insert.setObject(3, date);
+                        insert.setDouble(4, point.getValue());
+                        insert.addBatch();
+                        checksum += rowChecksum(providerId, statType, date, point.getValue());
+                        count++;
+                        
+                        if (limit == null) {
+                            HistoryEntry newest = newestByProvider.get(entry.getKey());
+                            if (newest == null || date.isAfter(newest.getDate())) {
+                                newestByProvider.put(entry.getKey(), new HistoryEntry(date, point.getValue(), true));
+                            }
+                        }
+                    }
+                }
+                if (count > 0) {
+                    insert.executeBatch();
+                    adjustMetadata(META_STAT_VALUES, count, checksum);
+                }
+                return count;
+            });
+            
+            // Provider ohne bisherige Werte: der jüngste rekonstruierte Wert ist jetzt der letzte
+            for (Map.Entry<String, HistoryEntry> entry : newestByProvider.entrySet()) {
+                rememberLatestValue(entry.getKey(), statType, entry.getValue().getValue());
+            }
+            for (PendingWrite audit : audits) {
+                writeQueue.offer(audit);
+            }
+            logDbChange("BULK_INSERT", "stat_values", 
+                    String.format("%d rekonstruierte %s-Werte für %d Provider eingefügt", 
+                            inserted, statType, pointsByProvider.size()));
+            LOGGER.info(inserted + " rekonstruierte " + statType + "-Werte für " + pointsByProvider.size() + " Provider gespeichert");
+            return inserted;
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Speichern rekonstruierter Werte: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+    
+    /**
+     * Zählt die gespeicherten Werte eines Typs je Provider mit einer Abfrage
+     * 
+     * @param statType Art des statistischen Werts
+     * @return Providername -> Anzahl; Provider ohne Werte fehlen
+     */
+    public Map<String, Integer> getStatValueCounts(String statType) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return counts;
+        }
+        
+        awaitPendingWrites();
+        try (ConnectionPool.Lease lease = readPool.borrow()) {
+            PreparedStatement stmt = lease.prepare(GET_STAT_VALUE_RANGES);
+            stmt.setString(1, statType);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getString(1), rs.getInt(3));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Zählen der " + statType + "-Werte: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return counts;
+    }
+    
+    /**
+     * Verdichtet Rohwerte, die älter als die eingestellte Aufbewahrung sind, zu
+     * Wochen- und Monatswerten (Minimum, Maximum, letzter Wert) und löscht sie.
+     * Ob der letzte Wert eines Zeitraums rekonstruiert war, bleibt in der Verdichtung erhalten.
+     * Der jeweils letzte Wert je Provider und Typ bleibt immer erhalten.
+     * Wochenwerte älter als ihre Aufbewahrung werden gelöscht, die Monatswerte bleiben.
+     * 
+     * @return Anzahl verdichteter Rohwerte oder -1 bei einem Fehler
+     */
+    public synchronized int applyRetention() {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return -1;
+        }
+        
+        // Vorgemerkte Werte gehören zur aktuellen Historie und werden mit verdichtet
+        flushPendingWrites();
+        
+        LocalDateTime rawCutoff = LocalDate.now().minusDays(rawRetentionDays).atStartOfDay();
+        LocalDate weeklyCutoff = Resolution.WEEKLY.periodStart(LocalDate.now().minusDays(weeklyRetentionDays));
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            int[] result = inTransaction(() -> {
+                // Ablaufende Rohwerte lesen und je Provider, Typ und Zeitraum verdichten
+                Map<String, StatRollup> rollups = new LinkedHashMap<>();
+                long rows = 0;
+                long checksum = 0;
+                PreparedStatement select = prepared(GET_EXPIRED_STAT_VALUES);
+                select.setObject(1, rawCutoff);
+                select.setFetchSize(HISTORY_FETCH_SIZE);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        int providerId = rs.getInt(1);
+                        String statType = rs.getString(2);
+                        LocalDateTime date = rs.getObject(3, LocalDateTime.class);
+                        double value = rs.getDouble(4);
+                        boolean synthetic = rs.getBoolean(5);
+                        rows++;
+                        checksum += rowChecksum(providerId, statType, date, value);
+                        for (Resolution resolution : new Resolution[] {Resolution.WEEKLY, Resolution.MONTHLY}) {
+                            LocalDate periodStart = resolution.periodStart(date.toLocalDate());
+                            String key = providerId + "\u0000" + statType + "\u0000" + resolution.getCode() + "\u0000" + periodStart;
+                            rollups.computeIfAbsent(key, k -> new StatRollup(periodStart)).add(date, value, synthetic);
+                        }
+                    }
+                }
+                
+                if (rows > 0) {
+                    writeRollups(rollups);
+                    
+                    PreparedStatement delete = prepared(DELETE_EXPIRED_STAT_VALUES);
+                    delete.setObject(1, rawCutoff);
+                    int deleted = delete.executeUpdate();
+                    if (deleted != rows) {
+                        throw new SQLException("Verdichtung abgebrochen: " + rows + " Werte gelesen, aber " + deleted + " gelöscht");
+                    }
+                    adjustMetadata(META_STAT_VALUES, -rows, -checksum);
+                    
+                    // Die Verdichtung ist kein Datenverlust, der Vergleichsstand sinkt mit
+                    long checked = Math.max(0, lastCheckedCount - rows);
+                    PreparedStatement stmt = prepared(SET_METADATA);
+                    stmt.setLong(1, checked);
+                    stmt.setLong(2, 0);
+                    stmt.setObject(3, LocalDateTime.now());
+                    stmt.setString(4, META_INTEGRITY_CHECK);
+                    stmt.executeUpdate();
+                    lastCheckedCount = checked;
+                }
+                
+                PreparedStatement deleteWeekly = prepared(DELETE_EXPIRED_WEEKLY_ROLLUPS);
+                deleteWeekly.setObject(1, weeklyCutoff);
+                int deletedWeekly = deleteWeekly.executeUpdate();
+                return new int[] {(int) rows, deletedWeekly};
+            });
+            
+            String message = String.format("%d Rohwerte vor %s verdichtet, %d Wochenwerte vor %s gelöscht (%d ms)",
+                    result[0], rawCutoff.toLocalDate(), result[1], weeklyCutoff, System.currentTimeMillis() - startTime);
+            logDbChange("ROLLUP", "stat_values", message);
+            LOGGER.info(message);
+            return result[0];
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Verdichten der Historie: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+    
+    /**
+     * Schreibt Verdichtungen; bestehende Zeiträume werden ergänzt, neue angelegt.
+     * Läuft in der Transaktion des Aufrufers.
+     * 
+     * @param rollups Schlüssel "providerId\0statType\0resolution\0periodStart" -> Verdichtung
+     */
+    private void writeRollups(Map<String, StatRollup> rollups) throws SQLException {
+        List<String> keys = new ArrayList<>(rollups.keySet());
+        PreparedStatement update = prepared(UPDATE_ROLLUP);
+        for (String key : keys) {
+            String[] parts = key.split("\u0000");
+            StatRollup rollup = rollups.get(key);
+            update.setDouble(1, rollup.getMin());
+            update.setDouble(2, rollup.getMax());
+            update.setObject(3, rollup.getLastDate());
+            update.setDouble(4, rollup.getLast());
+            update.setObject(5, rollup.getLastDate());
+            update.setBoolean(6, rollup.isSynthetic());
+            update.setObject(7, rollup.getLastDate());
+            update.setInt(8, rollup.getCount());
+            update.setInt(9, Integer.parseInt(parts[0]));
+            update.setString(10, parts[1]);
+            update.setString(11, parts[2]);
+            update.setObject(12, rollup.getPeriodStart());
+            update.addBatch();
+        }
+        int[] updated = update.executeBatch();
+        
+        // Zeiträume, die noch keine Verdichtung hatten, neu anlegen
+        PreparedStatement insert = prepared(INSERT_ROLLUP);
+        boolean inserts = false;
+        for (int i = 0; i < keys.size(); i++) {
+            if (updated[i] > 0) {
+                continue;
+            }
+            String[] parts = keys.get(i).split("\u0000");
+            StatRollup rollup = rollups.get(keys.get(i));
+            insert.setInt(1, Integer.parseInt(parts[0]));
+            insert.setString(2, parts[1]);
+            insert.setString(3, parts[2]);
+            insert.setObject(4, rollup.getPeriodStart());
+            insert.setDouble(5, rollup.getMin());
+            insert.setDouble(6, rollup.getMax());
+            insert.setDouble(7, rollup.getLast());
+            insert.setObject(8, rollup.getLastDate());
+            insert.setInt(9, rollup.getCount());
+            insert.setBoolean(10, rollup.isSynthetic());
+            insert.addBatch();
+            inserts = true;
+        }
+        if (inserts) {
+            insert.executeBatch();
+        }
+    }
+    
+    /**
+     * Gibt ungenutzten Platz der Datenbankdatei frei. Die Datenbank wird dazu
+     * kurz geschlossen (SHUTDOWN COMPACT) und wieder geöffnet. Vorher wird gewartet,
+     * bis keine Lese-Verbindung mehr ausgeliehen ist und kein Backup und keine
+     * gründliche Prüfung mehr läuft; neue warten bis zum Ende. Gelingt das nicht
+     * rechtzeitig, wird nicht komprimiert.
+     * 
+     * @return true bei Erfolg
+     */
+    public synchronized boolean compactDatabase() {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return false;
+        }
+        
+        flushPendingWrites();
+        
+        if (!backupManager.suspend(COMPACT_QUIESCE_TIMEOUT_MS)) {
+            LOGGER.warning("Komprimieren übersprungen: Backup läuft noch");
+            return false;
+        }
+        try {
+            boolean verifyLocked;
+            try {
+                verifyLocked = exclusiveAccess.writeLock().tryLock(COMPACT_QUIESCE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                verifyLocked = false;
+            }
+            if (!verifyLocked) {
+                LOGGER.warning("Komprimieren übersprungen: gründliche Integritätsprüfung läuft noch");
+                return false;
+            }
+            try {
+                if (!readPool.suspend(COMPACT_QUIESCE_TIMEOUT_MS)) {
+                    LOGGER.warning("Komprimieren übersprungen: Lese-Verbindungen sind noch in Benutzung");
+                    return false;
+                }
+                try {
+                    return compactQuiesced();
+                } finally {
+                    readPool.resume();
+                }
+            } finally {
+                exclusiveAccess.writeLock().unlock();
+            }
+        } finally {
+            backupManager.resume();
+        }
+    }
+    
+    /**
+     * Führt SHUTDOWN COMPACT aus und öffnet die Hauptverbindung neu.
+     * Keine andere Verbindung darf dabei geöffnet sein.
+     */
+    private boolean compactQuiesced() {
+        File dbFile = new File(rootPath + File.separator + "database" + File.separator + "providerhistorydb.mv.db");
+        long sizeBefore = dbFile.length();
+        long startTime = System.currentTimeMillis();
+        
+        Connection oldConnection = connection;
+        boolean compacted = false;
+        try {
+            closeStatements();
+            try (Statement stmt = oldConnection.createStatement()) {
+                stmt.execute("SHUTDOWN COMPACT");
+            }
+            compacted = true;
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Komprimieren der Datenbank: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            try {
+                oldConnection.close();
+            } catch (SQLException e) {
+                LOGGER.fine("Fehler beim Schließen der alten Verbindung: " + e.getMessage());
+            }
+        }
+        
+        // Verbindung in jedem Fall neu öffnen
+        try {
+            connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+        } catch (SQLException e) {
+            LOGGER.severe("Datenbank konnte nach dem Komprimieren nicht geöffnet werden: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        if (!compacted) {
+            return false;
+        }
+        
+        String message = String.format("Datenbankdatei komprimiert: %.1f MB -> %.1f MB (%d ms)",
+                sizeBefore / (1024.0 * 1024.0), dbFile.length() / (1024.0 * 1024.0), 
+                System.currentTimeMillis() - startTime);
+        logDbChange("COMPACT", "ALL", message);
+        LOGGER.info(message);
+        return true;
+    }
+    
+    /**
+     * Verdichtet die Historie und komprimiert anschließend die Datenbankdatei,
+     * beides im Hintergrund mit niedriger Priorität
+     * 
+     * @return Handle mit der Anzahl verdichteter Rohwerte (-1 bei einem Fehler)
+     */
+    public TaskScheduler.TaskHandle<Integer> applyRetentionAsync() {
+        return TaskScheduler.getInstance().submitExclusive("history-retention", "Historie verdichten",
+                TaskScheduler.Priority.MAINTENANCE, token -> {
+                    int rolledUp = applyRetention();
+                    token.throwIfCancelled();
+                    if (rolledUp > 0) {
+                        compactDatabase();
+                    }
+                    return rolledUp;
+                });
+    }
+    
+    /**
+     * Liest Historieneinträge mehrerer Provider und Statistiktypen mit einer
+     * einzigen, nach Provider, Typ und Datum (absteigend) sortierten Abfrage und
+     * reicht sie zeilenweise weiter, ohne sie vorher vollständig zu laden.
+     * 
+     * @param statTypes Gewünschte Statistiktypen, null oder leer für alle
+     * @param from Frühestes Datum (inklusive) oder null
+     * @param to Spätestes Datum (inklusive) oder null
+     * @param offset Anzahl zu überspringender Zeilen (für Paging)
+     * @param limit Maximale Anzahl Zeilen, 0 für unbegrenzt
+     * @param handler Empfänger der Zeilen; liefert er false, wird abgebrochen
+     * @return Anzahl der weitergereichten Zeilen
+     */
+    public int streamHistory(Collection<String> statTypes, LocalDateTime from, LocalDateTime to,
+            int offset, int limit, HistoryRowHandler handler) {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return 0;
+        }
+        
+        // Auf das Schreiben der vorgemerkten Änderungen warten, damit sie mitgelesen werden
+        awaitPendingWrites();
+        
+        StringBuilder sql = new StringBuilder(
+                "SELECT p.provider_name, s.stat_type, s.recorded_date, s.\"value\" FROM stat_values s " +
+                "JOIN signal_providers p ON p.provider_id = s.provider_id");
+        List<Object> params = appendHistoryFilter(sql, statTypes, from, to);
+        sql.append(" ORDER BY p.provider_name, s.stat_type, s.recorded_date DESC");
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
+        if (offset > 0) {
+            sql.append(" OFFSET ?");
+            params.add(offset);
+        }
+        
+        int count = 0;
+        try (ConnectionPool.Lease lease = readPool.borrow()) {
+            PreparedStatement stmt = lease.prepare(sql.toString());
+            bindParameters(stmt, params);
+            stmt.setFetchSize(HISTORY_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    HistoryRow row = new HistoryRow(rs.getString(1), rs.getString(2),
+                            rs.getObject(3, LocalDateTime.class), rs.getDouble(4));
+                    count++;
+                    if (!handler.handle(row)) {
+                        break;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Lesen der Historie: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return count;
+    }
+    
+    /**
+     * Zählt die Historieneinträge, die {@link #streamHistory} mit denselben Filtern liefern würde
+     * 
+     * @param statTypes Gewünschte Statistiktypen, null oder leer für alle
+     * @param from Frühestes Datum (inklusive) oder null
+     * @param to Spätestes Datum (inklusive) oder null
+     * @return Anzahl der Einträge
+     */
+    public int countHistory(Collection<String> statTypes, LocalDateTime from, LocalDateTime to) {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return 0;
+        }
+        
+        // Auf das Schreiben der vorgemerkten Änderungen warten, damit sie mitgelesen werden
+        awaitPendingWrites();
+        
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM stat_values s");
+        List<Object> params = appendHistoryFilter(sql, statTypes, from, to);
+        try (ConnectionPool.Lease lease = readPool.borrow()) {
+            PreparedStatement stmt = lease.prepare(sql.toString());
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Zählen der Historie: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+    
+    /**
+     * Hängt die WHERE-Bedingungen für Typ und Zeitraum an und liefert die Parameter
+     */
+    private List<Object> appendHistoryFilter(StringBuilder sql, Collection<String> statTypes,
+            LocalDateTime from, LocalDateTime to) {
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (statTypes != null && !statTypes.isEmpty()) {
+            conditions.add("s.stat_type IN (" + String.join(", ", Collections.nCopies(statTypes.size(), "?")) + ")");
+            params.addAll(statTypes);
+        }
+        if (from != null) {
+            conditions.add("s.recorded_date >= ?");
+            params.add(from);
+        }
+        if (to != null) {
+            conditions.add("s.recorded_date <= ?");
+            params.add(to);
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        return params;
+    }
+    
+    private void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+    
+    /**
+     * Backup-Methode, um eine Sicherungskopie der Datenbank zu erstellen.
+     * Das Backup läuft auf dem Backup-Thread; diese Methode wartet auf das Ergebnis.
+     * @return true wenn das Backup erfolgreich erstellt wurde
+     */
+    public boolean createBackup() {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return false;
+        }
+        
+        return backupManager.createBackup().isSuccess();
+    }
+    
+    /**
+     * Stellt ein Backup in die Warteschlange des Backup-Threads und kehrt sofort zurück
+     * @return Future mit Ergebnis, Dauer und Größe des Backups
+     */
+    public CompletableFuture<DatabaseBackupManager.BackupResult> createBackupAsync() {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        return backupManager.createBackupAsync();
+    }
+    
+    /**
+     * Holt eine Liste aller Provider aus der Datenbank
+     * 
+     * @return Liste aller Providernamen
+     */
+    public List<String> getAllProviders() {
+        List<String> providers = new ArrayList<>();
+        
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return providers;
+        }
+        
+        // Provider aus noch nicht geschriebenen Änderungen vor der Abfrage merken
+        Set<String> pendingProviders = new TreeSet<>();
+        for (PendingWrite write : writeQueue.snapshot()) {
+            if (write.providerName != null) {
+                pendingProviders.add(write.providerName);
+            }
+        }
+        
+        try (ConnectionPool.Lease lease = readPool.borrow();
+             ResultSet rs = lease.prepare(GET_ALL_PROVIDER_NAMES).executeQuery()) {
+            while (rs.next()) {
+                providers.add(rs.getString(1));
+            }
+            
+            pendingProviders.removeAll(providers);
+            if (!pendingProviders.isEmpty()) {
+                providers.addAll(pendingProviders);
+                Collections.sort(providers);
+            }
+            return providers;
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler beim Abrufen aller Provider: " + e.getMessage());
+            e.printStackTrace();
+            return providers;
+        }
+    }
+    
+    /**
+     * Zählt die Gesamtanzahl der Einträge in der Datenbank.
+     * Liefert die in db_metadata mitgeführte Zeilenzahl, ohne die Tabellen zu lesen
+     * und ohne zu sperren. Noch nicht geschriebene Änderungen sind nicht enthalten.
+     */
+    public int countAllEntries() {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return 0;
+        }
+        
+        return (int) (providerRowCount + statRowCount);
+    }
+    
+    /**
+     * Prüft, ob die Datenbank Datenverluste aufweist, indem die Anzahl der Einträge überprüft wird.
+     * Vergleicht nur die mitgeführten Zeilenzahlen mit dem Stand der letzten Prüfung und
+     * kostet daher unabhängig von der Datenbankgröße gleich wenig. Noch nicht geschriebene
+     * Änderungen zählen erst nach dem Schreiben mit. Änderungen an der
+     * Datenbank an der Anwendung vorbei erkennt erst {@link #verifyDataIntegrityDeep()}.
+     */
+    public synchronized boolean checkDataIntegrity() {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return false;
+        }
+        
+        try {
+            long currentCount = providerRowCount + statRowCount;
             
             // Wenn die aktuelle Anzahl kleiner ist als die letzte protokollierte Anzahl,
             // könnte ein Datenverlust vorliegen
-            boolean dataLoss = currentCount < lastRecordedCount;
+            boolean dataLoss = currentCount < lastCheckedCount;
             
             if (dataLoss) {
                 LOGGER.severe("Möglicher Datenverlust erkannt! Aktuelle Einträge: " + currentCount + 
-                        ", Letzte bekannte Anzahl: " + lastRecordedCount);
+                        ", Letzte bekannte Anzahl: " + lastCheckedCount);
                 
                 // Protokolliere den potentiellen Datenverlust
                 logDbChange("INTEGRITY_WARNING", "ALL", 
                         "Möglicher Datenverlust! Aktuelle Einträge: " + currentCount + 
-                        ", Letzte bekannte Anzahl: " + lastRecordedCount);
+                        ", Letzte bekannte Anzahl: " + lastCheckedCount);
                 
                 // Erstelle automatisch ein Backup
-                createBackup();
+                createBackupAsync();
             } else {
-                // Protokolliere den aktuellen Zustand für zukünftige Prüfungen
+                // Aktuellen Stand für zukünftige Prüfungen merken
+                PreparedStatement stmt = prepared(SET_METADATA);
+                stmt.setLong(1, currentCount);
+                stmt.setLong(2, 0);
+                stmt.setObject(3, LocalDateTime.now());
+                stmt.setString(4, META_INTEGRITY_CHECK);
+                stmt.executeUpdate();
+                lastCheckedCount = currentCount;
+                
                 logDbChange("INTEGRITY_CHECK", "ALL", 
                         "Integritätsprüfung: " + currentCount + " Einträge vorhanden");
             }
@@ -600,29 +2173,133 @@ public class HistoryDatabaseManager {
     }
     
     /**
-     * Schließt die Datenbankverbindung
+     * Gründliche Prüfung: liest alle Zeilen, berechnet Zeilenzahlen und Prüfsumme neu
+     * und vergleicht sie mit db_metadata. Läuft über eine eigene Verbindung in einer
+     * Snapshot-Transaktion, damit die Anwendung währenddessen weiter schreiben kann.
+     * Bei Abweichungen wird eine Warnung protokolliert und ein Backup erstellt.
+     * @return Das Prüfergebnis oder null, wenn die Prüfung nicht durchgeführt werden konnte
+     */
+    public IntegrityReport verifyDataIntegrityDeep() {
+        if (connection == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return null;
+        }
+        
+        // Vorgemerkte Änderungen zuerst schreiben, damit sie mitgelesen werden
+        flushPendingWrites();
+        
+        IntegrityReport report;
+        // Die eigene Verbindung darf nicht während des Komprimierens offen sein
+        exclusiveAccess.readLock().lock();
+        try (Connection verifyConnection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            verifyConnection.setReadOnly(true);
+            try (Statement stmt = verifyConnection.createStatement()) {
+                stmt.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL SNAPSHOT");
+            }
+            verifyConnection.setAutoCommit(false);
+            
+            // Metadaten und Tabellen aus demselben Snapshot lesen
+            Map<String, long[]> metadata = new HashMap<>();
+            try (Statement stmt = verifyConnection.createStatement();
+                 ResultSet rs = stmt.executeQuery(GET_METADATA)) {
+                while (rs.next()) {
+                    metadata.put(rs.getString(1), new long[] {rs.getLong(2), rs.getLong(3)});
+                }
+            }
+            long[] providers = metadata.getOrDefault(META_PROVIDERS, new long[2]);
+            long[] statValues = metadata.getOrDefault(META_STAT_VALUES, new long[2]);
+            report = computeActualState(verifyConnection, providers[0], statValues[0], statValues[1]);
+            verifyConnection.commit();
+        } catch (SQLException e) {
+            LOGGER.severe("Fehler bei der gründlichen Integritätsprüfung: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        } finally {
+            exclusiveAccess.readLock().unlock();
+        }
+        
+        synchronized (this) {
+            if (report.isConsistent()) {
+                LOGGER.info("Gründliche Integritätsprüfung erfolgreich: " + report);
+                logDbChange("INTEGRITY_CHECK_DEEP", "ALL", report.toString());
+            } else {
+                LOGGER.severe("Gründliche Integritätsprüfung: Abweichung erkannt! " + report);
+                logDbChange("INTEGRITY_WARNING", "ALL", "Gründliche Prüfung: " + report);
+                createBackupAsync();
+            }
+        }
+        return report;
+    }
+    
+    /**
+     * Führt {@link #verifyDataIntegrityDeep()} in der Wartungs-Lane aus
+     * @return Handle mit dem Prüfergebnis
+     */
+    public TaskScheduler.TaskHandle<IntegrityReport> verifyDataIntegrityDeepAsync() {
+        return TaskScheduler.getInstance().submit("Gründliche Datenbankprüfung",
+                TaskScheduler.Priority.MAINTENANCE, token -> verifyDataIntegrityDeep());
+    }
+    
+    /**
+     * Schließt die Datenbankverbindung. Vorher werden alle vorgemerkten
+     * Änderungen geschrieben.
      */
     public void closeConnection() {
-        if (connection != null) {
+        // Schreib-Thread zuerst beenden, er benötigt selbst die Sperre des Managers
+        writeQueue.stop();
+        
+        synchronized (this) {
+            if (connection != null) {
+                try {
+                    // Noch vorgemerkte Änderungen schreiben, damit sie im Backup enthalten sind
+                    flushPendingWrites();
+                    
+                    // Erstelle ein Backup vor dem Schließen, falls nicht gerade eines erstellt wurde
+                    if (!backupManager.hasRecentBackup(RECENT_BACKUP_MILLIS)) {
+                        createBackup();
+                    }
+                    backupManager.shutdown(BACKUP_SHUTDOWN_TIMEOUT_SECONDS);
+                    
+                    // Prüfe die Datenintegrität
+                    checkDataIntegrity();
+                    
+                    // Protokolliere das Schließen
+                    logDbChange("SHUTDOWN", "ALL", "Datenbankverbindung wird ordnungsgemäß geschlossen");
+                    flushPendingWrites();
+                    if (writeQueue.size() > 0) {
+                        LOGGER.severe(writeQueue.size() + " vorgemerkte Änderungen konnten vor dem Schließen nicht geschrieben werden");
+                    }
+                    List<PendingWrite> discarded = writeQueue.getDiscarded();
+                    if (!discarded.isEmpty()) {
+                        LOGGER.severe(discarded.size() + " Änderungen wurden während der Laufzeit verworfen: " + discarded);
+                    }
+                    
+                    // Lese-Pool, vorbereitete Statements und die Verbindung schließen
+                    readPool.close();
+                    closeStatements();
+                    connection.close();
+                    
+                    LOGGER.info("Datenbankverbindung geschlossen");
+                } catch (SQLException e) {
+                    LOGGER.severe("Fehler beim Schließen der Datenbankverbindung: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Schließt alle einmal vorbereiteten Statements
+     */
+    private void closeStatements() {
+        for (PreparedStatement stmt : statementCache.values()) {
             try {
-                // Erstelle ein Backup vor dem Schließen
-                createBackup();
-                
-                // Prüfe die Datenintegrität
-                checkDataIntegrity();
-                
-                // Protokolliere das Schließen
-                logDbChange("SHUTDOWN", "ALL", "Datenbankverbindung wird ordnungsgemäß geschlossen");
-                
-                // Schließe die Verbindung
-                connection.close();
-                
-                LOGGER.info("Datenbankverbindung geschlossen");
+                stmt.close();
             } catch (SQLException e) {
-                LOGGER.severe("Fehler beim Schließen der Datenbankverbindung: " + e.getMessage());
-                e.printStackTrace();
+                LOGGER.fine("Fehler beim Schließen eines Statements: " + e.getMessage());
             }
         }
+        statementCache.clear();
     }
     
     /**
@@ -637,55 +2314,20 @@ public class HistoryDatabaseManager {
             LOGGER.warning("Keine Datenbankverbindung verfügbar");
             return false;
         }
-        
-        try {
-            // Provider-ID holen oder erstellen
-            int providerId = getOrCreateProvider(providerName);
-            
-            // Prüfen, ob bereits Notizen existieren
-            boolean exists = false;
-            try (PreparedStatement checkStmt = connection.prepareStatement(
-                    "SELECT COUNT(*) FROM provider_notes WHERE provider_id = ?")) {
-                checkStmt.setInt(1, providerId);
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    exists = rs.getInt(1) > 0;
-                }
-            }
-            
-            // SQL für Insert oder Update
-            String sql = exists ? 
-                    "UPDATE provider_notes SET notes = ?, last_updated = ? WHERE provider_id = ?" :
-                    "INSERT INTO provider_notes (provider_id, notes, risk_category, last_updated) VALUES (?, ?, 0, ?)";
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                if (exists) {
-                    stmt.setString(1, notes);
-                    stmt.setObject(2, LocalDateTime.now());
-                    stmt.setInt(3, providerId);
-                } else {
-                    stmt.setInt(1, providerId);
-                    stmt.setString(2, notes);
-                    stmt.setObject(3, LocalDateTime.now());
-                }
-                stmt.executeUpdate();
-                
-                // Log die Änderung
-                logDbChange(exists ? "UPDATE" : "INSERT", "provider_notes", 
-                        "Notizen für Provider " + providerName + " " + (exists ? "aktualisiert" : "hinzugefügt"));
-                
-                LOGGER.info("Notizen für Provider " + providerName + " erfolgreich gespeichert");
-                return true;
-            }
-        } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Speichern der Notizen: " + e.getMessage());
-            e.printStackTrace();
+        if (providerName == null || providerName.trim().isEmpty()) {
+            LOGGER.warning("Ungültiger Provider-Name, Notizen werden nicht gespeichert");
             return false;
         }
+        
+        // Sofort im Cache sichtbar, geschrieben wird vom Schreib-Thread
+        enqueue(PendingWrite.notes(providerName, notes, notesCache.containsKey(providerName)));
+        
+        LOGGER.info("Notizen für Provider " + providerName + " zum Speichern vorgemerkt");
+        return true;
     }
 
     /**
-     * Lädt Notizen für einen Signal Provider
+     * Lädt Notizen für einen Signal Provider aus dem Cache
      * 
      * @param providerName Name des Signal Providers
      * @return Die gespeicherten Notizen oder leerer String, wenn keine vorhanden
@@ -696,33 +2338,7 @@ public class HistoryDatabaseManager {
             return "";
         }
         
-        try {
-            // Provider-ID holen
-            try (PreparedStatement stmt = connection.prepareStatement(GET_PROVIDER_ID)) {
-                stmt.setString(1, providerName);
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    int providerId = rs.getInt(1);
-                    
-                    // Notizen abfragen
-                    try (PreparedStatement notesStmt = connection.prepareStatement(
-                            "SELECT notes FROM provider_notes WHERE provider_id = ?")) {
-                        notesStmt.setInt(1, providerId);
-                        ResultSet notesRs = notesStmt.executeQuery();
-                        if (notesRs.next()) {
-                            return notesRs.getString(1);
-                        }
-                    }
-                }
-            }
-            
-            // Keine Notizen gefunden
-            return "";
-        } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Laden der Notizen: " + e.getMessage());
-            e.printStackTrace();
-            return "";
-        }
+        return notesCache.getOrDefault(providerName, "");
     }
     
     /**
@@ -737,6 +2353,10 @@ public class HistoryDatabaseManager {
             LOGGER.warning("Keine Datenbankverbindung verfügbar");
             return false;
         }
+        if (providerName == null || providerName.trim().isEmpty()) {
+            LOGGER.warning("Ungültiger Provider-Name, Risiko-Kategorie wird nicht gespeichert");
+            return false;
+        }
         
         // Validiere Risiko-Kategorie
         if (riskCategory < 0 || riskCategory > 10) {
@@ -744,54 +2364,15 @@ public class HistoryDatabaseManager {
             return false;
         }
         
-        try {
-            // Provider-ID holen oder erstellen
-            int providerId = getOrCreateProvider(providerName);
-            
-            // Prüfen, ob bereits ein Eintrag existiert
-            boolean exists = false;
-            try (PreparedStatement checkStmt = connection.prepareStatement(
-                    "SELECT COUNT(*) FROM provider_notes WHERE provider_id = ?")) {
-                checkStmt.setInt(1, providerId);
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    exists = rs.getInt(1) > 0;
-                }
-            }
-            
-            // SQL für Insert oder Update
-            String sql = exists ? 
-                    "UPDATE provider_notes SET risk_category = ?, last_updated = ? WHERE provider_id = ?" :
-                    "INSERT INTO provider_notes (provider_id, notes, risk_category, last_updated) VALUES (?, '', ?, ?)";
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                if (exists) {
-                    stmt.setInt(1, riskCategory);
-                    stmt.setObject(2, LocalDateTime.now());
-                    stmt.setInt(3, providerId);
-                } else {
-                    stmt.setInt(1, providerId);
-                    stmt.setInt(2, riskCategory);
-                    stmt.setObject(3, LocalDateTime.now());
-                }
-                stmt.executeUpdate();
-                
-                // Log die Änderung
-                logDbChange(exists ? "UPDATE" : "INSERT", "provider_notes", 
-                        "Risiko-Kategorie " + riskCategory + " für Provider " + providerName + " gesetzt");
-                
-                LOGGER.info("Risiko-Kategorie " + riskCategory + " für Provider " + providerName + " erfolgreich gespeichert");
-                return true;
-            }
-        } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Speichern der Risiko-Kategorie: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        // Sofort im Cache sichtbar, geschrieben wird vom Schreib-Thread
+        enqueue(PendingWrite.riskCategory(providerName, riskCategory, notesCache.containsKey(providerName)));
+        
+        LOGGER.info("Risiko-Kategorie " + riskCategory + " für Provider " + providerName + " zum Speichern vorgemerkt");
+        return true;
     }
 
     /**
-     * Lädt die Risiko-Kategorie für einen Signal Provider
+     * Lädt die Risiko-Kategorie für einen Signal Provider aus dem Cache
      * 
      * @param providerName Name des Signal Providers
      * @return Die gespeicherte Risiko-Kategorie oder 0, wenn keine gesetzt ist
@@ -802,32 +2383,146 @@ public class HistoryDatabaseManager {
             return 0;
         }
         
-        try {
-            // Provider-ID holen
-            try (PreparedStatement stmt = connection.prepareStatement(GET_PROVIDER_ID)) {
-                stmt.setString(1, providerName);
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    int providerId = rs.getInt(1);
-                    
-                    // Risiko-Kategorie abfragen
-                    try (PreparedStatement riskStmt = connection.prepareStatement(
-                            "SELECT risk_category FROM provider_notes WHERE provider_id = ?")) {
-                        riskStmt.setInt(1, providerId);
-                        ResultSet riskRs = riskStmt.executeQuery();
-                        if (riskRs.next()) {
-                            return riskRs.getInt(1);
-                        }
-                    }
-                }
-            }
-            
-            // Keine Risiko-Kategorie gefunden
-            return 0;
-        } catch (SQLException e) {
-            LOGGER.severe("Fehler beim Laden der Risiko-Kategorie: " + e.getMessage());
-            e.printStackTrace();
-            return 0;
+        return riskCategoryCache.getOrDefault(providerName, 0);
+    }
+    
+    /**
+     * Liefert die Notizen aller Provider als Momentaufnahme aus dem Speicher,
+     * z.B. für Reports über viele Provider. Enthält auch noch nicht geschriebene Änderungen.
+     * 
+     * @return Providername -> Notizen, unveränderlich
+     */
+    public Map<String, String> getAllProviderNotes() {
+        return Collections.unmodifiableMap(new HashMap<>(notesCache));
+    }
+    
+    /**
+     * Liefert die Risiko-Kategorien aller Provider als Momentaufnahme aus dem Speicher.
+     * Provider ohne Eintrag haben die Kategorie 0.
+     * 
+     * @return Providername -> Risiko-Kategorie, unveränderlich
+     */
+    public Map<String, Integer> getAllProviderRiskCategories() {
+        return Collections.unmodifiableMap(new HashMap<>(riskCategoryCache));
+    }
+    
+    /**
+     * Ergebnis einer Integritätsprüfung: in db_metadata erwarteter und tatsächlicher Stand
+     */
+    public static class IntegrityReport {
+        private final long expectedProviders;
+        private final long expectedStatValues;
+        private final long expectedChecksum;
+        private final long actualProviders;
+        private final long actualStatValues;
+        private final long actualChecksum;
+        
+        public IntegrityReport(long expectedProviders, long expectedStatValues, long expectedChecksum,
+                long actualProviders, long actualStatValues, long actualChecksum) {
+            this.expectedProviders = expectedProviders;
+            this.expectedStatValues = expectedStatValues;
+            this.expectedChecksum = expectedChecksum;
+            this.actualProviders = actualProviders;
+            this.actualStatValues = actualStatValues;
+            this.actualChecksum = actualChecksum;
+        }
+        
+        public long getExpectedCount() {
+            return expectedProviders + expectedStatValues;
+        }
+        
+        public long getActualCount() {
+            return actualProviders + actualStatValues;
+        }
+        
+        public long getActualProviders() {
+            return actualProviders;
+        }
+        
+        public long getActualStatValues() {
+            return actualStatValues;
+        }
+        
+        /**
+         * @return true, wenn Zeilenzahlen und Prüfsumme übereinstimmen
+         */
+        public boolean isConsistent() {
+            return expectedProviders == actualProviders
+                    && expectedStatValues == actualStatValues
+                    && expectedChecksum == actualChecksum;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Provider %d/%d, Werte %d/%d, Prüfsumme %s (erwartet/tatsächlich)",
+                    expectedProviders, actualProviders, expectedStatValues, actualStatValues,
+                    expectedChecksum == actualChecksum ? "OK" : "abweichend");
+        }
+    }
+    
+    /**
+     * Ein zu speichernder statistischer Wert für {@link #storeStatValues}
+     */
+    public static class StatValue {
+        private final String providerName;
+        private final String statType;
+        private final double value;
+        
+        public StatValue(String providerName, String statType, double value) {
+            this.providerName = providerName;
+            this.statType = statType;
+            this.value = value;
+        }
+        
+        public String getProviderName() {
+            return providerName;
+        }
+        
+        public String getStatType() {
+            return statType;
+        }
+        
+        public double getValue() {
+            return value;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s %s=%.4f", providerName, statType, value);
+        }
+    }
+    
+    /**
+     * Empfänger für {@link #streamHistory}
+     */
+    @FunctionalInterface
+    public interface HistoryRowHandler {
+        /**
+         * @param row Die nächste Zeile
+         * @return false, um das Lesen abzubrechen
+         */
+        boolean handle(HistoryRow row);
+    }
+    
+    /**
+     * Historieneintrag mit Provider und Statistiktyp, wie er beim Streamen geliefert wird
+     */
+    public static class HistoryRow extends HistoryEntry {
+        private final String providerName;
+        private final String statType;
+        
+        public HistoryRow(String providerName, String statType, LocalDateTime date, double value) {
+            super(date, value);
+            this.providerName = providerName;
+            this.statType = statType;
+        }
+        
+        public String getProviderName() {
+            return providerName;
+        }
+        
+        public String getStatType() {
+            return statType;
         }
     }
     
@@ -837,10 +2532,16 @@ public class HistoryDatabaseManager {
     public static class HistoryEntry {
         private final LocalDateTime date;
         private final double value;
+        private final boolean synthetic;
         
         public HistoryEntry(LocalDateTime date, double value) {
+            this(date, value, false);
+        }
+        
+        public HistoryEntry(LocalDateTime date, double value, boolean synthetic) {
             this.date = date;
             this.value = value;
+            this.synthetic = synthetic;
         }
         
         public LocalDateTime getDate() {
@@ -851,10 +2552,17 @@ public class HistoryDatabaseManager {
             return value;
         }
         
+        /**
+         * @return true, wenn der Wert nachträglich aus Tradedaten rekonstruiert wurde
+         */
+        public boolean isSynthetic() {
+            return synthetic;
+        }
+        
         @Override
         public String toString() {
-            return String.format("[%s] %.4f", 
-                    date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), value);
+            return String.format("[%s] %.4f%s", 
+                    date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), value, synthetic ? " (rekonstruiert)" : "");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,327 @@
+package db;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Warteschlange für verzögerte Schreibzugriffe des HistoryDatabaseManager.
+ *
+ * Aufrufer stellen Statistikwerte, Notizen, Risiko-Kategorien und Log-Einträge
+ * ein und kehren sofort zurück. Ein einzelner Schreib-Thread übergibt den
+ * gesammelten Stand in festen Abständen oder bei vielen wartenden Einträgen an
+ * den Manager, der ihn in einer Transaktion schreibt. Mehrfache Schreibzugriffe
+ * auf denselben Schlüssel (z.B. Notizen eines Providers) werden zusammengefasst,
+ * nur der letzte Stand wird geschrieben. Log-Einträge werden nie zusammengefasst.
+ * 
+ * Entnommene Zugriffe bleiben bis zum Abschluss des Schreibens in {@link #snapshot()}
+ * sichtbar. Schlägt das Schreiben fehl, kommen sie zurück in die Warteschlange. Nur
+ * vorübergehende Fehler (z.B. Verbindungsprobleme) verzögern den nächsten Versuch mit
+ * wachsendem Abstand. Ein Zugriff, der wiederholt an seinen eigenen Daten scheitert,
+ * wird nach {@link #MAX_FAILED_ATTEMPTS} Versuchen in die Liste der verworfenen
+ * Zugriffe verschoben, damit er die übrigen nicht aufhält.
+ */
+class HistoryWriteQueue {
+    private static final Logger LOGGER = Logger.getLogger(HistoryWriteQueue.class.getName());
+
+    /** Abstand zwischen zwei Schreibvorgängen */
+    static final long FLUSH_INTERVAL_MS = 500;
+    /** Ab dieser Anzahl wartender Einträge wird sofort geschrieben */
+    static final int FLUSH_THRESHOLD = 1000;
+    /** Obergrenze für den Abstand zwischen Schreibversuchen nach Fehlern */
+    static final long MAX_RETRY_INTERVAL_MS = 60 * 1000;
+    /** Fehlversuche, nach denen ein einzelner Zugriff verworfen wird */
+    static final int MAX_FAILED_ATTEMPTS = 3;
+
+    enum Kind { STAT, NOTES, RISK_CATEGORY, AUDIT }
+
+    /**
+     * Ein wartender Schreibzugriff
+     */
+    static final class PendingWrite {
+        final Kind kind;
+        final String providerName;
+        final String statType;
+        final double value;
+        final String text;
+        final int riskCategory;
+        // Gab es den Notizen-Eintrag bereits, als der Zugriff eingestellt wurde (nur für das Log)
+        final boolean existed;
+        final String changeType;
+        final String tableName;
+        final LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        // Fehlgeschlagene Einzelversuche, geschützt durch die Warteschlange
+        private int failedAttempts;
+
+        private PendingWrite(Kind kind, String providerName, String statType, double value, String text,
+                int riskCategory, boolean existed, String changeType, String tableName) {
+            this.kind = kind;
+            this.providerName = providerName;
+            this.statType = statType;
+            this.value = value;
+            this.text = text;
+            this.riskCategory = riskCategory;
+            this.existed = existed;
+            this.changeType = changeType;
+            this.tableName = tableName;
+        }
+
+        static PendingWrite stat(String providerName, String statType, double value) {
+            return new PendingWrite(Kind.STAT, providerName, statType, value, null, 0, false, null, null);
+        }
+
+        static PendingWrite notes(String providerName, String notes, boolean existed) {
+            return new PendingWrite(Kind.NOTES, providerName, null, 0, notes, 0, existed, null, null);
+        }
+
+        static PendingWrite riskCategory(String providerName, int riskCategory, boolean existed) {
+            return new PendingWrite(Kind.RISK_CATEGORY, providerName, null, 0, null, riskCategory, existed, null, null);
+        }
+
+        static PendingWrite audit(String changeType, String tableName, String description) {
+            return new PendingWrite(Kind.AUDIT, null, null, 0, description, 0, false, changeType, tableName);
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case STAT:          return "Wert " + statType + "=" + value + " für Provider " + providerName;
+                case NOTES:         return "Notizen für Provider " + providerName;
+                case RISK_CATEGORY: return "Risiko-Kategorie " + riskCategory + " für Provider " + providerName;
+                default:            return "Log-Eintrag " + changeType + " " + tableName;
+            }
+        }
+    }
+
+    // Wartende Zugriffe in Einstellreihenfolge; ein ersetzter Eintrag behält seinen Platz
+    private final Map<Object, PendingWrite> pending = new LinkedHashMap<>();
+    // Entnommene, aber noch nicht geschriebene Zugriffe
+    private List<PendingWrite> inFlight = new ArrayList<>();
+    // Endgültig fehlgeschlagene Zugriffe, nur noch zur Anzeige
+    private final List<PendingWrite> discarded = new ArrayList<>();
+    private long auditSequence;
+    // Anzahl aufeinanderfolgender fehlgeschlagener Schreibvorgänge
+    private int failures;
+    // Anzahl abgeschlossener Schreibvorgänge, für awaitFlushed
+    private long completedFlushes;
+    private boolean flushRequested;
+    private Thread writer;
+    private volatile boolean running;
+
+    /**
+     * Stellt einen Schreibzugriff ein. Ein wartender Zugriff mit demselben
+     * Schlüssel wird ersetzt.
+     */
+    synchronized void offer(PendingWrite write) {
+        pending.put(keyOf(write), write);
+        if (pending.size() >= FLUSH_THRESHOLD) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Entnimmt alle wartenden Zugriffe. Sie bleiben in {@link #snapshot()} sichtbar,
+     * bis sie mit {@link #written} oder {@link #requeueUnwritten()} abgeschlossen werden.
+     */
+    synchronized List<PendingWrite> drain() {
+        List<PendingWrite> writes = new ArrayList<>(pending.values());
+        pending.clear();
+        inFlight.addAll(writes);
+        return writes;
+    }
+
+    /**
+     * Meldet entnommene Zugriffe als geschrieben
+     */
+    synchronized void written(List<PendingWrite> writes) {
+        inFlight.removeAll(writes);
+    }
+
+    /**
+     * Meldet einen einzeln geschriebenen Zugriff, der an seinen eigenen Daten scheiterte.
+     * Nach {@link #MAX_FAILED_ATTEMPTS} Fehlversuchen wird er verworfen und taucht
+     * weder in {@link #snapshot()} noch in {@link #size()} mehr auf.
+     * 
+     * @return true, wenn der Zugriff verworfen wurde
+     */
+    synchronized boolean failed(PendingWrite write) {
+        if (++write.failedAttempts < MAX_FAILED_ATTEMPTS || !inFlight.remove(write)) {
+            return false;
+        }
+        discarded.add(write);
+        return true;
+    }
+    
+    /**
+     * @return Kopie der verworfenen Zugriffe
+     */
+    synchronized List<PendingWrite> getDiscarded() {
+        return new ArrayList<>(discarded);
+    }
+    
+    /**
+     * Stellt alle entnommenen, nicht geschriebenen Zugriffe zurück in die Warteschlange.
+     * Ein inzwischen eingestellter neuerer Zugriff mit demselben Schlüssel hat Vorrang.
+     * Beendet den Schreibvorgang; nur nach einem vorübergehenden Fehler wird der nächste
+     * Versuch hinausgezögert, sonst gilt wieder der normale Abstand.
+     * 
+     * @param transientFailure true, wenn der Vorgang an einem vorübergehenden Fehler scheiterte
+     * @return Anzahl zurückgestellter Zugriffe
+     */
+    synchronized int requeueUnwritten(boolean transientFailure) {
+        int requeued = 0;
+        if (!inFlight.isEmpty()) {
+            // Die älteren Zugriffe kommen nach vorn, neuere bleiben erhalten
+            Map<Object, PendingWrite> merged = new LinkedHashMap<>();
+            for (PendingWrite write : inFlight) {
+                Object key = keyOf(write);
+                if (!pending.containsKey(key)) {
+                    merged.put(key, write);
+                    requeued++;
+                }
+            }
+            merged.putAll(pending);
+            pending.clear();
+            pending.putAll(merged);
+            inFlight = new ArrayList<>();
+        }
+        failures = transientFailure ? failures + 1 : 0;
+        completedFlushes++;
+        flushRequested = false;
+        notifyAll();
+        return requeued;
+    }
+
+    /**
+     * @return Kopie der wartenden und gerade geschriebenen Zugriffe in Einstellreihenfolge
+     */
+    synchronized List<PendingWrite> snapshot() {
+        List<PendingWrite> writes = new ArrayList<>(inFlight);
+        writes.addAll(pending.values());
+        return writes;
+    }
+
+    synchronized int size() {
+        return pending.size() + inFlight.size();
+    }
+
+    /**
+     * Veranlasst den Schreib-Thread, sofort zu schreiben, und wartet, bis die
+     * derzeit wartenden Zugriffe geschrieben wurden oder ein Versuch fehlschlug.
+     * Nach vorübergehenden Fehlern wird nicht gewartet, da der Schreib-Thread dann
+     * ohnehin erst nach Ablauf seines verlängerten Abstands schreibt.
+     * Die Sperre des Managers wird dabei nicht benötigt.
+     * 
+     * @param timeoutMs Maximale Wartezeit
+     * @return true, wenn danach nichts mehr aussteht
+     */
+    synchronized boolean awaitFlushed(long timeoutMs) {
+        if (!running || failures > 0 || Thread.currentThread() == writer
+                || (pending.isEmpty() && inFlight.isEmpty())) {
+            return pending.isEmpty() && inFlight.isEmpty();
+        }
+        // Ein laufender Vorgang enthält die wartenden Zugriffe noch nicht
+        long target = completedFlushes + (inFlight.isEmpty() ? 1 : 2);
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        flushRequested = true;
+        notifyAll();
+        try {
+            while (running && (!pending.isEmpty() || !inFlight.isEmpty()) && completedFlushes < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return pending.isEmpty() && inFlight.isEmpty();
+    }
+
+    private boolean isFlushDue() {
+        return failures == 0 && (flushRequested || pending.size() >= FLUSH_THRESHOLD);
+    }
+
+    /**
+     * @return Wartezeit bis zum nächsten Schreibvorgang, nach Fehlern verdoppelt
+     */
+    private long nextInterval() {
+        if (failures == 0) {
+            return FLUSH_INTERVAL_MS;
+        }
+        return Math.min(MAX_RETRY_INTERVAL_MS, FLUSH_INTERVAL_MS << Math.min(failures, 16));
+    }
+
+    /**
+     * Startet den Schreib-Thread
+     * @param flushAction Schreibt die wartenden Zugriffe, wird nur von diesem Thread aufgerufen
+     */
+    synchronized void start(Runnable flushAction) {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(() -> {
+            while (running) {
+                synchronized (this) {
+                    try {
+                        // Nach Fehlern wird auch auf Anforderung nicht früher geschrieben
+                        long deadline = System.currentTimeMillis() + nextInterval();
+                        long remaining;
+                        while (running && !isFlushDue() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                            wait(remaining);
+                        }
+                        flushRequested = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                try {
+                    flushAction.run();
+                } catch (RuntimeException e) {
+                    LOGGER.severe("Fehler im Schreib-Thread: " + e.getMessage());
+                    e.printStackTrace();
+                    requeueUnwritten(true);
+                }
+            }
+        }, "DB-Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Beendet den Schreib-Thread und wartet, bis ein laufender Schreibvorgang fertig ist.
+     * Danach noch wartende Zugriffe muss der Aufrufer selbst schreiben.
+     */
+    void stop() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            notifyAll();
+            thread = writer;
+            writer = null;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Object keyOf(PendingWrite write) {
+        switch (write.kind) {
+            case STAT:          return "STAT\u0000" + write.providerName + "\u0000" + write.statType;
+            case NOTES:         return "NOTES\u0000" + write.providerName;
+            case RISK_CATEGORY: return "RISK\u0000" + write.providerName;
+            default:            return ++auditSequence;
+        }
+    }
+}
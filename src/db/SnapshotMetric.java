@@ -0,0 +1,72 @@
+package db;
+
+import java.util.Arrays;
+
+/**
+ * Kennzahlen, die als Snapshot je Provider und Tag in der Tabelle
+ * stat_snapshots gespeichert werden. Jede Kennzahl ist eine eigene
+ * DOUBLE-Spalte; Wertearrays sind nach {@link #ordinal()} indiziert.
+ *
+ * Für neu hinzugefügte Kennzahlen wird die Spalte beim Start ergänzt.
+ */
+public enum SnapshotMetric {
+    BALANCE("balance", "Balance"),
+    MPDD_3("mpdd3", "3MPDD"),
+    MPDD_6("mpdd6", "6MPDD"),
+    MPDD_9("mpdd9", "9MPDD"),
+    MPDD_12("mpdd12", "12MPDD"),
+    PROFIT_3M("profit_3m", "3MProfProz"),
+    TRADES("trades", "Trades"),
+    TRADE_DAYS("trade_days", "Trade Days"),
+    DAYS("days", "Days"),
+    WIN_RATE("win_rate", "Win Rate %"),
+    TOTAL_PROFIT("total_profit", "Total Profit"),
+    AVG_PROFIT("avg_profit", "Avg Profit/Trade"),
+    MAX_DRAWDOWN("max_drawdown", "Max Drawdown %"),
+    EQUITY_DRAWDOWN("equity_drawdown", "Equity Drawdown %"),
+    PROFIT_FACTOR("profit_factor", "Profit Factor"),
+    MAX_TRADES("max_trades", "MaxTrades"),
+    MAX_LOTS("max_lots", "MaxLots"),
+    MAX_DURATION("max_duration", "Max Duration (h)"),
+    RISK_SCORE("risk_score", "Risk Score"),
+    STABILITY("stability", "Stabilitaet"),
+    SLOPE("slope", "Steigung"),
+    MAX_DD_GRAPHIC("max_dd_graphic", "MaxDDGraphic"),
+    EQUITY_DRAWDOWN_3M("equity_drawdown_3m", "EquityDrawdown3M%");
+
+    private final String columnName;
+    private final String displayName;
+
+    SnapshotMetric(String columnName, String displayName) {
+        this.columnName = columnName;
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return Spaltenname in stat_snapshots
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * @return Anzeigename, entspricht der Spaltenüberschrift der Haupttabelle
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return Ein neues Wertearray, alle Werte fehlen (NaN)
+     */
+    public static double[] emptyValues() {
+        double[] values = new double[values().length];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,233 @@
+package db;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import db.HistoryDatabaseManager.HistoryEntry;
+
+/**
+ * Verdichtete Statistikwerte eines Zeitraums (Woche oder Monat) mit Minimum,
+ * Maximum und letztem Wert. Ältere Rohwerte werden vom Aufräumjob in die
+ * Tabelle stat_rollups überführt; Abfragen über lange Zeiträume lesen
+ * stattdessen diese Verdichtungen.
+ */
+public class StatRollup {
+
+    /**
+     * Auflösung einer Historienabfrage
+     */
+    public enum Resolution {
+        RAW(null),
+        WEEKLY("W"),
+        MONTHLY("M");
+
+        // Bis zu dieser Zeitspanne werden Rohwerte bzw. Wochenwerte geliefert
+        private static final long MAX_RAW_DAYS = 2 * 365;
+        private static final long MAX_WEEKLY_DAYS = 5 * 365;
+
+        private final String code;
+
+        Resolution(String code) {
+            this.code = code;
+        }
+
+        /**
+         * @return Kennung in der Spalte resolution oder null für Rohwerte
+         */
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * @return Erster Tag des Zeitraums, in den das Datum fällt
+         */
+        public LocalDate periodStart(LocalDate date) {
+            switch (this) {
+                case WEEKLY:  return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTHLY: return date.withDayOfMonth(1);
+                default:      return date;
+            }
+        }
+
+        /**
+         * Wählt die Auflösung für eine Zeitspanne. Ohne Anfang wird die volle
+         * Historie angenommen, die dank der Verdichtung bereits begrenzt ist.
+         */
+        public static Resolution forRange(LocalDateTime from, LocalDateTime to) {
+            if (from == null) {
+                return RAW;
+            }
+            long days = ChronoUnit.DAYS.between(from, to != null ? to : LocalDateTime.now());
+            if (days <= MAX_RAW_DAYS) {
+                return RAW;
+            }
+            return days <= MAX_WEEKLY_DAYS ? WEEKLY : MONTHLY;
+        }
+    }
+
+    private final LocalDate periodStart;
+    private LocalDateTime lastDate;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double last;
+    // Der letzte Wert wurde aus Tradedaten rekonstruiert
+    private boolean synthetic;
+    private int count;
+
+    public StatRollup(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    StatRollup(LocalDate periodStart, LocalDateTime lastDate, double min, double max, double last, int count,
+            boolean synthetic) {
+        this.periodStart = periodStart;
+        this.lastDate = lastDate;
+        this.min = min;
+        this.max = max;
+        this.last = last;
+        this.count = count;
+        this.synthetic = synthetic;
+    }
+
+    /**
+     * Nimmt einen Rohwert in die Verdichtung auf
+     *
+     * @param synthetic true, wenn der Wert aus Tradedaten rekonstruiert wurde
+     */
+    public void add(LocalDateTime date, double value, boolean synthetic) {
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (lastDate == null || !date.isBefore(lastDate)) {
+            lastDate = date;
+            last = value;
+            this.synthetic = synthetic;
+        }
+        count++;
+    }
+
+    /**
+     * Führt eine Verdichtung desselben Zeitraums hinzu
+     */
+    public void merge(StatRollup other) {
+        if (other.count == 0) {
+            return;
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        if (lastDate == null || !other.lastDate.isBefore(lastDate)) {
+            lastDate = other.lastDate;
+            last = other.last;
+            synthetic = other.synthetic;
+        }
+        count += other.count;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    /**
+     * @return Zeitpunkt des letzten Werts im Zeitraum
+     */
+    public LocalDateTime getLastDate() {
+        return lastDate;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getLast() {
+        return last;
+    }
+
+    /**
+     * @return true, wenn der letzte Wert aus Tradedaten rekonstruiert wurde
+     */
+    public boolean isSynthetic() {
+        return synthetic;
+    }
+
+    /**
+     * @return Anzahl der verdichteten Rohwerte
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return Der letzte Wert des Zeitraums als Historieneintrag
+     */
+    public HistoryEntry toHistoryEntry() {
+        return new HistoryEntry(lastDate, last, synthetic);
+    }
+
+    /**
+     * Verdichtet Rohwerte und führt sie mit bereits gespeicherten Verdichtungen
+     * derselben Auflösung zusammen
+     *
+     * @return Verdichtungen aufsteigend nach Zeitraum
+     */
+    public static List<StatRollup> aggregate(List<HistoryEntry> entries, List<StatRollup> stored, Resolution resolution) {
+        Map<LocalDate, StatRollup> buckets = new TreeMap<>();
+        for (StatRollup rollup : stored) {
+            buckets.computeIfAbsent(rollup.periodStart, StatRollup::new).merge(rollup);
+        }
+        for (HistoryEntry entry : entries) {
+            LocalDate start = resolution.periodStart(entry.getDate().toLocalDate());
+            buckets.computeIfAbsent(start, StatRollup::new).add(entry.getDate(), entry.getValue(), entry.isSynthetic());
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * Setzt eine Historie aus Quellen unterschiedlicher Auflösung zusammen. Die
+     * feinste Quelle wird vollständig übernommen, jede gröbere nur für die Zeit
+     * vor dem frühesten bereits übernommenen Eintrag.
+     *
+     * @param sourcesFinestFirst Quellen, die feinste zuerst
+     * @return Einträge absteigend nach Datum
+     */
+    @SafeVarargs
+    public static List<HistoryEntry> stitch(List<HistoryEntry>... sourcesFinestFirst) {
+        List<HistoryEntry> result = new ArrayList<>();
+        LocalDateTime earliest = null;
+        for (List<HistoryEntry> source : sourcesFinestFirst) {
+            LocalDateTime sourceEarliest = earliest;
+            for (HistoryEntry entry : source) {
+                if (earliest == null || entry.getDate().isBefore(earliest)) {
+                    result.add(entry);
+                    if (sourceEarliest == null || entry.getDate().isBefore(sourceEarliest)) {
+                        sourceEarliest = entry.getDate();
+                    }
+                }
+            }
+            earliest = sourceEarliest;
+        }
+        result.sort(Comparator.comparing(HistoryEntry::getDate).reversed());
+        return result;
+    }
+
+    /**
+     * @return Die letzten Werte der Verdichtungen als Historieneinträge
+     */
+    public static List<HistoryEntry> toHistoryEntries(List<StatRollup> rollups) {
+        List<HistoryEntry> entries = new ArrayList<>(rollups.size());
+        for (StatRollup rollup : rollups) {
+            entries.add(rollup.toHistoryEntry());
+        }
+        return entries;
+    }
+}
@@ -1,6 +1,7 @@
 package models;
 
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -12,6 +13,7 @@ import javax.swing.table.DefaultTableModel;
 import data.ProviderStats;
 import data.Trade;
 import db.HistoryDatabaseManager;
+import db.SnapshotMetric;
 import services.RiskAnalysisServ;
 import utils.HtmlDatabase;
 
@@ -173,6 +175,9 @@ public class HighlightTableModel extends DefaultTableModel {
   public void populateData(Map<String, ProviderStats> statsMap) {
 	    setRowCount(0);
 	    int rowNum = 1;
+	    
+	    // Risiko-Kategorien einmal für alle Zeilen aus dem Speicher holen
+	    Map<String, Integer> riskCategories = dbManager.getAllProviderRiskCategories();
 
 	    for (Map.Entry<String, ProviderStats> entry : statsMap.entrySet()) {
 	        String providerName = entry.getKey();
@@ -200,8 +205,7 @@ public class HighlightTableModel extends DefaultTableModel {
 	        double mpdd9 = calculateMPDD(nineMonthProfit, equityDrawdown);
 	        double mpdd12 = calculateMPDD(twelveMonthProfit, equityDrawdown);
 	        
-	        // Risiko-Kategorie aus der Datenbank laden
-	        int riskCategory = dbManager.getProviderRiskCategory(providerName);
+	        int riskCategory = riskCategories.getOrDefault(providerName, 0);
 	        stats.setRiskCategory(riskCategory);
 	        
 	        int riskScore = RiskAnalysisServ.calculateRiskScore(stats);
@@ -282,7 +286,7 @@ public class HighlightTableModel extends DefaultTableModel {
 	    double mpdd9 = calculateMPDD(nineMonthProfit, equityDrawdown);
 	    double mpdd12 = calculateMPDD(twelveMonthProfit, equityDrawdown);
 	    
-	    // Risiko-Kategorie aus der Datenbank laden
+	    // Risiko-Kategorie aus dem Speicher des DatabaseManagers
 	    int riskCategory = dbManager.getProviderRiskCategory(providerName);
 	    stats.setRiskCategory(riskCategory);
 	    
@@ -348,6 +352,25 @@ public class HighlightTableModel extends DefaultTableModel {
 	    };
 	}
 	
+	/**
+	 * Überträgt die numerischen Spalten einer Tabellenzeile in ein Snapshot-Wertearray.
+	 * Die Zuordnung erfolgt über die Spaltenüberschrift der jeweiligen Kennzahl.
+	 * 
+	 * @param rowData Zeile aus {@link #createRowDataForProvider(String, ProviderStats)}
+	 * @return Werte nach {@link SnapshotMetric#ordinal()} indiziert, NaN für fehlende Werte
+	 */
+	public double[] createSnapshotValues(Object[] rowData) {
+	    double[] values = SnapshotMetric.emptyValues();
+	    List<String> columns = Arrays.asList(COLUMN_NAMES);
+	    for (SnapshotMetric metric : SnapshotMetric.values()) {
+	        int column = columns.indexOf(metric.getDisplayName());
+	        if (column >= 0 && column < rowData.length && rowData[column] instanceof Number) {
+	            values[metric.ordinal()] = ((Number) rowData[column]).doubleValue();
+	        }
+	    }
+	    return values;
+	}
+	
 	// Methode zum Erstellen eines Tooltips für Währungspaare
     public String buildCurrencyPairsTooltip(ProviderStats stats) {
         Map<String, Long> currencyPairCounts = stats.getTrades().stream()
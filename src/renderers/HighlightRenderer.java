@@ -2,6 +2,7 @@ package renderers;
 
 import java.awt.Color;
 import java.awt.Component;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -10,6 +11,8 @@ import javax.swing.JLabel;
 import javax.swing.JTable;
 import javax.swing.table.DefaultTableCellRenderer;
 
+import data.FavoritesChangeEvent;
+import data.FavoritesChangeListener;
 import data.FavoritesManager;
 import utils.ApplicationConstants;
 import utils.UIStyle;
@@ -40,6 +43,7 @@ public class HighlightRenderer extends DefaultTableCellRenderer {
     
     private String searchText = "";
     private final FavoritesManager favoritesManager;
+    private final FavoritesChangeListener favoritesListener;
     
     // Cache für Provider-Status, IDs und Kategorien, um wiederholte Abfragen zu vermeiden
     private final Map<String, String> providerIdCache = new HashMap<>();
@@ -51,11 +55,10 @@ public class HighlightRenderer extends DefaultTableCellRenderer {
         // Verwende die Singleton-Instanz vom FavoritesManager
         this.favoritesManager = FavoritesManager.getInstance(ApplicationConstants.ROOT_PATH);
         
-        // Registriere einen Listener für Änderungen an den Favoriten
-        this.favoritesManager.addFavoritesChangeListener(() -> {
-            clearCache();
-            LOGGER.info("Cache in HighlightRenderer durch Listener-Callback geleert");
-        });
+        // Registriere einen Listener für Änderungen an den Favoriten:
+        // nur die Cache-Einträge der geänderten Provider werden verworfen
+        this.favoritesListener = this::onFavoritesChanged;
+        this.favoritesManager.addFavoritesChangeListener(favoritesListener);
         
         LOGGER.info("HighlightRenderer mit FavoritesManager initialisiert");
     }
@@ -171,9 +174,7 @@ public class HighlightRenderer extends DefaultTableCellRenderer {
             return favoriteCache.get(providerId);
         }
         
-        // Hole immer die neueste Instance des FavoritesManager
-        FavoritesManager currentFavoritesManager = FavoritesManager.getInstance(ApplicationConstants.ROOT_PATH);
-        boolean isFavorite = currentFavoritesManager.isFavorite(providerId);
+        boolean isFavorite = favoritesManager.isFavorite(providerId);
         favoriteCache.put(providerId, isFavorite);
         return isFavorite;
     }
@@ -188,9 +189,7 @@ public class HighlightRenderer extends DefaultTableCellRenderer {
             return favoriteCategoryCache.get(providerId);
         }
         
-        // Hole immer die neueste Instance des FavoritesManager
-        FavoritesManager currentFavoritesManager = FavoritesManager.getInstance(ApplicationConstants.ROOT_PATH);
-        int category = currentFavoritesManager.getFavoriteCategory(providerId);
+        int category = favoritesManager.getFavoriteCategory(providerId);
         favoriteCategoryCache.put(providerId, category);
         return category;
     }
@@ -203,9 +202,7 @@ public class HighlightRenderer extends DefaultTableCellRenderer {
             return badProviderCache.get(providerId);
         }
         
-        // Hole immer die neueste Instance des FavoritesManager
-        FavoritesManager currentFavoritesManager = FavoritesManager.getInstance(ApplicationConstants.ROOT_PATH);
-        boolean isBad = currentFavoritesManager.isBadProvider(providerId);
+        boolean isBad = favoritesManager.isBadProvider(providerId);
         badProviderCache.put(providerId, isBad);
         return isBad;
     }
@@ -231,6 +228,39 @@ public class HighlightRenderer extends DefaultTableCellRenderer {
         return "";
     }
     
+    /**
+     * Verarbeitet eine Favoriten-Änderung
+     * @param event Das Änderungsereignis
+     */
+    private void onFavoritesChanged(FavoritesChangeEvent event) {
+        if (event.isFullReload()) {
+            clearCache();
+            LOGGER.info("Cache in HighlightRenderer durch Listener-Callback geleert");
+        } else {
+            invalidateProviders(event.getChangedProviderIds());
+        }
+    }
+    
+    /**
+     * Entfernt nur die Status-Einträge der angegebenen Provider aus dem Cache
+     * @param providerIds Die geänderten Provider-IDs
+     */
+    public void invalidateProviders(Collection<String> providerIds) {
+        for (String providerId : providerIds) {
+            favoriteCache.remove(providerId);
+            favoriteCategoryCache.remove(providerId);
+            badProviderCache.remove(providerId);
+        }
+    }
+    
+    /**
+     * Meldet den Renderer vom FavoritesManager ab. Sollte aufgerufen werden,
+     * wenn der Renderer durch eine neue Instanz ersetzt wird.
+     */
+    public void detachFromFavorites() {
+        favoritesManager.removeFavoritesChangeListener(favoritesListener);
+    }
+    
     /**
      * Leert alle Caches für Provider-Status, IDs und Kategorien
      */
@@ -82,7 +82,7 @@ public class ReportGenerator {
         this.rootPath = ApplicationConstants.validateRootPath(rootPath, "ReportGenerator.constructor");
         this.htmlDatabase = htmlDatabase;
         this.historyDbManager = HistoryDatabaseManager.getInstance(rootPath);
-        this.favoritesManager = new FavoritesManager(rootPath);
+        this.favoritesManager = FavoritesManager.getInstance(rootPath);
         this.pdfManager = new PdfManager(rootPath);
         this.pdfIntegrator = new HtmlPdfIntegrator(pdfManager);
         
@@ -316,6 +316,10 @@ public class ReportGenerator {
             reportTitle += " - Kategorie " + category;
         }
         
+        // Notizen und Risikoklassen einmal für den ganzen Report aus dem Speicher holen
+        Map<String, String> notesByProvider = historyDbManager.getAllProviderNotes();
+        Map<String, Integer> riskCategories = historyDbManager.getAllProviderRiskCategories();
+        
         try (Writer writer = new OutputStreamWriter(new FileOutputStream(reportPath), StandardCharsets.UTF_8)) {
             // HTML-Header schreiben (jetzt mit PDF-CSS)
             writer.write(generateHtmlHeader(reportTitle, timestamp));
@@ -374,11 +378,11 @@ public class ReportGenerator {
                     writer.write(pdfLinksHtml);
                 }
                 
-                // Lade Notizen aus der Datenbank
-                String notes = historyDbManager.getProviderNotes(providerName);
+                // Notizen aus der Momentaufnahme
+                String notes = notesByProvider.get(providerName);
                 
                 // Statistische Informationen
-                writer.write(generateStatsSection(stats, providerName));
+                writer.write(generateStatsSection(stats, providerName, riskCategories.getOrDefault(providerName, 0)));
                 
                 // Notizen anzeigen, falls vorhanden
                 if (notes != null && !notes.trim().isEmpty()) {
@@ -417,9 +421,10 @@ public class ReportGenerator {
      * 
      * @param stats Die Provider-Statistiken
      * @param providerName Der Provider-Name
+     * @param riskCategory Die Risikoklasse des Providers
      * @return HTML-String für die Statistik-Sektion
      */
-    private String generateStatsSection(ProviderStats stats, String providerName) {
+    private String generateStatsSection(ProviderStats stats, String providerName, int riskCategory) {
         StringBuilder htmlBuilder = new StringBuilder();
         
         htmlBuilder.append("<div class=\"stats-info\">\n");
@@ -445,8 +450,7 @@ public class ReportGenerator {
         htmlBuilder.append("<tr><td>Equity Drawdown</td><td>").append(String.format("%.2f%%", equityDrawdown)).append("</td></tr>\n");
         htmlBuilder.append("<tr><td>Max Drawdown</td><td>").append(String.format("%.2f%%", maxDrawdownGraphic)).append("</td></tr>\n");
         
-        // Risikoklasse aus der Datenbank laden und anzeigen
-        int riskCategory = historyDbManager.getProviderRiskCategory(providerName);
+        // Risikoklasse anzeigen
         String riskCategoryHtml = formatRiskCategoryInfo(riskCategory);
         htmlBuilder.append("<tr><td>Risikoklasse</td><td>").append(riskCategoryHtml).append("</td></tr>\n");
         
@@ -535,6 +539,10 @@ public class ReportGenerator {
                 reportImagesDir.mkdirs();
             }
             
+            // Notizen und Risikoklassen einmal für den ganzen Report aus dem Speicher holen
+            Map<String, String> notesByProvider = historyDbManager.getAllProviderNotes();
+            Map<String, Integer> riskCategories = historyDbManager.getAllProviderRiskCategories();
+            
             try (Writer writer = new OutputStreamWriter(new FileOutputStream(outputPath), StandardCharsets.UTF_8)) {
                 // HTML-Header schreiben (jetzt mit PDF-CSS)
                 writer.write(generateHtmlHeader(reportTitle, timestamp));
@@ -593,11 +601,11 @@ public class ReportGenerator {
                         writer.write(pdfLinksHtml);
                     }
                     
-                    // Lade Notizen aus der Datenbank
-                    String notes = historyDbManager.getProviderNotes(providerName);
+                    // Notizen aus der Momentaufnahme
+                    String notes = notesByProvider.get(providerName);
                     
                     // Statistische Informationen
-                    writer.write(generateStatsSection(stats, providerName));
+                    writer.write(generateStatsSection(stats, providerName, riskCategories.getOrDefault(providerName, 0)));
                     
                     // Notizen anzeigen, falls vorhanden
                     if (notes != null && !notes.trim().isEmpty()) {
@@ -0,0 +1,182 @@
+package services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import data.ProviderStats;
+import data.Trade;
+import db.HistoryDatabaseManager.HistoryEntry;
+import utils.ProgressReporter;
+import utils.TaskScheduler;
+
+/**
+ * Rekonstruiert den 3MPDD-Verlauf eines Providers aus seinen Trades und
+ * Monatsprofiten in Wochenschritten, damit neue Provider sofort einen Trend haben.
+ *
+ * Je Woche (Montag 00:00) gilt:
+ * <ul>
+ * <li>Profit: Durchschnitt der drei abgeschlossenen Monate vor dem Monat des Stichtags
+ *     (wie {@code ProfitAnalyzer.getAverageMonthlyProfit}), über Präfixsummen.</li>
+ * <li>Drawdown: größter Rückgang des Kontostands (geschlossene Trades) gegenüber
+ *     dem Höchststand der jeweils vorangegangenen drei Monate, innerhalb der
+ *     letzten drei Monate vor dem Stichtag.</li>
+ * </ul>
+ * Beide Fenster werden in einem Durchlauf mit monotonen Deques verschoben,
+ * kein Stichtag liest die Trades erneut. Die Provider werden parallel berechnet.
+ */
+public class MpddBackfillService {
+    private static final Logger LOGGER = Logger.getLogger(MpddBackfillService.class.getName());
+
+    /** Länge der Profit- und Drawdown-Fenster in Monaten */
+    public static final int WINDOW_MONTHS = 3;
+
+    private MpddBackfillService() {
+    }
+
+    /**
+     * Rekonstruiert die Verläufe mehrerer Provider parallel
+     *
+     * @param stats Providername -> Statistiken
+     * @param token Abbruchsignal, wird je Provider geprüft
+     * @param progress Empfänger für den Fortschritt oder null
+     * @return Providername -> rekonstruierte Werte (aufsteigend), Provider ohne Werte fehlen
+     */
+    public static Map<String, List<HistoryEntry>> reconstructAll(Map<String, ProviderStats> stats,
+            TaskScheduler.CancellationToken token, ProgressReporter progress) {
+        Map<String, List<HistoryEntry>> result = new ConcurrentHashMap<>();
+        AtomicInteger done = new AtomicInteger();
+        int total = stats.size();
+
+        stats.entrySet().parallelStream().forEach(entry -> {
+            if (token != null && token.isCancelled()) {
+                return;
+            }
+            try {
+                List<HistoryEntry> points = reconstructWeekly3Mpdd(entry.getValue(), LocalDate.now());
+                if (!points.isEmpty()) {
+                    result.put(entry.getKey(), points);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warning("3MPDD-Verlauf für " + entry.getKey() + " nicht rekonstruierbar: " + e.getMessage());
+            }
+            if (progress != null) {
+                progress.setProgress(done.incrementAndGet(), total);
+            }
+        });
+
+        if (token != null) {
+            token.throwIfCancelled();
+        }
+        return result;
+    }
+
+    /**
+     * Rekonstruiert die wöchentlichen 3MPDD-Werte eines Providers
+     *
+     * @param stats Statistiken mit Trades, Startkapital und Monatsprofiten
+     * @param until Stichtage liegen vor diesem Tag
+     * @return Werte aufsteigend nach Datum, als synthetisch markiert
+     */
+    public static List<HistoryEntry> reconstructWeekly3Mpdd(ProviderStats stats, LocalDate until) {
+        List<HistoryEntry> points = new ArrayList<>();
+        List<Trade> trades = new ArrayList<>(stats.getTrades());
+        if (trades.isEmpty()) {
+            return points;
+        }
+        trades.sort(Comparator.comparing(Trade::getCloseTime));
+
+        // Kontostandsverlauf: Startkapital vor dem ersten Trade, danach je geschlossenem Trade
+        int n = trades.size() + 1;
+        LocalDateTime[] times = new LocalDateTime[n];
+        double[] balances = new double[n];
+        LocalDateTime firstOpen = trades.stream().map(Trade::getOpenTime).min(Comparator.naturalOrder()).get();
+        times[0] = firstOpen;
+        balances[0] = stats.getInitialBalance();
+        for (int i = 1; i < n; i++) {
+            Trade trade = trades.get(i - 1);
+            times[i] = trade.getCloseTime();
+            balances[i] = balances[i - 1] + trade.getProfit();
+        }
+
+        // Drawdown je Punkt gegenüber dem Höchststand der vorangegangenen drei Monate
+        double[] drawdowns = new double[n];
+        Deque<Integer> peaks = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            LocalDateTime windowStart = times[i].minusMonths(WINDOW_MONTHS);
+            while (!peaks.isEmpty() && times[peaks.peekFirst()].isBefore(windowStart)) {
+                peaks.pollFirst();
+            }
+            while (!peaks.isEmpty() && balances[peaks.peekLast()] <= balances[i]) {
+                peaks.pollLast();
+            }
+            peaks.addLast(i);
+            double peak = balances[peaks.peekFirst()];
+            drawdowns[i] = peak > 0 ? (peak - balances[i]) / peak * 100 : 0.0;
+        }
+
+        // Monatsprofite lückenlos vom ersten Trade-Monat an, fehlende Monate zählen als 0
+        Map<YearMonth, Double> monthly = stats.getMonthlyProfitPercentages();
+        YearMonth firstMonth = YearMonth.from(firstOpen);
+        YearMonth lastMonth = YearMonth.from(until);
+        int months = (int) firstMonth.until(lastMonth, ChronoUnit.MONTHS) + 1;
+        double[] prefix = new double[months + 1];
+        for (int m = 0; m < months; m++) {
+            Double profit = monthly != null ? monthly.get(firstMonth.plusMonths(m)) : null;
+            prefix[m + 1] = prefix[m] + (profit != null ? profit : 0.0);
+        }
+
+        // Stichtage: jeder Montag, sobald drei volle Monate vor dem Stichtag-Monat liegen
+        LocalDate firstDay = firstMonth.plusMonths(WINDOW_MONTHS).atDay(1)
+                .with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        Deque<Integer> worst = new ArrayDeque<>();
+        int next = 0;
+        for (LocalDate day = firstDay; day.isBefore(until); day = day.plusWeeks(1)) {
+            LocalDateTime at = day.atStartOfDay();
+            LocalDateTime windowStart = at.minusMonths(WINDOW_MONTHS);
+
+            // Punkte bis zum Stichtag aufnehmen, ältere als das Fenster verwerfen
+            while (next < n && !times[next].isAfter(at)) {
+                while (!worst.isEmpty() && drawdowns[worst.peekLast()] <= drawdowns[next]) {
+                    worst.pollLast();
+                }
+                worst.addLast(next++);
+            }
+            while (!worst.isEmpty() && times[worst.peekFirst()].isBefore(windowStart)) {
+                worst.pollFirst();
+            }
+            if (next == n && times[n - 1].isBefore(windowStart)) {
+                // Keine Trades mehr im Fenster, der Provider handelt nicht mehr
+                break;
+            }
+
+            int monthIndex = (int) firstMonth.until(YearMonth.from(day), ChronoUnit.MONTHS);
+            double averageProfit = (prefix[monthIndex] - prefix[monthIndex - WINDOW_MONTHS]) / WINDOW_MONTHS;
+            double drawdown = worst.isEmpty() ? 0.0 : drawdowns[worst.peekFirst()];
+            points.add(new HistoryEntry(at, calculateMpdd(averageProfit, drawdown), true));
+        }
+        return points;
+    }
+
+    /**
+     * Profit je Drawdown wie in {@code HighlightTableModel.calculateMPDD}
+     */
+    private static double calculateMpdd(double monthlyProfitPercent, double drawdown) {
+        if (drawdown == 0.0) {
+            return 0.0;
+        }
+        return monthlyProfitPercent / drawdown;
+    }
+}
@@ -2,19 +2,34 @@ package services;
 
 import java.io.File;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
+import data.ProviderStats;
+import db.ConnectionPool;
+import db.DatabaseBackupManager.BackupResult;
 import db.HistoryDatabaseManager;
 import db.HistoryDatabaseManager.HistoryEntry;
+import db.HistoryDatabaseManager.HistoryRow;
+import db.HistoryDatabaseManager.IntegrityReport;
+import db.HistoryDatabaseManager.StatValue;
+import db.SnapshotMetric;
 import utils.ApplicationConstants;
 import utils.HtmlDatabase;
 import utils.MqlAnalyserConf;
+import utils.TaskScheduler;
 
 /**
  * Service für die Verwaltung und Speicherung von historischen Statistik-Werten für Signal Provider
@@ -33,6 +48,13 @@ public class ProviderHistoryService {
     
     // Schlüssel für die Preferences
     private static final String PREF_LAST_WEEKLY_SAVE = "last_weekly_stat_save";
+    private static final String PREF_LAST_SNAPSHOT_DATE = "last_metric_snapshot_date";
+    
+    // Provider mit weniger 3MPDD-Werten bekommen einen rekonstruierten Verlauf
+    public static final int MIN_3MPDD_HISTORY_POINTS = 4;
+    
+    // In dieser Sitzung bereits für die Rekonstruktion geprüfte Provider
+    private final Set<String> backfilledProviders = ConcurrentHashMap.newKeySet();
     
     // Neues Feld zur Speicherung des letzten Datenbestands
     private int lastKnownDataCount = 0;
@@ -89,40 +111,22 @@ public class ProviderHistoryService {
 
     /**
      * Lädt die zuletzt gespeicherten Werte aller Provider aus der Datenbank
-     * und speichert sie im Cache, um unnötige Speicheroperationen zu vermeiden
+     * und speichert sie im Cache, um unnötige Speicheroperationen zu vermeiden.
+     * Die Werte stammen aus einer einzigen gruppierten Abfrage des
+     * HistoryDatabaseManager, es gibt also keine Abfrage pro Provider.
      */
     private void loadExistingValues() {
-        if (rootPath == null) {
-            LOGGER.warning("Root-Pfad nicht gesetzt. Konnte existierende Werte nicht laden.");
-            return;
-        }
-        
         LOGGER.info("Lade bestehende Statistik-Werte...");
         
         try {
-            // Hole alle CSV-Dateien im Root-Verzeichnis
-            File downloadDirectory = new File(rootPath);
-            if (downloadDirectory.exists() && downloadDirectory.isDirectory()) {
-                File[] files = downloadDirectory.listFiles((dir, name) -> name.toLowerCase().endsWith(".csv"));
-                
-                if (files != null) {
-                    for (File file : files) {
-                        String providerName = file.getName();
-                        
-                        // Hole den letzten 3MPDD-Wert für diesen Provider aus der Datenbank
-                        Double mpddValue = dbManager.getLatestStatValue(providerName, STAT_TYPE_3MPDD);
-                        
-                        if (mpddValue != null) {
-                            // Speichere den Wert im Cache
-                            getProviderCache(providerName).put(STAT_TYPE_3MPDD, mpddValue);
-                            LOGGER.fine("Letzter 3MPDD-Wert für " + providerName + " geladen: " + mpddValue);
-                        }
-                        
-                        // Hier können später weitere Statistik-Typen hinzugefügt werden
-                    }
-                }
+            // Letzte 3MPDD-Werte aller Provider in einem Durchgang übernehmen
+            Map<String, Double> mpddValues = dbManager.getLatestStatValues(STAT_TYPE_3MPDD);
+            for (Map.Entry<String, Double> entry : mpddValues.entrySet()) {
+                getProviderCache(entry.getKey()).put(STAT_TYPE_3MPDD, entry.getValue());
             }
             
+            // Hier können später weitere Statistik-Typen hinzugefügt werden
+            
             LOGGER.info("Bestehende Statistik-Werte für " + lastValues.size() + " Provider geladen");
         } catch (Exception e) {
             LOGGER.warning("Fehler beim Laden bestehender Statistik-Werte: " + e.getMessage());
@@ -188,11 +192,12 @@ public class ProviderHistoryService {
     
     /**
      * Erstellt ein Backup der Datenbank, wenn genügend Zeit seit dem letzten Backup vergangen ist
-     * oder wenn force=true
+     * oder wenn force=true. Das Backup läuft im Hintergrund, die Methode kehrt sofort zurück.
      * 
      * @param force Wenn true, wird ein Backup unabhängig von der vergangenen Zeit erstellt
+     * @return Future mit dem Ergebnis oder null, wenn kein Backup nötig war
      */
-    private void createBackupIfNeeded(boolean force) {
+    private CompletableFuture<BackupResult> createBackupIfNeeded(boolean force) {
         long lastBackupTime = prefs.getLong(PREF_LAST_BACKUP_TIME, 0);
         long currentTime = System.currentTimeMillis();
         
@@ -201,14 +206,9 @@ public class ProviderHistoryService {
         
         if (force || hoursSinceLastBackup >= MIN_HOURS_BETWEEN_BACKUPS) {
             LOGGER.info("Erstelle Datenbank-Backup" + (force ? " (erzwungen)" : ""));
-            
-            boolean success = dbManager.createBackup();
-            if (success) {
-                // Speichere den Zeitpunkt des Backups
-                prefs.putLong(PREF_LAST_BACKUP_TIME, currentTime);
-                LOGGER.info("Datenbank-Backup erfolgreich erstellt");
-            }
+            return createBackupAsync();
         }
+        return null;
     }
     
     /**
@@ -235,6 +235,9 @@ public class ProviderHistoryService {
             // Aktualisiere den Datenbestand nach der Speicherung
             saveCurrentDataCount();
             
+            // Alte Werte verdichten und die Datenbankdatei komprimieren
+            applyRetentionAsync();
+            
             LOGGER.info("Wöchentliche Statistik-Speicherung abgeschlossen. Nächste Speicherung ab: " + today.plusDays(7));
         } else {
             LOGGER.fine("Letzte wöchentliche Speicherung war am " + lastSaveDate + 
@@ -264,6 +267,62 @@ public class ProviderHistoryService {
         return null;
     }
     
+    /**
+     * @return true, wenn seit dem letzten Kennzahlen-Snapshot mindestens 7 Tage vergangen sind
+     */
+    public boolean isWeeklySnapshotDue() {
+        String dateStr = prefs.get(PREF_LAST_SNAPSHOT_DATE, null);
+        if (dateStr == null) {
+            return true;
+        }
+        try {
+            return ChronoUnit.DAYS.between(LocalDate.parse(dateStr), LocalDate.now()) >= 7;
+        } catch (Exception e) {
+            LOGGER.warning("Fehler beim Parsen des letzten Snapshot-Datums: " + e.getMessage());
+            return true;
+        }
+    }
+    
+    /**
+     * Speichert die Kennzahlen aller übergebenen Provider als Snapshot des heutigen Tages
+     * 
+     * @param valuesByProvider Providername -> Werte, nach {@link SnapshotMetric#ordinal()} indiziert
+     * @return Anzahl gespeicherter Provider oder -1 bei einem Fehler
+     */
+    public int storeMetricSnapshots(Map<String, double[]> valuesByProvider) {
+        if (dbManager == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return -1;
+        }
+        LocalDate today = LocalDate.now();
+        int stored = dbManager.storeSnapshots(today, valuesByProvider);
+        if (stored >= 0) {
+            prefs.put(PREF_LAST_SNAPSHOT_DATE, today.toString());
+        }
+        return stored;
+    }
+    
+    /**
+     * Holt den Verlauf einer Kennzahl aus den Snapshots
+     * 
+     * @param providerName Signal Provider Name
+     * @param metric Die Kennzahl
+     * @return Liste von Werten mit Zeitstempeln
+     */
+    public List<HistoryEntry> getSnapshotHistory(String providerName, SnapshotMetric metric) {
+        return dbManager.getSnapshotHistory(providerName, metric);
+    }
+    
+    /**
+     * Holt alle Snapshots eines Providers
+     * 
+     * @param providerName Signal Provider Name
+     * @return Tag -> Werte, nach {@link SnapshotMetric#ordinal()} indiziert
+     */
+    public SortedMap<LocalDate, double[]> getSnapshots(String providerName) {
+        return dbManager.getSnapshots(providerName);
+    }
+    
     /**
      * Speichert einen statistischen Wert für einen Signal Provider und
      * prüft auf Änderungen im Vergleich zum letzten gespeicherten Wert
@@ -340,6 +399,40 @@ public class ProviderHistoryService {
         return storeStatValue(providerName, STAT_TYPE_3MPDD, mpddValue, force);
     }
     
+    /**
+     * Speichert die 3MPDD-Werte vieler Provider in einer einzigen Transaktion.
+     * Unveränderte Werte werden schon anhand des Caches verworfen.
+     * 
+     * @param mpddValues Provider-Name -> 3MPDD-Wert
+     * @return Anzahl der neu gespeicherten Werte oder -1 bei einem Fehler
+     */
+    public int store3MpddValues(Map<String, Double> mpddValues) {
+        List<StatValue> changedValues = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : mpddValues.entrySet()) {
+            Double lastValue = getProviderCache(entry.getKey()).get(STAT_TYPE_3MPDD);
+            if (lastValue == null || Math.abs(lastValue - entry.getValue()) > 0.001) {
+                changedValues.add(new StatValue(entry.getKey(), STAT_TYPE_3MPDD, entry.getValue()));
+            }
+        }
+        
+        if (changedValues.isEmpty()) {
+            LOGGER.fine("Alle " + mpddValues.size() + " 3MPDD-Werte unverändert");
+            return 0;
+        }
+        
+        int stored = dbManager.storeStatValues(changedValues, false);
+        if (stored >= 0) {
+            for (StatValue value : changedValues) {
+                getProviderCache(value.getProviderName()).put(STAT_TYPE_3MPDD, value.getValue());
+            }
+            if (stored > 0) {
+                // Aktualisiere den gespeicherten Datenbestand einmal für den gesamten Batch
+                saveCurrentDataCount();
+            }
+        }
+        return stored;
+    }
+    
     /**
      * Speichert statistische Werte für alle Signal Provider
      * 
@@ -356,20 +449,20 @@ public class ProviderHistoryService {
         // Für jeden Provider in der HTML-Datenbank
         Map<String, Map<String, Double>> currentValues = collectAllStatValues(htmlDb);
         
+        List<StatValue> values = new ArrayList<>();
         for (Map.Entry<String, Map<String, Double>> entry : currentValues.entrySet()) {
-            String providerName = entry.getKey();
-            Map<String, Double> statValues = entry.getValue();
-            
-            // Alle Statistiktypen für diesen Provider speichern
-            for (Map.Entry<String, Double> statEntry : statValues.entrySet()) {
-                String statType = statEntry.getKey();
-                double value = statEntry.getValue();
-                
-                // Wert speichern (mit forceUpdate)
-                dbManager.storeStatValue(providerName, statType, value, forceUpdate);
-                
-                // Cache aktualisieren
-                getProviderCache(providerName).put(statType, value);
+            // Alle Statistiktypen für diesen Provider sammeln
+            for (Map.Entry<String, Double> statEntry : entry.getValue().entrySet()) {
+                values.add(new StatValue(entry.getKey(), statEntry.getKey(), statEntry.getValue()));
+            }
+        }
+        
+        // Alle Werte in einer Transaktion speichern (mit forceUpdate)
+        int stored = dbManager.storeStatValues(values, forceUpdate);
+        if (stored >= 0) {
+            // Cache aktualisieren
+            for (StatValue value : values) {
+                getProviderCache(value.getProviderName()).put(value.getStatType(), value.getValue());
             }
         }
         
@@ -387,8 +480,8 @@ public class ProviderHistoryService {
         }
         
         try {
-            // Erstelle ein Backup vor der initialen Speicherung
-            createBackupIfNeeded(true);
+            // Erstelle ein Backup vor der initialen Speicherung und warte darauf
+            createBackupIfNeeded(true).join();
             
             // Hole alle CSV-Dateien im Root-Verzeichnis
             File downloadDirectory = new File(rootPath);
@@ -499,9 +592,26 @@ public class ProviderHistoryService {
     public List<HistoryEntry> getStatHistory(String providerName, String statType) {
         return dbManager.getStatHistory(providerName, statType);
     }
+    
+    /**
+     * Holt die Historie eines Zeitraums; lange Zeiträume werden als Wochen-
+     * oder Monatswerte geliefert
+     * 
+     * @param providerName Signal Provider Name
+     * @param statType Art des statistischen Werts
+     * @param from Frühestes Datum oder null
+     * @param to Spätestes Datum oder null
+     * @return Liste von Werten mit Zeitstempeln
+     */
+    public List<HistoryEntry> getStatHistory(String providerName, String statType, 
+            LocalDateTime from, LocalDateTime to) {
+        return dbManager.getStatHistory(providerName, statType, from, to);
+    }
 
     /**
-     * Holt alle Historieneinträge für alle Provider und Statistiktypen
+     * Holt alle Historieneinträge für alle Provider und Statistiktypen.
+     * Die Einträge werden mit einer einzigen sortierten Abfrage gelesen und
+     * beim Lesen gruppiert.
      * 
      * @return Map mit Providername als Schlüssel und einer Map von Statistiktypen zu HistoryEntry-Listen als Wert
      */
@@ -511,35 +621,45 @@ public class ProviderHistoryService {
             return new HashMap<>();
         }
         
-        Map<String, Map<String, List<HistoryEntry>>> result = new HashMap<>();
-        
-        try {
-            // Alle Provider abrufen
-            List<String> allProviders = dbManager.getAllProviders();
-            
-            // Für jeden Provider alle Stats abrufen
-            for (String providerName : allProviders) {
-                Map<String, List<HistoryEntry>> providerStats = new HashMap<>();
-                
-                // 3MPDD-Historie abrufen
-                List<HistoryEntry> mpddHistory = dbManager.getStatHistory(providerName, STAT_TYPE_3MPDD);
-                if (!mpddHistory.isEmpty()) {
-                    providerStats.put(STAT_TYPE_3MPDD, mpddHistory);
-                }
-                
-                // Hier können weitere Statistiktypen hinzugefügt werden, wenn sie implementiert werden
-                
-                if (!providerStats.isEmpty()) {
-                    result.put(providerName, providerStats);
-                }
-            }
-            
-            return result;
-        } catch (Exception e) {
-            LOGGER.severe("Fehler beim Abrufen aller Historieneinträge: " + e.getMessage());
-            e.printStackTrace();
-            return new HashMap<>();
+        Map<String, Map<String, List<HistoryEntry>>> result = new LinkedHashMap<>();
+        dbManager.streamHistory(null, null, null, 0, 0, row -> {
+            result.computeIfAbsent(row.getProviderName(), k -> new LinkedHashMap<>())
+                  .computeIfAbsent(row.getStatType(), k -> new ArrayList<>())
+                  .add(row);
+            return true;
+        });
+        return result;
+    }
+    
+    /**
+     * Liest eine Seite von Historieneinträgen, sortiert nach Provider, Typ und Datum (absteigend)
+     * 
+     * @param statTypes Gewünschte Statistiktypen, null oder leer für alle
+     * @param from Frühestes Datum (inklusive) oder null
+     * @param to Spätestes Datum (inklusive) oder null
+     * @param offset Index der ersten Zeile
+     * @param limit Maximale Anzahl Zeilen
+     * @return Die Zeilen der Seite
+     */
+    public List<HistoryRow> getHistoryPage(Collection<String> statTypes, LocalDateTime from, LocalDateTime to,
+            int offset, int limit) {
+        List<HistoryRow> rows = new ArrayList<>();
+        if (dbManager == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return rows;
+        }
+        dbManager.streamHistory(statTypes, from, to, offset, limit, rows::add);
+        return rows;
+    }
+    
+    /**
+     * Zählt die Historieneinträge für die angegebenen Filter
+     */
+    public int countHistoryEntries(Collection<String> statTypes, LocalDateTime from, LocalDateTime to) {
+        if (dbManager == null) {
+            return 0;
         }
+        return dbManager.countHistory(statTypes, from, to);
     }
 
     /**
@@ -564,33 +684,149 @@ public class ProviderHistoryService {
     }
     
     /**
-     * Erstellt ein Backup der Datenbank
+     * Erstellt ein Backup der Datenbank im Hintergrund
      * 
-     * @return true wenn erfolgreich, false wenn fehlgeschlagen
+     * @return Future mit Ergebnis, Dauer und Größe des Backups (null-Ergebnis ohne Datenbank)
      */
-    public boolean createBackup() {
+    public CompletableFuture<BackupResult> createBackupAsync() {
         if (dbManager == null) {
             LOGGER.warning("Keine Datenbankverbindung verfügbar");
-            return false;
+            return CompletableFuture.completedFuture(null);
         }
         
-        boolean success = dbManager.createBackup();
-        if (success) {
-            prefs.putLong(PREF_LAST_BACKUP_TIME, System.currentTimeMillis());
-            LOGGER.info("Manuelles Datenbank-Backup erfolgreich erstellt");
-        } else {
-            LOGGER.severe("Fehler beim Erstellen des manuellen Backups");
+        return dbManager.createBackupAsync().thenApply(result -> {
+            if (result != null && result.isSuccess()) {
+                // Speichere den Zeitpunkt des Backups
+                prefs.putLong(PREF_LAST_BACKUP_TIME, System.currentTimeMillis());
+                LOGGER.info("Datenbank-Backup erfolgreich erstellt: " + result);
+            } else {
+                LOGGER.severe("Fehler beim Erstellen des Datenbank-Backups");
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Startet die gründliche Integritätsprüfung der Datenbank im Hintergrund
+     * 
+     * @return Handle mit dem Prüfergebnis oder null, wenn keine Datenbank verfügbar ist
+     */
+    public TaskScheduler.TaskHandle<IntegrityReport> verifyDatabaseIntegrityDeepAsync() {
+        if (dbManager == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return null;
+        }
+        return dbManager.verifyDataIntegrityDeepAsync();
+    }
+    
+    /**
+     * Rekonstruiert fehlende 3MPDD-Verläufe aus den Tradedaten im Hintergrund und
+     * speichert sie als synthetische Werte. Berücksichtigt werden nur Provider mit
+     * weniger als {@link #MIN_3MPDD_HISTORY_POINTS} gespeicherten Werten, die in
+     * dieser Sitzung noch nicht rekonstruiert wurden. Als rekonstruiert gilt ein
+     * Provider erst, wenn seine Werte gespeichert sind; nach Abbruch oder Fehler
+     * wird er beim nächsten Aufruf erneut berücksichtigt.
+     * 
+     * @param stats Aktuelle Provider-Statistiken
+     * @return Handle mit der Anzahl eingefügter Werte oder null, wenn nichts zu tun ist
+     */
+    public TaskScheduler.TaskHandle<Integer> backfill3MpddHistoryAsync(Map<String, ProviderStats> stats) {
+        if (dbManager == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return null;
+        }
+        Map<String, ProviderStats> candidates = new HashMap<>();
+        for (Map.Entry<String, ProviderStats> entry : stats.entrySet()) {
+            if (!backfilledProviders.contains(entry.getKey())) {
+                candidates.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
         }
         
-        return success;
+        return TaskScheduler.getInstance().submitExclusive("mpdd-backfill", "3MPDD-Verlauf rekonstruieren",
+                TaskScheduler.Priority.BACKGROUND, token -> {
+                    // Nur Provider ohne nennenswerte Historie rekonstruieren, die übrigen sind erledigt
+                    Map<String, Integer> counts = dbManager.getStatValueCounts(STAT_TYPE_3MPDD);
+                    candidates.keySet().removeIf(name -> {
+                        if (counts.getOrDefault(name, 0) >= MIN_3MPDD_HISTORY_POINTS) {
+                            backfilledProviders.add(name);
+                            return true;
+                        }
+                        return false;
+                    });
+                    if (candidates.isEmpty()) {
+                        return 0;
+                    }
+                    
+                    long start = System.currentTimeMillis();
+                    Map<String, List<HistoryEntry>> points = MpddBackfillService.reconstructAll(candidates, token, null);
+                    int inserted = dbManager.storeSyntheticStatValues(STAT_TYPE_3MPDD, points);
+                    if (inserted < 0) {
+                        // Nicht gespeichert, beim nächsten Aufruf erneut versuchen
+                        LOGGER.warning("3MPDD-Verlauf konnte nicht gespeichert werden");
+                        return inserted;
+                    }
+                    // Erst nach dem Speichern als erledigt merken; ein Abbruch kommt nicht bis hier
+                    backfilledProviders.addAll(candidates.keySet());
+                    LOGGER.info(String.format("3MPDD-Verlauf für %d von %d Providern rekonstruiert, %d Werte (%d ms)",
+                            points.size(), candidates.size(), inserted, System.currentTimeMillis() - start));
+                    return inserted;
+                });
+    }
+    
+    /**
+     * Verdichtet alte Statistikwerte zu Wochen- und Monatswerten und komprimiert
+     * anschließend die Datenbankdatei, beides im Hintergrund
+     * 
+     * @return Handle mit der Anzahl verdichteter Werte oder null, wenn keine Datenbank verfügbar ist
+     */
+    public TaskScheduler.TaskHandle<Integer> applyRetentionAsync() {
+        if (dbManager == null) {
+            LOGGER.warning("Keine Datenbankverbindung verfügbar");
+            return null;
+        }
+        TaskScheduler.TaskHandle<Integer> handle = dbManager.applyRetentionAsync();
+        // Die Verdichtung löscht Rohwerte; ohne neuen Vergleichsstand meldete die nächste
+        // Integritätsprüfung einen Datenverlust. Auch nach Abbruch oder Fehler beim
+        // Komprimieren, da die Verdichtung dann bereits geschrieben sein kann.
+        handle.getFuture().whenComplete((rolledUp, error) -> saveCurrentDataCount());
+        return handle;
+    }
+
+    /**
+     * @return Auslastung und Wartezeiten des Lese-Pools oder null ohne Datenbank
+     */
+    public ConnectionPool.Stats getConnectionPoolStats() {
+        return dbManager != null ? dbManager.getConnectionPoolStats() : null;
+    }
+
+    /**
+     * @return Anzahl der noch nicht geschriebenen Änderungen
+     */
+    public int getPendingWriteCount() {
+        return dbManager != null ? dbManager.getPendingWriteCount() : 0;
+    }
+
+    /**
+     * @return Anzahl der Änderungen, die nach wiederholten Fehlversuchen verworfen wurden
+     */
+    public int getDiscardedWriteCount() {
+        return dbManager != null ? dbManager.getDiscardedWriteCount() : 0;
     }
 
     /**
      * Beendet den Service und gibt Ressourcen frei
      */
     public void shutdown() {
-        // Erstelle ein letztes Backup
-        createBackupIfNeeded(true);
+        // Vorgemerkte Änderungen schreiben, bevor Backup und Zählung erfolgen
+        if (dbManager != null) {
+            dbManager.flush();
+        }
+        
+        // Erstelle ein letztes Backup und warte darauf, damit es vor dem Schließen fertig ist
+        createBackupIfNeeded(true).join();
         
         // Aktualisiere den gespeicherten Datenbestand
         saveCurrentDataCount();
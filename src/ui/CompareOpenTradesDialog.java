@@ -12,10 +12,6 @@ import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.text.SimpleDateFormat;
-import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
 import java.util.Map;
 
 import javax.swing.AbstractAction;
@@ -35,13 +31,12 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.DateAxis;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.time.Millisecond;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
+import charts.ArrayXYDataset;
+import charts.DerivedSeriesCache;
+import charts.DownsampledXYDataset;
 import components.WebViewPanel;
 import data.ProviderStats;
-import data.Trade;
 import utils.ChartFactoryUtil;
 
 public class CompareOpenTradesDialog extends JFrame {
@@ -106,22 +101,20 @@ public class CompareOpenTradesDialog extends JFrame {
            chartsPanel.add(equityChart);
            
            // 2. Open Trades Chart
-           TimeSeriesCollection tradeDataset = new TimeSeriesCollection();
-           TimeSeries tradeSeries = new TimeSeries("Trades");
-           fillTradesSeries(tradeSeries, stats.getTrades());
-           tradeDataset.addSeries(tradeSeries);
+           ArrayXYDataset tradeDataset = ArrayXYDataset.of(
+                   DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.OPEN_TRADES));
            JFreeChart tradesChart = createTimeSeriesChart("Open Trades", "Trades", tradeDataset);
            ChartPanel tradesPanel = new ChartPanel(tradesChart);
+           DownsampledXYDataset.attach(tradesPanel);
            tradesPanel.setPreferredSize(new Dimension(400, 300));
            chartsPanel.add(tradesPanel);
            
            // 3. Open Lots Chart
-           TimeSeriesCollection lotsDataset = new TimeSeriesCollection();
-           TimeSeries lotsSeries = new TimeSeries("Lots");
-           fillLotsSeries(lotsSeries, stats.getTrades());
-           lotsDataset.addSeries(lotsSeries);
+           ArrayXYDataset lotsDataset = ArrayXYDataset.of(
+                   DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.OPEN_LOTS));
            JFreeChart lotsChart = createTimeSeriesChart("Open Lots", "Lots", lotsDataset);
            ChartPanel lotsPanel = new ChartPanel(lotsChart);
+           DownsampledXYDataset.attach(lotsPanel);
            lotsPanel.setPreferredSize(new Dimension(400, 300));
            chartsPanel.add(lotsPanel);
            
@@ -154,12 +147,12 @@ public class CompareOpenTradesDialog extends JFrame {
        add(scrollPane);
    }
    
-   private JFreeChart createTimeSeriesChart(String title, String yAxisLabel, TimeSeriesCollection dataset) {
+   private JFreeChart createTimeSeriesChart(String title, String yAxisLabel, ArrayXYDataset dataset) {
        JFreeChart chart = ChartFactory.createTimeSeriesChart(
            title,
            "Zeit",
            yAxisLabel,
-           dataset,
+           new DownsampledXYDataset(dataset),
            true,
            true,
            false
@@ -181,44 +174,4 @@ public class CompareOpenTradesDialog extends JFrame {
        
        return chart;
    }
-   
-   private void fillTradesSeries(TimeSeries series, List<Trade> trades) {
-       List<Trade> activeTrades = new ArrayList<>();
-       List<Trade> sortedTrades = new ArrayList<>(trades);
-       sortedTrades.sort((t1, t2) -> t1.getOpenTime().compareTo(t2.getOpenTime()));
-       
-       for (Trade trade : sortedTrades) {
-           activeTrades.removeIf(t -> t.getCloseTime().compareTo(trade.getOpenTime()) <= 0);
-           activeTrades.add(trade);
-           
-           series.addOrUpdate(
-               new Millisecond(
-                   Date.from(trade.getOpenTime().atZone(ZoneId.systemDefault()).toInstant())
-               ),
-               activeTrades.size()
-           );
-       }
-   }
-   
-   private void fillLotsSeries(TimeSeries series, List<Trade> trades) {
-       List<Trade> activeTrades = new ArrayList<>();
-       List<Trade> sortedTrades = new ArrayList<>(trades);
-       sortedTrades.sort((t1, t2) -> t1.getOpenTime().compareTo(t2.getOpenTime()));
-       
-       for (Trade trade : sortedTrades) {
-           activeTrades.removeIf(t -> t.getCloseTime().compareTo(trade.getOpenTime()) <= 0);
-           activeTrades.add(trade);
-           
-           double totalLots = activeTrades.stream()
-                                        .mapToDouble(Trade::getLots)
-                                        .sum();
-           
-           series.addOrUpdate(
-               new Millisecond(
-                   Date.from(trade.getOpenTime().atZone(ZoneId.systemDefault()).toInstant())
-               ),
-               totalLots
-           );
-       }
-   }
 }
\ No newline at end of file
@@ -6,9 +6,18 @@ import java.awt.FlowLayout;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -23,11 +32,13 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
+import javax.swing.JTextField;
 import javax.swing.KeyStroke;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 
-import db.HistoryDatabaseManager.HistoryEntry;
+import db.HistoryDatabaseManager.HistoryRow;
 import services.ProviderHistoryService;
+import utils.TaskScheduler;
 
 /**
  * Dialog zur Anzeige aller Provider-Historie-Einträge in der Datenbank
@@ -35,8 +46,14 @@ import services.ProviderHistoryService;
 public class DatabaseViewerDialog extends JDialog {
     private final ProviderHistoryService historyService;
     private JTable dataTable;
-    private DefaultTableModel tableModel;
+    private PagedHistoryTableModel tableModel;
     private JComboBox<String> statTypeComboBox;
+    private JTextField fromField;
+    private JTextField toField;
+    private JLabel statusLabel;
+    
+    // Schlüssel, unter dem sich Zählabfragen gegenseitig ablösen
+    private static final String PAGE_TASK_KEY = "database-viewer-count";
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
@@ -70,14 +87,8 @@ public class DatabaseViewerDialog extends JDialog {
     private void initUI() {
         setLayout(new BorderLayout(10, 10));
         
-        // Table setup
-        String[] columnNames = {"Provider", "Stat Type", "Datum", "Wert"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Keine Zellen editierbar
-            }
-        };
+        // Table setup: die Zeilen werden seitenweise beim Scrollen nachgeladen
+        tableModel = new PagedHistoryTableModel();
         dataTable = new JTable(tableModel);
         
         // Spaltenbreiten anpassen
@@ -100,19 +111,35 @@ public class DatabaseViewerDialog extends JDialog {
             // Weitere Stat-Typen hier hinzufügen, wenn verfügbar
         });
         
+        // Zeitraum (leer = unbegrenzt)
+        fromField = new JTextField(8);
+        fromField.setToolTipText("Von (yyyy-MM-dd), leer = unbegrenzt");
+        toField = new JTextField(8);
+        toField.setToolTipText("Bis (yyyy-MM-dd), leer = unbegrenzt");
+        
         JButton refreshButton = new JButton("Aktualisieren");
         refreshButton.addActionListener(e -> loadData());
         
         controlPanel.add(statTypeLabel);
         controlPanel.add(statTypeComboBox);
         controlPanel.add(Box.createRigidArea(new Dimension(10, 0)));
+        controlPanel.add(new JLabel("Von:"));
+        controlPanel.add(fromField);
+        controlPanel.add(new JLabel("Bis:"));
+        controlPanel.add(toField);
+        controlPanel.add(Box.createRigidArea(new Dimension(10, 0)));
         controlPanel.add(refreshButton);
         
         // Export-Button-Panel
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JPanel buttonPanel = new JPanel(new BorderLayout());
+        statusLabel = new JLabel(" ");
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0));
+        JPanel closePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton closeButton = new JButton("Schließen");
         closeButton.addActionListener(e -> dispose());
-        buttonPanel.add(closeButton);
+        closePanel.add(closeButton);
+        buttonPanel.add(statusLabel, BorderLayout.WEST);
+        buttonPanel.add(closePanel, BorderLayout.EAST);
         
         // Layout zusammensetzen
         add(controlPanel, BorderLayout.NORTH);
@@ -123,57 +150,161 @@ public class DatabaseViewerDialog extends JDialog {
         loadData();
     }
     
+    /**
+     * Setzt die Filter und zählt die Einträge im Hintergrund;
+     * die eigentlichen Zeilen werden erst beim Anzeigen geladen
+     */
     private void loadData() {
-        // Tabelle leeren
-        tableModel.setRowCount(0);
+        String selectedStatType = (String) statTypeComboBox.getSelectedItem();
+        List<String> statTypes = "Alle Typen".equals(selectedStatType) 
+                ? Collections.emptyList() : Collections.singletonList(selectedStatType);
         
+        LocalDateTime from;
+        LocalDateTime to;
         try {
-            String selectedStatType = (String) statTypeComboBox.getSelectedItem();
-            boolean showAllTypes = "Alle Typen".equals(selectedStatType);
-            
-            // Alle Provider mit Einträgen abrufen
-            Map<String, Map<String, List<HistoryEntry>>> allEntries = 
-                historyService.getAllHistoryEntries();
+            from = parseDate(fromField.getText(), false);
+            to = parseDate(toField.getText(), true);
+        } catch (DateTimeParseException e) {
+            statusLabel.setText("Ungültiges Datum, erwartet wird yyyy-MM-dd");
+            return;
+        }
+        
+        statusLabel.setText("Zähle Einträge...");
+        tableModel.setQuery(statTypes, from, to);
+    }
+    
+    private LocalDateTime parseDate(String text, boolean endOfDay) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        LocalDate date = LocalDate.parse(text.trim());
+        return endOfDay ? date.atTime(LocalTime.MAX) : date.atStartOfDay();
+    }
+    
+    @Override
+    public void dispose() {
+        TaskScheduler.getInstance().cancel(PAGE_TASK_KEY);
+        super.dispose();
+    }
+    
+    /**
+     * Tabellenmodell, das nur die Anzahl der Einträge kennt und die Zeilen
+     * seitenweise im Hintergrund nachlädt. Es werden nur die zuletzt benutzten
+     * Seiten im Speicher gehalten.
+     */
+    private class PagedHistoryTableModel extends AbstractTableModel {
+        private static final int PAGE_SIZE = 500;
+        private static final int MAX_CACHED_PAGES = 20;
+        private final String[] columnNames = {"Provider", "Stat Type", "Datum", "Wert"};
+        
+        private final Map<Integer, List<HistoryRow>> pages = new LinkedHashMap<Integer, List<HistoryRow>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<HistoryRow>> eldest) {
+                return size() > MAX_CACHED_PAGES;
+            }
+        };
+        private final Set<Integer> loadingPages = new HashSet<>();
+        
+        private List<String> statTypes = Collections.emptyList();
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private int rowCount;
+        // Erhöht sich mit jeder neuen Abfrage, damit veraltete Seiten verworfen werden
+        private int generation;
+        
+        void setQuery(List<String> statTypes, LocalDateTime from, LocalDateTime to) {
+            this.statTypes = statTypes;
+            this.from = from;
+            this.to = to;
+            int queryGeneration = ++generation;
+            pages.clear();
+            loadingPages.clear();
+            rowCount = 0;
+            fireTableDataChanged();
             
-            // Für jeden Provider
-            for (Map.Entry<String, Map<String, List<HistoryEntry>>> providerEntry : allEntries.entrySet()) {
-                String providerName = providerEntry.getKey();
-                Map<String, List<HistoryEntry>> statEntries = providerEntry.getValue();
-                
-                // Für jeden Stat-Typ des Providers
-                for (Map.Entry<String, List<HistoryEntry>> statEntry : statEntries.entrySet()) {
-                    String statType = statEntry.getKey();
-                    
-                    // Filter nach Typ, falls gewählt
-                    if (!showAllTypes && !statType.equals(selectedStatType)) {
-                        continue;
-                    }
-                    
-                    List<HistoryEntry> entries = statEntry.getValue();
-                    
-                    // Jeder Eintrag für diesen Provider und Stat-Typ
-                    for (HistoryEntry entry : entries) {
-                        tableModel.addRow(new Object[] {
-                            providerName,
-                            statType,
-                            entry.getDate().format(DATE_FORMATTER),
-                            String.format("%.4f", entry.getValue())
-                        });
+            TaskScheduler.getInstance().submitExclusive(PAGE_TASK_KEY, "Datenbank-Einträge zählen",
+                    TaskScheduler.Priority.INTERACTIVE,
+                    token -> historyService.countHistoryEntries(statTypes, from, to))
+                .onCompletionInEdt((count, error) -> {
+                    if (queryGeneration != generation || error != null) {
+                        if (error != null && !(error instanceof CancellationException)) {
+                            statusLabel.setText("Fehler beim Laden der Daten: " + error.getMessage());
+                        }
+                        return;
                     }
-                }
+                    rowCount = count;
+                    statusLabel.setText("Gesamt: " + count + " Einträge");
+                    fireTableDataChanged();
+                });
+        }
+        
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+        
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            int pageIndex = rowIndex / PAGE_SIZE;
+            List<HistoryRow> page = pages.get(pageIndex);
+            if (page == null) {
+                requestPage(pageIndex);
+                return columnIndex == 0 ? "Lade..." : "";
+            }
+            int offsetInPage = rowIndex % PAGE_SIZE;
+            if (offsetInPage >= page.size()) {
+                return "";
             }
             
-            // Info-Zeile am Ende
-            tableModel.addRow(new Object[] {
-                "Gesamt", "-", "-", tableModel.getRowCount() + " Einträge"
-            });
+            HistoryRow row = page.get(offsetInPage);
+            switch (columnIndex) {
+                case 0: return row.getProviderName();
+                case 1: return row.getStatType();
+                case 2: return row.getDate().format(DATE_FORMATTER);
+                case 3: return String.format("%.4f", row.getValue());
+                default: return "";
+            }
+        }
+        
+        private void requestPage(int pageIndex) {
+            if (!loadingPages.add(pageIndex)) {
+                return; // Wird bereits geladen
+            }
+            int queryGeneration = generation;
+            List<String> pageStatTypes = statTypes;
+            LocalDateTime pageFrom = from;
+            LocalDateTime pageTo = to;
             
-        } catch (Exception e) {
-            e.printStackTrace();
-            // Fehlerbehandlung: Zeige Fehlermeldung in der Tabelle
-            tableModel.addRow(new Object[] {
-                "Fehler beim Laden der Daten", "", "", e.getMessage()
-            });
+            TaskScheduler.getInstance().submit("Datenbank-Einträge laden (Seite " + (pageIndex + 1) + ")",
+                    TaskScheduler.Priority.INTERACTIVE,
+                    token -> historyService.getHistoryPage(pageStatTypes, pageFrom, pageTo,
+                            pageIndex * PAGE_SIZE, PAGE_SIZE))
+                .onCompletionInEdt((rows, error) -> {
+                    if (queryGeneration != generation) {
+                        return; // Filter wurde inzwischen geändert
+                    }
+                    loadingPages.remove(pageIndex);
+                    if (error != null) {
+                        statusLabel.setText("Fehler beim Laden der Daten: " + error.getMessage());
+                        return;
+                    }
+                    pages.put(pageIndex, rows);
+                    int firstRow = pageIndex * PAGE_SIZE;
+                    int lastRow = Math.min(rowCount, firstRow + PAGE_SIZE) - 1;
+                    if (lastRow >= firstRow) {
+                        fireTableRowsUpdated(firstRow, lastRow);
+                    }
+                });
         }
     }
-}
\ No newline at end of file
+}
@@ -132,16 +132,13 @@ public class DeleteProviderDialog extends JDialog {
      */
     private void removeProvidersFromCache() {
         try {
-            // Hole aktuelle Provider-Daten
-            Map<String, ProviderStats> currentStats = dataManager.getStats();
-            
-            // Entferne gelöschte Provider aus der Map
+            // Gelöschte Provider über einen neuen Snapshot entfernen
             for (String providerName : selectedProviders.keySet()) {
                 LOGGER.info("Entferne Provider aus Cache: " + providerName);
-                currentStats.remove(providerName);
             }
+            dataManager.removeProviders(selectedProviders.keySet());
             
-            LOGGER.info("Cache aktualisiert, " + currentStats.size() + " Provider verbleiben");
+            LOGGER.info("Cache aktualisiert, " + dataManager.getStats().size() + " Provider verbleiben");
         } catch (Exception e) {
             LOGGER.severe("Fehler beim Aktualisieren des Caches: " + e.getMessage());
             e.printStackTrace();
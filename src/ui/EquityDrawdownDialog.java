@@ -10,11 +10,8 @@ import java.awt.Window;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -39,12 +36,11 @@ import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.chart.ui.Layer;
 import org.jfree.chart.ui.RectangleAnchor;
 import org.jfree.chart.ui.TextAnchor;
-import org.jfree.data.time.Day;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
+import charts.ArrayXYDataset;
+import charts.DerivedSeriesCache;
+import charts.DownsampledXYDataset;
 import data.ProviderStats;
-import data.Trade;
 import utils.HtmlDatabase;
 
 public class EquityDrawdownDialog extends JDialog {
@@ -150,8 +146,8 @@ public class EquityDrawdownDialog extends JDialog {
         LOGGER.info("Erstelle komplett neues Chart für " + providerName);
         
         try {
-            // Erstelle eine TimeSeries für den Drawdown
-            TimeSeries drawdownSeries = new TimeSeries("Drawdown");
+            // Sammle die Drawdown-Punkte, ein Punkt je Tag
+            ArrayXYDataset.SeriesBuilder drawdownSeries = new ArrayXYDataset.SeriesBuilder("Drawdown");
             
             // Maximalen Drawdown aus den Stats abrufen
             double maxDrawdownFromStats = stats.getMaxDrawdown();
@@ -177,39 +173,43 @@ public class EquityDrawdownDialog extends JDialog {
                 }
             }
             
-            // Wenn keine Daten in der DB gefunden wurden, berechne selbst
-            if (!dataFound || drawdownSeries.isEmpty()) {
+            // Wenn keine Daten in der DB gefunden wurden, den aus den Trades berechneten Verlauf verwenden
+            ArrayXYDataset.Series series;
+            if (dataFound && !drawdownSeries.isEmpty()) {
+                series = drawdownSeries.build();
+            } else {
                 LOGGER.info("Berechne Drawdown aus den Trades für " + providerName);
-                calculateDrawdownFromTrades(stats, drawdownSeries);
+                series = DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.DRAWDOWN_DAILY);
             }
             
             // Stelle sicher, dass die Serie nicht leer ist
-            if (drawdownSeries.isEmpty()) {
+            if (series.isEmpty()) {
                 LOGGER.warning("Keine Drawdown-Daten für " + providerName + " gefunden");
                 // Füge Dummy-Daten hinzu, basierend auf maxDrawdownFromStats
                 LocalDate now = LocalDate.now();
-                drawdownSeries.addOrUpdate(new Day(Date.from(now.minusDays(60).atStartOfDay(ZoneId.systemDefault()).toInstant())), 0.0);
-                drawdownSeries.addOrUpdate(new Day(Date.from(now.minusDays(30).atStartOfDay(ZoneId.systemDefault()).toInstant())), Math.min(maxDrawdownFromStats, 10.0)); // Begrenze auf maximal 10% für Dummy-Daten
-                drawdownSeries.addOrUpdate(new Day(Date.from(now.atStartOfDay(ZoneId.systemDefault()).toInstant())), 0.0);
+                drawdownSeries.add(now.minusDays(60).atStartOfDay(), 0.0);
+                drawdownSeries.add(now.minusDays(30).atStartOfDay(), Math.min(maxDrawdownFromStats, 10.0)); // Begrenze auf maximal 10% für Dummy-Daten
+                drawdownSeries.add(now.atStartOfDay(), 0.0);
+                series = drawdownSeries.build();
             }
             
             // Debug-Ausgabe der ersten paar Datenpunkte
             LOGGER.info("Erste 5 Datenpunkte für " + providerName + ":");
             int count = 0;
-            for (int i = 0; i < Math.min(5, drawdownSeries.getItemCount()); i++) {
-                LOGGER.info("  Punkt " + i + ": Zeit=" + drawdownSeries.getTimePeriod(i) + ", Wert=" + drawdownSeries.getValue(i));
+            for (int i = 0; i < Math.min(5, series.size()); i++) {
+                LOGGER.info("  Punkt " + i + ": Zeit=" + new Date(series.getX(i)) + ", Wert=" + series.getY(i));
                 count++;
             }
-            if (drawdownSeries.getItemCount() > 5) {
-                LOGGER.info("  ... und " + (drawdownSeries.getItemCount() - 5) + " weitere Punkte");
+            if (series.size() > 5) {
+                LOGGER.info("  ... und " + (series.size() - 5) + " weitere Punkte");
             }
 
             // Finde den maximalen Drawdown in den tatsächlichen Daten
             double maxDrawdownInData = 0.0;
             int maxIndex = -1;
-            for (int i = 0; i < drawdownSeries.getItemCount(); i++) {
-                if (drawdownSeries.getValue(i) != null) {
-                    double value = drawdownSeries.getValue(i).doubleValue();
+            for (int i = 0; i < series.size(); i++) {
+                if (!Double.isNaN(series.getY(i))) {
+                    double value = series.getY(i);
                     if (value > maxDrawdownInData) {
                         maxDrawdownInData = value;
                         maxIndex = i;
@@ -219,7 +219,7 @@ public class EquityDrawdownDialog extends JDialog {
 
             if (maxIndex >= 0) {
                 LOGGER.info("Max Drawdown in Daten für " + providerName + ": " + maxDrawdownInData + 
-                          "% (Punkt " + maxIndex + " von " + drawdownSeries.getItemCount() + ")");
+                          "% (Punkt " + maxIndex + " von " + series.size() + ")");
             } else {
                 LOGGER.warning("Keine gültigen Datenpunkte gefunden für " + providerName);
                 maxDrawdownInData = 5.0; // Fallback-Wert
@@ -247,7 +247,7 @@ public class EquityDrawdownDialog extends JDialog {
             LOGGER.info("  Berechneter actualMaxDrawdown = " + actualMaxDrawdown + "%");
             
             // Dataset erstellen
-            TimeSeriesCollection dataset = new TimeSeriesCollection(drawdownSeries);
+            DownsampledXYDataset dataset = new DownsampledXYDataset(ArrayXYDataset.of(series));
             
             // Chart erstellen
             JFreeChart chart = ChartFactory.createTimeSeriesChart(
@@ -321,6 +321,7 @@ public class EquityDrawdownDialog extends JDialog {
             // ChartPanel erstellen und konfigurieren
             ChartPanel chartPanel = new ChartPanel(chart);
             chartPanel.setPreferredSize(new Dimension(950, 300));
+            DownsampledXYDataset.attach(chartPanel);
             chartPanel.setMinimumDrawWidth(10);
             chartPanel.setMaximumDrawWidth(2000);
             chartPanel.setMinimumDrawHeight(10);
@@ -341,7 +342,7 @@ public class EquityDrawdownDialog extends JDialog {
             
             // Erstelle ein leeres Chart
             JFreeChart dummyChart = ChartFactory.createTimeSeriesChart(
-                "Fehler", "Zeit", "Drawdown (%)", new TimeSeriesCollection(), true, true, false);
+                "Fehler", "Zeit", "Drawdown (%)", ArrayXYDataset.empty(), true, true, false);
             return new ChartPanel(dummyChart);
         }
     }
@@ -395,7 +396,7 @@ public class EquityDrawdownDialog extends JDialog {
     /**
      * Verarbeitet Drawdown-Daten aus der Datenbank
      */
-    private boolean processDrawdownData(String drawdownData, TimeSeries drawdownSeries) {
+    private boolean processDrawdownData(String drawdownData, ArrayXYDataset.SeriesBuilder drawdownSeries) {
         String[] lines = drawdownData.split("\n");
         
         LOGGER.info("Verarbeite " + lines.length + " Zeilen mit Drawdown-Daten");
@@ -430,9 +431,8 @@ public class EquityDrawdownDialog extends JDialog {
                 LocalDateTime dateTime = date.atStartOfDay().plusSeconds(timeOffset);
                 double value = Double.parseDouble(valueStr);
                 
-                // Zum Dataset hinzufügen
-                Date javaDate = Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
-                drawdownSeries.addOrUpdate(new Day(javaDate), value);
+                // Zum Dataset hinzufügen, je Tag gilt der letzte Wert
+                drawdownSeries.add(dateTime.toLocalDate().atStartOfDay(), value);
                 
                 processedLines++;
             } catch (Exception e) {
@@ -444,43 +444,6 @@ public class EquityDrawdownDialog extends JDialog {
         return processedLines > 0;
     }
     
-    /**
-     * Berechnet Drawdown-Daten aus den Trades
-     */
-    private void calculateDrawdownFromTrades(ProviderStats stats, TimeSeries drawdownSeries) {
-        List<Trade> trades = stats.getTrades();
-        if (trades == null || trades.isEmpty()) {
-            LOGGER.warning("Keine Trades zum Berechnen des Drawdowns vorhanden");
-            return;
-        }
-        
-        // Trades nach Schließzeit sortieren
-        List<Trade> sortedTrades = new ArrayList<>(trades);
-        sortedTrades.sort((t1, t2) -> t1.getCloseTime().compareTo(t2.getCloseTime()));
-        
-        double currentBalance = stats.getInitialBalance();
-        double peak = currentBalance;
-        
-        for (Trade trade : sortedTrades) {
-            currentBalance += trade.getTotalProfit();
-            
-            if (currentBalance > peak) {
-                peak = currentBalance;
-            }
-            
-            if (peak > 0) {
-                double drawdownPercent = ((peak - currentBalance) / peak) * 100.0;
-                
-                Date date = Date.from(trade.getCloseTime()
-                    .atZone(ZoneId.systemDefault())
-                    .toInstant());
-                
-                // Verwende Day statt Millisecond für bessere Performance
-                drawdownSeries.addOrUpdate(new Day(date), drawdownPercent);
-            }
-        }
-    }
-    
     /**
      * Erstellt die Tabelle mit Provider-Daten und Drawdown-Charts
      */
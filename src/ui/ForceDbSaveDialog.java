@@ -20,12 +20,14 @@ import javax.swing.JPanel;
 import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
-import javax.swing.SwingUtilities;
-import javax.swing.SwingWorker;
+import javax.swing.text.BadLocationException;
 
 import data.ProviderStats;
+import db.DatabaseBackupManager.BackupResult;
 import services.ProviderHistoryService;
 import utils.HtmlDatabase;
+import utils.ProgressReporter;
+import utils.TaskScheduler;
 
 /**
  * Dialog zum Erzwingen der Speicherung aller Provider-Daten in die Datenbank
@@ -39,6 +41,11 @@ public class ForceDbSaveDialog extends JDialog {
     private JButton saveButton;
     private JButton backupButton; // Neuer Button für manuelles Backup
     private final String rootPath;
+    private TaskScheduler.TaskHandle<Void> runningTask;
+    private final ProgressReporter progress = new ProgressReporter();
+    
+    // Maximale Anzahl angezeigter Log-Zeilen
+    private static final int MAX_LOG_LINES = 1000;
     
     public ForceDbSaveDialog(JFrame parent, ProviderHistoryService historyService, 
             Map<String, ProviderStats> providers, String rootPath) {
@@ -156,56 +163,47 @@ public class ForceDbSaveDialog extends JDialog {
         logArea.setText("");
         progressBar.setValue(0);
         progressBar.setIndeterminate(true);
+        progress.startSampling(this::showProgress);
         
-        // SwingWorker für Hintergrundverarbeitung
-        SwingWorker<Void, String> worker = new SwingWorker<Void, String>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                publish("Backup der Datenbank wird erstellt...");
+        // Hintergrundverarbeitung über den zentralen Scheduler
+        runningTask = TaskScheduler.getInstance().submit("Datenbank-Backup", TaskScheduler.Priority.BACKGROUND, token -> {
+            log("Backup der Datenbank wird erstellt...");
+            
+            try {
+                // Backup läuft auf dem Backup-Thread, hier wird nur auf das Ergebnis gewartet
+                BackupResult backup = historyService.createBackupAsync().join();
                 
-                try {
-                    // Hole den HistoryDatabaseManager über den ProviderHistoryService
-                    boolean success = historyService.createBackup();
-                    
-                    if (success) {
-                        publish("Backup erfolgreich erstellt!");
-                    } else {
-                        publish("Fehler beim Erstellen des Backups!");
-                    }
-                } catch (Exception e) {
-                    publish("FEHLER: " + e.getMessage());
-                    e.printStackTrace();
+                if (backup != null && backup.isSuccess()) {
+                    log("Backup erfolgreich erstellt: " + backup);
+                } else {
+                    log("Fehler beim Erstellen des Backups!");
                 }
-                
-                return null;
+            } catch (Exception e) {
+                log("FEHLER: " + e.getMessage());
+                e.printStackTrace();
             }
             
-            @Override
-            protected void process(List<String> chunks) {
-                for (String message : chunks) {
-                    logArea.append(message + "\n");
-                    // Zum Ende scrollen
-                    logArea.setCaretPosition(logArea.getDocument().getLength());
-                }
+            return null;
+        });
+        
+        runningTask.onCompletionInEdt((result, error) -> {
+            runningTask = null;
+            progress.stopSampling();
+            if (!isDisplayable()) {
+                return; // Dialog wurde bereits geschlossen
             }
+            // UI-Status zurücksetzen
+            backupButton.setEnabled(true);
+            saveButton.setEnabled(true);
+            closeButton.setEnabled(true);
+            progressBar.setIndeterminate(false);
+            progressBar.setValue(100);
             
-            @Override
-            protected void done() {
-                // UI-Status zurücksetzen
-                backupButton.setEnabled(true);
-                saveButton.setEnabled(true);
-                closeButton.setEnabled(true);
-                progressBar.setIndeterminate(false);
-                progressBar.setValue(100);
-                
-                JOptionPane.showMessageDialog(ForceDbSaveDialog.this,
-                        "Backup abgeschlossen.\nBitte überprüfen Sie das Log für Details.",
-                        "Backup abgeschlossen",
-                        JOptionPane.INFORMATION_MESSAGE);
-            }
-        };
-        
-        worker.execute();
+            JOptionPane.showMessageDialog(ForceDbSaveDialog.this,
+                    "Backup abgeschlossen.\nBitte überprüfen Sie das Log für Details.",
+                    "Backup abgeschlossen",
+                    JOptionPane.INFORMATION_MESSAGE);
+        });
     }
     
     private void startSaving() {
@@ -220,115 +218,141 @@ public class ForceDbSaveDialog extends JDialog {
         logArea.append("Starte den Speicherungsprozess...\n");
         logArea.append("Gefundene Provider: " + providers.size() + "\n");
         logArea.append("Ein Backup wird vor der Speicherung erstellt...\n");
+        progress.setProgress(0);
+        progress.startSampling(this::showProgress);
         
-        // SwingWorker für Hintergrundverarbeitung
-        SwingWorker<Void, String> worker = new SwingWorker<Void, String>() {
-            @Override
-            protected Void doInBackground() throws Exception {
+        // Hintergrundverarbeitung über den zentralen Scheduler
+        runningTask = TaskScheduler.getInstance().submit("Datenbank-Speicherung", TaskScheduler.Priority.BACKGROUND, token -> {
+            try {
+                int total = providers.size();
+                int count = 0;
+                
+                // Automatisch ein Backup erstellen
                 try {
-                    int total = providers.size();
-                    int count = 0;
-                    
-                    // Automatisch ein Backup erstellen
-                    try {
-                        boolean backupSuccess = historyService.createBackup();
-                        if (backupSuccess) {
-                            publish("Backup erfolgreich erstellt.");
-                        } else {
-                            publish("WARNUNG: Backup konnte nicht erstellt werden!");
-                        }
-                    } catch (Exception e) {
-                        publish("FEHLER beim Erstellen des Backups: " + e.getMessage());
+                    BackupResult backup = historyService.createBackupAsync().join();
+                    if (backup != null && backup.isSuccess()) {
+                        log("Backup erfolgreich erstellt: " + backup);
+                    } else {
+                        log("WARNUNG: Backup konnte nicht erstellt werden!");
                     }
+                } catch (Exception e) {
+                    log("FEHLER beim Erstellen des Backups: " + e.getMessage());
+                }
+                
+                // Erstelle eine Instanz von HtmlDatabase mit dem korrekten rootPath
+                HtmlDatabase htmlDb = new HtmlDatabase(rootPath);
+                
+                // Erzwinge die Speicherung für jeden Provider
+                for (Map.Entry<String, ProviderStats> entry : providers.entrySet()) {
+                    if (token.isCancelled()) {
+                        log("\nSpeicherung abgebrochen.");
+                        break;
+                    }
+                    final String providerName = entry.getKey();
                     
-                    // Erstelle eine Instanz von HtmlDatabase mit dem korrekten rootPath
-                    HtmlDatabase htmlDb = new HtmlDatabase(rootPath);
+                    log("Verarbeite Provider: " + providerName);
                     
-                    // Erzwinge die Speicherung für jeden Provider
-                    for (Map.Entry<String, ProviderStats> entry : providers.entrySet()) {
-                        final String providerName = entry.getKey();
-                        
-                        // Updates für die UI im EDT ausführen
-                        SwingUtilities.invokeLater(() -> {
-                            logArea.append("Verarbeite Provider: " + providerName + "\n");
-                            logArea.setCaretPosition(logArea.getDocument().getLength());
-                        });
+                    // Validiere den Provider-Namen
+                    if (providerName == null || providerName.trim().isEmpty()) {
+                        log("Ungültiger Provider-Name, wird übersprungen.");
+                        continue;
+                    }
+                    
+                    try {
+                        // Berechne 3MPDD-Wert
+                        double threeMonthProfit = htmlDb.getAverageMonthlyProfit(providerName, 3);
+                        double equityDrawdown = htmlDb.getEquityDrawdown(providerName);
+                        double mpdd3 = threeMonthProfit / (equityDrawdown > 0 ? equityDrawdown : 1.0);
                         
-                        // Validiere den Provider-Namen
-                        if (providerName == null || providerName.trim().isEmpty()) {
-                            publish("Ungültiger Provider-Name, wird übersprungen.");
-                            continue;
-                        }
+                        // In DB speichern mit force=true
+                        boolean success = historyService.store3MpddValue(providerName, mpdd3, true);
                         
-                        try {
-                            // Berechne 3MPDD-Wert
-                            double threeMonthProfit = htmlDb.getAverageMonthlyProfit(providerName, 3);
-                            double equityDrawdown = htmlDb.getEquityDrawdown(providerName);
-                            double mpdd3 = threeMonthProfit / (equityDrawdown > 0 ? equityDrawdown : 1.0);
-                            
-                            // In DB speichern mit force=true
-                            boolean success = historyService.store3MpddValue(providerName, mpdd3, true);
-                            
-                            // Status loggen
-                            if (success) {
-                                publish(String.format("Provider '%s': 3MPDD-Wert %.4f gespeichert", 
-                                        providerName, mpdd3));
-                            } else {
-                                publish(String.format("Provider '%s': Fehler bei der Speicherung", 
-                                        providerName));
-                            }
-                        } catch (Exception e) {
-                            publish("FEHLER bei " + providerName + ": " + e.getMessage());
+                        // Status loggen
+                        if (success) {
+                            log(String.format("Provider '%s': 3MPDD-Wert %.4f gespeichert", 
+                                    providerName, mpdd3));
+                        } else {
+                            log(String.format("Provider '%s': Fehler bei der Speicherung", 
+                                    providerName));
                         }
-                        
-                        // Fortschritt aktualisieren
-                        count++;
-                        final int progressValue = (int)((count / (double)total) * 100);
-                        
-                        // Updates für die UI im EDT ausführen
-                        SwingUtilities.invokeLater(() -> {
-                            progressBar.setValue(progressValue);
-                        });
-                        
-                        // Kurze Pause für bessere UI-Reaktionsfähigkeit
-                        Thread.sleep(50);
+                    } catch (Exception e) {
+                        log("FEHLER bei " + providerName + ": " + e.getMessage());
                     }
                     
-                    publish("\nSpeicherung abgeschlossen.");
-                    publish(String.format("%d von %d Provider erfolgreich gespeichert.", count, total));
+                    // Fortschritt aktualisieren
+                    count++;
+                    int progressValue = (int)((count / (double)total) * 100);
                     
-                    return null;
-                } catch (Exception e) {
-                    publish("\nFEHLER: " + e.getMessage());
-                    e.printStackTrace();
-                    return null;
+                    progress.setProgress(progressValue);
                 }
+                
+                log("\nSpeicherung abgeschlossen.");
+                log(String.format("%d von %d Provider erfolgreich gespeichert.", count, total));
+            } catch (Exception e) {
+                log("\nFEHLER: " + e.getMessage());
+                e.printStackTrace();
             }
-            
-            @Override
-            protected void process(List<String> chunks) {
-                for (String message : chunks) {
-                    logArea.append(message + "\n");
-                    // Zum Ende scrollen
-                    logArea.setCaretPosition(logArea.getDocument().getLength());
-                }
+            return null;
+        });
+        
+        runningTask.onCompletionInEdt((result, error) -> {
+            runningTask = null;
+            progress.stopSampling();
+            if (!isDisplayable()) {
+                return; // Dialog wurde bereits geschlossen
             }
+            // UI-Status zurücksetzen
+            saveButton.setEnabled(true);
+            backupButton.setEnabled(true);
+            closeButton.setEnabled(true);
+            progressBar.setValue(100);
             
-            @Override
-            protected void done() {
-                // UI-Status zurücksetzen
-                saveButton.setEnabled(true);
-                backupButton.setEnabled(true);
-                closeButton.setEnabled(true);
-                progressBar.setValue(100);
-                
-                JOptionPane.showMessageDialog(ForceDbSaveDialog.this,
-                        "Speicherung abgeschlossen.\nBitte überprüfen Sie das Log für Details.",
-                        "Speicherung abgeschlossen",
-                        JOptionPane.INFORMATION_MESSAGE);
-            }
-        };
+            JOptionPane.showMessageDialog(ForceDbSaveDialog.this,
+                    "Speicherung abgeschlossen.\nBitte überprüfen Sie das Log für Details.",
+                    "Speicherung abgeschlossen",
+                    JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+    
+    /**
+     * Meldet eine Log-Zeile; angezeigt wird sie bei der nächsten Abtastung
+     */
+    private void log(String message) {
+        progress.log(message);
+    }
+    
+    /**
+     * Überträgt den abgetasteten Stand in Log und Fortschrittsbalken (im EDT)
+     */
+    private void showProgress(int percent, String status, List<String> newLogLines) {
+        if (!progressBar.isIndeterminate()) {
+            progressBar.setValue(percent);
+        }
+        if (newLogLines.isEmpty()) {
+            return;
+        }
+        logArea.append(String.join("\n", newLogLines) + "\n");
         
-        worker.execute();
+        // Nur die letzten Zeilen behalten, damit das Log nicht unbegrenzt wächst
+        int excessLines = logArea.getLineCount() - MAX_LOG_LINES;
+        if (excessLines > 0) {
+            try {
+                logArea.replaceRange("", 0, logArea.getLineStartOffset(excessLines));
+            } catch (BadLocationException e) {
+                // Ignorieren, das Log bleibt dann ungekürzt
+            }
+        }
+        // Zum Ende scrollen
+        logArea.setCaretPosition(logArea.getDocument().getLength());
+    }
+    
+    @Override
+    public void dispose() {
+        // Eine noch laufende Speicherung beim Schließen abbrechen
+        TaskScheduler.TaskHandle<Void> task = runningTask;
+        if (task != null) {
+            task.cancel();
+        }
+        super.dispose();
     }
-}
\ No newline at end of file
+}
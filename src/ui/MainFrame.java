@@ -10,6 +10,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.logging.Logger;
 
 import javax.swing.BorderFactory;
@@ -31,6 +32,7 @@ import ui.components.ToolbarManager;
 import utils.ApplicationConstants;
 import utils.HtmlDatabase;
 import utils.MqlAnalyserConf;
+import utils.TaskScheduler;
 
 public class MainFrame extends JFrame {
     private static final Logger LOGGER = Logger.getLogger(MainFrame.class.getName());
@@ -92,6 +94,7 @@ public class MainFrame extends JFrame {
             @Override
             public void windowClosing(WindowEvent e) {
                 LOGGER.info("Fenster wird geschlossen, Ressourcen werden freigegeben...");
+                TaskScheduler.getInstance().shutdown();
                 historyService.shutdown();
             }
         });
@@ -186,28 +189,32 @@ public class MainFrame extends JFrame {
                 rootPath,
                 dataManager,
                 mainTable.getSelectedProvidersMap(),
-                () -> {
-                    reloadData(config.getDownloadPath());
-                    mainTable.refreshTableData();
-                    updateStatusBar();
-                }
+                () -> reloadData(config.getDownloadPath())
             );
             dialog.setVisible(true);
         }
     }
     
+    /**
+     * Lädt die Daten im Hintergrund neu. Die Tabelle zeigt bis zur Veröffentlichung
+     * des neuen Snapshots weiterhin den bisherigen Stand.
+     */
     public void reloadData(String newPath) {
-        try {
-            dataManager.loadData(newPath);
+        dataManager.loadDataAsync(newPath).whenComplete((snapshot, error) -> SwingUtilities.invokeLater(() -> {
+            if (error instanceof CancellationException) {
+                return; // Durch einen neueren Ladevorgang abgelöst
+            }
+            if (error != null) {
+                LOGGER.severe("Error reloading data: " + error.getMessage());
+                JOptionPane.showMessageDialog(this, 
+                    "Error loading data from new path", 
+                    "Error", 
+                    JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             mainTable.refreshTableData();
             updateStatusBar();
-        } catch (Exception e) {
-            LOGGER.severe("Error reloading data: " + e.getMessage());
-            JOptionPane.showMessageDialog(this, 
-                "Error loading data from new path", 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+        }));
     }
     
     public void resetAll() {
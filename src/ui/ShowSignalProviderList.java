@@ -4,14 +4,9 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dialog;
-import java.awt.Dimension;
 import java.awt.Window;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
-import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -25,20 +20,10 @@ import javax.swing.JTable;
 import javax.swing.SwingConstants;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableCellRenderer;
-
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.ChartPanel;
-import org.jfree.chart.JFreeChart;
-import org.jfree.chart.plot.XYPlot;
-import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.time.Day;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
 import components.WebViewPanel;
 import data.ProviderStats;
-import data.Trade;
+import ui.components.EquitySparklineRenderer;
 import utils.HtmlDatabase;
 
 public class ShowSignalProviderList extends JDialog {
@@ -49,6 +34,7 @@ public class ShowSignalProviderList extends JDialog {
     private final HtmlDatabase htmlDatabase;
     private final String rootPath;
     private final JLabel statusLabel;
+    private EquitySparklineRenderer sparklineRenderer;
     
     public ShowSignalProviderList(Window owner, Map<String, ProviderStats> providers, 
             HtmlDatabase htmlDatabase, String rootPath) {
@@ -99,6 +85,10 @@ public class ShowSignalProviderList extends JDialog {
         // Table Setup
         providerTable = createProviderTable();
         JScrollPane tableScrollPane = new JScrollPane(providerTable);
+        if (sparklineRenderer != null) {
+            // Vorschaubilder nur für sichtbare Zeilen zeichnen
+            tableScrollPane.getViewport().addChangeListener(e -> sparklineRenderer.cancelHiddenRows());
+        }
         mainSplitPane.setLeftComponent(tableScrollPane);
 
         // Browser Setup
@@ -121,6 +111,14 @@ public class ShowSignalProviderList extends JDialog {
         }
     }
 
+    @Override
+    public void dispose() {
+        if (sparklineRenderer != null) {
+            sparklineRenderer.cancelAll();
+        }
+        super.dispose();
+    }
+
     // Neue Methode zum Öffnen des Equity Drawdown Dialogs
     public void showEquityDrawdownDialog() {
         // Stelle sicher, dass wir die aktuelle providers Map verwenden
@@ -200,21 +198,8 @@ public class ShowSignalProviderList extends JDialog {
             
             data[row][0] = info.toString();
             
-            // Column 2: Create equity curve chart
-            JFreeChart chart = createEquityChart(entry.getKey(), stats);
-            ChartPanel equityPanel = new ChartPanel(chart);
-            equityPanel.setMinimumDrawWidth(10);
-            equityPanel.setMinimumDrawHeight(10);
-            equityPanel.setMaximumDrawWidth(2000);
-            equityPanel.setMaximumDrawHeight(2000);
-            
-            // Fixed size setzen
-            Dimension chartSize = new Dimension(280, 150);
-            equityPanel.setPreferredSize(chartSize);
-            equityPanel.setMinimumSize(chartSize);
-            equityPanel.setMaximumSize(chartSize);
-            
-            data[row][1] = equityPanel;
+            // Column 2: Equity-Kurve, wird vom EquitySparklineRenderer als Bild gezeichnet
+            data[row][1] = stats;
             
             row++;
         }
@@ -257,7 +242,7 @@ public class ShowSignalProviderList extends JDialog {
             
             @Override
             public Class<?> getColumnClass(int column) {
-                if (column == 1) return ChartPanel.class;
+                if (column == 1) return ProviderStats.class;
                 return Object.class;
             }
         };
@@ -282,14 +267,9 @@ public class ShowSignalProviderList extends JDialog {
             }
         });
         
-        // Custom renderer for the chart column
-        table.getColumnModel().getColumn(1).setCellRenderer(new TableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value,
-                    boolean isSelected, boolean hasFocus, int row, int column) {
-                return (Component) value;
-            }
-        });
+        // Vorschaubilder der Equity-Kurven statt eines ChartPanels je Zeile
+        sparklineRenderer = new EquitySparklineRenderer(table);
+        table.getColumnModel().getColumn(1).setCellRenderer(sparklineRenderer);
 
         // Ensure proper column sizes
         table.getColumnModel().getColumn(0).setPreferredWidth(200);
@@ -399,51 +379,4 @@ public class ShowSignalProviderList extends JDialog {
         LOGGER.info("Keine ID gefunden, verwende Original-Name: " + providerName);
         return providerName;
     }
-
-    private JFreeChart createEquityChart(String providerName, ProviderStats stats) {
-        TimeSeries series = new TimeSeries(providerName);
-        TimeSeriesCollection dataset = new TimeSeriesCollection(series);
-        
-        List<Trade> trades = stats.getTrades();
-        if (trades != null && !trades.isEmpty()) {
-            trades.sort((t1, t2) -> t1.getCloseTime().compareTo(t2.getCloseTime()));
-            
-            double equity = stats.getInitialBalance();
-            
-            for (Trade trade : trades) {
-                if (trade.getCloseTime() != null && !trade.getCloseTime().isAfter(LocalDateTime.now())) {
-                    equity += trade.getTotalProfit();
-                    series.addOrUpdate(
-                        new Day(Date.from(trade.getCloseTime().atZone(ZoneId.systemDefault()).toInstant())),
-                        equity
-                    );
-                }
-            }
-        } else {
-            LOGGER.warning("Keine Trades für Provider: " + providerName);
-            // Füge Dummy-Datenpunkt hinzu, damit das Chart nicht leer ist
-            series.addOrUpdate(new Day(), 1000);
-        }
-
-        JFreeChart chart = ChartFactory.createTimeSeriesChart(
-            null,  // Kein Titel
-            "Time",
-            "Equity",
-            dataset,
-            true,
-            true,
-            false
-        );
-
-        XYPlot plot = (XYPlot) chart.getPlot();
-        plot.setBackgroundPaint(Color.WHITE);
-        plot.setDomainGridlinePaint(Color.LIGHT_GRAY);
-        plot.setRangeGridlinePaint(Color.LIGHT_GRAY);
-
-        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer();
-        renderer.setDefaultShapesVisible(false);
-        plot.setRenderer(renderer);
-
-        return chart;
-    }
 }
\ No newline at end of file
@@ -2,12 +2,18 @@ package ui.components;
 
 import java.awt.Component;
 import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JPanel;
 
+import charts.ArrayXYDataset;
 import charts.CurrencyPairTradesChart;
+import charts.DerivedSeriesCache;
 import charts.DurationProfitChart;
 import charts.EfficiencyChart;
 import charts.EquityDrawdownChart;
@@ -18,12 +24,17 @@ import charts.ThreeMonthProfitChart;
 import charts.TradeStackingChart;
 import charts.WeeklyLotsizeChart;
 import data.ProviderStats;
+import db.HistoryDatabaseManager.HistoryEntry;
+import services.ProviderHistoryService;
 import utils.ChartFactoryUtil;
 import utils.HtmlDatabase;
 import utils.UIStyle;
 
 /**
- * Factory-Klasse zur Erstellung aller Chart-Panels für die Performanceanalyse
+ * Factory-Klasse zur Erstellung aller Chart-Panels für die Performanceanalyse.
+ * Die Charts werden als {@link LazyChartPanel} eingefügt und erst aufgebaut,
+ * wenn sie in den sichtbaren Bereich gescrollt werden: die Daten im Hintergrund,
+ * die Swing-Komponenten danach im EDT.
  */
 public class ChartsPanelFactory {
     
@@ -58,55 +69,60 @@ public class ChartsPanelFactory {
     private static void addStandardCharts(JPanel panel, ProviderStats stats, 
                                          String providerName, HtmlDatabase htmlDatabase,
                                          ChartFactoryUtil chartFactory) {
-        // Hole den MaxDrawdownGraphic-Wert für das neue Drawdown-Chart
-        double maxDrawdownGraphic = htmlDatabase.getEquityDrawdownGraphic(providerName + ".csv");
-        
-        // Standard-Charts mit gleicher Größe
-        Component[] standardCharts = new Component[] {
-            chartFactory.createEquityCurveChart(stats),
-            chartFactory.createMonthlyProfitChart(stats),
-            // Aktualisierte Verwendung des Konstruktors mit htmlDatabase-Parameter
-            new EquityDrawdownChart(stats, maxDrawdownGraphic, htmlDatabase),
-            new ThreeMonthProfitChart(
-                htmlDatabase.getMonthlyProfitPercentages(providerName + ".csv"), 
-                htmlDatabase.getEquityDrawdown(providerName)
-            ),
-            createMpddHistoryChart(providerName),
-            new TradeStackingChart(stats.getTrades()),
-            new DurationProfitChart(stats.getTrades()),
-            new EfficiencyChart(stats.getTrades()),
-            new WeeklyLotsizeChart(stats.getTrades()),
-            new MonthlyTradeCountChart(stats.getTrades()),
-            chartFactory.createWeekdayProfitChart(stats),
-            chartFactory.createMartingaleVisualizationChart(stats),
-            new SymbolDistributionChart(stats.getTrades())
-        };
-        
-        String[] chartTitles = new String[] {
-            "Equity Curve",
-            "Monthly Performance Overview", 
-            "Drawdown Performance",  // Neuer Titel für das Drawdown-Chart
-            "3-Month Profit & Drawdown Analysis",
-            "3MPDD History",
-            "Trade Stacking Analysis",
-            "Duration vs Profit Analysis",
-            "Trading Efficiency Analysis",
-            "Weekly Lot Size Analysis",
-            "Monthly Trade Count",
-            "Profit by Weekday",
-            "Martingale Strategy Detection",
-            "Symbol Distribution"
-        };
+        // Standard-Charts mit gleicher Größe, aufgebaut erst bei Sichtbarkeit.
+        // Die Daten werden im Hintergrund berechnet, die Komponenten im EDT erzeugt.
+        List<ChartPanel> standardCharts = new ArrayList<>();
+        standardCharts.add(createChart("Equity Curve", UIStyle.DEFAULT_CHART_SIZE,
+                () -> DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.EQUITY_DAILY),
+                series -> chartFactory.createEquityCurveChart(series)));
+        standardCharts.add(createChart("Monthly Performance Overview", UIStyle.DEFAULT_CHART_SIZE,
+                () -> chartFactory.createMonthlyProfitDataset(stats),
+                dataset -> chartFactory.createMonthlyProfitChart(dataset)));
+        standardCharts.add(createChart("Drawdown Performance", UIStyle.DEFAULT_CHART_SIZE,
+                () -> EquityDrawdownChart.loadData(stats,
+                        htmlDatabase.getEquityDrawdownGraphic(providerName + ".csv"), htmlDatabase),
+                EquityDrawdownChart::new));
+        // Die Monatsperformance hat der PerformanceAnalysisDialog aus der HtmlDatabase in stats übernommen
+        standardCharts.add(createChart("3-Month Profit & Drawdown Analysis", UIStyle.DEFAULT_CHART_SIZE,
+                () -> ThreeMonthProfitChart.createDataset(
+                        DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.MONTHLY_PROFIT),
+                        htmlDatabase.getEquityDrawdown(providerName)),
+                ThreeMonthProfitChart::new));
+        standardCharts.add(createChart("3MPDD History", UIStyle.DEFAULT_CHART_SIZE,
+                () -> ProviderHistoryService.getInstance().getStatHistory(
+                        providerName, ProviderHistoryService.STAT_TYPE_3MPDD),
+                history -> createMpddHistoryChart(providerName, history)));
+        standardCharts.add(createChart("Trade Stacking Analysis", UIStyle.DEFAULT_CHART_SIZE,
+                () -> new ArrayXYDataset.Series[] {
+                    DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.OPEN_TRADES),
+                    DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.OPEN_LOTS)
+                },
+                series -> new TradeStackingChart(series[0], series[1])));
+        standardCharts.add(createChart("Duration vs Profit Analysis", UIStyle.DURATION_CHART_SIZE,
+                () -> DurationProfitChart.createDataset(stats.getTrades()),
+                DurationProfitChart::new));
+        standardCharts.add(createChart("Trading Efficiency Analysis", UIStyle.DEFAULT_CHART_SIZE,
+                () -> EfficiencyChart.createDataset(stats.getTrades()),
+                EfficiencyChart::new));
+        standardCharts.add(createChart("Weekly Lot Size Analysis", UIStyle.DEFAULT_CHART_SIZE,
+                () -> WeeklyLotsizeChart.createDataset(stats),
+                WeeklyLotsizeChart::new));
+        standardCharts.add(createChart("Monthly Trade Count", UIStyle.DEFAULT_CHART_SIZE,
+                () -> MonthlyTradeCountChart.createDataset(stats),
+                MonthlyTradeCountChart::new));
+        standardCharts.add(createChart("Profit by Weekday", UIStyle.DEFAULT_CHART_SIZE,
+                () -> chartFactory.createWeekdayProfitDataset(stats),
+                dataset -> chartFactory.createWeekdayProfitChart(dataset)));
+        standardCharts.add(createChart("Martingale Strategy Detection", UIStyle.DEFAULT_CHART_SIZE,
+                () -> chartFactory.loadMartingaleData(stats),
+                data -> chartFactory.createMartingaleVisualizationChart(data)));
+        standardCharts.add(createChart("Symbol Distribution", UIStyle.DEFAULT_CHART_SIZE,
+                () -> SymbolDistributionChart.createDataset(stats.getTrades()),
+                SymbolDistributionChart::new));
         
         // Durchlaufe alle Standard-Charts und füge sie zum Panel hinzu
-        for (int i = 0; i < standardCharts.length; i++) {
-            boolean isDurationChart = i == 6; // DurationProfitChart ist jetzt an Position 6
-            Dimension chartSize = isDurationChart ? 
-                    UIStyle.DURATION_CHART_SIZE : UIStyle.DEFAULT_CHART_SIZE;
-            
-            ChartPanel decoratedChart = new ChartPanel(
-                    standardCharts[i], chartTitles[i], chartSize);
-            panel.add(decoratedChart);
+        for (ChartPanel chart : standardCharts) {
+            panel.add(chart);
             panel.add(Box.createRigidArea(new Dimension(0, UIStyle.PANEL_SPACING)));
         }
     }
@@ -116,18 +132,30 @@ public class ChartsPanelFactory {
      */
     private static void addSpecialCharts(JPanel panel, ProviderStats stats) {
         // CurrencyPairTradesChart - Dieses Chart braucht eine spezielle Größe
-        CurrencyPairTradesChart currencyPairTradesChart = new CurrencyPairTradesChart(stats.getTrades());
-        ChartPanel currencyPairPanel = new ChartPanel(
-                currencyPairTradesChart, "Currency Pair Analysis", UIStyle.CURRENCY_PAIR_CHART_SIZE);
-        panel.add(currencyPairPanel);
+        panel.add(createChart("Currency Pair Analysis", UIStyle.CURRENCY_PAIR_CHART_SIZE,
+                () -> CurrencyPairTradesChart.buildStepSeries(stats.getTrades()),
+                CurrencyPairTradesChart::new));
+    }
+    
+    /**
+     * Erstellt ein dekoriertes Chart, das erst bei Sichtbarkeit aufgebaut wird
+     * 
+     * @param title Titel des Charts
+     * @param size Größe des Charts
+     * @param dataLoader Berechnet die Daten im Hintergrund, ohne Swing-Komponenten zu erzeugen
+     * @param chartBuilder Erzeugt das Chart aus den Daten im EDT
+     */
+    private static <T> ChartPanel createChart(String title, Dimension size, Supplier<? extends T> dataLoader,
+            Function<? super T, ? extends Component> chartBuilder) {
+        return new ChartPanel(new LazyChartPanel(title, dataLoader, chartBuilder), title, size);
     }
     
     /**
-     * Erstellt ein MPDD History Chart
+     * Erstellt ein MPDD History Chart aus der bereits geladenen Historie
      */
-    private static ProviderStatHistoryChart createMpddHistoryChart(String providerName) {
+    private static ProviderStatHistoryChart createMpddHistoryChart(String providerName, List<HistoryEntry> history) {
         ProviderStatHistoryChart chart = new ProviderStatHistoryChart();
-        chart.loadProviderHistory(providerName);
+        chart.showProviderHistory(providerName, history);
         return chart;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,367 @@
+package ui.components;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.swing.JComponent;
+import javax.swing.JTable;
+import javax.swing.table.TableCellRenderer;
+
+import charts.ArrayXYDataset;
+import charts.DerivedSeriesCache;
+import data.ProviderStats;
+import utils.TaskScheduler;
+import utils.UIStyle;
+
+/**
+ * Zeichnet die Equity-Kurve eines Providers als kleines Vorschaubild in eine
+ * Tabellenzelle. Erwartet {@link ProviderStats} als Zellwert.
+ *
+ * Statt eines JFreeChart mit ChartPanel je Zeile wird die Kurve direkt aus den
+ * primitiven Arrays der gemeinsamen Equity-Serie in ein BufferedImage
+ * gezeichnet, je Pixelspalte mit erstem, kleinstem, größtem und letztem Wert.
+ * Die Bilder entstehen in der interaktiven Lane des TaskSchedulers und nur für
+ * Zeilen, die tatsächlich gezeichnet werden; Aufträge für herausgescrollte
+ * Zeilen werden mit {@link #cancelHiddenRows()} verworfen. Fertige Bilder
+ * liegen in einem nach Speicher begrenzten LRU-Cache, der zwischen allen
+ * Tabellen geteilt wird.
+ *
+ * Alle Methoden werden im EDT aufgerufen.
+ */
+public class EquitySparklineRenderer extends JComponent implements TableCellRenderer {
+    private static final long serialVersionUID = 1L;
+
+    /** Speicherobergrenze der zwischengespeicherten Bilder (4 Byte je Pixel) */
+    private static final long MAX_CACHE_BYTES = 24L * 1024 * 1024;
+
+    private static final int PADDING = 6;
+    private static final Color POSITIVE_COLOR = new Color(0, 140, 60);
+    private static final Color NEGATIVE_COLOR = new Color(200, 40, 40);
+    private static final Color BASELINE_COLOR = new Color(200, 200, 200);
+
+    private static final class ImageKey {
+        private final String provider;
+        private final long version;
+        private final int width;
+        private final int height;
+
+        ImageKey(ProviderStats stats, int width, int height) {
+            this.provider = stats.getSignalProvider();
+            this.version = stats.getDataVersion();
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ImageKey)) {
+                return false;
+            }
+            ImageKey other = (ImageKey) o;
+            return version == other.version && width == other.width && height == other.height
+                    && Objects.equals(provider, other.provider);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(provider, version, width, height);
+        }
+    }
+
+    /** Auftrag für ein noch nicht gezeichnetes Bild und die Zeile, die es angefordert hat */
+    private static final class PendingImage {
+        private final TaskScheduler.TaskHandle<BufferedImage> handle;
+        private final int row;
+
+        PendingImage(TaskScheduler.TaskHandle<BufferedImage> handle, int row) {
+            this.handle = handle;
+            this.row = row;
+        }
+    }
+
+    // Zugriffsreihenfolge, das am längsten nicht gezeigte Bild wird zuerst verworfen
+    private static final LinkedHashMap<ImageKey, BufferedImage> IMAGE_CACHE = new LinkedHashMap<>(64, 0.75f, true);
+    private static long cachedBytes;
+
+    private final JTable table;
+    private final Map<ImageKey, PendingImage> pending = new HashMap<>();
+    private BufferedImage image;
+    private String message;
+    private boolean selected;
+
+    public EquitySparklineRenderer(JTable table) {
+        this.table = table;
+        setOpaque(true);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value,
+            boolean isSelected, boolean hasFocus, int row, int column) {
+        if (value instanceof Component) {
+            // Platzhalter ohne Provider-Daten
+            return (Component) value;
+        }
+
+        image = null;
+        message = null;
+        selected = isSelected;
+        setBackground(table.getBackground());
+
+        if (!(value instanceof ProviderStats)) {
+            message = "Keine Chart-Daten";
+            return this;
+        }
+        ProviderStats stats = (ProviderStats) value;
+        if (stats.getTrades().isEmpty()) {
+            message = "Keine Trades";
+            return this;
+        }
+
+        Rectangle cell = table.getCellRect(row, column, false);
+        ImageKey key = new ImageKey(stats, Math.max(1, cell.width), Math.max(1, cell.height));
+        image = IMAGE_CACHE.get(key);
+        if (image == null) {
+            message = "Chart wird geladen ...";
+            requestImage(key, stats, row);
+        }
+        return this;
+    }
+
+    /**
+     * Bricht Aufträge für Zeilen ab, die nicht mehr im sichtbaren Bereich liegen.
+     * Wird bei jeder Änderung des Viewports aufgerufen.
+     */
+    public void cancelHiddenRows() {
+        Rectangle visible = table.getVisibleRect();
+        int first = table.rowAtPoint(visible.getLocation());
+        int last = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        if (first < 0) {
+            first = 0;
+        }
+        if (last < 0) {
+            last = table.getRowCount() - 1;
+        }
+
+        Iterator<PendingImage> it = pending.values().iterator();
+        while (it.hasNext()) {
+            PendingImage job = it.next();
+            if (job.row < first || job.row > last) {
+                job.handle.cancel();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Bricht alle offenen Aufträge ab, z.B. beim Schließen des Dialogs
+     */
+    public void cancelAll() {
+        for (PendingImage job : pending.values()) {
+            job.handle.cancel();
+        }
+        pending.clear();
+    }
+
+    private void requestImage(ImageKey key, ProviderStats stats, int row) {
+        if (pending.containsKey(key)) {
+            return;
+        }
+        TaskScheduler.TaskHandle<BufferedImage> handle = TaskScheduler.getInstance().submit(
+                "Equity-Vorschau: " + key.provider, TaskScheduler.Priority.INTERACTIVE, token -> {
+                    token.throwIfCancelled();
+                    ArrayXYDataset.Series series = DerivedSeriesCache.getInstance()
+                            .get(stats, DerivedSeriesCache.Kind.EQUITY_DAILY);
+                    token.throwIfCancelled();
+                    return drawSparkline(series, key.width, key.height);
+                });
+        PendingImage job = new PendingImage(handle, row);
+        pending.put(key, job);
+        handle.onCompletionInEdt((result, error) -> {
+            if (pending.get(key) != job) {
+                return; // Abgebrochen
+            }
+            pending.remove(key);
+            if (error != null || result == null) {
+                return;
+            }
+            putImage(key, result);
+            // Die Zeile kann inzwischen an anderer Stelle stehen, daher die sichtbare Tabelle neu zeichnen
+            table.repaint(table.getVisibleRect());
+        });
+    }
+
+    private static void putImage(ImageKey key, BufferedImage image) {
+        BufferedImage previous = IMAGE_CACHE.put(key, image);
+        if (previous != null) {
+            cachedBytes -= sizeOf(previous);
+        }
+        cachedBytes += sizeOf(image);
+
+        Iterator<BufferedImage> it = IMAGE_CACHE.values().iterator();
+        while (cachedBytes > MAX_CACHE_BYTES && IMAGE_CACHE.size() > 1 && it.hasNext()) {
+            cachedBytes -= sizeOf(it.next());
+            it.remove();
+        }
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    /**
+     * Zeichnet die Serie als Linie mit Fläche. Je Pixelspalte werden erster,
+     * kleinster, größter und letzter Wert verbunden, so dass Spitzen erhalten
+     * bleiben und der Aufwand nur linear von der Anzahl Punkte abhängt.
+     */
+    static BufferedImage drawSparkline(ArrayXYDataset.Series series, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+
+            int n = series.size();
+            int plotWidth = width - 2 * PADDING;
+            int plotHeight = height - 2 * PADDING;
+            if (n == 0 || plotWidth <= 0 || plotHeight <= 0) {
+                return image;
+            }
+
+            double minY = series.getMinY();
+            double maxY = series.getMaxY();
+            if (maxY - minY < 1e-9) {
+                minY -= 1.0;
+                maxY += 1.0;
+            }
+            long firstX = series.getX(0);
+            double spanX = Math.max(1.0, (double) series.getX(n - 1) - firstX);
+            double scaleY = plotHeight / (maxY - minY);
+
+            Path2D.Double line = new Path2D.Double();
+            int i = 0;
+            while (i < n) {
+                int column = (int) Math.min(plotWidth - 1, (long) ((series.getX(i) - firstX) / spanX * (plotWidth - 1)));
+                double first = series.getY(i);
+                double low = first;
+                double high = first;
+                double last = first;
+                int j = i + 1;
+                while (j < n && (int) Math.min(plotWidth - 1,
+                        (long) ((series.getX(j) - firstX) / spanX * (plotWidth - 1))) == column) {
+                    double value = series.getY(j);
+                    low = Math.min(low, value);
+                    high = Math.max(high, value);
+                    last = value;
+                    j++;
+                }
+
+                double x = PADDING + column;
+                if (i == 0) {
+                    line.moveTo(x, toPixel(first, minY, scaleY, height));
+                } else {
+                    line.lineTo(x, toPixel(first, minY, scaleY, height));
+                }
+                if (j - i > 1) {
+                    line.lineTo(x, toPixel(low, minY, scaleY, height));
+                    line.lineTo(x, toPixel(high, minY, scaleY, height));
+                    line.lineTo(x, toPixel(last, minY, scaleY, height));
+                }
+                i = j;
+            }
+
+            boolean positive = series.getY(n - 1) >= series.getY(0);
+            Color color = positive ? POSITIVE_COLOR : NEGATIVE_COLOR;
+
+            // Fläche unter der Kurve
+            Path2D.Double area = new Path2D.Double(line);
+            double lastX = line.getCurrentPoint().getX();
+            area.lineTo(lastX, height - PADDING);
+            area.lineTo(PADDING, height - PADDING);
+            area.closePath();
+            g.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 40));
+            g.fill(area);
+
+            // Ausgangswert als Orientierung
+            int baseline = (int) Math.round(toPixel(series.getY(0), minY, scaleY, height));
+            g.setColor(BASELINE_COLOR);
+            g.setStroke(new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 1f, new float[] {3f, 3f}, 0f));
+            g.drawLine(PADDING, baseline, width - PADDING, baseline);
+
+            g.setColor(color);
+            g.setStroke(new BasicStroke(1.5f));
+            g.draw(line);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static double toPixel(double value, double minY, double scaleY, int height) {
+        return height - PADDING - (value - minY) * scaleY;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (image != null) {
+            g.drawImage(image, 0, 0, null);
+        } else if (message != null) {
+            g.setColor(UIStyle.SECONDARY_COLOR);
+            int textWidth = g.getFontMetrics().stringWidth(message);
+            g.drawString(message, (getWidth() - textWidth) / 2, getHeight() / 2);
+        }
+        if (selected) {
+            g.setColor(table.getSelectionBackground());
+            g.drawRect(0, 0, getWidth() - 1, getHeight() - 1);
+            g.drawRect(1, 1, getWidth() - 3, getHeight() - 3);
+        }
+    }
+
+    // Wie DefaultTableCellRenderer: keine Neuberechnung des Layouts je Zelle
+    @Override
+    public void invalidate() {
+    }
+
+    @Override
+    public void validate() {
+    }
+
+    @Override
+    public void revalidate() {
+    }
+
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void repaint(Rectangle r) {
+    }
+
+    @Override
+    public void repaint() {
+    }
+
+    @Override
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    }
+
+    @Override
+    public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {
+    }
+}
@@ -0,0 +1,113 @@
+package ui.components;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+
+import utils.TaskScheduler;
+import utils.UIStyle;
+
+/**
+ * Platzhalter für ein Chart, das erst beim ersten Sichtbarwerden erzeugt wird.
+ *
+ * Ein JScrollPane zeichnet nur Komponenten im sichtbaren Ausschnitt; der erste
+ * Zeichenaufruf startet daher den Aufbau. Die Daten des Charts (Datasets,
+ * Datenbankabfragen) werden in der interaktiven Lane des TaskSchedulers
+ * berechnet; die Swing-Komponente selbst wird danach im EDT aus diesen Daten
+ * erzeugt und eingehängt.
+ *
+ * Wird der Platzhalter aus der Oberfläche entfernt (z.B. beim Schließen des
+ * Dialogs), wird ein noch wartender Aufbau abgebrochen.
+ */
+public class LazyChartPanel extends JPanel {
+    private static final Logger LOGGER = Logger.getLogger(LazyChartPanel.class.getName());
+
+    private final String title;
+    // Berechnet im Hintergrund die Daten und liefert den Aufbau der Komponente für den EDT
+    private final Supplier<Supplier<? extends Component>> chartLoader;
+    private final JLabel statusLabel;
+    private TaskScheduler.TaskHandle<Supplier<? extends Component>> loadHandle;
+    // Aufbau abgeschlossen, erfolgreich oder mit Fehler
+    private boolean finished;
+
+    /**
+     * @param title Name des Charts für Statusanzeige und Task-Übersicht
+     * @param dataLoader Berechnet die Daten des Charts, wird im Hintergrund aufgerufen
+     *        und darf keine Swing-Komponenten erzeugen
+     * @param chartBuilder Erzeugt das Chart aus den Daten, wird im EDT aufgerufen
+     */
+    public <T> LazyChartPanel(String title, Supplier<? extends T> dataLoader,
+            Function<? super T, ? extends Component> chartBuilder) {
+        super(new BorderLayout());
+        this.title = title;
+        this.chartLoader = () -> {
+            T data = dataLoader.get();
+            return () -> chartBuilder.apply(data);
+        };
+        setOpaque(false);
+
+        statusLabel = new JLabel("Chart wird geladen ...", SwingConstants.CENTER);
+        statusLabel.setForeground(UIStyle.SECONDARY_COLOR);
+        add(statusLabel, BorderLayout.CENTER);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (!finished && loadHandle == null) {
+            startLoading();
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+        if (loadHandle != null && !loadHandle.isDone()) {
+            loadHandle.cancel();
+            loadHandle = null;
+        }
+    }
+
+    private void startLoading() {
+        TaskScheduler.TaskHandle<Supplier<? extends Component>> handle = TaskScheduler.getInstance().submit(
+                "Chart aufbauen: " + title, TaskScheduler.Priority.INTERACTIVE, token -> {
+                    token.throwIfCancelled();
+                    return chartLoader.get();
+                });
+        loadHandle = handle;
+        handle.onCompletionInEdt((chartBuilder, error) -> {
+            if (loadHandle != handle) {
+                return; // Abgebrochen, ein späteres Sichtbarwerden lädt neu
+            }
+            loadHandle = null;
+            Component chart = null;
+            if (error == null) {
+                try {
+                    chart = chartBuilder.get();
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+            if (error != null) {
+                if (!handle.isCancelled()) {
+                    finished = true;
+                    LOGGER.warning("Chart '" + title + "' konnte nicht erstellt werden: " + error.getMessage());
+                    statusLabel.setText("Chart konnte nicht geladen werden");
+                }
+                return;
+            }
+            finished = true;
+            removeAll();
+            add(chart, BorderLayout.CENTER);
+            revalidate();
+            repaint();
+        });
+    }
+}
@@ -2,6 +2,7 @@ package ui.components;
 
 import java.awt.Color;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import javax.swing.BorderFactory;
 import javax.swing.JFileChooser;
@@ -9,10 +10,13 @@ import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import components.MainTable;
 import data.DataManager;
 import data.ProviderStats;
+import db.ConnectionPool;
+import db.HistoryDatabaseManager.IntegrityReport;
 import services.ProviderHistoryService;
 import ui.CompareEquityCurvesDialog;
 import ui.CompareOpenTradesDialog;
@@ -23,10 +27,12 @@ import ui.MainFrame;
 import ui.RiskScoreExplanationDialog;
 import ui.ShowSignalProviderList;
 import ui.TableColumnConfigDialog;
+import ui.dialogs.BackgroundTasksDialog;
 import ui.dialogs.CheckSignalProviderDialog;
 import ui.dialogs.TextFileViewerDialog;
 import utils.HtmlDatabase;
 import utils.MqlAnalyserConf;
+import utils.TaskScheduler;
 import utils.UIStyle;
 
 public class MenuManager {
@@ -85,6 +91,7 @@ public class MenuManager {
                 JOptionPane.YES_NO_OPTION);
             
             if (result == JOptionPane.YES_OPTION) {
+                TaskScheduler.getInstance().shutdown();
                 historyService.shutdown();
                 parentFrame.dispose();
                 System.exit(0);
@@ -120,23 +127,17 @@ public class MenuManager {
                 
                 if (answer == JOptionPane.YES_OPTION) {
                     // Initiale Speicherung im Hintergrund ausführen
-                    new javax.swing.SwingWorker<Void, Void>() {
-                        @Override
-                        protected Void doInBackground() throws Exception {
-                            historyService.forceInitialSave();
-                            return null;
-                        }
-                        
-                        @Override
-                        protected void done() {
-                            JOptionPane.showMessageDialog(
-                                parentFrame,
-                                "Initiale Speicherung abgeschlossen. Die Datenbank enthält nun Einträge für alle Provider.",
-                                "Speicherung abgeschlossen",
-                                JOptionPane.INFORMATION_MESSAGE
-                            );
-                        }
-                    }.execute();
+                    TaskScheduler.getInstance().submit("Initiale DB-Speicherung", TaskScheduler.Priority.BACKGROUND, token -> {
+                        historyService.forceInitialSave();
+                        return null;
+                    }).onCompletionInEdt((result, error) -> {
+                        JOptionPane.showMessageDialog(
+                            parentFrame,
+                            "Initiale Speicherung abgeschlossen. Die Datenbank enthält nun Einträge für alle Provider.",
+                            "Speicherung abgeschlossen",
+                            JOptionPane.INFORMATION_MESSAGE
+                        );
+                    });
                 }
             } else {
                 // Detaillierten Dialog zum Erzwingen der Speicherung öffnen
@@ -153,27 +154,102 @@ public class MenuManager {
         // Menüpunkt für DB-Backup erstellen
         JMenuItem backupDbItem = new JMenuItem("Datenbank-Backup erstellen");
         backupDbItem.addActionListener(e -> {
-            boolean success = historyService.createBackup();
-            if (success) {
-                JOptionPane.showMessageDialog(
-                    parentFrame,
-                    "Datenbank-Backup wurde erfolgreich erstellt.",
-                    "Backup erfolgreich",
-                    JOptionPane.INFORMATION_MESSAGE
-                );
-            } else {
-                JOptionPane.showMessageDialog(
-                    parentFrame,
-                    "Fehler beim Erstellen des Datenbank-Backups.",
-                    "Backup-Fehler",
-                    JOptionPane.ERROR_MESSAGE
-                );
+            // Das Backup läuft im Hintergrund, das Ergebnis wird danach angezeigt
+            backupDbItem.setEnabled(false);
+            historyService.createBackupAsync().whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                backupDbItem.setEnabled(true);
+                if (result != null && result.isSuccess()) {
+                    JOptionPane.showMessageDialog(
+                        parentFrame,
+                        "Datenbank-Backup wurde erfolgreich erstellt.\n" + result,
+                        "Backup erfolgreich",
+                        JOptionPane.INFORMATION_MESSAGE
+                    );
+                } else {
+                    JOptionPane.showMessageDialog(
+                        parentFrame,
+                        "Fehler beim Erstellen des Datenbank-Backups." + (result != null ? "\n" + result : ""),
+                        "Backup-Fehler",
+                        JOptionPane.ERROR_MESSAGE
+                    );
+                }
+            }));
+        });
+        
+        // Menüpunkt für die gründliche Integritätsprüfung (liest alle Zeilen im Hintergrund)
+        JMenuItem verifyDbItem = new JMenuItem("Datenbank gründlich prüfen");
+        verifyDbItem.addActionListener(e -> {
+            TaskScheduler.TaskHandle<IntegrityReport> handle = historyService.verifyDatabaseIntegrityDeepAsync();
+            if (handle == null) {
+                return;
+            }
+            verifyDbItem.setEnabled(false);
+            handle.onCompletionInEdt((report, error) -> {
+                verifyDbItem.setEnabled(true);
+                if (error instanceof CancellationException) {
+                    return;
+                }
+                if (report == null) {
+                    JOptionPane.showMessageDialog(
+                        parentFrame,
+                        "Die Datenbankprüfung konnte nicht durchgeführt werden.",
+                        "Prüfungs-Fehler",
+                        JOptionPane.ERROR_MESSAGE
+                    );
+                } else if (report.isConsistent()) {
+                    JOptionPane.showMessageDialog(
+                        parentFrame,
+                        "Die Datenbank ist konsistent.\n" + report,
+                        "Prüfung erfolgreich",
+                        JOptionPane.INFORMATION_MESSAGE
+                    );
+                } else {
+                    JOptionPane.showMessageDialog(
+                        parentFrame,
+                        "Abweichung erkannt, ein Backup wurde erstellt.\n" + report,
+                        "Datenbank inkonsistent",
+                        JOptionPane.WARNING_MESSAGE
+                    );
+                }
+            });
+        });
+        
+        // Menüpunkt für das Verdichten alter Statistikwerte
+        JMenuItem retentionDbItem = new JMenuItem("Historie verdichten");
+        retentionDbItem.addActionListener(e -> {
+            TaskScheduler.TaskHandle<Integer> handle = historyService.applyRetentionAsync();
+            if (handle == null) {
+                return;
             }
+            retentionDbItem.setEnabled(false);
+            handle.onCompletionInEdt((rolledUp, error) -> {
+                retentionDbItem.setEnabled(true);
+                if (error instanceof CancellationException) {
+                    return;
+                }
+                if (rolledUp == null || rolledUp < 0) {
+                    JOptionPane.showMessageDialog(
+                        parentFrame,
+                        "Die Historie konnte nicht verdichtet werden.",
+                        "Verdichtungs-Fehler",
+                        JOptionPane.ERROR_MESSAGE
+                    );
+                } else {
+                    JOptionPane.showMessageDialog(
+                        parentFrame,
+                        rolledUp + " alte Werte wurden zu Wochen- und Monatswerten verdichtet.",
+                        "Verdichtung abgeschlossen",
+                        JOptionPane.INFORMATION_MESSAGE
+                    );
+                }
+            });
         });
         
         dbMenu.add(viewDbItem);
         dbMenu.add(forceDbSaveItem);
         dbMenu.add(backupDbItem);
+        dbMenu.add(verifyDbItem);
+        dbMenu.add(retentionDbItem);
         
         // Ansicht-Menü
         JMenu viewMenu = new JMenu("Ansicht");
@@ -255,8 +331,31 @@ public class MenuManager {
             dialog.setVisible(true);
         });
         
+        // Menüpunkt für die Anzeige der Hintergrundaufgaben
+        JMenuItem backgroundTasksItem = new JMenuItem("Hintergrundaufgaben");
+        backgroundTasksItem.addActionListener(e -> {
+            BackgroundTasksDialog dialog = new BackgroundTasksDialog(parentFrame);
+            dialog.setVisible(true);
+        });
+        
+        // Menüpunkt für Auslastung und Wartezeiten der Datenbankverbindungen
+        JMenuItem connectionStatsItem = new JMenuItem("Datenbank-Verbindungen");
+        connectionStatsItem.addActionListener(e -> {
+            ConnectionPool.Stats stats = historyService.getConnectionPoolStats();
+            JOptionPane.showMessageDialog(
+                parentFrame,
+                stats != null ? "Lese-Pool: " + stats + "\nVorgemerkte Schreibzugriffe: " + historyService.getPendingWriteCount()
+                                + "\nVerworfene Schreibzugriffe: " + historyService.getDiscardedWriteCount()
+                              : "Keine Datenbankverbindung verfügbar.",
+                "Datenbank-Verbindungen",
+                JOptionPane.INFORMATION_MESSAGE
+            );
+        });
+        
         debugMenu.add(showTextfileItem);
         debugMenu.add(checkSignalProviderItem); // Neuer Menüpunkt hinzugefügt
+        debugMenu.add(backgroundTasksItem);
+        debugMenu.add(connectionStatsItem);
         
         // Hilfe-Menü
         JMenu helpMenu = new JMenu("Hilfe");
@@ -361,16 +460,7 @@ public class MenuManager {
     }
     
     private void reloadData(String newPath) {
-        try {
-            dataManager.loadData(newPath);
-            mainTable.refreshTableData();
-            parentFrame.updateStatusBar();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(parentFrame, 
-                "Error loading data from new path", 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+        parentFrame.reloadData(newPath);
     }
     
     private void showCompareDialog() {
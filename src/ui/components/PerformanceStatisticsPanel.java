@@ -83,7 +83,7 @@ public class PerformanceStatisticsPanel extends JPanel {
         this.htmlDatabase = htmlDatabase;
         this.rootPath = rootPath;
         this.websiteAnalyzer = new WebsiteAnalyzer(rootPath);
-        this.favoritesManager = new FavoritesManager(rootPath);
+        this.favoritesManager = FavoritesManager.getInstance(rootPath);
         this.dbManager = HistoryDatabaseManager.getInstance(rootPath);
         this.pdfButtons = new ArrayList<>();
         
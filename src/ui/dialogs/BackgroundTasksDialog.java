@@ -0,0 +1,167 @@
+package ui.dialogs;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import ui.UIConstants;
+import ui.components.UIComponentFactory;
+import utils.TaskScheduler;
+import utils.TaskScheduler.TaskHandle;
+
+/**
+ * Dialog zur Live-Anzeige der wartenden und laufenden Hintergrundaufgaben
+ */
+public class BackgroundTasksDialog extends JDialog {
+    private static final int REFRESH_INTERVAL_MS = 500;
+
+    private final TaskTableModel tableModel = new TaskTableModel();
+    private final JTable table;
+    private final Timer refreshTimer;
+
+    /**
+     * Konstruktor für den BackgroundTasksDialog
+     *
+     * @param parent Das übergeordnete Fenster
+     */
+    public BackgroundTasksDialog(Window parent) {
+        super(parent, "Hintergrundaufgaben", ModalityType.MODELESS);
+
+        setLayout(new BorderLayout(10, 10));
+        getContentPane().setBackground(UIConstants.BG_COLOR);
+
+        table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setRowHeight(25);
+        table.setBackground(Color.WHITE);
+        table.setForeground(UIConstants.TEXT_COLOR);
+        table.setGridColor(new Color(230, 230, 230));
+        table.getTableHeader().setBackground(UIConstants.SECONDARY_COLOR);
+        table.getTableHeader().setForeground(Color.WHITE);
+        table.getTableHeader().setFont(UIConstants.BOLD_FONT);
+        table.getColumnModel().getColumn(0).setPreferredWidth(250);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(UIConstants.DB_DIALOG_SIZE);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        add(scrollPane, BorderLayout.CENTER);
+
+        JButton cancelButton = UIComponentFactory.createStyledButton("Abbrechen");
+        cancelButton.addActionListener(e -> cancelSelectedTask());
+
+        JButton closeButton = UIComponentFactory.createStyledButton("Schließen");
+        closeButton.addActionListener(e -> dispose());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setOpaque(false);
+        buttonPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(closeButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        // Regelmäßig aktualisieren, solange der Dialog offen ist
+        refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> refresh());
+        refreshTimer.start();
+        refresh();
+
+        pack();
+        setLocationRelativeTo(parent);
+    }
+
+    private void cancelSelectedTask() {
+        int row = table.getSelectedRow();
+        if (row >= 0) {
+            tableModel.getTask(row).cancel();
+            refresh();
+        }
+    }
+
+    /**
+     * Lädt die Aufgabenliste neu und behält die Auswahl bei
+     */
+    private void refresh() {
+        int row = table.getSelectedRow();
+        long selectedId = row >= 0 ? tableModel.getTask(row).getId() : -1;
+
+        tableModel.refresh();
+
+        int newRow = tableModel.indexOf(selectedId);
+        if (newRow >= 0) {
+            table.setRowSelectionInterval(newRow, newRow);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
+    }
+
+    /**
+     * Tabellenmodell über einer Momentaufnahme der aktiven Aufgaben
+     */
+    private static class TaskTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Aufgabe", "Lane", "Status", "Wartezeit (ms)", "Laufzeit (ms)"};
+
+        private List<TaskHandle<?>> tasks = new ArrayList<>();
+
+        void refresh() {
+            tasks = TaskScheduler.getInstance().getActiveTasks();
+            fireTableDataChanged();
+        }
+
+        TaskHandle<?> getTask(int row) {
+            return tasks.get(row);
+        }
+
+        int indexOf(long taskId) {
+            for (int i = 0; i < tasks.size(); i++) {
+                if (tasks.get(i).getId() == taskId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int getRowCount() {
+            return tasks.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            TaskHandle<?> task = tasks.get(row);
+            switch (column) {
+                case 0: return task.getName();
+                case 1: return task.getPriority().getDisplayName();
+                case 2: return task.isCancelled() ? "Wird abgebrochen" : task.getState().getDisplayName();
+                case 3: return task.getQueuedMillis();
+                case 4: return task.getRunningMillis();
+                default: return null;
+            }
+        }
+    }
+}
@@ -3,6 +3,11 @@ package ui.dialogs;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -10,9 +15,16 @@ import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.logging.Logger;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
+import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JComponent;
@@ -27,12 +39,22 @@ import javax.swing.border.EmptyBorder;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.PDFRenderer;
 
+import utils.TaskScheduler;
 import utils.UIStyle;
 
 /**
  * Dialog zur Anzeige von PDF-Dokumenten mit Apache PDFBox
+ *
+ * Seiten werden im TaskScheduler gerendert, nicht im EDT. Beim Blättern
+ * erscheint zuerst eine Vorschau mit geringer Auflösung, die durch die
+ * vollständige Seite ersetzt wird. Danach werden die Nachbarseiten im
+ * Hintergrund vorberechnet. Gerenderte Seiten liegen in einem nach Speicher
+ * begrenzten LRU-Cache; Aufträge für Seiten, die beim schnellen Blättern
+ * nicht mehr benötigt werden, werden abgebrochen.
  */
 public class PDFViewerDialog extends JFrame {
+    private static final Logger LOGGER = Logger.getLogger(PDFViewerDialog.class.getName());
+
     private final File pdfFile;
     private PDDocument document;
     private PDFRenderer pdfRenderer;
@@ -47,6 +69,20 @@ public class PDFViewerDialog extends JFrame {
     private JScrollPane scrollPane;
     
     private static final float ZOOM_FACTOR = 1.5f; // 150% Zoom für bessere Lesbarkeit
+    private static final float FULL_DPI = 96 * ZOOM_FACTOR;
+    // Ein Drittel der Auflösung, also etwa ein Neuntel der Pixel
+    private static final float PREVIEW_DPI = FULL_DPI / 3;
+    // Bei 144 DPI belegt eine A4-Seite etwa 8 MB
+    private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024;
+    
+    // PDFRenderer und PDDocument sind nicht threadsicher
+    private final Object renderLock = new Object();
+    // Nur im EDT verwendet, Schlüssel siehe cacheKey()
+    private final LinkedHashMap<Long, BufferedImage> pageCache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, TaskScheduler.TaskHandle<BufferedImage>> pendingRenders = new HashMap<>();
+    private long cacheBytes;
+    private boolean showingFullPage;
+    private volatile boolean closed;
     
     /**
      * Konstruktor für den PDF-Viewer-Dialog
@@ -171,30 +207,176 @@ public class PDFViewerDialog extends JFrame {
     }
     
     /**
-     * Zeigt eine bestimmte PDF-Seite an
+     * Zeigt eine bestimmte PDF-Seite an. Liegt sie nicht im Cache, wird sie
+     * im Hintergrund gerendert, bis dahin ist die Vorschau zu sehen.
      * @param pageIndex Der Index der anzuzeigenden Seite (0-basiert)
      */
     private void displayPage(int pageIndex) {
-        try {
-            if (pdfRenderer != null && pageIndex >= 0 && pageIndex < totalPages) {
-                // PDF-Seite als Bild rendern
-                BufferedImage image = pdfRenderer.renderImageWithDPI(pageIndex, 96 * ZOOM_FACTOR);
-                
-                // Bild im Label anzeigen
-                imageLabel.setIcon(new ImageIcon(image));
-                
-                // Seiten-Info aktualisieren
-                pageLabel.setText(String.format("Seite %d von %d", pageIndex + 1, totalPages));
-                
-                // Scroll-Position zurücksetzen
-                scrollPane.getViewport().setViewPosition(new java.awt.Point(0, 0));
+        if (pdfRenderer == null || pageIndex < 0 || pageIndex >= totalPages) {
+            return;
+        }
+        // Nur die Seite und ihre Nachbarn werden noch gebraucht
+        cancelRendersOutside(pageIndex - 1, pageIndex + 1);
+        
+        BufferedImage full = pageCache.get(cacheKey(pageIndex, true));
+        if (full != null) {
+            showImage(full, true);
+            prefetchNeighbours(pageIndex);
+        } else {
+            BufferedImage preview = pageCache.get(cacheKey(pageIndex, false));
+            if (preview != null) {
+                showImage(preview, false);
+                requestRender(pageIndex, true, TaskScheduler.Priority.INTERACTIVE);
+            } else {
+                showLoading();
+                requestRender(pageIndex, false, TaskScheduler.Priority.INTERACTIVE);
+            }
+        }
+        
+        // Seiten-Info aktualisieren
+        pageLabel.setText(String.format("Seite %d von %d", pageIndex + 1, totalPages));
+        
+        // Scroll-Position zurücksetzen
+        scrollPane.getViewport().setViewPosition(new Point(0, 0));
+    }
+    
+    /**
+     * Startet das Rendern einer Seite, falls sie weder im Cache liegt noch
+     * bereits beauftragt ist
+     * @param pageIndex Seite (0-basiert)
+     * @param full true für die volle Auflösung, false für die Vorschau
+     * @param priority INTERACTIVE für die angezeigte Seite, BACKGROUND zum Vorberechnen
+     */
+    private void requestRender(int pageIndex, boolean full, TaskScheduler.Priority priority) {
+        long key = cacheKey(pageIndex, full);
+        if (closed || pageIndex < 0 || pageIndex >= totalPages
+                || pageCache.containsKey(key) || pendingRenders.containsKey(key)) {
+            return;
+        }
+        float dpi = full ? FULL_DPI : PREVIEW_DPI;
+        String name = "PDF Seite " + (pageIndex + 1) + (full ? "" : " (Vorschau)") + ": " + pdfFile.getName();
+        TaskScheduler.TaskHandle<BufferedImage> handle = TaskScheduler.getInstance().submit(
+                name, priority, token -> renderPage(pageIndex, dpi, token));
+        pendingRenders.put(key, handle);
+        handle.onCompletionInEdt((image, error) -> {
+            pendingRenders.remove(key, handle);
+            if (closed || handle.isCancelled() || error instanceof CancellationException) {
+                return;
+            }
+            if (error != null) {
+                LOGGER.warning("Seite " + (pageIndex + 1) + " von " + pdfFile.getName()
+                        + " konnte nicht gerendert werden: " + error.getMessage());
+                if (pageIndex == currentPage) {
+                    showError("Fehler beim Anzeigen der Seite: " + error.getMessage());
+                }
+                return;
+            }
+            pageRendered(pageIndex, full, image);
+        });
+    }
+    
+    /**
+     * Rendert eine Seite, läuft im TaskScheduler
+     */
+    private BufferedImage renderPage(int pageIndex, float dpi, TaskScheduler.CancellationToken token) throws IOException {
+        synchronized (renderLock) {
+            // Während des Wartens auf den Renderer weitergeblättert oder geschlossen
+            token.throwIfCancelled();
+            if (closed) {
+                throw new CancellationException("PDF-Viewer wurde geschlossen");
+            }
+            return pdfRenderer.renderImageWithDPI(pageIndex, dpi);
+        }
+    }
+    
+    /**
+     * Übernimmt eine gerenderte Seite in den Cache und zeigt sie an, wenn sie
+     * noch die aktuelle ist
+     */
+    private void pageRendered(int pageIndex, boolean full, BufferedImage image) {
+        putInCache(cacheKey(pageIndex, full), image);
+        if (pageIndex != currentPage) {
+            return;
+        }
+        if (full) {
+            showImage(image, true);
+            prefetchNeighbours(pageIndex);
+        } else if (!showingFullPage) {
+            showImage(image, false);
+            requestRender(pageIndex, true, TaskScheduler.Priority.INTERACTIVE);
+        }
+    }
+    
+    /**
+     * Berechnet die Nachbarseiten in voller Auflösung vor, die nächste zuerst
+     */
+    private void prefetchNeighbours(int pageIndex) {
+        requestRender(pageIndex + 1, true, TaskScheduler.Priority.BACKGROUND);
+        requestRender(pageIndex - 1, true, TaskScheduler.Priority.BACKGROUND);
+    }
+    
+    /**
+     * Bricht alle Aufträge für Seiten außerhalb des Bereichs ab
+     */
+    private void cancelRendersOutside(int firstPage, int lastPage) {
+        Iterator<Map.Entry<Long, TaskScheduler.TaskHandle<BufferedImage>>> it = pendingRenders.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, TaskScheduler.TaskHandle<BufferedImage>> entry = it.next();
+            int page = (int) (entry.getKey() >> 1);
+            if (page < firstPage || page > lastPage) {
+                entry.getValue().cancel();
+                it.remove();
+            }
+        }
+    }
+    
+    /**
+     * Legt ein Bild in den Cache und verdrängt die am längsten nicht
+     * verwendeten Seiten, bis die Speichergrenze eingehalten ist
+     */
+    private void putInCache(long key, BufferedImage image) {
+        BufferedImage previous = pageCache.put(key, image);
+        if (previous != null) {
+            cacheBytes -= imageBytes(previous);
+        }
+        cacheBytes += imageBytes(image);
+        
+        Iterator<Map.Entry<Long, BufferedImage>> it = pageCache.entrySet().iterator();
+        while (cacheBytes > MAX_CACHE_BYTES && it.hasNext()) {
+            Map.Entry<Long, BufferedImage> entry = it.next();
+            if (entry.getKey() != key) {
+                cacheBytes -= imageBytes(entry.getValue());
+                it.remove();
             }
-        } catch (IOException e) {
-            showError("Fehler beim Anzeigen der Seite: " + e.getMessage());
-            e.printStackTrace();
         }
     }
     
+    private static long cacheKey(int pageIndex, boolean full) {
+        return ((long) pageIndex << 1) | (full ? 1 : 0);
+    }
+    
+    private static long imageBytes(BufferedImage image) {
+        // PDFRenderer liefert TYPE_INT_RGB, 4 Byte je Pixel
+        return 4L * image.getWidth() * image.getHeight();
+    }
+    
+    /**
+     * Zeigt eine Seite an. Die Vorschau wird auf die Größe der vollständigen
+     * Seite hochskaliert, damit sich das Layout beim Verfeinern nicht ändert.
+     */
+    private void showImage(BufferedImage image, boolean full) {
+        imageLabel.setText(null);
+        imageLabel.setIcon(full ? new ImageIcon(image) : new ScaledIcon(image, FULL_DPI / PREVIEW_DPI));
+        showingFullPage = full;
+    }
+    
+    private void showLoading() {
+        imageLabel.setIcon(null);
+        imageLabel.setText("Seite wird geladen ...");
+        imageLabel.setForeground(UIStyle.TEXT_COLOR);
+        showingFullPage = false;
+    }
+    
     /**
      * Aktualisiert den Status der Navigations-Buttons
      */
@@ -258,13 +440,60 @@ public class PDFViewerDialog extends JFrame {
      */
     @Override
     public void dispose() {
-        try {
-            if (document != null) {
-                document.close();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        closed = true;
+        for (TaskScheduler.TaskHandle<BufferedImage> handle : pendingRenders.values()) {
+            handle.cancel();
+        }
+        pendingRenders.clear();
+        pageCache.clear();
+        cacheBytes = 0;
+        
+        if (document != null) {
+            // Eine gerade laufende Seite wird noch fertig gerendert, das
+            // Schließen wartet darauf im Hintergrund statt im EDT
+            PDDocument closingDocument = document;
+            document = null;
+            TaskScheduler.getInstance().submit("PDF schließen: " + pdfFile.getName(),
+                    TaskScheduler.Priority.BACKGROUND, token -> {
+                        synchronized (renderLock) {
+                            closingDocument.close();
+                        }
+                        return null;
+                    });
         }
         super.dispose();
     }
+    
+    /**
+     * Zeichnet ein Bild um einen festen Faktor vergrößert
+     */
+    private static class ScaledIcon implements Icon {
+        private final BufferedImage image;
+        private final int width;
+        private final int height;
+        
+        ScaledIcon(BufferedImage image, float scale) {
+            this.image = image;
+            this.width = Math.round(image.getWidth() * scale);
+            this.height = Math.round(image.getHeight() * scale);
+        }
+        
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.drawImage(image, x, y, width, height, null);
+            g2.dispose();
+        }
+        
+        @Override
+        public int getIconWidth() {
+            return width;
+        }
+        
+        @Override
+        public int getIconHeight() {
+            return height;
+        }
+    }
 }
\ No newline at end of file
@@ -25,34 +25,25 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.category.BarRenderer;
 import org.jfree.data.category.DefaultCategoryDataset;
-import org.jfree.data.time.Day;
-import org.jfree.data.time.Millisecond;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
 
+import charts.ArrayXYDataset;
+import charts.DerivedSeriesCache;
+import charts.DownsampledXYDataset;
 import data.ProviderStats;
 import data.Trade;
 
 public class ChartFactoryUtil {
 
     public ChartPanel createEquityCurveChart(ProviderStats stats) {
-        TimeSeries series = new TimeSeries("Equity");
-        TimeSeriesCollection dataset = new TimeSeriesCollection(series);
-
-        List<Trade> trades = new ArrayList<>(stats.getTrades());
-        trades.sort((t1, t2) -> t1.getCloseTime().compareTo(t2.getCloseTime()));
-
-        double equity = stats.getInitialBalance();
+        // Ein Punkt je Tag mit dem Stand nach dem letzten Trade
+        return createEquityCurveChart(DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.EQUITY_DAILY));
+    }
 
-        for (Trade trade : trades) {
-            if (trade.getCloseTime() != null && !trade.getCloseTime().isAfter(LocalDateTime.now())) {
-                equity += trade.getTotalProfit();
-                series.addOrUpdate(
-                    new Day(Date.from(trade.getCloseTime().atZone(ZoneId.systemDefault()).toInstant())),
-                    equity
-                );
-            }
-        }
+    /**
+     * @param series Täglicher Equity-Verlauf, z.B. aus dem {@link DerivedSeriesCache}
+     */
+    public ChartPanel createEquityCurveChart(ArrayXYDataset.Series series) {
+        DownsampledXYDataset dataset = new DownsampledXYDataset(ArrayXYDataset.of(series));
 
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
             "Equity Curve",
@@ -72,23 +63,35 @@ public class ChartFactoryUtil {
         DateAxis dateAxis = (DateAxis) plot.getDomainAxis();
         dateAxis.setDateFormatOverride(new java.text.SimpleDateFormat("yyyy-MM-dd"));
 
-        return new ChartPanel(chart);
+        ChartPanel chartPanel = new ChartPanel(chart);
+        DownsampledXYDataset.attach(chartPanel);
+        return chartPanel;
     }
 
     public ChartPanel createMonthlyProfitChart(ProviderStats stats) {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        Map<YearMonth, Double> monthlyProfits = stats.getMonthlyProfitPercentages();
+        return createMonthlyProfitChart(createMonthlyProfitDataset(stats));
+    }
 
-        // Sortiere die Monate
-        TreeMap<YearMonth, Double> sortedMap = new TreeMap<>(monthlyProfits);
+    /**
+     * Liefert die Monatsperformance aus dem {@link DerivedSeriesCache}, ohne
+     * Swing-Komponenten zu erzeugen
+     */
+    public DefaultCategoryDataset createMonthlyProfitDataset(ProviderStats stats) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        ArrayXYDataset.Series monthlyProfits = DerivedSeriesCache.getInstance().get(stats, DerivedSeriesCache.Kind.MONTHLY_PROFIT);
         
-        for (Map.Entry<YearMonth, Double> entry : sortedMap.entrySet()) {
-            YearMonth month = entry.getKey();
-            double profitPercentage = entry.getValue();
-            String monthStr = month.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-            dataset.addValue(profitPercentage, "Performance %", monthStr);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
+        for (int i = 0; i < monthlyProfits.size(); i++) {
+            String monthStr = DerivedSeriesCache.monthOf(monthlyProfits.getX(i)).format(formatter);
+            dataset.addValue(monthlyProfits.getY(i), "Performance %", monthStr);
         }
+        return dataset;
+    }
 
+    /**
+     * @param dataset Mit {@link #createMonthlyProfitDataset(ProviderStats)} berechnete Daten
+     */
+    public ChartPanel createMonthlyProfitChart(DefaultCategoryDataset dataset) {
         JFreeChart chart = ChartFactory.createBarChart(
             "Monthly Performance Overview",
             "Month",
@@ -158,6 +161,13 @@ public class ChartFactoryUtil {
         return monthlyProfits;
     }
     public ChartPanel createWeekdayProfitChart(ProviderStats stats) {
+        return createWeekdayProfitChart(createWeekdayProfitDataset(stats));
+    }
+
+    /**
+     * Summiert Gewinne und Verluste je Wochentag, ohne Swing-Komponenten zu erzeugen
+     */
+    public DefaultCategoryDataset createWeekdayProfitDataset(ProviderStats stats) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         List<Trade> trades = stats.getTrades();
         
@@ -179,7 +189,13 @@ public class ChartFactoryUtil {
         for (String weekday : weekdays) {
             dataset.addValue(profitByWeekday.get(weekday), "P/L", weekday);
         }
-        
+        return dataset;
+    }
+
+    /**
+     * @param dataset Mit {@link #createWeekdayProfitDataset(ProviderStats)} berechnete Daten
+     */
+    public ChartPanel createWeekdayProfitChart(DefaultCategoryDataset dataset) {
         JFreeChart chart = ChartFactory.createBarChart(
             "P/L by weekday",
             "Weekday",
@@ -228,31 +244,55 @@ public class ChartFactoryUtil {
         
         return chartPanel;
     }
+    /**
+     * Im Hintergrund berechnete Daten für {@link ChartFactoryUtil#createMartingaleVisualizationChart(MartingaleData)}
+     */
+    public static final class MartingaleData {
+        private final ArrayXYDataset lots;
+        private final Map<String, List<MartingaleAnalyzer.MartingaleSequence>> sequences;
+        private final double score;
+
+        private MartingaleData(ArrayXYDataset lots, Map<String, List<MartingaleAnalyzer.MartingaleSequence>> sequences,
+                double score) {
+            this.lots = lots;
+            this.sequences = sequences;
+            this.score = score;
+        }
+    }
+
     public ChartPanel createMartingaleVisualizationChart(ProviderStats stats) {
+        return createMartingaleVisualizationChart(loadMartingaleData(stats));
+    }
+
+    /**
+     * Sucht Martingale-Sequenzen und sammelt die Lotgrößen, ohne Swing-Komponenten zu erzeugen
+     */
+    public MartingaleData loadMartingaleData(ProviderStats stats) {
         List<Trade> trades = stats.getTrades();
         MartingaleAnalyzer analyzer = new MartingaleAnalyzer(trades);
         Map<String, List<MartingaleAnalyzer.MartingaleSequence>> sequences = analyzer.findMartingaleSequences();
         
-        // Erstelle ein Dataset für die Lotgrößen im Zeitverlauf
-        TimeSeriesCollection dataset = new TimeSeriesCollection();
-        
         // Gruppiere nach Symbol für verschiedene Linien
-        Map<String, TimeSeries> timeSeriesMap = new HashMap<>();
+        Map<String, ArrayXYDataset.SeriesBuilder> timeSeriesMap = new HashMap<>();
         
         for (Trade trade : trades) {
-            String symbol = trade.getSymbol();
-            if (!timeSeriesMap.containsKey(symbol)) {
-                timeSeriesMap.put(symbol, new TimeSeries(symbol));
-            }
-            
-            Date date = Date.from(trade.getOpenTime().atZone(ZoneId.systemDefault()).toInstant());
-            timeSeriesMap.get(symbol).addOrUpdate(new Millisecond(date), trade.getLots());
+            timeSeriesMap.computeIfAbsent(trade.getSymbol(), ArrayXYDataset.SeriesBuilder::new)
+                .add(trade.getOpenTime(), trade.getLots());
         }
         
-        // Füge die Zeitreihen zum Dataset hinzu
-        for (TimeSeries series : timeSeriesMap.values()) {
-            dataset.addSeries(series);
+        // Erstelle ein Dataset für die Lotgrößen im Zeitverlauf
+        List<ArrayXYDataset.Series> seriesList = new ArrayList<>();
+        for (ArrayXYDataset.SeriesBuilder series : timeSeriesMap.values()) {
+            seriesList.add(series.build());
         }
+        return new MartingaleData(ArrayXYDataset.of(seriesList), sequences, analyzer.calculateMartingaleScore());
+    }
+
+    /**
+     * @param data Mit {@link #loadMartingaleData(ProviderStats)} berechnete Daten
+     */
+    public ChartPanel createMartingaleVisualizationChart(MartingaleData data) {
+        DownsampledXYDataset dataset = new DownsampledXYDataset(data.lots);
         
         // Erstelle das Chart
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
@@ -271,7 +311,7 @@ public class ChartFactoryUtil {
         plot.setRangeGridlinePaint(Color.LIGHT_GRAY);
         
         // Füge Marker für identifizierte Martingale-Sequenzen hinzu
-        for (Map.Entry<String, List<MartingaleAnalyzer.MartingaleSequence>> entry : sequences.entrySet()) {
+        for (Map.Entry<String, List<MartingaleAnalyzer.MartingaleSequence>> entry : data.sequences.entrySet()) {
             String symbol = entry.getKey();
             List<MartingaleAnalyzer.MartingaleSequence> symbolSequences = entry.getValue();
             
@@ -303,12 +343,12 @@ public class ChartFactoryUtil {
         }
         
         // Martingale-Score anzeigen
-        double martingaleScore = analyzer.calculateMartingaleScore();
-        chart.setTitle(String.format("Martingale Analysis - Score: %.1f%%", martingaleScore));
+        chart.setTitle(String.format("Martingale Analysis - Score: %.1f%%", data.score));
         
         // Chart Panel erstellen
         ChartPanel chartPanel = new ChartPanel(chart);
         chartPanel.setPreferredSize(new Dimension(1200, 400));
+        DownsampledXYDataset.attach(chartPanel);
         
         return chartPanel;
     }
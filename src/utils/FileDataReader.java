@@ -6,6 +6,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -20,7 +21,8 @@ public class FileDataReader {
     
     public FileDataReader(String downloadPath) {
         this.downloadPath = downloadPath;
-        this.dataCache = new HashMap<>();
+        // Wird auch von Hintergrund-Tasks (z.B. Chart-Aufbau) gelesen und befüllt
+        this.dataCache = new ConcurrentHashMap<>();
         
         // Protokolliere den tatsächlich verwendeten Pfad
         LOGGER.info("FileDataReader initialisiert mit Pfad: " + downloadPath);
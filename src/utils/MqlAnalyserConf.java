@@ -112,4 +112,73 @@ public class MqlAnalyserConf {
         properties.setProperty("SignalId", id);
         saveConfig();
     }
-}
\ No newline at end of file
+    
+    /**
+     * @return Backup-Format: ZIP, GZIP, LZF oder NONE
+     */
+    public String getBackupCompression() {
+        return properties.getProperty("backupCompression", "ZIP");
+    }
+    
+    public void setBackupCompression(String compression) {
+        properties.setProperty("backupCompression", compression);
+        saveConfig();
+    }
+    
+    /**
+     * @return Anzahl Tage, für die jeweils ein Datenbank-Backup aufbewahrt wird
+     */
+    public int getBackupKeepDaily() {
+        return getIntProperty("backupKeepDaily", 7);
+    }
+    
+    public void setBackupKeepDaily(int days) {
+        properties.setProperty("backupKeepDaily", String.valueOf(days));
+        saveConfig();
+    }
+    
+    /**
+     * @return Anzahl Wochen, für die jeweils ein Datenbank-Backup aufbewahrt wird
+     */
+    public int getBackupKeepWeekly() {
+        return getIntProperty("backupKeepWeekly", 4);
+    }
+    
+    public void setBackupKeepWeekly(int weeks) {
+        properties.setProperty("backupKeepWeekly", String.valueOf(weeks));
+        saveConfig();
+    }
+    
+    /**
+     * @return Anzahl Tage, für die Statistikwerte ungekürzt aufbewahrt werden
+     */
+    public int getHistoryRawRetentionDays() {
+        return getIntProperty("historyRawRetentionDays", 365);
+    }
+    
+    public void setHistoryRawRetentionDays(int days) {
+        properties.setProperty("historyRawRetentionDays", String.valueOf(days));
+        saveConfig();
+    }
+    
+    /**
+     * @return Anzahl Tage, für die Wochenwerte aufbewahrt werden; ältere Zeiträume nur als Monatswerte
+     */
+    public int getHistoryWeeklyRetentionDays() {
+        return getIntProperty("historyWeeklyRetentionDays", 3 * 365);
+    }
+    
+    public void setHistoryWeeklyRetentionDays(int days) {
+        properties.setProperty("historyWeeklyRetentionDays", String.valueOf(days));
+        saveConfig();
+    }
+    
+    private int getIntProperty(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid value for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Sammelt Fortschritt, Status und Log-Meldungen eines Hintergrund-Workers.
+ *
+ * Worker dürfen beliebig oft und ohne Sperren melden; nur der jeweils letzte
+ * Wert zählt. Die Oberfläche tastet den Stand mit fester Rate im EDT ab
+ * (standardmäßig alle 50 ms) und bekommt dabei den aktuellen Fortschritt
+ * sowie die seit der letzten Abtastung neuen Log-Zeilen, höchstens aber die
+ * letzten {@code maxLogLines}. So flutet auch eine Schleife über tausende
+ * Provider nicht die Event-Queue.
+ */
+public class ProgressReporter {
+    public static final int DEFAULT_SAMPLE_INTERVAL_MS = 50;
+    public static final int DEFAULT_MAX_LOG_LINES = 200;
+
+    /**
+     * Empfänger der abgetasteten Werte, wird immer im EDT aufgerufen
+     */
+    @FunctionalInterface
+    public interface ProgressView {
+        /**
+         * @param progress Fortschritt in Prozent (0-100)
+         * @param status Aktuelle Statusmeldung oder null
+         * @param newLogLines Seit der letzten Abtastung neue Log-Zeilen (ggf. gekürzt)
+         */
+        void update(int progress, String status, List<String> newLogLines);
+    }
+
+    private final int maxLogLines;
+    private final AtomicInteger progress = new AtomicInteger();
+    private volatile String status;
+    private final ConcurrentLinkedQueue<String> logLines = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedLogLines = new AtomicInteger();
+    private final AtomicLong droppedLogLines = new AtomicLong();
+    // Wird bei jeder Meldung erhöht, damit unveränderte Zustände nicht neu gezeichnet werden
+    private final AtomicLong revision = new AtomicLong();
+
+    private Timer sampler;
+    private ProgressView view;
+    private long renderedRevision = -1;
+
+    public ProgressReporter() {
+        this(DEFAULT_MAX_LOG_LINES);
+    }
+
+    /**
+     * @param maxLogLines Maximale Anzahl Log-Zeilen, die zwischen zwei Abtastungen gepuffert werden
+     */
+    public ProgressReporter(int maxLogLines) {
+        this.maxLogLines = Math.max(1, maxLogLines);
+    }
+
+    /**
+     * Setzt den Fortschritt in Prozent
+     */
+    public void setProgress(int percent) {
+        progress.set(Math.max(0, Math.min(100, percent)));
+        revision.incrementAndGet();
+    }
+
+    /**
+     * Setzt den Fortschritt anhand erledigter und gesamter Einheiten
+     */
+    public void setProgress(int done, int total) {
+        setProgress(total > 0 ? (int) ((long) done * 100 / total) : 0);
+    }
+
+    public int getProgress() {
+        return progress.get();
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+        revision.incrementAndGet();
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Hängt eine Log-Zeile an. Läuft der Puffer über, werden die ältesten
+     * noch nicht angezeigten Zeilen verworfen.
+     */
+    public void log(String line) {
+        logLines.add(line);
+        if (queuedLogLines.incrementAndGet() > maxLogLines) {
+            if (logLines.poll() != null) {
+                queuedLogLines.decrementAndGet();
+                droppedLogLines.incrementAndGet();
+            }
+        }
+        revision.incrementAndGet();
+    }
+
+    /**
+     * @return Anzahl der Log-Zeilen, die wegen Überlauf nie angezeigt wurden
+     */
+    public long getDroppedLogLines() {
+        return droppedLogLines.get();
+    }
+
+    /**
+     * Startet die regelmäßige Abtastung mit dem Standard-Intervall.
+     * Muss im EDT aufgerufen werden.
+     */
+    public void startSampling(ProgressView view) {
+        startSampling(view, DEFAULT_SAMPLE_INTERVAL_MS);
+    }
+
+    /**
+     * Startet die regelmäßige Abtastung. Muss im EDT aufgerufen werden.
+     * @param view Empfänger der Werte
+     * @param intervalMs Abtastintervall in Millisekunden
+     */
+    public void startSampling(ProgressView view, int intervalMs) {
+        stopSampling();
+        this.view = view;
+        renderedRevision = -1;
+        sampler = new Timer(intervalMs, e -> sample());
+        sampler.start();
+        sample();
+    }
+
+    /**
+     * Beendet die Abtastung und überträgt den letzten Stand.
+     * Darf aus jedem Thread aufgerufen werden.
+     */
+    public void stopSampling() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(this::stopSampling);
+            return;
+        }
+        if (sampler != null) {
+            sampler.stop();
+            sampler = null;
+            sample();
+        }
+    }
+
+    private void sample() {
+        long currentRevision = revision.get();
+        if (view == null || currentRevision == renderedRevision) {
+            return;
+        }
+        renderedRevision = currentRevision;
+
+        List<String> newLines = Collections.emptyList();
+        if (!logLines.isEmpty()) {
+            newLines = new ArrayList<>();
+            String line;
+            while ((line = logLines.poll()) != null) {
+                queuedLogLines.decrementAndGet();
+                newLines.add(line);
+            }
+        }
+        view.update(progress.get(), status, newLines);
+    }
+}
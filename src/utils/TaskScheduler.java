@@ -0,0 +1,391 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Zentrale Ausführung von Hintergrundaufgaben mit Prioritäts-Lanes.
+ *
+ * Jede Lane hat einen eigenen, begrenzten Thread-Pool. Aufgaben erhalten ein
+ * CancellationToken, das sie regelmäßig prüfen sollten. Über einen Schlüssel
+ * können Aufgaben sich gegenseitig ablösen: eine neue Filterung bricht die
+ * veraltete ab und startet erst, wenn diese beendet ist.
+ */
+public class TaskScheduler {
+    private static final Logger LOGGER = Logger.getLogger(TaskScheduler.class.getName());
+
+    /**
+     * Prioritäts-Lanes mit Anzahl Threads und Thread-Priorität
+     */
+    public enum Priority {
+        INTERACTIVE("Interaktiv", 2, Thread.NORM_PRIORITY),
+        BACKGROUND("Hintergrund", 2, Thread.NORM_PRIORITY - 1),
+        MAINTENANCE("Wartung", 1, Thread.MIN_PRIORITY);
+
+        private final String displayName;
+        private final int poolSize;
+        private final int threadPriority;
+
+        Priority(String displayName, int poolSize, int threadPriority) {
+            this.displayName = displayName;
+            this.poolSize = poolSize;
+            this.threadPriority = threadPriority;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    public enum TaskState {
+        QUEUED("Wartend"), RUNNING("Läuft"), COMPLETED("Fertig"), CANCELLED("Abgebrochen"), FAILED("Fehler");
+
+        private final String displayName;
+
+        TaskState(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Eine abbrechbare Aufgabe
+     */
+    @FunctionalInterface
+    public interface CancellableTask<T> {
+        T run(CancellationToken token) throws Exception;
+    }
+
+    /**
+     * Kooperatives Abbruchsignal für eine laufende Aufgabe
+     */
+    public static class CancellationToken {
+        private volatile boolean cancelled = false;
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Beendet die Aufgabe mit einer CancellationException, falls sie abgebrochen wurde
+         */
+        public void throwIfCancelled() {
+            if (cancelled) {
+                throw new CancellationException("Aufgabe wurde abgebrochen");
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Verwaltungsobjekt einer eingereichten Aufgabe
+     */
+    public static class TaskHandle<T> {
+        private final long id;
+        private final String name;
+        private final Priority priority;
+        private final String key;
+        private final CancellableTask<T> task;
+        private final CancellationToken token = new CancellationToken();
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        // Abgeschlossen, wenn diese Aufgabe und alle abgelösten Vorgänger beendet sind
+        private CompletableFuture<?> settled = future;
+        private final AtomicReference<TaskState> state = new AtomicReference<>(TaskState.QUEUED);
+        private final long submittedAt = System.currentTimeMillis();
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private TaskScheduler scheduler;
+
+        private TaskHandle(long id, String name, Priority priority, String key, CancellableTask<T> task) {
+            this.id = id;
+            this.name = name;
+            this.priority = priority;
+            this.key = key;
+            this.task = task;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * @return Ablöse-Schlüssel oder null
+         */
+        public String getKey() {
+            return key;
+        }
+
+        public TaskState getState() {
+            return state.get();
+        }
+
+        public boolean isCancelled() {
+            return token.isCancelled();
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        public CompletableFuture<T> getFuture() {
+            return future;
+        }
+
+        /**
+         * @return Wartezeit in der Warteschlange in Millisekunden
+         */
+        public long getQueuedMillis() {
+            long end = startedAt > 0 ? startedAt : (finishedAt > 0 ? finishedAt : System.currentTimeMillis());
+            return end - submittedAt;
+        }
+
+        /**
+         * @return Laufzeit in Millisekunden (0, solange die Aufgabe wartet)
+         */
+        public long getRunningMillis() {
+            if (startedAt == 0) {
+                return 0;
+            }
+            long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+            return end - startedAt;
+        }
+
+        /**
+         * Fordert den Abbruch an. Wartende Aufgaben werden sofort beendet,
+         * laufende beim nächsten Prüfen des Tokens.
+         */
+        public void cancel() {
+            token.cancel();
+            if (state.compareAndSet(TaskState.QUEUED, TaskState.CANCELLED)) {
+                finishedAt = System.currentTimeMillis();
+                future.cancel(false);
+                scheduler.finished(this);
+            }
+        }
+
+        /**
+         * Registriert einen Callback, der nach Abschluss im EDT ausgeführt wird.
+         * Bei Abbruch ist der Fehler eine CancellationException.
+         * @param callback Ergebnis und Fehler (einer von beiden ist null)
+         * @return Dieses Handle
+         */
+        public TaskHandle<T> onCompletionInEdt(BiConsumer<T, Throwable> callback) {
+            future.whenComplete((result, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                SwingUtilities.invokeLater(() -> callback.accept(result, cause));
+            });
+            return this;
+        }
+
+        private void execute() {
+            if (!state.compareAndSet(TaskState.QUEUED, TaskState.RUNNING)) {
+                return; // Bereits abgebrochen
+            }
+            startedAt = System.currentTimeMillis();
+
+            try {
+                token.throwIfCancelled();
+                T result = task.run(token);
+                if (token.isCancelled()) {
+                    complete(TaskState.CANCELLED);
+                    future.cancel(false);
+                } else {
+                    complete(TaskState.COMPLETED);
+                    future.complete(result);
+                }
+            } catch (CancellationException e) {
+                complete(TaskState.CANCELLED);
+                future.cancel(false);
+            } catch (Throwable e) {
+                LOGGER.warning("Aufgabe '" + name + "' fehlgeschlagen: " + e.getMessage());
+                complete(TaskState.FAILED);
+                future.completeExceptionally(e);
+            } finally {
+                scheduler.finished(this);
+            }
+        }
+
+        private void complete(TaskState finalState) {
+            finishedAt = System.currentTimeMillis();
+            state.set(finalState);
+        }
+
+        @Override
+        public String toString() {
+            return name + " [" + priority.getDisplayName() + ", " + getState().getDisplayName() + "]";
+        }
+    }
+
+    private static TaskScheduler instance;
+
+    private final Map<Priority, ExecutorService> lanes = new EnumMap<>(Priority.class);
+    private final Map<Long, TaskHandle<?>> activeTasks = new ConcurrentHashMap<>();
+    private final Map<String, TaskHandle<?>> exclusiveTasks = new HashMap<>();
+    private final AtomicLong taskIds = new AtomicLong();
+
+    public static synchronized TaskScheduler getInstance() {
+        if (instance == null) {
+            instance = new TaskScheduler();
+        }
+        return instance;
+    }
+
+    private TaskScheduler() {
+        for (Priority priority : Priority.values()) {
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                priority.poolSize, priority.poolSize,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "Task-" + priority.getDisplayName() + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(priority.threadPriority);
+                    return thread;
+                });
+            executor.allowCoreThreadTimeOut(true);
+            lanes.put(priority, executor);
+        }
+    }
+
+    /**
+     * Reicht eine Aufgabe in die angegebene Lane ein
+     * @param name Anzeigename der Aufgabe
+     * @param priority Lane
+     * @param task Die Aufgabe
+     * @return Handle zum Abbrechen und Abfragen des Ergebnisses
+     */
+    public <T> TaskHandle<T> submit(String name, Priority priority, CancellableTask<T> task) {
+        TaskHandle<T> handle = createHandle(name, priority, null, task);
+        enqueue(handle);
+        return handle;
+    }
+
+    /**
+     * Reicht eine Aufgabe ein, die eine noch laufende oder wartende Aufgabe mit
+     * demselben Schlüssel ablöst. Die alte Aufgabe wird abgebrochen; die neue
+     * startet erst, wenn die alte beendet ist, damit beide nie gleichzeitig laufen.
+     * @param key Ablöse-Schlüssel, z.B. "table-filter"
+     * @param name Anzeigename der Aufgabe
+     * @param priority Lane
+     * @param task Die Aufgabe
+     * @return Handle der neuen Aufgabe
+     */
+    public <T> TaskHandle<T> submitExclusive(String key, String name, Priority priority, CancellableTask<T> task) {
+        TaskHandle<T> handle = createHandle(name, priority, key, task);
+
+        TaskHandle<?> previous;
+        CompletableFuture<?> previousSettled = null;
+        synchronized (exclusiveTasks) {
+            previous = exclusiveTasks.put(key, handle);
+            if (previous != null && !previous.settled.isDone()) {
+                previousSettled = previous.settled;
+                handle.settled = CompletableFuture.allOf(handle.future, previousSettled);
+            }
+        }
+
+        if (previousSettled != null) {
+            LOGGER.info("Aufgabe '" + previous.getName() + "' wird durch neue Aufgabe abgelöst");
+            previous.cancel();
+            previousSettled.handle((result, error) -> {
+                enqueue(handle);
+                return null;
+            });
+        } else {
+            enqueue(handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Bricht die Aufgabe mit dem angegebenen Schlüssel ab, falls vorhanden
+     * @param key Ablöse-Schlüssel
+     */
+    public void cancel(String key) {
+        TaskHandle<?> handle;
+        synchronized (exclusiveTasks) {
+            handle = exclusiveTasks.get(key);
+        }
+        if (handle != null) {
+            handle.cancel();
+        }
+    }
+
+    /**
+     * @return Momentaufnahme aller wartenden und laufenden Aufgaben, älteste zuerst
+     */
+    public List<TaskHandle<?>> getActiveTasks() {
+        List<TaskHandle<?>> tasks = new ArrayList<>(activeTasks.values());
+        tasks.sort(Comparator.comparingLong(TaskHandle::getId));
+        return tasks;
+    }
+
+    /**
+     * Beendet alle Lanes; laufende Aufgaben werden zum Abbruch aufgefordert
+     */
+    public void shutdown() {
+        for (TaskHandle<?> handle : getActiveTasks()) {
+            handle.cancel();
+        }
+        for (ExecutorService executor : lanes.values()) {
+            executor.shutdown();
+        }
+    }
+
+    private <T> TaskHandle<T> createHandle(String name, Priority priority, String key, CancellableTask<T> task) {
+        TaskHandle<T> handle = new TaskHandle<>(taskIds.incrementAndGet(), name, priority, key, task);
+        handle.scheduler = this;
+        activeTasks.put(handle.getId(), handle);
+        return handle;
+    }
+
+    private void enqueue(TaskHandle<?> handle) {
+        if (handle.getState() != TaskState.QUEUED) {
+            return; // Zwischenzeitlich abgebrochen
+        }
+        lanes.get(handle.getPriority()).execute(handle::execute);
+    }
+
+    private void finished(TaskHandle<?> handle) {
+        activeTasks.remove(handle.getId());
+        if (handle.getKey() != null) {
+            synchronized (exclusiveTasks) {
+                exclusiveTasks.remove(handle.getKey(), handle);
+            }
+        }
+    }
+}
@@ -11,7 +11,6 @@ import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.logging.Logger;
 
-import javax.swing.SwingWorker;
 
 /**
  * Hilfklasse zum Herunterladen und Analysieren von Webseiten
@@ -85,35 +84,27 @@ public class WebsiteAnalyzer {
                 statusCallback.onStatusChanged(WebsiteStatus.LOADING, "Webseite wird heruntergeladen...");
                 
                 // Webseite herunterladen im Hintergrund
-                new SwingWorker<Boolean, Void>() {
-                    @Override
-                    protected Boolean doInBackground() throws Exception {
-                        return downloadWebsite(url, outputFile);
+                TaskScheduler.getInstance().submit(
+                    "Webseite laden: " + filename, TaskScheduler.Priority.BACKGROUND,
+                    token -> downloadWebsite(url, outputFile)
+                ).onCompletionInEdt((success, error) -> {
+                    if (error != null) {
+                        LOGGER.severe("Fehler bei der Webseiten-Analyse: " + error.getMessage());
+                        error.printStackTrace();
+                        statusCallback.onStatusChanged(
+                            WebsiteStatus.ERROR, 
+                            "Fehler: " + error.getMessage()
+                        );
+                    } else if (success) {
+                        // Prüfe die Dateigröße
+                        analyzeFileSize(outputFile, statusCallback);
+                    } else {
+                        statusCallback.onStatusChanged(
+                            WebsiteStatus.ERROR, 
+                            "Download fehlgeschlagen"
+                        );
                     }
-                    
-                    @Override
-                    protected void done() {
-                        try {
-                            boolean success = get();
-                            if (success) {
-                                // Prüfe die Dateigröße
-                                analyzeFileSize(outputFile, statusCallback);
-                            } else {
-                                statusCallback.onStatusChanged(
-                                    WebsiteStatus.ERROR, 
-                                    "Download fehlgeschlagen"
-                                );
-                            }
-                        } catch (Exception e) {
-                            LOGGER.severe("Fehler bei der Webseiten-Analyse: " + e.getMessage());
-                            e.printStackTrace();
-                            statusCallback.onStatusChanged(
-                                WebsiteStatus.ERROR, 
-                                "Fehler: " + e.getMessage()
-                            );
-                        }
-                    }
-                }.execute();
+                });
                 
             } else {
                 // Datei existiert und ist nicht zu alt, prüfe nur die Dateigröße